@@ -0,0 +1,107 @@
+/**
+ * Copyright 2018 Alibaba Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.org.yxj.cpm.android.bindingx.core.internal;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.json.JSONException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The color functions of {@link JSMath}: rgba compiled into a primitive color node and called through
+ * the list based {@link JSFunctionInterface}, and the blending of evaluateColor ({@link Colors}),
+ * with constant colors parsed when it is compiled.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ColorBenchmark {
+
+    @Param({"srgb", "linear"})
+    public String mode;
+
+    private ExpressionScope mScope;
+    private Expression mRgba;
+    private Expression mFade;
+    private JSFunctionInterface mRgbaFunction;
+    private final ArrayList<Object> mRgbaArguments = new ArrayList<>();
+    private int mMode;
+    private double mFraction;
+
+    @Setup
+    public void setUp() {
+        mScope = new ExpressionScope();
+        JSMath.applyToScope(mScope);
+        mScope.setValue(ExpressionScope.SLOT_X, 30);
+        mScope.setValue(ExpressionScope.SLOT_Y, 120);
+        mRgba = Expression.create(ExpressionPair.create("rgba(x, y, 255 - y, x / 30)", null));
+        mFade = Expression.create(ExpressionPair.create("evaluateColor('#ff0000', '#0000ff', y / 200, '" + mode + "')", null));
+        if (mRgba == null || mFade == null || !mFade.isColor()) {
+            throw new IllegalStateException("color expressions do not compile");
+        }
+
+        Map<String, Object> functions = new HashMap<>();
+        JSMath.applyToScope(functions);
+        mRgbaFunction = (JSFunctionInterface) functions.get("rgba");
+        mRgbaArguments.add(30.0);
+        mRgbaArguments.add(120.0);
+        mRgbaArguments.add(135.0);
+        mRgbaArguments.add(1.0);
+
+        mMode = Colors.modeOf(mode);
+    }
+
+    @Benchmark
+    public int rgbaCompiled() throws JSONException {
+        return mRgba.executeColor(mScope);
+    }
+
+    @Benchmark
+    public Object rgbaFunction() throws JSONException {
+        return mRgbaFunction.execute(mRgbaArguments);
+    }
+
+    @Benchmark
+    public int evaluateColorCompiled() throws JSONException {
+        return mFade.executeColor(mScope);
+    }
+
+    @Benchmark
+    public int evaluateColor() {
+        mFraction += 0.01;
+        if (mFraction > 1) {
+            mFraction -= 1;
+        }
+        return Colors.interpolate(0xffff0000, 0xff0000ff, mFraction, mMode);
+    }
+}
@@ -0,0 +1,80 @@
+/**
+ * Copyright 2018 Alibaba Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.org.yxj.cpm.android.bindingx.core.internal;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * cubicBezier(t, b, c, d, x1, y1, x2, y2) of {@link TimingFunctions}: solving a curve that is in the
+ * cache of {@link CubicBezier}, and one that (almost) never is. There is no PathInterpolator based
+ * implementation left to compare with, only the current solver is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CubicBezierBenchmark {
+
+    private JSFunctionN mCubicBezier;
+    private final double[] mArguments = {0, 0, 300, 1000, 0.25, 0.1, 0.25, 1.0};
+    private double mTime;
+
+    @Setup
+    public void setUp() {
+        Map<String, Object> functions = new HashMap<>();
+        TimingFunctions.applyToScope(functions);
+        mCubicBezier = (JSFunctionN) functions.get("cubicBezier");
+    }
+
+    @Benchmark
+    public double cachedCurve() {
+        mArguments[0] = nextTime();
+        return mCubicBezier.call(mArguments, 0, mArguments.length);
+    }
+
+    @Benchmark
+    public double newCurve() {
+        mArguments[0] = nextTime();
+        // cycles through a thousand curves, far more than the cache holds
+        mArguments[5] = mTime / 1000;
+        double value = mCubicBezier.call(mArguments, 0, mArguments.length);
+        mArguments[5] = 0.1;
+        return value;
+    }
+
+    private double nextTime() {
+        mTime += 7;
+        if (mTime > 1000) {
+            mTime -= 1000;
+        }
+        return mTime;
+    }
+}
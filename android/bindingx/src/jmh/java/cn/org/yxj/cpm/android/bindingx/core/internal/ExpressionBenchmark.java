@@ -0,0 +1,146 @@
+/**
+ * Copyright 2018 Alibaba Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.org.yxj.cpm.android.bindingx.core.internal;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static cn.org.yxj.cpm.android.bindingx.core.internal.ExpressionFixtures.binary;
+import static cn.org.yxj.cpm.android.bindingx.core.internal.ExpressionFixtures.call;
+import static cn.org.yxj.cpm.android.bindingx.core.internal.ExpressionFixtures.identifier;
+import static cn.org.yxj.cpm.android.bindingx.core.internal.ExpressionFixtures.node;
+import static cn.org.yxj.cpm.android.bindingx.core.internal.ExpressionFixtures.number;
+
+/**
+ * Evaluation of representative expressions of each event type, and the cost of binding one:
+ * compiling the transformed expression (json abstract syntax tree) or parsing the origin expression.
+ *
+ * executeJsonTree evaluates the same expression with {@link JsonTreeInterpreter}, the json tree
+ * walker the compiled tree replaced, on a plain map scope as it was used before.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpressionBenchmark {
+
+    @Param({"scroll", "timing", "orientation"})
+    public String kind;
+
+    private ExpressionScope mScope;
+    private Expression mExpression;
+    private ExpressionPair mOriginOnly;
+    private ExpressionPair mWithTransformed;
+    private JsonTreeInterpreter mInterpreter;
+    private Map<String, Object> mMapScope;
+
+    @Setup
+    public void setUp() throws JSONException {
+        mScope = new ExpressionScope();
+        JSMath.applyToScope(mScope);
+        TimingFunctions.applyToScope(mScope);
+        mScope.setValue(ExpressionScope.SLOT_X, 30);
+        mScope.setValue(ExpressionScope.SLOT_Y, 120);
+        mScope.setValue(ExpressionScope.SLOT_T, 400);
+        mScope.setValue(ExpressionScope.SLOT_BETA, 30);
+        mScope.setValue(ExpressionScope.SLOT_GAMMA, -15);
+
+        String origin;
+        JSONObject transformed;
+        switch (kind) {
+            case "scroll":
+                origin = "y < 200 ? 0 - y * 0.5 : 0 - 100";
+                transformed = node("?",
+                        binary("<", identifier("y"), number(200)),
+                        binary("-", number(0), binary("*", identifier("y"), number(0.5))),
+                        binary("-", number(0), number(100)));
+                break;
+            case "timing":
+                origin = "easeOutCubic(t, 0, 300, 1000)";
+                transformed = call("easeOutCubic", identifier("t"), number(0), number(300), number(1000));
+                break;
+            default:
+                origin = "gamma * 2 + beta / 3";
+                transformed = binary("+",
+                        binary("*", identifier("gamma"), number(2)),
+                        binary("/", identifier("beta"), number(3)));
+                break;
+        }
+        mInterpreter = new JsonTreeInterpreter(new JSONObject(transformed.toString()));
+        mMapScope = new HashMap<>();
+        JSMath.applyToScope(mMapScope);
+        TimingFunctions.applyToScope(mMapScope);
+        mMapScope.put("x", 30.0);
+        mMapScope.put("y", 120.0);
+        mMapScope.put("t", 400.0);
+        mMapScope.put("beta", 30.0);
+        mMapScope.put("gamma", -15.0);
+
+        mOriginOnly = ExpressionPair.create(origin, null);
+        mWithTransformed = ExpressionPair.create(origin, transformed.toString());
+        mExpression = Expression.create(mOriginOnly);
+        // otherwise the bind benchmarks would time the failure path
+        if (mExpression == null || Expression.create(mWithTransformed) == null) {
+            throw new IllegalStateException("expression of " + kind + " does not compile");
+        }
+        Object expected = mInterpreter.execute(mMapScope);
+        if (!expected.equals(mExpression.execute(mScope))) {
+            throw new IllegalStateException("expression of " + kind + " does not evaluate to " + expected);
+        }
+    }
+
+    @Benchmark
+    public Object execute() throws JSONException {
+        return mExpression.execute(mScope);
+    }
+
+    @Benchmark
+    public Object executeJsonTree() throws JSONException {
+        return mInterpreter.execute(mMapScope);
+    }
+
+    @Benchmark
+    public double executeNumber() throws JSONException {
+        return mExpression.executeNumber(mScope);
+    }
+
+    @Benchmark
+    public Expression bindWithTransformed() {
+        return Expression.create(mWithTransformed);
+    }
+
+    @Benchmark
+    public Expression bindOriginOnly() {
+        return Expression.create(mOriginOnly);
+    }
+}
@@ -0,0 +1,74 @@
+/**
+ * Copyright 2018 Alibaba Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.org.yxj.cpm.android.bindingx.core.internal;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing the params of a bind call as they come from js: the json params into maps, then
+ * {@link Utils#getRuntimeProps} and the expression of each prop.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RuntimePropsBenchmark {
+
+    private static final String PARAMS = "{"
+            + "\"eventType\":\"scroll\","
+            + "\"anchor\":\"scroller\","
+            + "\"props\":["
+            + "{\"element\":\"header\",\"property\":\"transform.translateY\","
+            + "\"expression\":{\"origin\":\"y < 200 ? 0 - y * 0.5 : 0 - 100\"}},"
+            + "{\"element\":\"header\",\"property\":\"opacity\","
+            + "\"expression\":{\"origin\":\"interpolate(y, [0, 200], [1, 0], 'clamp')\"}},"
+            + "{\"element\":\"title\",\"property\":\"color\","
+            + "\"expression\":{\"origin\":\"evaluateColor('#ffffff', '#333333', min(y, 200) / 200)\"}},"
+            + "{\"element\":\"avatar\",\"property\":\"transform.scale\","
+            + "\"expression\":\"max(0.5, 1 - y / 400)\","
+            + "\"config\":{\"transformOrigin\":\"center top\",\"epsilon\":0.001}}"
+            + "]}";
+
+    @Benchmark
+    public int parse() throws JSONException {
+        Map<String, Object> params = Utils.toMap(new JSONObject(PARAMS));
+        List<Map<String, Object>> props = Utils.getRuntimeProps(params);
+        int count = 0;
+        for (Map<String, Object> prop : props) {
+            if (Utils.getExpressionPair(prop, BindingXConstants.KEY_EXPRESSION) != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
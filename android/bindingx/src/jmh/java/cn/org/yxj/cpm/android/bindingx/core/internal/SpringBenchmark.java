@@ -0,0 +1,84 @@
+/**
+ * Copyright 2018 Alibaba Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.org.yxj.cpm.android.bindingx.core.internal;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link SpringAnimationDriver}: one step, and a whole spring from start to rest at 60fps.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpringBenchmark {
+
+    // frame interval at 60fps
+    private static final long FRAME_NANOS = 16666667L;
+    // stops a spring that does not come to rest
+    private static final int MAX_FRAMES = 1000;
+
+    private final SpringAnimationDriver mDriver = new SpringAnimationDriver();
+    private final Map<String, Object> mConfig = new HashMap<>();
+    private long mFrameTime;
+
+    @Setup
+    public void setUp() {
+        mConfig.put("stiffness", 120.0);
+        mConfig.put("damping", 12.0);
+        mConfig.put("mass", 1.0);
+        mConfig.put("fromValue", 0.0);
+        mConfig.put("toValue", 300.0);
+        mDriver.onAnimationStart(mConfig);
+    }
+
+    @Benchmark
+    public double step() {
+        if (mDriver.hasFinished()) {
+            mDriver.onAnimationStart(mConfig);
+        }
+        mFrameTime += FRAME_NANOS;
+        mDriver.runAnimationStep(mFrameTime);
+        return mDriver.getCurrentValue();
+    }
+
+    @Benchmark
+    public int settle() {
+        mDriver.onAnimationStart(mConfig);
+        int frames = 0;
+        do {
+            mFrameTime += FRAME_NANOS;
+            mDriver.runAnimationStep(mFrameTime);
+            frames++;
+        } while (!mDriver.hasFinished() && frames < MAX_FRAMES);
+        return frames;
+    }
+}
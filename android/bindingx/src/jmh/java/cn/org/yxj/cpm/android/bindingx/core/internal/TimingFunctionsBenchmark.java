@@ -0,0 +1,76 @@
+/**
+ * Copyright 2018 Alibaba Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.org.yxj.cpm.android.bindingx.core.internal;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The easings of {@link TimingFunctions}, computed and from lookup tables ({@link EasingLookupTables}).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimingFunctionsBenchmark {
+
+    @Param({"linear", "easeOutCubic", "easeInOutSine", "easeInOutElastic", "easeOutBounce"})
+    public String easing;
+
+    // EasingLookupTables resolution, 0 is off
+    @Param({"0", "1024"})
+    public int lookupTable;
+
+    private JSFunction4 mEasing;
+    private double mTime;
+
+    @Setup
+    public void setUp() {
+        EasingLookupTables.setResolution(lookupTable);
+        Map<String, Object> functions = new HashMap<>();
+        TimingFunctions.applyToScope(functions);
+        mEasing = (JSFunction4) functions.get(easing);
+    }
+
+    @Benchmark
+    public double easing() {
+        return mEasing.call(nextTime(), 0, 300, 1000);
+    }
+
+    // walks through the duration, so that all the branches of the easings are taken
+    private double nextTime() {
+        mTime += 7;
+        if (mTime > 1000) {
+            mTime -= 1000;
+        }
+        return mTime;
+    }
+}
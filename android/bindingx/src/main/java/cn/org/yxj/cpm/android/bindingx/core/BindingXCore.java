@@ -21,6 +21,7 @@ import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
 import android.text.TextUtils;
 
+import cn.org.yxj.cpm.android.bindingx.core.internal.AbstractEventHandler;
 import cn.org.yxj.cpm.android.bindingx.core.internal.BindingXConstants;
 import cn.org.yxj.cpm.android.bindingx.core.internal.BindingXOrientationHandler;
 import cn.org.yxj.cpm.android.bindingx.core.internal.BindingXPinchHandler;
@@ -33,6 +34,7 @@ import cn.org.yxj.cpm.android.bindingx.core.internal.Utils;
 
 import org.json.JSONObject;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -333,6 +335,42 @@ public class BindingXCore {
         return token;
     }
 
+    /**
+     * stats of the expressions bound with the 'profile' option under the token.
+     *
+     * @param token the token returned by bind
+     * @return {token, expressions: [{element, property, eventType, evaluations, evaluationTime, maxEvaluationTime,
+     * updates, updateTime, maxUpdateTime, skipped}], latency: [{eventType, evaluateOnWorker, samples, commits,
+     * latency, maxLatency}]}, times in milliseconds. expressions and latency are empty if the
+     * token is unknown, has been unbound or has not been profiled.
+     * */
+    @NonNull
+    public Map<String, Object> getStats(@Nullable String token) {
+        List<Map<String, Object>> expressions = new ArrayList<>();
+        List<Map<String, Object>> latency = new ArrayList<>(2);
+        Map<String/*eventType*/, IEventHandler> handlerMap;
+        if (!TextUtils.isEmpty(token) && mBindingCouples != null && (handlerMap = mBindingCouples.get(token)) != null) {
+            for (IEventHandler handler : handlerMap.values()) {
+                if (!(handler instanceof AbstractEventHandler)) {
+                    continue;
+                }
+                List<Map<String, Object>> stats = ((AbstractEventHandler) handler).getStats();
+                if (stats != null) {
+                    expressions.addAll(stats);
+                }
+                Map<String, Object> handlerLatency = ((AbstractEventHandler) handler).getLatencyStats();
+                if (handlerLatency != null) {
+                    latency.add(handlerLatency);
+                }
+            }
+        }
+        Map<String, Object> result = new HashMap<>(4);
+        result.put(BindingXConstants.KEY_TOKEN, token);
+        result.put(BindingXConstants.KEY_EXPRESSIONS, expressions);
+        result.put(BindingXConstants.KEY_LATENCY, latency);
+        return result;
+    }
+
     public void onActivityPause() {
         if (mBindingCouples == null) {
             return;
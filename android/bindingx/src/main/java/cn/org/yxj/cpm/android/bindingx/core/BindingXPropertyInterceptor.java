@@ -61,6 +61,10 @@ public class BindingXPropertyInterceptor {
         return false;
     }
 
+    public boolean hasInterceptors() {
+        return !mPropertyInterceptors.isEmpty();
+    }
+
     public void clear() {
         mPropertyInterceptors.clear();
     }
@@ -91,6 +91,43 @@ public class PlatformManager {
                                                Object... extension);
     }
 
+    /**
+     * Optional interface of an {@link IViewUpdater} which takes colors as packed argb ints, so
+     * that color animations do not box a value per frame. Properties whose expression results
+     * in a color are handed to it instead of {@link IViewUpdater#synchronouslyUpdateViewOnUIThread}.
+     * */
+    public interface IColorViewUpdater {
+
+        /**
+         * @param color the packed argb color the property will changed to
+         * @see IViewUpdater#synchronouslyUpdateViewOnUIThread
+         * */
+        void synchronouslyUpdateViewColorOnUIThread(@NonNull View targetView,
+                                                    @NonNull String propertyName,
+                                                    int color,
+                                                    @NonNull IDeviceResolutionTranslator translator,
+                                                    @NonNull Map<String, Object> config,
+                                                    Object... extension);
+    }
+
+    /**
+     * Optional interface of an {@link IViewUpdater} which resolves the updater of a property once,
+     * when the expression is bound, instead of looking it up on every update. The result type of
+     * the expression is inferred at the same time, so the updater can be chosen for it.
+     * */
+    public interface IViewUpdaterResolver {
+
+        /**
+         * @param propertyName the property that will be changed by the expression
+         * @param resultType inferred result type of the expression, see {@link cn.org.yxj.cpm.android.bindingx.core.internal.ExpressionType}
+         * @return the updater of the property. If it also is an {@link IColorViewUpdater}, color results
+         * are handed to it as packed ints.
+         * @throws IllegalArgumentException if the property can not take results of that type, the
+         * expression is rejected then.
+         * */
+        @NonNull
+        IViewUpdater resolveViewUpdater(@NonNull String propertyName, int resultType) throws IllegalArgumentException;
+    }
 
 
     /**A helper class to create {@link PlatformManager} */
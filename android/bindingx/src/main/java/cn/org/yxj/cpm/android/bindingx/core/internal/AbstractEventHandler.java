@@ -16,6 +16,8 @@
 package cn.org.yxj.cpm.android.bindingx.core.internal;
 
 import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
 import androidx.annotation.CallSuper;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -32,15 +34,16 @@ import cn.org.yxj.cpm.android.bindingx.core.PlatformManager;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedHashMap;
-import java.util.LinkedList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Description:
@@ -57,7 +60,10 @@ public abstract class AbstractEventHandler implements IEventHandler {
     protected volatile Map<String/*targetRef*/, List<ExpressionHolder>> mExpressionHoldersMap;
     protected volatile Map<String/*interceptorName*/, ExpressionPair> mInterceptorsMap;
     protected BindingXCore.JavaScriptCallback mCallback;
-    protected final Map<String, Object> mScope = new ConcurrentHashMap<>();
+    // the scope the expressions are evaluated in, variables are written into its slots
+    private final ExpressionScope mExpressionScope = new ExpressionScope();
+    // the same scope, as the map of variables and functions subclasses have always been given
+    protected final Map<String, Object> mScope = mExpressionScope;
     protected String mInstanceId;
     protected String mAnchorInstanceId;
     protected String mToken;
@@ -65,11 +71,39 @@ public abstract class AbstractEventHandler implements IEventHandler {
     protected PlatformManager mPlatformManager;
 
     protected volatile ExpressionPair mExitExpressionPair;
+    // compiled mExitExpressionPair
+    private volatile Expression mExitExpression;
+    // compiled mInterceptorsMap
+    private volatile Map<String/*interceptorName*/, Expression> mInterceptorExpressions;
+    // expressions this handler has asked to be compiled (or looked up in the cache)
+    private final AtomicLong mCompileCount = new AtomicLong();
     protected Object[] mExtensionParams;
 
-    private Cache<String, Expression> mCachedExpressionMap = new Cache<>(16);
     protected Map<String,Object> mOriginParams;
 
+    // updates that have been dropped because the result did not change, counted where results are applied
+    private final AtomicLong mSuppressedUpdateCount = new AtomicLong();
+    // expressions that have actually been executed, skipped and rejected ones are not counted.
+    // counted where expressions are evaluated, which is the worker for 'evaluateOnWorker' bindings
+    private final AtomicLong mEvaluationCount = new AtomicLong();
+    // true if the binding asked for its expressions to be profiled, see getStats()
+    private boolean mProfiling;
+    // holders of a profiled binding, published once they are bound and never modified. getStats()
+    // reads this instead of mExpressionHoldersMap, which the binding thread may rebuild meanwhile
+    private volatile List<ExpressionHolder> mProfiledHolders;
+
+    // output buffer of consumeExpression, rebuilt when holders are bound
+    private ExpressionFrame mFrame;
+    // bumped whenever holders are added to mExpressionHoldersMap
+    private int mHoldersVersion;
+
+    // input latency of a profiled binding, null otherwise
+    private LatencyStats mLatency;
+    // ui thread, bindings evaluated in place record their commits on it. Created when first needed
+    private Handler mUIHandler;
+    // evaluates the expressions off the ui thread if the binding asked for it, null otherwise
+    private volatile WorkerPipeline mPipeline;
+
     public AbstractEventHandler(Context context, PlatformManager manager, Object... extension) {
         mContext = context;
         mPlatformManager = manager;
@@ -102,37 +136,177 @@ public abstract class AbstractEventHandler implements IEventHandler {
                                  @NonNull List<Map<String, Object>> expressionArgs,
                                  @Nullable BindingXCore.JavaScriptCallback callback) {
         clearExpressions();
-        transformArgs(eventType, expressionArgs);
+        mProfiling = Utils.getBooleanValue(globalConfig, BindingXConstants.KEY_PROFILE);
+        List<Map<String, Object>> rejected = transformArgs(eventType, expressionArgs);
         this.mCallback = callback;
         this.mExitExpressionPair = exitExpressionPair;
+        this.mExitExpression = compileExpression(exitExpressionPair);
 
-        if(!mScope.isEmpty()) {
-            mScope.clear();
+        if(!mExpressionScope.isEmpty()) {
+            mExpressionScope.clear();
+        }
+        applyFunctionsToScope(mExpressionScope);
+        optimizeExpressions();
+        mProfiledHolders = mProfiling ? profiledHoldersOf(mExpressionHoldersMap) : null;
+        mLatency = mProfiling ? new LatencyStats(eventType) : null;
+        if(Utils.getBooleanValue(globalConfig, BindingXConstants.KEY_EVALUATE_ON_WORKER) && canEvaluateOnWorker()) {
+            startWorkerPipeline();
         }
-        applyFunctionsToScope();
+        reportRejectedExpressions(rejected);
     }
 
     @Override
     @CallSuper
     public void onDestroy() {
-        mCachedExpressionMap.clear();
+        // compiled expressions are shared by all handlers, ExpressionCache is intentionally kept
         BindingXPropertyInterceptor.getInstance().clearCallbacks();
     }
 
-    private void applyFunctionsToScope() {
-        JSMath.applyToScope(mScope);
-        TimingFunctions.applyToScope(mScope);
+    /**
+     * @return the scope the event values are written into, same object as {@link #mScope}
+     * */
+    @NonNull
+    final ExpressionScope getExpressionScope() {
+        return mExpressionScope;
+    }
+
+    private static void applyFunctionsToScope(@NonNull ExpressionScope scope) {
+        JSMath.applyToScope(scope);
+        TimingFunctions.applyToScope(scope);
         // register custom js functions
         Map<String,JSFunctionInterface> customFunctions = BindingXJSFunctionRegister.getInstance().getJSFunctions();
         if(customFunctions != null && !customFunctions.isEmpty()) {
-            mScope.putAll(customFunctions);
+            scope.putAll(customFunctions);
+        }
+    }
+
+    /**
+     * @return false if the handler already consumes its expressions once per vsync, evaluating
+     * them on the worker would only show the results a frame later.
+     * */
+    protected boolean canEvaluateOnWorker() {
+        return true;
+    }
+
+    /**
+     * @return true if the expressions are evaluated on the worker thread, see {@link WorkerPipeline}.
+     * {@link #consumeExpression} then only hands the variables over and may be called on any thread.
+     * */
+    protected boolean isEvaluatingOnWorker() {
+        WorkerPipeline pipeline = mPipeline;
+        return pipeline != null && !pipeline.isClosed();
+    }
+
+    /**
+     * @return the thread the pipeline evaluates on
+     * */
+    /*package*/ Executor getWorkerExecutor() {
+        return WorkerPipeline.getWorker();
+    }
+
+    /**
+     * @return the frame the pipeline commits its results from
+     * */
+    /*package*/ AnimationFrame newCommitFrame() {
+        return AnimationFrame.newInstance();
+    }
+
+    private void startWorkerPipeline() {
+        Map<String, List<ExpressionHolder>> holdersMap = mExpressionHoldersMap;
+        if(holdersMap == null || holdersMap.isEmpty()) {
+            return;
+        }
+        // the worker gets a scope of its own, the one of the handler is written by the event thread
+        ExpressionScope scope = new ExpressionScope();
+        applyFunctionsToScope(scope);
+        scope.resetMemo(mExpressionScope.getMemoSize());
+        mPipeline = new WorkerPipeline(new WorkerPipeline.Evaluator() {
+            @Override
+            public void evaluate(@NonNull ExpressionFrame frame, @NonNull ExpressionScope scope, @NonNull String eventType) {
+                evaluateOnWorker(frame, scope, eventType);
+            }
+
+            @Override
+            public void apply(@NonNull ExpressionFrame frame) {
+                applyCommitted(frame);
+            }
+        }, ExpressionFrame.of(holdersMap, mHoldersVersion), scope, getWorkerExecutor(), newCommitFrame(), mLatency);
+    }
+
+    @NonNull
+    private static List<ExpressionHolder> profiledHoldersOf(@Nullable Map<String, List<ExpressionHolder>> holdersMap) {
+        if(holdersMap == null || holdersMap.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<ExpressionHolder> profiled = new ArrayList<>();
+        for(List<ExpressionHolder> holders : holdersMap.values()) {
+            for(ExpressionHolder holder : holders) {
+                if(holder.stats != null) {
+                    profiled.add(holder);
+                }
+            }
+        }
+        return Collections.unmodifiableList(profiled);
+    }
+
+    /**
+     * fold constants and share common sub-expressions across all the expressions of this binding.
+     * Each holder gets its own optimized copy, the cached compiled expressions stay untouched.
+     * */
+    private void optimizeExpressions() {
+        Map<String, List<ExpressionHolder>> holdersMap = mExpressionHoldersMap;
+        if(holdersMap == null || holdersMap.isEmpty()) {
+            mExpressionScope.resetMemo(0);
+            return;
+        }
+        Map<String,JSFunctionInterface> customFunctions = BindingXJSFunctionRegister.getInstance().getJSFunctions();
+        ExpressionOptimizer optimizer = new ExpressionOptimizer(customFunctions == null ?
+                Collections.<String>emptySet() : new HashSet<>(customFunctions.keySet()));
+
+        List<ExpressionHolder> holders = new ArrayList<>();
+        List<ExpressionNode> roots = new ArrayList<>();
+        for(List<ExpressionHolder> holderList : holdersMap.values()) {
+            for(ExpressionHolder holder : holderList) {
+                if(holder.expression == null || holder.expression.getRoot() == null) {
+                    continue;
+                }
+                ExpressionNode root = optimizer.fold(holder.expression.getRoot());
+                optimizer.count(root);
+                holders.add(holder);
+                roots.add(root);
+            }
+        }
+        for(int i = 0, size = holders.size(); i < size; i++) {
+            ExpressionNode root = optimizer.share(roots.get(i));
+            ExpressionHolder holder = holders.get(i);
+            holder.expression = new Expression(root);
+            holder.dependencies = optimizer.dependenciesOf(root);
+            if(root.isNumeric()) {
+                holder.resultKind = ExpressionFrame.KIND_NUMBER;
+            } else if(root.isColor()) {
+                holder.resultKind = ExpressionFrame.KIND_COLOR;
+            } else {
+                holder.resultKind = ExpressionFrame.KIND_OBJECT;
+            }
         }
+        mExpressionScope.resetMemo(optimizer.getSharedCount());
     }
 
-    private void transformArgs(@NonNull String eventType, @NonNull List<Map<String, Object>> originalArgs) {
+    /**
+     * compile and validate the expressions. Invalid expressions are logged and left out.
+     *
+     * @return errors of the expressions that have been rejected, empty if all are valid
+     * */
+    @NonNull
+    private List<Map<String, Object>> transformArgs(@NonNull String eventType, @NonNull List<Map<String, Object>> originalArgs) {
         if (mExpressionHoldersMap == null) {
             mExpressionHoldersMap = new HashMap<>();
         }
+        mHoldersVersion++;
+        Map<String,JSFunctionInterface> customFunctions = BindingXJSFunctionRegister.getInstance().getJSFunctions();
+        ExpressionValidator validator = new ExpressionValidator(customFunctions == null ?
+                Collections.<String>emptySet() : new HashSet<>(customFunctions.keySet()));
+        List<Map<String, Object>> rejected = Collections.emptyList();
         for (Map<String, Object> arg : originalArgs) {
             String targetRef = Utils.getStringValue(arg, BindingXConstants.KEY_ELEMENT);
             String targetInstanceId = Utils.getStringValue(arg, BindingXConstants.KEY_INSTANCE_ID);
@@ -155,6 +329,24 @@ public abstract class AbstractEventHandler implements IEventHandler {
                 continue;
             }
             ExpressionHolder holder = new ExpressionHolder(targetRef,targetInstanceId, expressionPair, property, eventType, configMap);
+            holder.expression = compileExpression(expressionPair);
+            if(mProfiling) {
+                holder.stats = new ExpressionStats();
+            }
+            try {
+                if(holder.expression == null) {
+                    throw new IllegalArgumentException("expression is illegal");
+                }
+                holder.resultType = validator.validate(holder.expression);
+                resolveViewUpdater(holder);
+            } catch (IllegalArgumentException e) {
+                LogProxy.e("reject binding [" + targetRef + "," + property + "," + expressionPair + "]: " + e.getMessage());
+                if(rejected.isEmpty()) {
+                    rejected = new ArrayList<>(4);
+                }
+                rejected.add(rejectionOf(holder, e.getMessage()));
+                continue;
+            }
 
             List<ExpressionHolder> holders = mExpressionHoldersMap.get(targetRef);
             if (holders == null) {
@@ -165,6 +357,56 @@ public abstract class AbstractEventHandler implements IEventHandler {
                 holders.add(holder);
             }
         }
+        return rejected;
+    }
+
+    /**
+     * pick the updater of the holder's property for its result type, once.
+     *
+     * @throws IllegalArgumentException if the property does not take the result type
+     * */
+    private void resolveViewUpdater(@NonNull ExpressionHolder holder) throws IllegalArgumentException {
+        PlatformManager.IViewUpdater viewUpdater = mPlatformManager.getViewUpdater();
+        if(viewUpdater instanceof PlatformManager.IViewUpdaterResolver) {
+            viewUpdater = ((PlatformManager.IViewUpdaterResolver) viewUpdater).resolveViewUpdater(holder.prop, holder.resultType);
+        }
+        holder.viewUpdater = viewUpdater;
+        holder.colorUpdater = viewUpdater instanceof PlatformManager.IColorViewUpdater ?
+                (PlatformManager.IColorViewUpdater) viewUpdater : null;
+    }
+
+    @NonNull
+    private static Map<String, Object> rejectionOf(@NonNull ExpressionHolder holder, @Nullable String message) {
+        Map<String, Object> error = new HashMap<>(8);
+        error.put(BindingXConstants.KEY_ELEMENT, holder.targetRef);
+        error.put(BindingXConstants.KEY_PROPERTY, holder.prop);
+        ExpressionPair pair = holder.expressionPair;
+        error.put(BindingXConstants.KEY_EXPRESSION, pair.origin != null ? pair.origin : pair.transformed);
+        error.put(BindingXConstants.KEY_MESSAGE, message);
+        return error;
+    }
+
+    /**
+     * tell js which expressions have been rejected, once, when they are bound.
+     * */
+    private void reportRejectedExpressions(@NonNull List<Map<String, Object>> rejected) {
+        if(rejected.isEmpty() || mCallback == null) {
+            return;
+        }
+        Map<String, Object> param = new HashMap<>(4);
+        param.put("state", BindingXConstants.STATE_ERROR);
+        param.put(BindingXConstants.KEY_TOKEN, mToken);
+        param.put(BindingXConstants.KEY_ERRORS, rejected);
+        mCallback.callback(param);
+    }
+
+    @Nullable
+    private Expression compileExpression(@Nullable ExpressionPair expressionPair) {
+        if(!ExpressionPair.isValid(expressionPair)) {
+            return null;
+        }
+        mCompileCount.incrementAndGet();
+        return ExpressionCache.getInstance().get(expressionPair);
     }
 
     /**
@@ -178,8 +420,8 @@ public abstract class AbstractEventHandler implements IEventHandler {
      * */
     protected boolean evaluateExitExpression(ExpressionPair exitExpression, @NonNull Map<String,Object> scope) {
         boolean exit = false;
-        if (ExpressionPair.isValid(exitExpression)) {
-            Expression expression = new Expression(exitExpression.transformed);
+        Expression expression = exitExpression == mExitExpressionPair ? mExitExpression : compileExpression(exitExpression);
+        if (expression != null) {
             try {
                 exit = (boolean) expression.execute(scope);
             } catch (Exception e) {
@@ -202,6 +444,17 @@ public abstract class AbstractEventHandler implements IEventHandler {
 
     @Override
     public void setInterceptors(@Nullable Map<String, ExpressionPair> params) {
+        Map<String, Expression> expressions = null;
+        if(params != null && !params.isEmpty()) {
+            expressions = new HashMap<>(params.size());
+            for(Map.Entry<String, ExpressionPair> entry : params.entrySet()) {
+                Expression expression = compileExpression(entry.getValue());
+                if(expression != null) {
+                    expressions.put(entry.getKey(), expression);
+                }
+            }
+        }
+        this.mInterceptorExpressions = expressions;
         this.mInterceptorsMap = params;
     }
 
@@ -210,7 +463,18 @@ public abstract class AbstractEventHandler implements IEventHandler {
         if(!ExpressionPair.isValid(condition)) {
             return;
         }
-        Expression expression = new Expression(condition.transformed);
+        Map<String, ExpressionPair> interceptors = mInterceptorsMap;
+        Map<String, Expression> expressions = mInterceptorExpressions;
+        Expression expression = null;
+        if(interceptors != null && expressions != null && interceptors.get(interceptorName) == condition) {
+            expression = expressions.get(interceptorName);
+        }
+        if(expression == null) {
+            expression = compileExpression(condition);
+        }
+        if(expression == null) {
+            return;
+        }
         boolean shouldIntercept = false;
         try {
             shouldIntercept = (boolean) expression.execute(scope);
@@ -238,6 +502,10 @@ public abstract class AbstractEventHandler implements IEventHandler {
     /**
      * consume all the expressions that bind before.
      *
+     * The frame is processed in two phases: all the expressions of the current event type are
+     * evaluated into the {@link ExpressionFrame} buffer first, then the buffer is applied to the views
+     * in one pass. If an expression throws, the results evaluated before it are still applied.
+     *
      * @param args an list which holds an array of {@link ExpressionHolder}
      * @param scope variables which has been assigned
      * @param currentType current event type
@@ -259,74 +527,420 @@ public abstract class AbstractEventHandler implements IEventHandler {
         if(LogProxy.sEnableLog) {
             LogProxy.d(String.format(Locale.getDefault(), "consume expression with %d tasks. event type is %s",args.size(),currentType));
         }
-        List<Object> extension = new LinkedList<>();
-        for (List<ExpressionHolder> holderList : args.values()) {
-            for (ExpressionHolder holder : holderList) {
-                if (!currentType.equals(holder.eventType)) {
-                    LogProxy.d("skip expression with wrong event type.[expected:" + currentType + ",found:" + holder.eventType + "]");
-                    continue;
-                }
-                extension.clear();
-                if(mExtensionParams != null && mExtensionParams.length > 0) {
-                    Collections.addAll(extension, mExtensionParams);
-                }
+        // variables changed since the last time expressions have been consumed
+        ExpressionScope expressionScope = scope instanceof ExpressionScope ? (ExpressionScope) scope : null;
+        WorkerPipeline pipeline = mPipeline;
+        if (pipeline != null && !pipeline.isClosed() && expressionScope != null && args == mExpressionHoldersMap) {
+            pipeline.post(expressionScope, currentType);
+            expressionScope.clearChanged();
+            return;
+        }
 
-                String instanceId = TextUtils.isEmpty(holder.targetInstanceId)? mInstanceId : holder.targetInstanceId;
-                if(!TextUtils.isEmpty(instanceId)) {
-                    extension.add(instanceId);
-                }
+        ExpressionFrame frame = mFrame;
+        if(frame == null || !frame.isFrameOf(args, mHoldersVersion)) {
+            frame = ExpressionFrame.of(args, mHoldersVersion);
+            mFrame = frame;
+        }
+        int changed = expressionScope != null ? expressionScope.getChanged() : ExpressionScope.DEPENDS_ON_ALL;
 
-                ExpressionPair expressionPair = holder.expressionPair;
-                if(!ExpressionPair.isValid(expressionPair)) {
-                    continue;
-                }
-                Expression expression = mCachedExpressionMap.get(expressionPair.transformed);
-                if (expression == null) {
-                    expression = new Expression(expressionPair.transformed);
-                    mCachedExpressionMap.put(expressionPair.transformed, expression);
-                }
+        LatencyStats latency = mLatency;
+        long start = 0;
+        if (latency != null) {
+            latency.recordSample();
+            start = System.nanoTime();
+        }
+        int evaluated = 0;
+        try {
+            for (int size = frame.size(); evaluated < size; evaluated++) {
+                evaluate(frame, evaluated, scope, currentType, changed);
+            }
+        } finally {
+            apply(frame, evaluated);
+            if (latency != null) {
+                recordInPlaceCommit(latency, start);
+            }
+        }
 
-                Object obj = expression.execute(scope);
-                if (obj == null) {
-                    LogProxy.e("failed to execute expression,expression result is null");
-                    continue;
-                }
-                if((obj instanceof Double) && Double.isNaN((Double) obj) ||
-                        (obj instanceof Float && Float.isNaN((Float)obj))) {
-                    LogProxy.e("failed to execute expression,expression result is NaN");
-                    continue;
-                }
-                //apply transformation/layout change ... to target view.
+        if (expressionScope != null) {
+            expressionScope.clearChanged();
+        }
+
+    }
 
-                View targetView = mPlatformManager.getViewFinder().findViewBy(holder.targetRef, extension.toArray());
+    /**
+     * the commit of a binding evaluated in place. Views updated off the ui thread are updated by
+     * a message posted to it, the commit is recorded once the ui thread has got past that message.
+     * */
+    private void recordInPlaceCommit(@NonNull final LatencyStats latency, final long sampleNanos) {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            latency.recordCommit(System.nanoTime() - sampleNanos);
+            return;
+        }
+        if (mUIHandler == null) {
+            mUIHandler = new Handler(Looper.getMainLooper());
+        }
+        mUIHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                latency.recordCommit(System.nanoTime() - sampleNanos);
+            }
+        });
+    }
+
+    /**
+     * worker thread: phase one of {@link #consumeExpression} for the {@link WorkerPipeline}. The
+     * results are compared with the ones applied before, remembered and the holders are marked
+     * evaluated by the ui thread in {@link #applyCommitted}, once they have reached a view.
+     * */
+    private void evaluateOnWorker(@NonNull ExpressionFrame frame, @NonNull ExpressionScope scope, @NonNull String currentType) {
+        int changed = scope.getChanged();
+        try {
+            for (int i = 0, size = frame.size(); i < size; i++) {
+                evaluate(frame, i, scope, currentType, changed);
+            }
+        } catch (Exception e) {
+            LogProxy.e("runtime error", e);
+        } finally {
+            scope.clearChanged();
+        }
+    }
+
+    /**
+     * ui thread: phase two of {@link #consumeExpression} for the {@link WorkerPipeline}.
+     * */
+    private void applyCommitted(@NonNull ExpressionFrame frame) {
+        apply(frame, frame.size());
+    }
+
+    /**
+     * phase one: evaluate the expression of the holder at the index into the frame buffer.
+     * */
+    private void evaluate(@NonNull ExpressionFrame frame, int index, @NonNull Map<String,Object> scope,
+                          @NonNull String currentType, int changed) throws IllegalArgumentException, JSONException {
+        frame.clear(index);
+        ExpressionHolder holder = frame.holders[index];
+        if (!currentType.equals(holder.eventType)) {
+            LogProxy.d("skip expression with wrong event type.[expected:" + currentType + ",found:" + holder.eventType + "]");
+            return;
+        }
+        if (holder.evaluated && holder.dependencies != ExpressionScope.DEPENDS_ON_ALL
+                && (holder.dependencies & changed) == 0 && !isViewReplaced(holder)) {
+            // none of the inputs changed, neither does the result, and the view has it already.
+            // a ref that resolves to another view (e.g. a recycled cell) is evaluated for that one
+            return;
+        }
+        Expression expression = holder.expression;
+        if(expression == null) {
+            return;
+        }
+        mEvaluationCount.incrementAndGet();
+
+        ExpressionStats stats = holder.stats;
+        if(stats == null) {
+            execute(frame, index, holder, expression, scope);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            execute(frame, index, holder, expression, scope);
+        } finally {
+            stats.recordEvaluation(System.nanoTime() - start);
+        }
+    }
+
+    private void execute(@NonNull ExpressionFrame frame, int index, @NonNull ExpressionHolder holder,
+                         @NonNull Expression expression, @NonNull Map<String,Object> scope)
+            throws IllegalArgumentException, JSONException {
+        byte kind = holder.resultKind;
+        if(kind == ExpressionFrame.KIND_NUMBER) {
+            // numeric expressions are evaluated without boxing
+            double value = expression.executeNumber(scope);
+            if(Double.isNaN(value)) {
+                LogProxy.e("failed to execute expression,expression result is NaN");
+                holder.evaluated = true;
+                skip(holder);
+                return;
+            }
+            frame.numbers[index] = value;
+            frame.kinds[index] = ExpressionFrame.KIND_NUMBER;
+        } else if(kind == ExpressionFrame.KIND_COLOR) {
+            // colors are evaluated as packed argb ints
+            int color = expression.executeColor(scope);
+            frame.colors[index] = color;
+            frame.kinds[index] = ExpressionFrame.KIND_COLOR;
+        } else {
+            Object obj = expression.execute(scope);
+            if (obj == null) {
+                LogProxy.e("failed to execute expression,expression result is null");
+                holder.evaluated = true;
+                skip(holder);
+                return;
+            }
+            if((obj instanceof Double) && Double.isNaN((Double) obj) ||
+                    (obj instanceof Float && Float.isNaN((Float)obj))) {
+                LogProxy.e("failed to execute expression,expression result is NaN");
+                holder.evaluated = true;
+                skip(holder);
+                return;
+            }
+            frame.objects[index] = obj;
+            frame.kinds[index] = ExpressionFrame.KIND_OBJECT;
+        }
+    }
+
+    /**
+     * phase two: apply the first count results of the frame buffer to the views. Results equal
+     * to the one applied before are dropped, applied results are remembered. Both happen here
+     * only, on the thread that applies, so the results of frames not applied yet do not count.
+     * Holders are marked evaluated once their result has reached a view, a holder whose view is
+     * missing is evaluated again with the next event.
+     * */
+    private void apply(@NonNull ExpressionFrame frame, int count) {
+        boolean hasInterceptors = BindingXPropertyInterceptor.getInstance().hasInterceptors();
+        for (int i = 0; i < count; i++) {
+            byte kind = frame.kinds[i];
+            if (kind == ExpressionFrame.KIND_NONE) {
+                continue;
+            }
+            ExpressionHolder holder = frame.holders[i];
+            ExpressionStats stats = holder.stats;
+            long start = stats != null ? System.nanoTime() : 0;
+
+            String instanceId = instanceIdOf(holder);
+            View targetView = findTargetView(holder);
+            if (!isLastView(holder, targetView)) {
+                // another view (e.g. a recycled cell) or none at all, it does not have the last result
+                holder.hasLastResult = false;
+                holder.lastResult = null;
+                holder.lastView = targetView == null ? null : new WeakReference<>(targetView);
+            }
+            if (isSameResult(holder, frame, i)) {
+                frame.clear(i);
+                mSuppressedUpdateCount.incrementAndGet();
+                holder.evaluated = true;
+                continue;
+            }
+            Object obj;
+            if (kind == ExpressionFrame.KIND_NUMBER) {
+                // only the result is boxed for the updater
+                obj = frame.numbers[i];
+            } else if (kind == ExpressionFrame.KIND_COLOR) {
+                // colors are only boxed for updaters which need an object
+                boolean boxed = hasInterceptors || holder.colorUpdater == null;
+                obj = boxed ? (Object) frame.colors[i] : null;
+            } else {
+                obj = frame.objects[i];
+            }
+            frame.clear(i);
+
+            //apply transformation/layout change ... to target view.
+            Object[] updateExtension = getUpdateExtension(holder, instanceId);
+            if(obj != null) {
                 BindingXPropertyInterceptor.getInstance().performIntercept(
                         targetView,
                         holder.prop,
                         obj,
                         mPlatformManager.getResolutionTranslator(),
                         holder.config,
-                        holder.targetRef,
-                        instanceId
+                        updateExtension
                 );
+            }
 
-                if (targetView == null) {
-                    LogProxy.e("failed to execute expression,target view not found.[ref:" + holder.targetRef + "]");
-                    continue;
-                }
+            if (targetView == null) {
+                LogProxy.e("failed to execute expression,target view not found.[ref:" + holder.targetRef + "]");
+                // evaluate it again for the view once it is there
+                holder.evaluated = false;
+                continue;
+            }
 
-                // default behavior
-                mPlatformManager.getViewUpdater().synchronouslyUpdateViewOnUIThread(
+            // default behavior
+            if(obj == null) {
+                holder.colorUpdater.synchronouslyUpdateViewColorOnUIThread(
+                        targetView,
+                        holder.prop,
+                        frame.colors[i],
+                        mPlatformManager.getResolutionTranslator(),
+                        holder.config,
+                        updateExtension
+                );
+            } else {
+                holder.viewUpdater.synchronouslyUpdateViewOnUIThread(
                         targetView,
                         holder.prop,
                         obj,
                         mPlatformManager.getResolutionTranslator(),
                         holder.config,
-                        holder.targetRef,/*additional params for weex*/
-                        instanceId       /*additional params for weex*/
+                        updateExtension
                 );
             }
+            if(stats != null) {
+                stats.recordUpdate(System.nanoTime() - start);
+            }
+            holder.evaluated = true;
+            if(kind == ExpressionFrame.KIND_COLOR) {
+                rememberColor(holder, frame.colors[i]);
+            } else {
+                rememberResult(holder, obj);
+            }
         }
+    }
+
+    @Nullable
+    private String instanceIdOf(@NonNull ExpressionHolder holder) {
+        return TextUtils.isEmpty(holder.targetInstanceId) ? mInstanceId : holder.targetInstanceId;
+    }
 
+    @Nullable
+    private View findTargetView(@NonNull ExpressionHolder holder) {
+        return mPlatformManager.getViewFinder().findViewBy(holder.targetRef, getExtension(holder, instanceIdOf(holder)));
+    }
+
+    /**
+     * @return true if the last result of the holder has been applied to a view and its ref now
+     * resolves to another one. Holders which have not reached a view yet are not looked up.
+     * */
+    private boolean isViewReplaced(@NonNull ExpressionHolder holder) {
+        WeakReference<View> lastView = holder.lastView;
+        return lastView != null && lastView.get() != findTargetView(holder);
+    }
+
+    private static boolean isLastView(@NonNull ExpressionHolder holder, @Nullable View targetView) {
+        WeakReference<View> lastView = holder.lastView;
+        return lastView == null ? targetView == null : lastView.get() == targetView;
+    }
+
+    /**
+     * @return true if the result at the index of the frame is the one last applied to the view
+     * of its holder.
+     * */
+    private static boolean isSameResult(@NonNull ExpressionHolder holder, @NonNull ExpressionFrame frame, int index) {
+        byte kind = frame.kinds[index];
+        if(kind == ExpressionFrame.KIND_NUMBER) {
+            return isSameResult(holder, frame.numbers[index]);
+        } else if(kind == ExpressionFrame.KIND_COLOR) {
+            return isSameColor(holder, frame.colors[index]);
+        }
+        Object obj = frame.objects[index];
+        return obj instanceof Double ? isSameResult(holder, ((Double) obj).doubleValue()) : isSameResult(holder, obj);
+    }
+
+    private static void skip(@NonNull ExpressionHolder holder) {
+        if(holder.stats != null) {
+            holder.stats.recordSkip();
+        }
+    }
+
+    private static boolean isSameResult(@NonNull ExpressionHolder holder, double result) {
+        return holder.hasLastResult && holder.lastResult == null
+                && Math.abs(result - holder.lastNumber) <= holder.epsilon;
+    }
+
+    private static boolean isSameResult(@NonNull ExpressionHolder holder, @NonNull Object result) {
+        return holder.hasLastResult && result.equals(holder.lastResult);
+    }
+
+    private static boolean isSameColor(@NonNull ExpressionHolder holder, int color) {
+        return holder.hasLastResult && holder.lastResult == null && holder.lastNumber == color;
+    }
+
+    private static void rememberColor(@NonNull ExpressionHolder holder, int color) {
+        holder.hasLastResult = true;
+        holder.lastNumber = color;
+        holder.lastResult = null;
+    }
+
+    private static void rememberResult(@NonNull ExpressionHolder holder, @NonNull Object result) {
+        holder.hasLastResult = true;
+        if(result instanceof Double) {
+            holder.lastNumber = (Double) result;
+            holder.lastResult = null;
+        } else {
+            holder.lastResult = result;
+        }
+    }
+
+    /**
+     * @return count of view updates that have been dropped since the result was the same as
+     * (or, with an 'epsilon' config, close enough to) the one applied before.
+     * */
+    long getSuppressedUpdateCount() {
+        return mSuppressedUpdateCount.get();
+    }
+
+    /**
+     * @return count of expressions that have been executed by {@link #consumeExpression}. Those
+     * skipped because none of their inputs changed are not counted.
+     * */
+    long getEvaluationCount() {
+        return mEvaluationCount.get();
+    }
+
+    /**
+     * @return count of expressions this handler has compiled or looked up in the cache. Once a
+     * binding is set up it does not change from frame to frame.
+     * */
+    long getCompileCount() {
+        return mCompileCount.get();
+    }
+
+    /**
+     * @return what each bound expression has cost so far, null if the binding has not been
+     * bound with the 'profile' option. Stats are dropped when the expressions are cleared.
+     * */
+    @Nullable
+    public List<Map<String, Object>> getStats() {
+        List<ExpressionHolder> holders = mProfiledHolders;
+        if(holders == null) {
+            return null;
+        }
+        List<Map<String, Object>> stats = new ArrayList<>(holders.size());
+        for(ExpressionHolder holder : holders) {
+            stats.add(holder.stats.toMap(holder));
+        }
+        return stats;
+    }
+
+    /**
+     * @return input latency of the binding so far, see {@link LatencyStats}. null if the binding
+     * has not been bound with the 'profile' option.
+     * */
+    @Nullable
+    public Map<String, Object> getLatencyStats() {
+        LatencyStats latency = mLatency;
+        return latency == null ? null : latency.toMap(isEvaluatingOnWorker());
+    }
+
+    /**
+     * extension params of the holder: handler's extension params followed by the instance id.
+     * The array is built once and reused until the handler's extension params change.
+     * */
+    private Object[] getExtension(@NonNull ExpressionHolder holder, @Nullable String instanceId) {
+        Object[] source = mExtensionParams;
+        if(holder.extension == null || holder.extensionSource != source) {
+            List<Object> extension = new ArrayList<>(4);
+            if(source != null && source.length > 0) {
+                Collections.addAll(extension, source);
+            }
+            if(!TextUtils.isEmpty(instanceId)) {
+                extension.add(instanceId);
+            }
+            holder.extension = extension.toArray();
+            holder.extensionSource = source;
+        }
+        return holder.extension;
+    }
+
+    /**
+     * extension params of the view updater: the target ref followed by the instance id (for weex).
+     * The array is built once and reused until the instance id changes.
+     * */
+    private static Object[] getUpdateExtension(@NonNull ExpressionHolder holder, @Nullable String instanceId) {
+        Object[] extension = holder.updateExtension;
+        if(extension == null || extension[1] != instanceId) {
+            extension = new Object[]{holder.targetRef, instanceId};
+            holder.updateExtension = extension;
+        }
+        return extension;
     }
 
     protected abstract void onExit(@NonNull Map<String, Object> scope);
@@ -335,11 +949,19 @@ public abstract class AbstractEventHandler implements IEventHandler {
 
     protected void clearExpressions() {
         LogProxy.d("all expression are cleared");
+        mProfiledHolders = null;
         if (mExpressionHoldersMap != null) {
             mExpressionHoldersMap.clear();
             mExpressionHoldersMap = null;
         }
+        mFrame = null;
+        WorkerPipeline pipeline = mPipeline;
+        if (pipeline != null) {
+            pipeline.close();
+            mPipeline = null;
+        }
         mExitExpressionPair = null;
+        mExitExpression = null;
     }
 
     @Override
@@ -351,18 +973,4 @@ public abstract class AbstractEventHandler implements IEventHandler {
     public void setExtensionParams(Object[] params) {
         this.mExtensionParams = params;
     }
-
-    static class Cache<K, V> extends LinkedHashMap<K, V> {
-        private int maxSize;
-
-        Cache(int maxSize) {
-            super(4, 0.75f, true);
-            this.maxSize = Math.max(maxSize, 4);
-        }
-
-        @Override
-        protected boolean removeEldestEntry(Entry eldest) {
-            return size() > maxSize;
-        }
-    }
 }
@@ -42,6 +42,23 @@ public abstract class AbstractScrollEventHandler extends AbstractEventHandler {
     protected int mContentOffsetX, mContentOffsetY;
     private boolean isStart = false;
 
+    // latest scroll event of the listeners, consumed once per vsync
+    private final ScrollMailbox mMailbox = new ScrollMailbox();
+    // ui thread only
+    private AnimationFrame mScrollFrame;
+    private boolean mScrollFrameRequested;
+
+    private final AnimationFrame.Callback mScrollFrameCallback = new AnimationFrame.Callback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            mScrollFrameRequested = false;
+            if(mScrollFrame != null) {
+                mScrollFrame.clear();
+            }
+            onScrollFrame();
+        }
+    };
+
     public AbstractScrollEventHandler(Context context, PlatformManager manager, Object... extension) {
         super(context, manager, extension);
     }
@@ -50,6 +67,7 @@ public abstract class AbstractScrollEventHandler extends AbstractEventHandler {
     @CallSuper
     public boolean onDisable(@NonNull String sourceRef, @NonNull String eventType) {
         clearExpressions();
+        mMailbox.clear();
         isStart = false;
         fireEventByState(BindingXConstants.STATE_END, mContentOffsetX, mContentOffsetY,0,0,0,0);
         return true;
@@ -77,9 +95,70 @@ public abstract class AbstractScrollEventHandler extends AbstractEventHandler {
     @CallSuper
     public void onDestroy() {
         super.onDestroy();
+        mMailbox.clear();
+        if(mScrollFrame != null) {
+            mScrollFrame.terminate();
+            mScrollFrame = null;
+        }
+        mScrollFrameRequested = false;
         isStart = false;
     }
 
+    /**
+     * hand a scroll event over to be consumed at the next vsync, ui thread. Events arriving
+     * before that are coalesced into one: offsets and tdx/tdy are the latest, dx/dy add up
+     * until a turn in their direction, which restarts them just like it restarts tdx/tdy.
+     *
+     * @see #handleScrollEvent(int, int, int, int, int, int)
+     * */
+    protected void postScrollEvent(int contentOffsetX, int contentOffsetY, int dx, int dy,
+                                   int tdx, int tdy) {
+        mMailbox.post(contentOffsetX, contentOffsetY, dx, dy, tdx, tdy);
+        if(!mScrollFrameRequested) {
+            mScrollFrameRequested = true;
+            if(mScrollFrame == null) {
+                mScrollFrame = newScrollFrame();
+            }
+            mScrollFrame.requestAnimationFrame(mScrollFrameCallback);
+        }
+    }
+
+    /**
+     * called on the ui thread at the vsync after scroll events have been posted. Consumes them
+     * right away, handlers which consume expressions on another thread post
+     * {@link #consumePendingScrollEvent()} to it instead.
+     * */
+    protected void onScrollFrame() {
+        consumePendingScrollEvent();
+    }
+
+    /**
+     * consume the scroll events posted since the last time, if any.
+     * */
+    protected void consumePendingScrollEvent() {
+        int contentOffsetX, contentOffsetY, dx, dy, tdx, tdy;
+        synchronized (mMailbox) {
+            if(!mMailbox.pending) {
+                return;
+            }
+            contentOffsetX = mMailbox.contentOffsetX;
+            contentOffsetY = mMailbox.contentOffsetY;
+            dx = mMailbox.dx;
+            dy = mMailbox.dy;
+            tdx = mMailbox.tdx;
+            tdy = mMailbox.tdy;
+            mMailbox.pending = false;
+        }
+        handleScrollEvent(contentOffsetX, contentOffsetY, dx, dy, tdx, tdy);
+    }
+
+    /**
+     * @return the frame posted scroll events are consumed from
+     * */
+    /*package*/ AnimationFrame newScrollFrame() {
+        return AnimationFrame.newInstance();
+    }
+
     /**
      * @param contentOffsetX the absolute horizontal offset in pixel
      * @param contentOffsetY the absolute vertical offset in pixel
@@ -111,7 +190,7 @@ public abstract class AbstractScrollEventHandler extends AbstractEventHandler {
         }
 
         try {
-            JSMath.applyScrollValuesToScope(mScope, contentOffsetX, contentOffsetY, dx, dy, tdx, tdy, mPlatformManager.getResolutionTranslator());
+            JSMath.applyScrollValuesToScope(getExpressionScope(), contentOffsetX, contentOffsetY, dx, dy, tdx, tdy, mPlatformManager.getResolutionTranslator());
             if(!evaluateExitExpression(mExitExpressionPair,mScope)) {
                 consumeExpression(mExpressionHoldersMap, mScope, eventType);
             }
@@ -151,4 +230,38 @@ public abstract class AbstractScrollEventHandler extends AbstractEventHandler {
         }
     }
 
+    /**
+     * latest scroll event, written by the listeners and taken by the consuming thread.
+     * */
+    private static final class ScrollMailbox {
+        // guarded by this
+        int contentOffsetX, contentOffsetY, dx, dy, tdx, tdy;
+        boolean pending;
+
+        synchronized void post(int contentOffsetX, int contentOffsetY, int dx, int dy, int tdx, int tdy) {
+            this.contentOffsetX = contentOffsetX;
+            this.contentOffsetY = contentOffsetY;
+            this.dx = pending ? accumulate(this.dx, dx) : dx;
+            this.dy = pending ? accumulate(this.dy, dy) : dy;
+            this.tdx = tdx;
+            this.tdy = tdy;
+            pending = true;
+        }
+
+        synchronized void clear() {
+            pending = false;
+        }
+
+        private static int accumulate(int sum, int delta) {
+            if(delta == 0) {
+                return sum;
+            }
+            if(sum == 0 || (sum > 0) == (delta > 0)) {
+                return sum + delta;
+            }
+            // turned, the sum starts over as tdx/tdy do
+            return delta;
+        }
+    }
+
 }
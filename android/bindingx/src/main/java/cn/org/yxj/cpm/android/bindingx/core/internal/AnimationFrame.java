@@ -15,16 +15,11 @@
  */
 package cn.org.yxj.cpm.android.bindingx.core.internal;
 
-import android.annotation.TargetApi;
 import android.os.Build;
 import android.os.Handler;
 import android.os.Looper;
 import android.os.Message;
 import androidx.annotation.NonNull;
-import android.view.Choreographer;
-
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.TimeUnit;
 
 /**
  * Description:
@@ -39,7 +34,8 @@ abstract class AnimationFrame {
     static AnimationFrame newInstance() {
         AnimationFrame frame = null;
         if(Build.VERSION.SDK_INT >= 16) {
-            frame = new ChoreographerAnimationFrameImpl();
+            // shares a single choreographer callback with every other running frame
+            frame = FrameScheduler.getInstance().newAnimationFrame();
         } else {
             frame = new HandlerAnimationFrameImpl();
         }
@@ -53,74 +49,10 @@ abstract class AnimationFrame {
     abstract void requestAnimationFrame(@NonNull Callback callback);
 
     interface Callback {
-        void doFrame();
-    }
-
-    @TargetApi(16)
-    private static class ChoreographerAnimationFrameImpl extends AnimationFrame implements Choreographer.FrameCallback{
-
-        private Choreographer choreographer;
-        private Callback callback;
-        private boolean isRunning;
-
-        @TargetApi(16)
-        ChoreographerAnimationFrameImpl() {
-            if(Looper.myLooper() != Looper.getMainLooper()) {
-                final CountDownLatch latch = new CountDownLatch(1);
-                new Handler(Looper.getMainLooper()).post(new Runnable() {
-                    @Override
-                    public void run() {
-                        // always use main looper to init choreographer
-                        // this will make animation more smoothly!
-                        choreographer = Choreographer.getInstance();
-                        latch.countDown();
-                    }
-                });
-                try {
-                    boolean result = latch.await(500, TimeUnit.MILLISECONDS);
-                    if(!result) {// if timeout
-                        choreographer = Choreographer.getInstance();
-                    }
-                }catch (InterruptedException e) {
-                    // ignore
-                }
-            } else {
-                choreographer = Choreographer.getInstance();
-            }
-        }
-
-        @Override
-        void clear() {
-            if(choreographer != null) {
-                choreographer.removeFrameCallback(this);
-            }
-            this.isRunning = false;
-        }
-
-        @Override
-        void terminate() {
-            clear();
-            choreographer = null;
-        }
-
-        @Override
-        void requestAnimationFrame(@NonNull Callback callback) {
-            this.callback = callback;
-            this.isRunning = true;
-            if(choreographer != null) {
-                choreographer.postFrameCallback(this);
-            }
-        }
-
-        @Override
-        public void doFrame(long frameTimeNanos) {
-            if(callback != null) {
-                callback.doFrame();
-            }
-            if(choreographer != null && isRunning) {
-                choreographer.postFrameCallback(this);
-            }
-        }
+        /**
+         * @param frameTimeNanos vsync time of the frame, in the {@link System#nanoTime()} time base
+         * */
+        void doFrame(long frameTimeNanos);
     }
 
     private static class HandlerAnimationFrameImpl extends AnimationFrame implements Handler.Callback{
@@ -164,7 +96,7 @@ abstract class AnimationFrame {
         public boolean handleMessage(Message msg) {
             if(msg != null && msg.what == MSG_FRAME_CALLBACK && mInnerHandler != null) {
                 if(callback != null) {
-                    callback.doFrame();
+                    callback.doFrame(System.nanoTime());
                 }
                 if(isRunning) {
                     mInnerHandler.sendEmptyMessageDelayed(MSG_FRAME_CALLBACK, DEFAULT_DELAY_MILLIS);
@@ -38,6 +38,8 @@ public class BindingXConstants {
     public static final String STATE_EXIT = "exit";
     public static final String STATE_TURNING = "turn";
     public static final String STATE_INTERCEPTOR = "interceptor";
+    // some expressions have been rejected when they were bound
+    public static final String STATE_ERROR = "error";
 
     public static final String KEY_ELEMENT = "element";
     public static final String KEY_PROPERTY = "property";
@@ -54,15 +56,29 @@ public class BindingXConstants {
     public static final String KEY_RUNTIME_PROPS = "props";
     public static final String KEY_INTERCEPTORS = "interceptors";
     public static final String KEY_TOKEN = "token";
+    public static final String KEY_ERRORS = "errors";
+    public static final String KEY_MESSAGE = "message";
 
     public static final String KEY_SCENE_TYPE = "sceneType";
 
     public static final String KEY_TRANSFORMED = "transformed";
     public static final String KEY_ORIGIN = "origin";
 
+    // config of a prop: results closer than this to the last applied value are not applied
+    public static final String KEY_EPSILON = "epsilon";
+    // option of a binding: record what each of its expressions costs, see BindingXCore#getStats
+    public static final String KEY_PROFILE = "profile";
+    public static final String KEY_EXPRESSIONS = "expressions";
+    public static final String KEY_LATENCY = "latency";
+    // option of a binding: evaluate its expressions on the worker thread, see WorkerPipeline
+    public static final String KEY_EVALUATE_ON_WORKER = "evaluateOnWorker";
+    // frames dropped while a timing or spring animation was running, reported when it ends
+    public static final String KEY_SKIPPED_FRAMES = "skippedFrames";
+
     @Retention(RetentionPolicy.SOURCE)
     @StringDef({BindingXConstants.STATE_START, BindingXConstants.STATE_END,
-            BindingXConstants.STATE_CANCEL, BindingXConstants.STATE_EXIT, BindingXConstants.STATE_TURNING, BindingXConstants.STATE_INTERCEPTOR})
+            BindingXConstants.STATE_CANCEL, BindingXConstants.STATE_EXIT, BindingXConstants.STATE_TURNING, BindingXConstants.STATE_INTERCEPTOR,
+            BindingXConstants.STATE_ERROR})
     public @interface State {
     }
 }
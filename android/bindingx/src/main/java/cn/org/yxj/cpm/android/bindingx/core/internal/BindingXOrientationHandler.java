@@ -200,7 +200,7 @@ public class BindingXOrientationHandler extends AbstractEventHandler implements
                         alpha,beta,gamma,x,y,z));
             }
 
-            JSMath.applyOrientationValuesToScope(mScope,alpha,beta,gamma,mStartAlpha,mStartBeta,mStartGamma, x,y,z);
+            JSMath.applyOrientationValuesToScope(getExpressionScope(),alpha,beta,gamma,mStartAlpha,mStartBeta,mStartGamma, x,y,z);
             if(!evaluateExitExpression(mExitExpressionPair,mScope)) {
                 consumeExpression(mExpressionHoldersMap, mScope, BindingXEventType.TYPE_ORIENTATION);
             }
@@ -194,7 +194,7 @@ public class BindingXPinchHandler extends AbstractEventHandler implements View.O
             if(LogProxy.sEnableLog) {
                 LogProxy.d(String.format(Locale.getDefault(), "[PinchHandler] current scale factor: %f", mAbsoluteScaleFactor));
             }
-            JSMath.applyScaleFactorToScope(mScope, mAbsoluteScaleFactor);
+            JSMath.applyScaleFactorToScope(getExpressionScope(), mAbsoluteScaleFactor);
             if(!evaluateExitExpression(mExitExpressionPair,mScope)) {
                 consumeExpression(mExpressionHoldersMap, mScope, BindingXEventType.TYPE_PINCH);
             }
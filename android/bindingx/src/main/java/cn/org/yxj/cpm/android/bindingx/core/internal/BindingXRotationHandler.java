@@ -134,7 +134,7 @@ public class BindingXRotationHandler extends AbstractEventHandler implements Vie
             if(LogProxy.sEnableLog) {
                 LogProxy.d(String.format(Locale.getDefault(), "[RotationHandler] current rotation in degrees: %f", mAbsoluteRotationInDegrees));
             }
-            JSMath.applyRotationInDegreesToScope(mScope,mAbsoluteRotationInDegrees);
+            JSMath.applyRotationInDegreesToScope(getExpressionScope(),mAbsoluteRotationInDegrees);
             if(!evaluateExitExpression(mExitExpressionPair,mScope)) {
                 consumeExpression(mExpressionHoldersMap, mScope, BindingXEventType.TYPE_ROTATION);
             }
@@ -43,6 +43,12 @@ public class BindingXSpringHandler extends AbstractEventHandler implements Physi
         super(context, manager, extension);
     }
 
+    @Override
+    protected boolean canEvaluateOnWorker() {
+        // frames are already driven by vsync
+        return false;
+    }
+
     @Override
     public void onBindExpression(@NonNull String eventType,
                                  @Nullable Map<String, Object> globalConfig,
@@ -102,6 +108,10 @@ public class BindingXSpringHandler extends AbstractEventHandler implements Physi
             param.put("state", state);
             param.put("position", position);
             param.put("velocity", velocity);
+            if(mSpringAnimationDriver != null
+                    && (BindingXConstants.STATE_END.equals(state) || BindingXConstants.STATE_EXIT.equals(state))) {
+                param.put(BindingXConstants.KEY_SKIPPED_FRAMES, mSpringAnimationDriver.getSkippedFrames());
+            }
             param.put(BindingXConstants.KEY_TOKEN, mToken);
 
             if(extension != null && extension.length > 0 && extension[0] instanceof Map) {
@@ -157,7 +167,7 @@ public class BindingXSpringHandler extends AbstractEventHandler implements Physi
             LogProxy.v(String.format(Locale.getDefault(),"animation update, [value: %f, velocity: %f]",value, velocity));
         }
         try {
-            JSMath.applySpringValueToScope(mScope, value, velocity);
+            JSMath.applySpringValueToScope(getExpressionScope(), value, velocity);
             if(!evaluateExitExpression(mExitExpressionPair,mScope)) {
                 consumeExpression(mExpressionHoldersMap, mScope, BindingXEventType.TYPE_SPRING);
             }
@@ -19,7 +19,6 @@ import android.content.Context;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
-import android.view.animation.AnimationUtils;
 
 import cn.org.yxj.cpm.android.bindingx.core.BindingXCore;
 import cn.org.yxj.cpm.android.bindingx.core.BindingXEventType;
@@ -42,7 +41,10 @@ import java.util.Map;
 
 public class BindingXTimingHandler extends AbstractEventHandler implements AnimationFrame.Callback {
 
-    private long mStartTime = 0;
+    private static final double NANOS_PER_MILLI = 1000000.0;
+
+    // times the frames by their vsync timestamps
+    private final FrameTimer mFrameTimer = new FrameTimer();
 
     private AnimationFrame mAnimationFrame;
     private boolean isFinish = false;
@@ -72,6 +74,12 @@ public class BindingXTimingHandler extends AbstractEventHandler implements Anima
         //nope
     }
 
+    @Override
+    protected boolean canEvaluateOnWorker() {
+        // frames are already driven by vsync
+        return false;
+    }
+
     @Override
     public void onBindExpression(@NonNull String eventType,
                                  @Nullable Map<String,Object> globalConfig,
@@ -90,21 +98,19 @@ public class BindingXTimingHandler extends AbstractEventHandler implements Anima
         mAnimationFrame.requestAnimationFrame(this);
     }
 
-    private void handleTimingCallback() {
-        long deltaT;
-        if(mStartTime == 0) {
-            mStartTime = AnimationUtils.currentAnimationTimeMillis();
-            deltaT = 0;
+    private void handleTimingCallback(long frameTimeNanos) {
+        if(!mFrameTimer.isStarted()) {
             isFinish = false;
-        } else {
-            deltaT = AnimationUtils.currentAnimationTimeMillis() - mStartTime;
         }
+        // milliseconds, with the precision of the vsync timestamp
+        double deltaT = mFrameTimer.onFrame(frameTimeNanos) / NANOS_PER_MILLI;
 
         try {
             if(LogProxy.sEnableLog) {
-                LogProxy.d(String.format(Locale.getDefault(), "[TimingHandler] timing elapsed. (t:%d)", deltaT));
+                LogProxy.d(String.format(Locale.getDefault(), "[TimingHandler] timing elapsed. (t:%f,skipped frames:%d)",
+                        deltaT, mFrameTimer.getSkippedFrames()));
             }
-            JSMath.applyTimingValuesToScope(mScope, deltaT);
+            JSMath.applyTimingValuesToScope(getExpressionScope(), deltaT);
             if(!isFinish) {
                 consumeExpression(mExpressionHoldersMap, mScope, BindingXEventType.TYPE_TIMING);
             }
@@ -116,12 +122,12 @@ public class BindingXTimingHandler extends AbstractEventHandler implements Anima
 
     @Override
     public boolean onDisable(@NonNull String sourceRef, @NonNull String eventType) {
-        fireEventByState(BindingXConstants.STATE_END, (System.currentTimeMillis() - mStartTime));
+        fireEventByState(BindingXConstants.STATE_END, (long) (mFrameTimer.getElapsedNanos() / NANOS_PER_MILLI));
         clearExpressions();
         if(mAnimationFrame != null) {
             mAnimationFrame.clear();
         }
-        mStartTime = 0;
+        mFrameTimer.reset();
 
         return true;
     }
@@ -135,7 +141,7 @@ public class BindingXTimingHandler extends AbstractEventHandler implements Anima
             mAnimationFrame.terminate();
             mAnimationFrame = null;
         }
-        mStartTime = 0;
+        mFrameTimer.reset();
     }
 
     @Override
@@ -146,7 +152,7 @@ public class BindingXTimingHandler extends AbstractEventHandler implements Anima
         if(mAnimationFrame != null) {
             mAnimationFrame.clear();
         }
-        mStartTime = 0;
+        mFrameTimer.reset();
     }
 
     @Override
@@ -161,6 +167,9 @@ public class BindingXTimingHandler extends AbstractEventHandler implements Anima
             Map<String, Object> param = new HashMap<>();
             param.put("state", state);
             param.put("t", t);
+            if(BindingXConstants.STATE_END.equals(state) || BindingXConstants.STATE_EXIT.equals(state)) {
+                param.put(BindingXConstants.KEY_SKIPPED_FRAMES, mFrameTimer.getSkippedFrames());
+            }
             param.put(BindingXConstants.KEY_TOKEN, mToken);
 
             if(extension != null && extension.length > 0 && extension[0] instanceof Map) {
@@ -173,8 +182,8 @@ public class BindingXTimingHandler extends AbstractEventHandler implements Anima
     }
 
     @Override
-    public void doFrame() {
-        handleTimingCallback();
+    public void doFrame(long frameTimeNanos) {
+        handleTimingCallback(frameTimeNanos);
     }
 
     @Override
@@ -20,6 +20,7 @@ import android.os.Handler;
 import android.os.Looper;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 import android.text.TextUtils;
 import android.view.GestureDetector;
 import android.view.MotionEvent;
@@ -55,11 +56,15 @@ public class BindingXTouchHandler extends AbstractEventHandler implements View.O
     private int mMaximumFlingVelocity;
 
     public BindingXTouchHandler(Context context, PlatformManager manager, Object... extension) {
+        this(context, manager, ViewConfiguration.get(context), extension);
+    }
+
+    @VisibleForTesting
+    /*package*/ BindingXTouchHandler(Context context, PlatformManager manager, @NonNull ViewConfiguration configuration, Object... extension) {
         super(context, manager, extension);
         Handler handler = new Handler(Looper.myLooper() == null ? Looper.getMainLooper() : Looper.myLooper());
         mGestureDetector = new GestureDetector(context, this, handler);
 
-        ViewConfiguration configuration = ViewConfiguration.get(context);
         mMaximumFlingVelocity = configuration.getScaledMaximumFlingVelocity();
         mMinimumFlingVelocity = configuration.getScaledMinimumFlingVelocity();
     }
@@ -143,21 +148,27 @@ public class BindingXTouchHandler extends AbstractEventHandler implements View.O
         float curX = e2.getRawX();
         float curY = e2.getRawY();
 
-        float deltaX = curX - downX;
-        float deltaY = curY - downY;
+        handlePanMove(curX - downX, curY - downY);
+        return false;
+    }
+
+    /**
+     * @param deltaX horizontal distance from the point the pan started at, in native pixels
+     * @param deltaY vertical distance from the point the pan started at, in native pixels
+     * */
+    @VisibleForTesting
+    /*package*/ void handlePanMove(float deltaX, float deltaY) {
         try {
             if(LogProxy.sEnableLog) {
                 LogProxy.d(String.format(Locale.getDefault(), "[TouchHandler] pan moved. (x:%f,y:%f)", deltaX,deltaY));
             }
-            JSMath.applyXYToScope(mScope, deltaX, deltaY, mPlatformManager.getResolutionTranslator());
+            JSMath.applyXYToScope(getExpressionScope(), deltaX, deltaY, mPlatformManager.getResolutionTranslator());
             if(!evaluateExitExpression(mExitExpressionPair,mScope)) {
                 consumeExpression(mExpressionHoldersMap, mScope, BindingXEventType.TYPE_PAN);
             }
         } catch (Exception e) {
             LogProxy.e("runtime error", e);
         }
-
-        return false;
     }
 
     @Override
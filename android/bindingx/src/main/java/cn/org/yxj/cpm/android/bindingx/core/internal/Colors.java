@@ -0,0 +1,224 @@
+/**
+ * Copyright 2018 Alibaba Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.org.yxj.cpm.android.bindingx.core.internal;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Description:
+ *
+ * Packed argb colors, parsed and interpolated on primitive ints.
+ *
+ * Colors are parsed in plain java rather than by android.graphics.Color, so that compiled
+ * expressions behave the same on the device and in unit tests on the mockable android.jar.
+ * Supported are #rgb, #rrggbb, #aarrggbb, rgb(r, g, b), rgba(r, g, b, a) with a in [0,1],
+ * and the color names android.graphics.Color#parseColor knows.
+ *
+ * Two blend modes are supported:
+ * <ul>
+ *     <li>srgb (default): each channel is interpolated as it is stored.</li>
+ *     <li>linear: red, green and blue are decoded to linear light, interpolated and encoded
+ *     again, which avoids the dark band in the middle of fades between saturated colors.
+ *     Alpha is always interpolated as it is.</li>
+ * </ul>
+ */
+final class Colors {
+
+    static final int MODE_SRGB = 0;
+    static final int MODE_LINEAR = 1;
+
+    // srgb channel value -> linear light in [0,1]
+    private static final double[] SRGB_TO_LINEAR = new double[256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            double c = i / 255.0;
+            SRGB_TO_LINEAR[i] = c <= 0.04045 ? c / 12.92 : Math.pow((c + 0.055) / 1.055, 2.4);
+        }
+    }
+
+    // the names android.graphics.Color#parseColor knows
+    private static final Map<String, Integer> NAMED_COLORS = new HashMap<>(32);
+
+    static {
+        NAMED_COLORS.put("black", 0xff000000);
+        NAMED_COLORS.put("darkgray", 0xff444444);
+        NAMED_COLORS.put("gray", 0xff888888);
+        NAMED_COLORS.put("lightgray", 0xffcccccc);
+        NAMED_COLORS.put("white", 0xffffffff);
+        NAMED_COLORS.put("red", 0xffff0000);
+        NAMED_COLORS.put("green", 0xff00ff00);
+        NAMED_COLORS.put("blue", 0xff0000ff);
+        NAMED_COLORS.put("yellow", 0xffffff00);
+        NAMED_COLORS.put("cyan", 0xff00ffff);
+        NAMED_COLORS.put("magenta", 0xffff00ff);
+        NAMED_COLORS.put("aqua", 0xff00ffff);
+        NAMED_COLORS.put("fuchsia", 0xffff00ff);
+        NAMED_COLORS.put("darkgrey", 0xff444444);
+        NAMED_COLORS.put("grey", 0xff888888);
+        NAMED_COLORS.put("lightgrey", 0xffcccccc);
+        NAMED_COLORS.put("lime", 0xff00ff00);
+        NAMED_COLORS.put("maroon", 0xff800000);
+        NAMED_COLORS.put("navy", 0xff000080);
+        NAMED_COLORS.put("olive", 0xff808000);
+        NAMED_COLORS.put("purple", 0xff800080);
+        NAMED_COLORS.put("silver", 0xffc0c0c0);
+        NAMED_COLORS.put("teal", 0xff008080);
+    }
+
+    private Colors() {
+    }
+
+    /**
+     * @param color an unquoted color, see the class comment for the supported forms
+     * @return the packed argb color
+     * @throws IllegalArgumentException if the color can not be parsed
+     * */
+    static int parse(@NonNull String color) throws IllegalArgumentException {
+        String str = color.trim();
+        if (str.startsWith("#")) {
+            return parseHex(str);
+        }
+        String lower = str.toLowerCase(Locale.US);
+        if (lower.startsWith("rgba(") || lower.startsWith("rgb(")) {
+            return parseFunction(lower);
+        }
+        Integer named = NAMED_COLORS.get(lower);
+        if (named != null) {
+            return named;
+        }
+        throw new IllegalArgumentException("Unknown color " + color);
+    }
+
+    private static int parseHex(String str) {
+        int length = str.length() - 1;
+        if (length != 3 && length != 6 && length != 8) {
+            throw new IllegalArgumentException("Unknown color " + str);
+        }
+        int value = 0;
+        for (int i = 1; i <= length; i++) {
+            int digit = Character.digit(str.charAt(i), 16);
+            if (digit < 0) {
+                throw new IllegalArgumentException("Unknown color " + str);
+            }
+            value = (value << 4) | digit;
+        }
+        if (length == 3) {
+            // #rgb -> #rrggbb
+            int r = (value >> 8) & 0xf;
+            int g = (value >> 4) & 0xf;
+            int b = value & 0xf;
+            return argb(255, r * 0x11, g * 0x11, b * 0x11);
+        }
+        return length == 6 ? 0xff000000 | value : value;
+    }
+
+    private static int parseFunction(String str) {
+        boolean hasAlpha = str.startsWith("rgba(");
+        int start = str.indexOf('(') + 1;
+        if (!str.endsWith(")")) {
+            throw new IllegalArgumentException("Unknown color " + str);
+        }
+        String[] channels = str.substring(start, str.length() - 1).split(",");
+        if (channels.length != (hasAlpha ? 4 : 3)) {
+            throw new IllegalArgumentException("Unknown color " + str);
+        }
+        try {
+            int r = channel(Double.parseDouble(channels[0].trim()));
+            int g = channel(Double.parseDouble(channels[1].trim()));
+            int b = channel(Double.parseDouble(channels[2].trim()));
+            // same as the rgba builtin: alpha in [0,1]
+            int a = hasAlpha ? channel(Double.parseDouble(channels[3].trim()) * 255) : 255;
+            return argb(a, r, g, b);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Unknown color " + str);
+        }
+    }
+
+    private static int channel(double value) {
+        return Math.max(0, Math.min(255, (int) value));
+    }
+
+    /**
+     * @param mode blend mode, optionally quoted. null for the default mode.
+     * @throws IllegalArgumentException if the mode is unknown
+     * */
+    static int modeOf(@Nullable String mode) throws IllegalArgumentException {
+        if (mode == null) {
+            return MODE_SRGB;
+        }
+        if (mode.length() >= 2 && (mode.startsWith("'") || mode.startsWith("\""))) {
+            mode = mode.substring(1, mode.length() - 1);
+        }
+        switch (mode) {
+            case "srgb":
+                return MODE_SRGB;
+            case "linear":
+                return MODE_LINEAR;
+            default:
+                throw new IllegalArgumentException("unknown color mode " + mode);
+        }
+    }
+
+    /**
+     * same as android.graphics.Color#argb, channels are not clamped.
+     * */
+    static int argb(int alpha, int red, int green, int blue) {
+        return (alpha << 24) | (red << 16) | (green << 8) | blue;
+    }
+
+    /**
+     * @param fraction position between start (0) and end (1), clamped
+     * */
+    static int interpolate(int start, int end, double fraction, int mode) {
+        if (!(fraction > 0)) {
+            return start;
+        }
+        if (fraction >= 1) {
+            return end;
+        }
+        int alpha = lerp(start >>> 24, end >>> 24, fraction);
+        if (mode == MODE_LINEAR) {
+            return argb(alpha,
+                    lerpLinear((start >> 16) & 0xff, (end >> 16) & 0xff, fraction),
+                    lerpLinear((start >> 8) & 0xff, (end >> 8) & 0xff, fraction),
+                    lerpLinear(start & 0xff, end & 0xff, fraction));
+        }
+        return argb(alpha,
+                lerp((start >> 16) & 0xff, (end >> 16) & 0xff, fraction),
+                lerp((start >> 8) & 0xff, (end >> 8) & 0xff, fraction),
+                lerp(start & 0xff, end & 0xff, fraction));
+    }
+
+    private static int lerp(int start, int end, double fraction) {
+        return (int) (start + (end - start) * fraction + 0.5);
+    }
+
+    private static int lerpLinear(int start, int end, double fraction) {
+        if (start == end) {
+            return start;
+        }
+        double from = SRGB_TO_LINEAR[start];
+        double linear = from + (SRGB_TO_LINEAR[end] - from) * fraction;
+        double c = linear <= 0.0031308 ? linear * 12.92 : 1.055 * Math.pow(linear, 1 / 2.4) - 0.055;
+        return (int) (c * 255 + 0.5);
+    }
+}
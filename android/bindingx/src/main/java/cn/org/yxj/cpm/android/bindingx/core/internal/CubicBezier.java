@@ -0,0 +1,206 @@
+/**
+ * Copyright 2018 Alibaba Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.org.yxj.cpm.android.bindingx.core.internal;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Description:
+ *
+ * A css like cubic bezier timing curve from (0,0) to (1,1) with the control points (x1,y1)
+ * and (x2,y2), as used by the cubicBezier timing function.
+ *
+ * {@link #solve(double)} finds the curve parameter of x with Newton-Raphson iterations, starting
+ * from a guess interpolated in a table of samples, and falls back to bisection where the curve is
+ * too flat for Newton-Raphson. It is plain java, so it does not need android classes.
+ *
+ * Curves are cached by their control points, see {@link #of(double, double, double, double)}.
+ */
+final class CubicBezier {
+
+    private static final int NEWTON_ITERATIONS = 6;
+    private static final double NEWTON_MIN_SLOPE = 0.001;
+    // bisection runs where x(t) is flat, so it has to stop on the precision of t, not of x
+    private static final double SUBDIVISION_PRECISION = 1e-7;
+
+    private static final int SAMPLE_TABLE_SIZE = 11;
+    private static final double SAMPLE_STEP = 1.0 / (SAMPLE_TABLE_SIZE - 1);
+
+    // must be a power of two
+    private static final int CACHE_SIZE = 64;
+    // two-way hashed: a curve lives in the slot of its hash or the next one
+    private static final CubicBezier[] sCache = new CubicBezier[CACHE_SIZE];
+
+    final double x1;
+    final double y1;
+    final double x2;
+    final double y2;
+
+    // polynomial coefficients of x(t) = ((ax * t + bx) * t + cx) * t, same for y
+    private final double ax;
+    private final double bx;
+    private final double cx;
+    private final double ay;
+    private final double by;
+    private final double cy;
+
+    private final boolean linear;
+    // x(t) sampled at t = 0, 0.1, ..., 1
+    private final double[] samples = new double[SAMPLE_TABLE_SIZE];
+
+    CubicBezier(double x1, double y1, double x2, double y2) {
+        if (!(x1 >= 0 && x1 <= 1 && x2 >= 0 && x2 <= 1)) {
+            throw new IllegalArgumentException("x of the control points must be in [0, 1], but was " + x1 + ", " + x2);
+        }
+        this.x1 = x1;
+        this.y1 = y1;
+        this.x2 = x2;
+        this.y2 = y2;
+
+        cx = 3 * x1;
+        bx = 3 * (x2 - x1) - cx;
+        ax = 1 - cx - bx;
+        cy = 3 * y1;
+        by = 3 * (y2 - y1) - cy;
+        ay = 1 - cy - by;
+
+        linear = x1 == y1 && x2 == y2;
+        for (int i = 0; i < SAMPLE_TABLE_SIZE; i++) {
+            samples[i] = sampleX(i * SAMPLE_STEP);
+        }
+    }
+
+    /**
+     * @return the cached curve with the given control points, created if it is not cached
+     * */
+    @NonNull
+    static CubicBezier of(double x1, double y1, double x2, double y2) {
+        CubicBezier[] cache = sCache;
+        int slot = hash(x1, y1, x2, y2) & (CACHE_SIZE - 1);
+        int next = (slot + 1) & (CACHE_SIZE - 1);
+        CubicBezier first = cache[slot];
+        if (first != null && first.matches(x1, y1, x2, y2)) {
+            return first;
+        }
+        CubicBezier second = cache[next];
+        if (second != null && second.matches(x1, y1, x2, y2)) {
+            return second;
+        }
+        CubicBezier curve = new CubicBezier(x1, y1, x2, y2);
+        // curves are immutable, racing threads at worst drop a curve from the cache.
+        // the older curve of a full pair is evicted
+        if (first != null && second == null) {
+            cache[next] = curve;
+        } else {
+            if (first != null) {
+                cache[next] = first;
+            }
+            cache[slot] = curve;
+        }
+        return curve;
+    }
+
+    private boolean matches(double x1, double y1, double x2, double y2) {
+        return this.x1 == x1 && this.y1 == y1 && this.x2 == x2 && this.y2 == y2;
+    }
+
+    /**
+     * @param x progress in [0, 1]
+     * @return y of the curve at x
+     * */
+    double solve(double x) {
+        if (linear) {
+            return x;
+        }
+        if (x <= 0) {
+            return 0;
+        }
+        if (x >= 1) {
+            return 1;
+        }
+        return sampleY(solveT(x));
+    }
+
+    private double sampleX(double t) {
+        return ((ax * t + bx) * t + cx) * t;
+    }
+
+    private double sampleY(double t) {
+        return ((ay * t + by) * t + cy) * t;
+    }
+
+    private double slopeX(double t) {
+        return (3 * ax * t + 2 * bx) * t + cx;
+    }
+
+    private double solveT(double x) {
+        // the sample interval of x gives a first guess
+        int i = 1;
+        int last = SAMPLE_TABLE_SIZE - 1;
+        while (i < last && samples[i] <= x) {
+            i++;
+        }
+        i--;
+        double start = i * SAMPLE_STEP;
+        double t = start + (x - samples[i]) / (samples[i + 1] - samples[i]) * SAMPLE_STEP;
+
+        for (int k = 0; k < NEWTON_ITERATIONS; k++) {
+            double slope = slopeX(t);
+            if (slope < NEWTON_MIN_SLOPE) {
+                break;
+            }
+            double error = sampleX(t) - x;
+            if (Math.abs(error) <= SUBDIVISION_PRECISION * slope) {
+                // t is within the precision
+                return t;
+            }
+            t -= error / slope;
+        }
+        // too flat for Newton-Raphson to converge, x is within the sample interval
+        return bisect(x, start, start + SAMPLE_STEP);
+    }
+
+    private double bisect(double x, double low, double high) {
+        double t = low + (high - low) / 2;
+        while (high - low > SUBDIVISION_PRECISION) {
+            double error = sampleX(t) - x;
+            if (error == 0) {
+                break;
+            } else if (error > 0) {
+                high = t;
+            } else {
+                low = t;
+            }
+            t = low + (high - low) / 2;
+        }
+        return t;
+    }
+
+    private static int hash(double x1, double y1, double x2, double y2) {
+        long h = Double.doubleToLongBits(x1);
+        h = h * 31 + Double.doubleToLongBits(y1);
+        h = h * 31 + Double.doubleToLongBits(x2);
+        h = h * 31 + Double.doubleToLongBits(y2);
+        int hash = (int) (h ^ (h >>> 32));
+        // spread the bits, control points often differ in the low mantissa bits only
+        return hash ^ (hash >>> 16) ^ (hash >>> 8);
+    }
+
+    @Override
+    public String toString() {
+        return "cubicBezier(" + x1 + "," + y1 + "," + x2 + "," + y2 + ")";
+    }
+}
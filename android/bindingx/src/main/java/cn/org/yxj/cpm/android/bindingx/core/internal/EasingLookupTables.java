@@ -0,0 +1,61 @@
+/**
+ * Copyright 2018 Alibaba Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.org.yxj.cpm.android.bindingx.core.internal;
+
+/**
+ * Description:
+ *
+ * Switch of the lookup table mode of the easings (easeInQuad ... easeInOutBounce) that can be
+ * used in expressions.
+ *
+ * When it is on, each easing is sampled once into a table of the given resolution, shared by all
+ * bindings, and evaluated by linear interpolation instead of its chain of pow/sin/sqrt. The end
+ * points, and the few intervals where interpolation would be off by more than {@link #MAX_ERROR}
+ * of the change in value (the bounces, the ends of the expo, elastic and circ easings), are
+ * computed analytically. {@code linear} and {@code cubicBezier} are not affected.
+ *
+ * It is off by default.
+ */
+public final class EasingLookupTables {
+
+    public static final int RESOLUTION_OFF = 0;
+    public static final int DEFAULT_RESOLUTION = 1024;
+
+    // tolerated interpolation error, relative to the change in value
+    static final double MAX_ERROR = 1e-4;
+
+    private static volatile int sResolution = RESOLUTION_OFF;
+
+    private EasingLookupTables() {
+    }
+
+    /**
+     * @param resolution count of intervals the normalized time [0, 1] is sampled with, e.g.
+     *                   {@link #DEFAULT_RESOLUTION}. {@link #RESOLUTION_OFF} (or any value
+     *                   below 2) turns the lookup tables off.
+     * */
+    public static void setResolution(int resolution) {
+        sResolution = resolution < 2 ? RESOLUTION_OFF : resolution;
+    }
+
+    public static int getResolution() {
+        return sResolution;
+    }
+
+    public static boolean isEnabled() {
+        return sResolution != RESOLUTION_OFF;
+    }
+}
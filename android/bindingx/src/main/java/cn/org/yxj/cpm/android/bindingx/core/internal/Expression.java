@@ -16,169 +16,107 @@
 package cn.org.yxj.cpm.android.bindingx.core.internal;
 
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
 import cn.org.yxj.cpm.android.bindingx.core.LogProxy;
 
-import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.json.JSONTokener;
 
-import java.util.ArrayList;
 import java.util.Map;
 
 /**
- * Execute transformed expression use recursive way
+ * Execute transformed expression.
+ *
+ * The json abstract syntax tree is compiled into a tree of {@link ExpressionNode} when
+ * the expression is created, evaluating it afterwards only walks the compiled nodes.
+ * If only the origin expression is sent, {@link ExpressionParser} builds the same tree from it.
  * */
 class Expression {
 
-    private JSONObject root;
+    private ExpressionNode root;
 
     Expression(String json) {
         try {
-            this.root = (JSONObject) new JSONTokener(json).nextValue();
+            this.root = ExpressionCompiler.compile((JSONObject) new JSONTokener(json).nextValue());
         } catch (Throwable e) {
             LogProxy.e("[Expression] expression is illegal. \n ", e);
         }
     }
 
-    Expression(JSONObject root) {
-        this.root = root;
+    /**
+     * compile the pair, from the transformed expression if it is present and from the origin
+     * expression otherwise.
+     *
+     * @return the compiled expression, or null if the expression is illegal
+     * */
+    @Nullable
+    static Expression create(@NonNull ExpressionPair pair) {
+        ExpressionNode root = null;
+        try {
+            if (ExpressionPair.hasTransformed(pair)) {
+                root = ExpressionCompiler.compile((JSONObject) new JSONTokener(pair.transformed).nextValue());
+            } else {
+                root = ExpressionParser.parse(pair.origin);
+            }
+        } catch (Throwable e) {
+            LogProxy.e("[Expression] expression is illegal. \n ", e);
+        }
+        return root == null ? null : new Expression(root);
     }
 
-    Object execute(Map<String, Object> scope) throws IllegalArgumentException, JSONException {
-        return execute(this.root, scope);
+    Expression(JSONObject root) throws JSONException {
+        this.root = ExpressionCompiler.compile(root);
     }
 
-    private double toNumber(Object value) {
-        if (value instanceof String)
-            return Double.parseDouble((String) value);
-        if (value instanceof Boolean)
-            return (boolean) value ? 1.0 : 0.0;
-        return (double) value;
+    Expression(ExpressionNode root) {
+        this.root = root;
     }
 
-    private boolean toBoolean(Object value) {
-        if (value instanceof String)
-            return "".equals(value);
-        if (value instanceof Double)
-            return (double) value != 0;
-        return ((Boolean) value);
+    /**
+     * @return the compiled tree, or null if the expression is illegal
+     * */
+    ExpressionNode getRoot() {
+        return root;
     }
 
-    private String toString(Object value) {
-        if (value instanceof Boolean)
-            return ((Boolean) value).booleanValue() ? "true" : "false";
-        if (value instanceof Double)
-            return Double.toString((Double) value);
-        return (String) value;
+    Object execute(Map<String, Object> scope) throws IllegalArgumentException, JSONException {
+        if (root == null) {
+            throw new IllegalArgumentException("expression is illegal");
+        }
+        return root.evaluate(ExpressionScope.from(scope));
     }
 
-    private boolean equal(Object v1, Object v2) {
-        if (v1 instanceof JSObjectInterface
-                && v2 instanceof JSObjectInterface)
-            return v1 == v2;
-        if (v1 instanceof String
-                && v2 instanceof String)
-            return v1.equals(v2);
-        if (v1 instanceof Boolean
-                && v2 instanceof Boolean)
-            return toBoolean(v1) == toBoolean(v2);
-        return toNumber(v1) == toNumber(v2);
+    /**
+     * @return true if the expression always evaluates to a number, in which case
+     * {@link #executeNumber(Map)} can be used to evaluate it without boxing.
+     * */
+    boolean isNumeric() {
+        return root != null && root.isNumeric();
     }
 
-    private boolean strictlyEqual(Object v1, Object v2) {
-        if (v1 instanceof JSObjectInterface
-                && !(v2 instanceof JSObjectInterface))
-            return false;
-
-        if (v1 instanceof Boolean
-                && !(v2 instanceof Boolean))
-            return false;
-
-        if (v1 instanceof Double
-                && !(v2 instanceof Double))
-            return false;
-
-        if (v1 instanceof String
-                && !(v2 instanceof String))
-            return false;
-        return v1 == v2;
+    double executeNumber(Map<String, Object> scope) throws IllegalArgumentException, JSONException {
+        if (root == null) {
+            throw new IllegalArgumentException("expression is illegal");
+        }
+        return root.evaluateNumber(ExpressionScope.from(scope));
     }
 
-    private Object execute(JSONObject node, Map<String, Object> scope) throws IllegalArgumentException, JSONException {
-
-        String type = node.getString("type");
-        JSONArray children = node.optJSONArray("children");
-        switch (type) {
-            case "StringLiteral":
-                return node.getString("value");
-            case "NumericLiteral":
-                return node.getDouble("value");
-            case "BooleanLiteral":
-                return node.getBoolean("value");
-            case "Identifier":
-                return scope.get(node.getString("value"));
-            case "CallExpression":
-                JSFunctionInterface function = (JSFunctionInterface) execute(children.getJSONObject(0), scope);
-                ArrayList<Object> arguments = new ArrayList<Object>();
-                JSONArray jsonArguments = children.getJSONObject(1).getJSONArray("children");
-                for (int i = 0; i < jsonArguments.length(); i++)
-                    arguments.add(execute(jsonArguments.getJSONObject(i), scope));
-                return function.execute(arguments);
-
-            case "?":
-                if ((Boolean) execute(children.getJSONObject(0), scope))
-                    return execute(children.getJSONObject(1), scope);
-                else
-                    return execute(children.getJSONObject(2), scope);
-
-            case "+":
-                return toNumber(execute(children.getJSONObject(0), scope)) + toNumber(execute(children.getJSONObject(1), scope));
-            case "-":
-                return toNumber(execute(children.getJSONObject(0), scope)) - toNumber(execute(children.getJSONObject(1), scope));
-            case "*":
-                return toNumber(execute(children.getJSONObject(0), scope)) * toNumber(execute(children.getJSONObject(1), scope));
-            case "/":
-                return toNumber(execute(children.getJSONObject(0), scope)) / toNumber(execute(children.getJSONObject(1), scope));
-            case "%":
-                return toNumber(execute(children.getJSONObject(0), scope)) % toNumber(execute(children.getJSONObject(1), scope));
-            case "**":
-                return Math.pow(toNumber(execute(children.getJSONObject(0), scope)), toNumber(execute(children.getJSONObject(1), scope)));
-
-            case ">":
-                return toNumber(execute(children.getJSONObject(0), scope)) > toNumber(execute(children.getJSONObject(1), scope));
-            case "<":
-                return toNumber(execute(children.getJSONObject(0), scope)) < toNumber(execute(children.getJSONObject(1), scope));
-            case ">=":
-                return toNumber(execute(children.getJSONObject(0), scope)) >= toNumber(execute(children.getJSONObject(1), scope));
-            case "<=":
-                return toNumber(execute(children.getJSONObject(0), scope)) <= toNumber(execute(children.getJSONObject(1), scope));
-
-            case "==":
-                return equal(execute(children.getJSONObject(0), scope), execute(children.getJSONObject(1), scope));
-            case "===":
-                return strictlyEqual(execute(children.getJSONObject(0), scope), execute(children.getJSONObject(1), scope));
-            case "!=":
-                return !equal(execute(children.getJSONObject(0), scope), execute(children.getJSONObject(1), scope));
-            case "!==":
-                return !strictlyEqual(execute(children.getJSONObject(0), scope), execute(children.getJSONObject(1), scope));
-
-            case "&&":
-                Object result;
-                result = execute(children.getJSONObject(0), scope);
-                if (!toBoolean(result))
-                    return result;
-                return execute(children.getJSONObject(1), scope);
-            case "||":
-                result = execute(children.getJSONObject(0), scope);
-                if (toBoolean(result))
-                    return result;
-                return execute(children.getJSONObject(1), scope);
-            case "!":
-                return !toBoolean(execute(children.getJSONObject(0), scope));
+    /**
+     * @return true if the expression always evaluates to a packed argb color, in which case
+     * {@link #executeColor(Map)} can be used to evaluate it without boxing.
+     * */
+    boolean isColor() {
+        return root != null && root.isColor();
+    }
 
+    int executeColor(Map<String, Object> scope) throws IllegalArgumentException, JSONException {
+        if (root == null) {
+            throw new IllegalArgumentException("expression is illegal");
         }
-        return null;
+        return root.evaluateColor(ExpressionScope.from(scope));
     }
 
 }
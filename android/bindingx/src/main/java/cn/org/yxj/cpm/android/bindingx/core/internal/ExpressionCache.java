@@ -0,0 +1,143 @@
+/**
+ * Copyright 2018 Alibaba Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.org.yxj.cpm.android.bindingx.core.internal;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Description:
+ *
+ * Process wide cache of compiled expressions, keyed by the transformed expression, or by the
+ * origin expression if the transformed one has not been sent. A transformed expression is a json
+ * object and an origin expression never starts with '{', so the keys do not collide.
+ *
+ * Compiled expressions do not depend on any handler or instance, so handlers of all pages share
+ * this cache and it is kept when handlers are destroyed. The cache is bounded by weight (the
+ * length of the keys it holds) and evicts the least recently used entries.
+ */
+public final class ExpressionCache {
+
+    // about a few hundred typical expressions
+    private static final long DEFAULT_MAX_WEIGHT = 256 * 1024;
+
+    private static final ExpressionCache sInstance = new ExpressionCache();
+
+    private final LinkedHashMap<String, Expression> mCache = new LinkedHashMap<>(32, 0.75f, true);
+    private long mMaxWeight = DEFAULT_MAX_WEIGHT;
+    private long mWeight;
+
+    private long mHitCount;
+    private long mMissCount;
+    private long mEvictionCount;
+
+    public static ExpressionCache getInstance() {
+        return sInstance;
+    }
+
+    private ExpressionCache() {
+    }
+
+    /**
+     * get the compiled expression, compile and cache it if it is not cached yet. Illegal
+     * expressions are not cached.
+     *
+     * @param pair a pair accepted by {@link ExpressionPair#isValid(ExpressionPair)}
+     * @return the compiled expression, or null if the expression is illegal
+     * */
+    @Nullable
+    Expression get(@NonNull ExpressionPair pair) {
+        String key = ExpressionPair.hasTransformed(pair) ? pair.transformed : pair.origin;
+        synchronized (this) {
+            Expression expression = mCache.get(key);
+            if (expression != null) {
+                mHitCount++;
+                return expression;
+            }
+            mMissCount++;
+        }
+
+        // compile outside the lock, a concurrent miss on the same key only costs a redundant compile
+        Expression compiled = Expression.create(pair);
+        if (compiled == null) {
+            return null;
+        }
+
+        synchronized (this) {
+            Expression expression = mCache.get(key);
+            if (expression != null) {
+                return expression;
+            }
+            mCache.put(key, compiled);
+            mWeight += weightOf(key);
+            trimToWeight(mMaxWeight);
+        }
+        return compiled;
+    }
+
+    public synchronized void setMaxWeight(long maxWeight) {
+        mMaxWeight = Math.max(0, maxWeight);
+        trimToWeight(mMaxWeight);
+    }
+
+    public synchronized void clear() {
+        trimToWeight(-1);
+    }
+
+    public synchronized long getHitCount() {
+        return mHitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return mMissCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return mEvictionCount;
+    }
+
+    public synchronized int size() {
+        return mCache.size();
+    }
+
+    public synchronized long weight() {
+        return mWeight;
+    }
+
+    private void trimToWeight(long maxWeight) {
+        Iterator<Map.Entry<String, Expression>> iterator = mCache.entrySet().iterator();
+        while (mWeight > maxWeight && iterator.hasNext()) {
+            Map.Entry<String, Expression> eldest = iterator.next();
+            mWeight -= weightOf(eldest.getKey());
+            iterator.remove();
+            mEvictionCount++;
+        }
+    }
+
+    private static int weightOf(String key) {
+        return key.length();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "ExpressionCache{size=" + mCache.size() + ",weight=" + mWeight + "/" + mMaxWeight
+                + ",hits=" + mHitCount + ",misses=" + mMissCount + ",evictions=" + mEvictionCount + "}";
+    }
+}
@@ -0,0 +1,310 @@
+/**
+ * Copyright 2018 Alibaba Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.org.yxj.cpm.android.bindingx.core.internal;
+
+import androidx.annotation.NonNull;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Description:
+ *
+ * Compiles the transformed expression (json abstract syntax tree) into a tree of
+ * {@link ExpressionNode}. Node types and operators are resolved here once, so that
+ * nothing has to be looked up by name while the expression is being evaluated.
+ */
+final class ExpressionCompiler {
+
+    // builtin functions as they are registered to the scope
+    private static final Map<String, Object> sBuiltins = new HashMap<>(64);
+
+    // binary operator symbol -> operator code of ExpressionNode
+    private static final Map<String, Integer> sBinaryOperators = new HashMap<>(32);
+
+    static {
+        JSMath.applyToScope(sBuiltins);
+        TimingFunctions.applyToScope(sBuiltins);
+
+        for (int op = ExpressionNode.OP_ADD; op <= ExpressionNode.OP_OR; op++) {
+            sBinaryOperators.put(ExpressionNode.symbolOf(op), op);
+        }
+    }
+
+    private ExpressionCompiler() {
+    }
+
+    @NonNull
+    static ExpressionNode compile(@NonNull JSONObject node) throws JSONException {
+        String type = node.getString("type");
+        JSONArray children = node.optJSONArray("children");
+        switch (type) {
+            case "StringLiteral":
+                return new ExpressionNode.StringLiteral(node.getString("value"));
+            case "NumericLiteral":
+                return new ExpressionNode.NumericLiteral(node.getDouble("value"));
+            case "BooleanLiteral":
+                return new ExpressionNode.BooleanLiteral(node.getBoolean("value"));
+            case "Identifier":
+                return compileIdentifier(node.getString("value"));
+            case "CallExpression":
+                ExpressionNode callee = compile(children.getJSONObject(0));
+                JSONArray jsonArguments = children.getJSONObject(1).getJSONArray("children");
+                ExpressionNode[] arguments = new ExpressionNode[jsonArguments.length()];
+                for (int i = 0; i < arguments.length; i++) {
+                    arguments[i] = compile(jsonArguments.getJSONObject(i));
+                }
+                return compileCall(callee, arguments);
+            case "ArrayExpression":
+                ExpressionNode[] elements = new ExpressionNode[children == null ? 0 : children.length()];
+                for (int i = 0; i < elements.length; i++) {
+                    elements[i] = child(children, i);
+                }
+                return compileArray(elements);
+
+            case "?":
+                return new ExpressionNode.Conditional(child(children, 0), child(children, 1), child(children, 2));
+
+            case "!":
+                return new ExpressionNode.Not(child(children, 0));
+        }
+        if (binaryOperator(type) >= 0) {
+            return binary(type, child(children, 0), child(children, 1));
+        }
+        return new ExpressionNode.Unknown(type);
+    }
+
+    /**
+     * @return operator code of a binary operator symbol, or -1 if it is not a binary operator
+     * */
+    static int binaryOperator(@NonNull String symbol) {
+        Integer op = sBinaryOperators.get(symbol);
+        return op == null ? -1 : op;
+    }
+
+    /**
+     * @param symbol a symbol accepted by {@link #binaryOperator(String)}
+     * */
+    @NonNull
+    static ExpressionNode binary(@NonNull String symbol, @NonNull ExpressionNode left, @NonNull ExpressionNode right) {
+        int op = binaryOperator(symbol);
+        switch (op) {
+            case ExpressionNode.OP_ADD:
+            case ExpressionNode.OP_SUB:
+            case ExpressionNode.OP_MUL:
+            case ExpressionNode.OP_DIV:
+            case ExpressionNode.OP_MOD:
+            case ExpressionNode.OP_POW:
+                return new ExpressionNode.Arithmetic(op, left, right);
+            case ExpressionNode.OP_GT:
+            case ExpressionNode.OP_LT:
+            case ExpressionNode.OP_GE:
+            case ExpressionNode.OP_LE:
+                return new ExpressionNode.Comparison(op, left, right);
+            case ExpressionNode.OP_EQ:
+            case ExpressionNode.OP_STRICT_EQ:
+            case ExpressionNode.OP_NE:
+            case ExpressionNode.OP_STRICT_NE:
+                return new ExpressionNode.Equality(op, left, right);
+            case ExpressionNode.OP_AND:
+            case ExpressionNode.OP_OR:
+                return new ExpressionNode.Logical(op, left, right);
+            default:
+                throw new IllegalArgumentException("unknown binary operator " + symbol);
+        }
+    }
+
+    @NonNull
+    static ExpressionNode compileIdentifier(@NonNull String name) {
+        int slot = ExpressionScope.variableSlotOf(name);
+        if (slot >= 0) {
+            return new ExpressionNode.Variable(slot, name);
+        }
+        slot = ExpressionScope.objectSlotOf(name);
+        if (slot >= 0) {
+            return new ExpressionNode.Builtin(slot, name);
+        }
+        return new ExpressionNode.Identifier(name);
+    }
+
+    @NonNull
+    static ExpressionNode compileCall(@NonNull ExpressionNode callee, @NonNull ExpressionNode[] arguments) {
+        if (callee instanceof ExpressionNode.Builtin) {
+            String name = ((ExpressionNode.Builtin) callee).name;
+            if (JSFunctions.isCallable(sBuiltins.get(name), arguments.length)) {
+                return new ExpressionNode.FunctionCall(callee, arguments);
+            }
+            if ("interpolate".equals(name)) {
+                Interpolation interpolation = constantInterpolation(arguments);
+                if (interpolation != null) {
+                    return new ExpressionNode.Interpolate(callee, arguments, interpolation, sBuiltins.get(name));
+                }
+            }
+            if (("rgb".equals(name) && arguments.length == 3) || ("rgba".equals(name) && arguments.length == 4)) {
+                return new ExpressionNode.Rgb(callee, arguments, sBuiltins.get(name));
+            }
+            if (isVector(name, arguments)) {
+                return new ExpressionNode.Vector(callee, arguments, sBuiltins.get(name));
+            }
+            if ("evaluateColor".equals(name)) {
+                ExpressionNode fade = constantColorFade(callee, arguments);
+                if (fade != null) {
+                    return fade;
+                }
+            }
+        }
+        return new ExpressionNode.Call(callee, arguments);
+    }
+
+    /**
+     * an array literal [a, b, ...] is a call to the asArray builtin
+     * */
+    @NonNull
+    static ExpressionNode compileArray(@NonNull ExpressionNode[] elements) {
+        return compileCall(compileIdentifier("asArray"), elements);
+    }
+
+    /**
+     * @return the prepared interpolation if the stops (and the extrapolate mode) are constants,
+     * null if they have to be evaluated at runtime or are illegal (reported when evaluated)
+     * */
+    private static Interpolation constantInterpolation(ExpressionNode[] arguments) {
+        if (arguments.length != 3 && arguments.length != 4) {
+            return null;
+        }
+        List<Object> inputs = constantArray(arguments[1]);
+        List<Object> outputs = constantArray(arguments[2]);
+        String extrapolate = null;
+        if (arguments.length == 4) {
+            if (!(arguments[3] instanceof ExpressionNode.StringLiteral)) {
+                return null;
+            }
+            extrapolate = ((ExpressionNode.StringLiteral) arguments[3]).value;
+        }
+        if (inputs == null || outputs == null) {
+            return null;
+        }
+        try {
+            return Interpolation.create(inputs, outputs, extrapolate);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static boolean isVector(String name, ExpressionNode[] arguments) {
+        boolean vector;
+        switch (name) {
+            case "translate":
+            case "scale":
+                vector = arguments.length == 2;
+                break;
+            case "asArray":
+                vector = arguments.length == 2 || arguments.length == 4;
+                break;
+            case "matrix":
+                vector = arguments.length == 6;
+                break;
+            default:
+                vector = false;
+                break;
+        }
+        if (!vector) {
+            return false;
+        }
+        for (ExpressionNode argument : arguments) {
+            if (!argument.isNumeric()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the color fade if the colors (and the mode) are constants, null if they have to be
+     * evaluated at runtime or are illegal (reported when evaluated)
+     * */
+    private static ExpressionNode constantColorFade(ExpressionNode callee, ExpressionNode[] arguments) {
+        if (arguments.length != 3 && arguments.length != 4) {
+            return null;
+        }
+        for (int i = 0; i < arguments.length; i++) {
+            if (i != 2 && !(arguments[i] instanceof ExpressionNode.StringLiteral)) {
+                return null;
+            }
+        }
+        try {
+            int from = JSMath.parseColor(((ExpressionNode.StringLiteral) arguments[0]).value);
+            int to = JSMath.parseColor(((ExpressionNode.StringLiteral) arguments[1]).value);
+            int mode = arguments.length == 4
+                    ? Colors.modeOf(((ExpressionNode.StringLiteral) arguments[3]).value) : Colors.MODE_SRGB;
+            return new ExpressionNode.ColorFade(callee, arguments, from, to, mode, sBuiltins.get("evaluateColor"));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static List<Object> constantArray(ExpressionNode node) {
+        ExpressionNode callee;
+        ExpressionNode[] elements;
+        if (node instanceof ExpressionNode.Call) {
+            callee = ((ExpressionNode.Call) node).callee;
+            elements = ((ExpressionNode.Call) node).arguments;
+        } else if (node instanceof ExpressionNode.Vector) {
+            callee = ((ExpressionNode.Vector) node).callee;
+            elements = ((ExpressionNode.Vector) node).arguments;
+        } else {
+            return null;
+        }
+        if (!(callee instanceof ExpressionNode.Builtin) || !"asArray".equals(((ExpressionNode.Builtin) callee).name)) {
+            return null;
+        }
+        List<Object> values = new ArrayList<>(elements.length);
+        for (ExpressionNode element : elements) {
+            if (element instanceof ExpressionNode.NumericLiteral) {
+                values.add(((ExpressionNode.NumericLiteral) element).value);
+            } else if (element instanceof ExpressionNode.StringLiteral) {
+                values.add(((ExpressionNode.StringLiteral) element).value);
+            } else if (isNegatedLiteral(element)) {
+                values.add(-((ExpressionNode.NumericLiteral) ((ExpressionNode.Arithmetic) element).right).value);
+            } else {
+                return null;
+            }
+        }
+        return values;
+    }
+
+    // 0 - 100, as negative numbers may be written in the transformed expression
+    private static boolean isNegatedLiteral(ExpressionNode node) {
+        if (!(node instanceof ExpressionNode.Arithmetic)) {
+            return false;
+        }
+        ExpressionNode.Arithmetic arithmetic = (ExpressionNode.Arithmetic) node;
+        return arithmetic.op == ExpressionNode.OP_SUB
+                && arithmetic.left instanceof ExpressionNode.NumericLiteral
+                && ((ExpressionNode.NumericLiteral) arithmetic.left).value == 0
+                && arithmetic.right instanceof ExpressionNode.NumericLiteral;
+    }
+
+    private static ExpressionNode child(JSONArray children, int index) throws JSONException {
+        return compile(children.getJSONObject(index));
+    }
+}
@@ -0,0 +1,128 @@
+/**
+ * Copyright 2018 Alibaba Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.org.yxj.cpm.android.bindingx.core.internal;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Description:
+ *
+ * Output buffer of one frame of a binding. The holders are flattened into an array once, the
+ * results of a frame are written into flat arrays at the index of their holder: numbers and
+ * colors as primitives, anything else as objects. {@link AbstractEventHandler} evaluates all
+ * the expressions into the buffer first and then applies the whole buffer to the views.
+ *
+ * The buffer is allocated when the holders change, not per frame.
+ */
+final class ExpressionFrame {
+
+    // no result for the holder in this frame, nothing to apply
+    static final byte KIND_NONE = 0;
+    static final byte KIND_NUMBER = 1;
+    static final byte KIND_COLOR = 2;
+    static final byte KIND_OBJECT = 3;
+
+    // the map the holders have been taken from, and its version when they have been taken
+    final Map<String, List<ExpressionHolder>> source;
+    final int version;
+    final ExpressionHolder[] holders;
+
+    final byte[] kinds;
+    final double[] numbers;
+    final int[] colors;
+    final Object[] objects;
+
+    private ExpressionFrame(Map<String, List<ExpressionHolder>> source, int version, ExpressionHolder[] holders) {
+        this.source = source;
+        this.version = version;
+        this.holders = holders;
+        int size = holders.length;
+        this.kinds = new byte[size];
+        this.numbers = new double[size];
+        this.colors = new int[size];
+        this.objects = new Object[size];
+    }
+
+    /**
+     * @param version bumped by the owner whenever holders are added to or removed from the map
+     * */
+    @NonNull
+    static ExpressionFrame of(@NonNull Map<String, List<ExpressionHolder>> source, int version) {
+        int count = 0;
+        for (List<ExpressionHolder> holderList : source.values()) {
+            count += holderList.size();
+        }
+        ExpressionHolder[] holders = new ExpressionHolder[count];
+        int i = 0;
+        for (List<ExpressionHolder> holderList : source.values()) {
+            for (int j = 0, size = holderList.size(); j < size; j++) {
+                holders[i++] = holderList.get(j);
+            }
+        }
+        return new ExpressionFrame(source, version, holders);
+    }
+
+    /**
+     * @return true if the buffer still holds the holders of the map
+     * */
+    boolean isFrameOf(@Nullable Map<String, List<ExpressionHolder>> map, int version) {
+        return map == source && version == this.version;
+    }
+
+    /**
+     * @return an empty buffer over the same holders
+     * */
+    @NonNull
+    ExpressionFrame newBuffer() {
+        return new ExpressionFrame(source, version, holders);
+    }
+
+    int size() {
+        return holders.length;
+    }
+
+    /**
+     * move the results of this buffer into the target, a buffer over the same holders. Results
+     * the target already holds for the same holder are overwritten, this buffer is left empty.
+     *
+     * @return true if there was anything to move
+     * */
+    boolean moveTo(@NonNull ExpressionFrame target) {
+        boolean moved = false;
+        for (int i = 0, size = holders.length; i < size; i++) {
+            byte kind = kinds[i];
+            if (kind == KIND_NONE) {
+                continue;
+            }
+            target.kinds[i] = kind;
+            target.numbers[i] = numbers[i];
+            target.colors[i] = colors[i];
+            target.objects[i] = objects[i];
+            clear(i);
+            moved = true;
+        }
+        return moved;
+    }
+
+    void clear(int index) {
+        kinds[index] = KIND_NONE;
+        objects[index] = null;
+    }
+}
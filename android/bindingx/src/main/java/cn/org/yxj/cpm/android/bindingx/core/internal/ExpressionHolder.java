@@ -15,6 +15,11 @@
  */
 package cn.org.yxj.cpm.android.bindingx.core.internal;
 
+import android.view.View;
+
+import cn.org.yxj.cpm.android.bindingx.core.PlatformManager;
+
+import java.lang.ref.WeakReference;
 import java.util.Collections;
 import java.util.Map;
 
@@ -27,6 +32,42 @@ final class ExpressionHolder {
     String eventType;
     Map<String,Object> config;
 
+    // compiled when the expression is bound, null if the expression is invalid
+    Expression expression;
+    // inferred when the expression is bound, see ExpressionType
+    int resultType = ExpressionType.UNKNOWN;
+    // how the result is evaluated, one of the ExpressionFrame kinds
+    byte resultKind = ExpressionFrame.KIND_OBJECT;
+
+    // resolved when the expression is bound. colorUpdater is set if color results can be applied unboxed
+    PlatformManager.IViewUpdater viewUpdater;
+    PlatformManager.IColorViewUpdater colorUpdater;
+
+    // variable slots read by the expression, see ExpressionScope#getChanged()
+    int dependencies = ExpressionScope.DEPENDS_ON_ALL;
+    // true once the expression has been evaluated and its result handed to the view. Set by the
+    // thread that applies the results, read by the one that evaluates them
+    volatile boolean evaluated;
+
+    // results within epsilon of the last applied result are dropped. The last result is only
+    // touched by the thread that applies the results
+    double epsilon;
+    boolean hasLastResult;
+    double lastNumber;
+    Object lastResult;
+    // the view the last result has been applied to, the last result is dropped when the ref resolves to another one.
+    // Set by the thread that applies the results, read by the one that evaluates them
+    volatile WeakReference<View> lastView;
+
+    // null unless the binding is profiled
+    ExpressionStats stats;
+
+    // extension params handed to the view finder, rebuilt when the handler's params change
+    Object[] extension;
+    Object[] extensionSource;
+    // extension params handed to the view updater: target ref and instance id
+    Object[] updateExtension;
+
     ExpressionHolder(String target, String targetInstanceId, ExpressionPair expressionPair, String prop, String eventType, Map<String,Object> config) {
         this.targetRef = target;
         this.targetInstanceId = targetInstanceId;
@@ -38,6 +79,7 @@ final class ExpressionHolder {
         } else {
             this.config = Collections.unmodifiableMap(config);
         }
+        this.epsilon = Math.max(0, Utils.getDoubleValue(this.config, BindingXConstants.KEY_EPSILON, 0));
     }
 
     @Override
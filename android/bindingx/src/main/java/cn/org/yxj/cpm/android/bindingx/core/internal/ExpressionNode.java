@@ -0,0 +1,1069 @@
+/**
+ * Copyright 2018 Alibaba Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.org.yxj.cpm.android.bindingx.core.internal;
+
+import org.json.JSONException;
+
+import java.util.ArrayList;
+
+/**
+ * Description:
+ *
+ * A node of a compiled expression tree. Nodes are created once by {@link ExpressionCompiler}
+ * when an expression is bound, so evaluating them does not need to look at the json
+ * abstract syntax tree or dispatch on the node type string again.
+ *
+ * Nodes are immutable and can be shared between expressions and threads.
+ *
+ * Sub-trees that always produce a number report {@link #isNumeric()} and can be evaluated
+ * through {@link #evaluateNumber(ExpressionScope)}, which works on primitive doubles and does not allocate.
+ */
+abstract class ExpressionNode {
+
+    static final int OP_ADD = 0;
+    static final int OP_SUB = 1;
+    static final int OP_MUL = 2;
+    static final int OP_DIV = 3;
+    static final int OP_MOD = 4;
+    static final int OP_POW = 5;
+
+    static final int OP_GT = 6;
+    static final int OP_LT = 7;
+    static final int OP_GE = 8;
+    static final int OP_LE = 9;
+
+    static final int OP_EQ = 10;
+    static final int OP_STRICT_EQ = 11;
+    static final int OP_NE = 12;
+    static final int OP_STRICT_NE = 13;
+
+    static final int OP_AND = 14;
+    static final int OP_OR = 15;
+
+    private static final String[] OP_SYMBOLS = {
+            "+", "-", "*", "/", "%", "**",
+            ">", "<", ">=", "<=",
+            "==", "===", "!=", "!==",
+            "&&", "||"
+    };
+
+    static final ExpressionNode[] NO_CHILDREN = new ExpressionNode[0];
+
+
+    abstract Object evaluate(ExpressionScope scope) throws IllegalArgumentException, JSONException;
+
+    /**
+     * @return true if this node always evaluates to a number
+     * */
+    boolean isNumeric() {
+        return false;
+    }
+
+    /**
+     * evaluate this node as a primitive number. Numeric nodes override this and never box.
+     * */
+    double evaluateNumber(ExpressionScope scope) throws IllegalArgumentException, JSONException {
+        return toNumber(evaluate(scope));
+    }
+
+    /**
+     * @return true if this node always evaluates to a packed argb color
+     * */
+    boolean isColor() {
+        return false;
+    }
+
+    /**
+     * evaluate this node as a packed argb color. Color nodes override this and never box.
+     * */
+    int evaluateColor(ExpressionScope scope) throws IllegalArgumentException, JSONException {
+        return toColor(evaluate(scope));
+    }
+
+    /**
+     * @return child nodes, in evaluation order
+     * */
+    ExpressionNode[] children() {
+        return NO_CHILDREN;
+    }
+
+    /**
+     * @return a node of the same kind with the given children, used by {@link ExpressionOptimizer}
+     * to rewrite a tree without touching the (shared) original one.
+     * */
+    ExpressionNode copy(ExpressionNode[] children) {
+        return this;
+    }
+
+    static String symbolOf(int op) {
+        return OP_SYMBOLS[op];
+    }
+
+    static double toNumber(Object value) {
+        if (value instanceof String)
+            return Double.parseDouble((String) value);
+        if (value instanceof Boolean)
+            return (boolean) value ? 1.0 : 0.0;
+        return (double) value;
+    }
+
+    static int toColor(Object value) {
+        if (value instanceof Integer)
+            return (int) value;
+        if (value instanceof Double)
+            return (int) (double) value;
+        throw new IllegalArgumentException("not a color: " + value);
+    }
+
+    static boolean toBoolean(Object value) {
+        if (value instanceof String)
+            return "".equals(value);
+        if (value instanceof Double)
+            return (double) value != 0;
+        return ((Boolean) value);
+    }
+
+    static String toString(Object value) {
+        if (value instanceof Boolean)
+            return ((Boolean) value).booleanValue() ? "true" : "false";
+        if (value instanceof Double)
+            return Double.toString((Double) value);
+        return (String) value;
+    }
+
+    static boolean equal(Object v1, Object v2) {
+        if (v1 instanceof JSObjectInterface
+                && v2 instanceof JSObjectInterface)
+            return v1 == v2;
+        if (v1 instanceof String
+                && v2 instanceof String)
+            return v1.equals(v2);
+        if (v1 instanceof Boolean
+                && v2 instanceof Boolean)
+            return toBoolean(v1) == toBoolean(v2);
+        return toNumber(v1) == toNumber(v2);
+    }
+
+    static boolean strictlyEqual(Object v1, Object v2) {
+        if (v1 instanceof JSObjectInterface
+                && !(v2 instanceof JSObjectInterface))
+            return false;
+
+        if (v1 instanceof Boolean
+                && !(v2 instanceof Boolean))
+            return false;
+
+        if (v1 instanceof Double
+                && !(v2 instanceof Double))
+            return false;
+
+        if (v1 instanceof String
+                && !(v2 instanceof String))
+            return false;
+        return v1 == v2;
+    }
+
+    /**
+     * call a function the generic way: box the arguments into a list and call
+     * {@link JSFunctionInterface#execute}. This is how custom functions are called.
+     * */
+    static Object execute(Object function, ExpressionNode[] arguments, ExpressionScope scope)
+            throws IllegalArgumentException, JSONException {
+        ArrayList<Object> args = new ArrayList<>(arguments.length);
+        for (ExpressionNode argument : arguments) {
+            args.add(argument.evaluate(scope));
+        }
+        return ((JSFunctionInterface) function).execute(args);
+    }
+
+    private static String callToString(String callee, ExpressionNode[] arguments) {
+        StringBuilder builder = new StringBuilder("(").append(callee);
+        for (ExpressionNode argument : arguments) {
+            builder.append(' ').append(argument);
+        }
+        return builder.append(')').toString();
+    }
+
+    static final class StringLiteral extends ExpressionNode {
+        final String value;
+
+        StringLiteral(String value) {
+            this.value = value;
+        }
+
+        @Override
+        Object evaluate(ExpressionScope scope) {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return '"' + value + '"';
+        }
+    }
+
+    static final class NumericLiteral extends ExpressionNode {
+        final double value;
+        private final Double boxed;
+
+        NumericLiteral(double value) {
+            this.value = value;
+            this.boxed = value;
+        }
+
+        @Override
+        Object evaluate(ExpressionScope scope) {
+            return boxed;
+        }
+
+        @Override
+        boolean isNumeric() {
+            return true;
+        }
+
+        @Override
+        double evaluateNumber(ExpressionScope scope) {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return Double.toString(value);
+        }
+    }
+
+    static final class BooleanLiteral extends ExpressionNode {
+        final boolean value;
+
+        BooleanLiteral(boolean value) {
+            this.value = value;
+        }
+
+        @Override
+        Object evaluate(ExpressionScope scope) {
+            return value ? Boolean.TRUE : Boolean.FALSE;
+        }
+
+        @Override
+        public String toString() {
+            return value ? "true" : "false";
+        }
+    }
+
+    /**
+     * node type that can not be recognized. It always evaluates to null, which is
+     * what the json interpreter used to do.
+     * */
+    static final class Unknown extends ExpressionNode {
+        final String type;
+
+        Unknown(String type) {
+            this.type = type;
+        }
+
+        @Override
+        Object evaluate(ExpressionScope scope) {
+            return null;
+        }
+
+        @Override
+        public String toString() {
+            return "<" + type + ">";
+        }
+    }
+
+    /**
+     * identifier which is neither a well known variable nor a builtin, looked up by name.
+     * */
+    static final class Identifier extends ExpressionNode {
+        final String name;
+
+        Identifier(String name) {
+            this.name = name;
+        }
+
+        @Override
+        Object evaluate(ExpressionScope scope) {
+            return scope.get(name);
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    /**
+     * well known variable which has been resolved to a slot of {@link ExpressionScope}.
+     * */
+    static final class Variable extends ExpressionNode {
+        final int slot;
+        final String name;
+
+        Variable(int slot, String name) {
+            this.slot = slot;
+            this.name = name;
+        }
+
+        @Override
+        Object evaluate(ExpressionScope scope) {
+            return scope.getVariable(slot);
+        }
+
+        @Override
+        boolean isNumeric() {
+            return true;
+        }
+
+        @Override
+        double evaluateNumber(ExpressionScope scope) {
+            if (scope.hasValue(slot)) {
+                return scope.getValue(slot);
+            }
+            // not assigned by the current event
+            Object value = scope.getVariable(slot);
+            return value == null ? Double.NaN : toNumber(value);
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    /**
+     * builtin function or constant which has been resolved to a slot of {@link ExpressionScope}.
+     * */
+    static final class Builtin extends ExpressionNode {
+        final int slot;
+        final String name;
+
+        Builtin(int slot, String name) {
+            this.slot = slot;
+            this.name = name;
+        }
+
+        @Override
+        Object evaluate(ExpressionScope scope) {
+            return scope.getObject(slot);
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    /**
+     * call of a function with its arguments, the callee is the first child. the calls specialized
+     * for builtins extend it with their own evaluation only.
+     * */
+    abstract static class AbstractCall extends ExpressionNode {
+        final ExpressionNode callee;
+        final ExpressionNode[] arguments;
+
+        AbstractCall(ExpressionNode callee, ExpressionNode[] arguments) {
+            this.callee = callee;
+            this.arguments = arguments;
+        }
+
+        /**
+         * @return a call of the same kind with the given callee and arguments
+         * */
+        abstract AbstractCall copyCall(ExpressionNode callee, ExpressionNode[] arguments);
+
+        @Override
+        final ExpressionNode[] children() {
+            ExpressionNode[] children = new ExpressionNode[arguments.length + 1];
+            children[0] = callee;
+            System.arraycopy(arguments, 0, children, 1, arguments.length);
+            return children;
+        }
+
+        @Override
+        final ExpressionNode copy(ExpressionNode[] children) {
+            ExpressionNode[] args = new ExpressionNode[children.length - 1];
+            System.arraycopy(children, 1, args, 0, args.length);
+            return copyCall(children[0], args);
+        }
+
+        @Override
+        public String toString() {
+            return callToString(callee.toString(), arguments);
+        }
+    }
+
+    static final class Call extends AbstractCall {
+        Call(ExpressionNode callee, ExpressionNode[] arguments) {
+            super(callee, arguments);
+        }
+
+        @Override
+        Object evaluate(ExpressionScope scope) throws IllegalArgumentException, JSONException {
+            return execute(callee.evaluate(scope), arguments, scope);
+        }
+
+        @Override
+        AbstractCall copyCall(ExpressionNode callee, ExpressionNode[] arguments) {
+            return new Call(callee, arguments);
+        }
+    }
+
+    /**
+     * call to a builtin of {@link JSMath} or {@link TimingFunctions} that takes numbers only
+     * ({@link JSFunction1} ... {@link JSFunctionN}). The arguments are evaluated as doubles and
+     * passed without boxing, those of {@link JSFunctionN} through the argument stack of the scope.
+     * If the name resolves to something else at runtime (e.g. overridden by a custom function)
+     * it is called like any other function.
+     * */
+    static final class FunctionCall extends AbstractCall {
+        FunctionCall(ExpressionNode callee, ExpressionNode[] arguments) {
+            super(callee, arguments);
+        }
+
+        @Override
+        AbstractCall copyCall(ExpressionNode callee, ExpressionNode[] arguments) {
+            return new FunctionCall(callee, arguments);
+        }
+
+        @Override
+        Object evaluate(ExpressionScope scope) throws IllegalArgumentException, JSONException {
+            Object function = callee.evaluate(scope);
+            if (!JSFunctions.isCallable(function, arguments.length)) {
+                return execute(function, arguments, scope);
+            }
+            return call(function, scope);
+        }
+
+        @Override
+        boolean isNumeric() {
+            return true;
+        }
+
+        @Override
+        double evaluateNumber(ExpressionScope scope) throws IllegalArgumentException, JSONException {
+            Object function = callee.evaluate(scope);
+            if (!JSFunctions.isCallable(function, arguments.length)) {
+                return toNumber(execute(function, arguments, scope));
+            }
+            return call(function, scope);
+        }
+
+        private double call(Object function, ExpressionScope scope) throws IllegalArgumentException, JSONException {
+            switch (arguments.length) {
+                case 1:
+                    if (function instanceof JSFunction1) {
+                        return ((JSFunction1) function).call(arguments[0].evaluateNumber(scope));
+                    }
+                    break;
+                case 2:
+                    if (function instanceof JSFunction2) {
+                        return ((JSFunction2) function).call(arguments[0].evaluateNumber(scope),
+                                arguments[1].evaluateNumber(scope));
+                    }
+                    break;
+                case 3:
+                    if (function instanceof JSFunction3) {
+                        return ((JSFunction3) function).call(arguments[0].evaluateNumber(scope),
+                                arguments[1].evaluateNumber(scope), arguments[2].evaluateNumber(scope));
+                    }
+                    break;
+                case 4:
+                    if (function instanceof JSFunction4) {
+                        return ((JSFunction4) function).call(arguments[0].evaluateNumber(scope),
+                                arguments[1].evaluateNumber(scope), arguments[2].evaluateNumber(scope),
+                                arguments[3].evaluateNumber(scope));
+                    }
+                    break;
+                default:
+                    break;
+            }
+            int base = scope.pushArguments(arguments.length);
+            try {
+                for (int i = 0; i < arguments.length; i++) {
+                    // nested calls push above base and may grow the stack, so store one by one
+                    scope.setArgument(base + i, arguments[i].evaluateNumber(scope));
+                }
+                return ((JSFunctionN) function).call(scope.getArguments(), base, arguments.length);
+            } finally {
+                scope.popArguments(base);
+            }
+        }
+    }
+
+    /**
+     * call to the interpolate builtin with constant stops, see {@link Interpolation}. The stops
+     * are prepared when the expression is compiled. If the name resolves to something else at
+     * runtime (e.g. overridden by a custom function) it is called like any other function.
+     * */
+    static final class Interpolate extends AbstractCall {
+        // arguments: value, input stops, output stops and the optional extrapolate mode
+        final Interpolation interpolation;
+        final Object builtin;
+
+        Interpolate(ExpressionNode callee, ExpressionNode[] arguments, Interpolation interpolation, Object builtin) {
+            super(callee, arguments);
+            this.interpolation = interpolation;
+            this.builtin = builtin;
+        }
+
+        @Override
+        AbstractCall copyCall(ExpressionNode callee, ExpressionNode[] arguments) {
+            return new Interpolate(callee, arguments, interpolation, builtin);
+        }
+
+        @Override
+        Object evaluate(ExpressionScope scope) throws IllegalArgumentException, JSONException {
+            Object function = callee.evaluate(scope);
+            if (function != builtin) {
+                return execute(function, arguments, scope);
+            }
+            return interpolation.evaluate(arguments[0].evaluateNumber(scope));
+        }
+
+        @Override
+        boolean isNumeric() {
+            return !interpolation.isColor();
+        }
+
+        @Override
+        double evaluateNumber(ExpressionScope scope) throws IllegalArgumentException, JSONException {
+            Object function = callee.evaluate(scope);
+            if (function != builtin || interpolation.isColor()) {
+                return toNumber(evaluate(scope));
+            }
+            return interpolation.interpolate(arguments[0].evaluateNumber(scope));
+        }
+
+        @Override
+        boolean isColor() {
+            return interpolation.isColor();
+        }
+
+        @Override
+        int evaluateColor(ExpressionScope scope) throws IllegalArgumentException, JSONException {
+            Object function = callee.evaluate(scope);
+            if (function != builtin || !interpolation.isColor()) {
+                return toColor(evaluate(scope));
+            }
+            return interpolation.interpolateColor(arguments[0].evaluateNumber(scope));
+        }
+    }
+
+    /**
+     * call to the rgb or rgba builtin, the channels are evaluated as doubles and packed
+     * without boxing. If the name resolves to something else at runtime (e.g. overridden by a
+     * custom function) it is called like any other function.
+     * */
+    static final class Rgb extends AbstractCall {
+        // arguments: red, green, blue (0~255) and for rgba the alpha (0~1)
+        final Object builtin;
+
+        Rgb(ExpressionNode callee, ExpressionNode[] arguments, Object builtin) {
+            super(callee, arguments);
+            this.builtin = builtin;
+        }
+
+        @Override
+        AbstractCall copyCall(ExpressionNode callee, ExpressionNode[] arguments) {
+            return new Rgb(callee, arguments, builtin);
+        }
+
+        @Override
+        Object evaluate(ExpressionScope scope) throws IllegalArgumentException, JSONException {
+            Object function = callee.evaluate(scope);
+            if (function != builtin) {
+                return execute(function, arguments, scope);
+            }
+            return pack(scope);
+        }
+
+        @Override
+        boolean isColor() {
+            return true;
+        }
+
+        @Override
+        int evaluateColor(ExpressionScope scope) throws IllegalArgumentException, JSONException {
+            Object function = callee.evaluate(scope);
+            if (function != builtin) {
+                return toColor(execute(function, arguments, scope));
+            }
+            return pack(scope);
+        }
+
+        private int pack(ExpressionScope scope) throws IllegalArgumentException, JSONException {
+            double r = arguments[0].evaluateNumber(scope);
+            double g = arguments[1].evaluateNumber(scope);
+            double b = arguments[2].evaluateNumber(scope);
+            double a = arguments.length > 3 ? arguments[3].evaluateNumber(scope) * 255 : 255;
+            return Colors.argb((int) a, (int) r, (int) g, (int) b);
+        }
+    }
+
+    /**
+     * call to translate, scale, matrix or asArray with 2, 4 or 6 numeric arguments. They are
+     * evaluated as doubles and packed into a {@link Vec2}, {@link Vec4} or {@link Mat3}, without
+     * building a list of boxed numbers. If the name resolves to something else at runtime (e.g.
+     * overridden by a custom function) it is called like any other function.
+     * */
+    static final class Vector extends AbstractCall {
+        final Object builtin;
+
+        Vector(ExpressionNode callee, ExpressionNode[] arguments, Object builtin) {
+            super(callee, arguments);
+            this.builtin = builtin;
+        }
+
+        @Override
+        AbstractCall copyCall(ExpressionNode callee, ExpressionNode[] arguments) {
+            return new Vector(callee, arguments, builtin);
+        }
+
+        @Override
+        Object evaluate(ExpressionScope scope) throws IllegalArgumentException, JSONException {
+            Object function = callee.evaluate(scope);
+            if (function != builtin) {
+                return execute(function, arguments, scope);
+            }
+            ExpressionNode[] args = arguments;
+            switch (args.length) {
+                case 2:
+                    return new Vec2(args[0].evaluateNumber(scope), args[1].evaluateNumber(scope));
+                case 4:
+                    return new Vec4(args[0].evaluateNumber(scope), args[1].evaluateNumber(scope),
+                            args[2].evaluateNumber(scope), args[3].evaluateNumber(scope));
+                default:
+                    return new Mat3(args[0].evaluateNumber(scope), args[1].evaluateNumber(scope),
+                            args[2].evaluateNumber(scope), args[3].evaluateNumber(scope),
+                            args[4].evaluateNumber(scope), args[5].evaluateNumber(scope));
+            }
+        }
+    }
+
+    /**
+     * call to the evaluateColor builtin with constant colors (and mode), which are parsed when
+     * the expression is compiled, only the fraction is evaluated. If the name resolves to
+     * something else at runtime (e.g. overridden by a custom function) it is called like any
+     * other function.
+     * */
+    static final class ColorFade extends AbstractCall {
+        // arguments: from color, to color, fraction and the optional mode
+        final int from;
+        final int to;
+        final int mode;
+        final Object builtin;
+
+        ColorFade(ExpressionNode callee, ExpressionNode[] arguments, int from, int to, int mode, Object builtin) {
+            super(callee, arguments);
+            this.from = from;
+            this.to = to;
+            this.mode = mode;
+            this.builtin = builtin;
+        }
+
+        @Override
+        AbstractCall copyCall(ExpressionNode callee, ExpressionNode[] arguments) {
+            return new ColorFade(callee, arguments, from, to, mode, builtin);
+        }
+
+        @Override
+        Object evaluate(ExpressionScope scope) throws IllegalArgumentException, JSONException {
+            Object function = callee.evaluate(scope);
+            if (function != builtin) {
+                return execute(function, arguments, scope);
+            }
+            return Colors.interpolate(from, to, arguments[2].evaluateNumber(scope), mode);
+        }
+
+        @Override
+        boolean isColor() {
+            return true;
+        }
+
+        @Override
+        int evaluateColor(ExpressionScope scope) throws IllegalArgumentException, JSONException {
+            Object function = callee.evaluate(scope);
+            if (function != builtin) {
+                return toColor(execute(function, arguments, scope));
+            }
+            return Colors.interpolate(from, to, arguments[2].evaluateNumber(scope), mode);
+        }
+    }
+
+    static final class Conditional extends ExpressionNode {
+        final ExpressionNode test;
+        final ExpressionNode consequent;
+        final ExpressionNode alternate;
+
+        Conditional(ExpressionNode test, ExpressionNode consequent, ExpressionNode alternate) {
+            this.test = test;
+            this.consequent = consequent;
+            this.alternate = alternate;
+        }
+
+        @Override
+        Object evaluate(ExpressionScope scope) throws IllegalArgumentException, JSONException {
+            if ((Boolean) test.evaluate(scope))
+                return consequent.evaluate(scope);
+            else
+                return alternate.evaluate(scope);
+        }
+
+        @Override
+        boolean isNumeric() {
+            return consequent.isNumeric() && alternate.isNumeric();
+        }
+
+        @Override
+        double evaluateNumber(ExpressionScope scope) throws IllegalArgumentException, JSONException {
+            if ((Boolean) test.evaluate(scope))
+                return consequent.evaluateNumber(scope);
+            else
+                return alternate.evaluateNumber(scope);
+        }
+
+        @Override
+        boolean isColor() {
+            return consequent.isColor() && alternate.isColor();
+        }
+
+        @Override
+        int evaluateColor(ExpressionScope scope) throws IllegalArgumentException, JSONException {
+            if ((Boolean) test.evaluate(scope))
+                return consequent.evaluateColor(scope);
+            else
+                return alternate.evaluateColor(scope);
+        }
+
+        @Override
+        ExpressionNode[] children() {
+            return new ExpressionNode[]{test, consequent, alternate};
+        }
+
+        @Override
+        ExpressionNode copy(ExpressionNode[] children) {
+            return new Conditional(children[0], children[1], children[2]);
+        }
+
+        @Override
+        public String toString() {
+            return "(? " + test + " " + consequent + " " + alternate + ")";
+        }
+    }
+
+    static final class Arithmetic extends ExpressionNode {
+        final int op;
+        final ExpressionNode left;
+        final ExpressionNode right;
+
+        Arithmetic(int op, ExpressionNode left, ExpressionNode right) {
+            this.op = op;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        ExpressionNode[] children() {
+            return new ExpressionNode[]{left, right};
+        }
+
+        @Override
+        ExpressionNode copy(ExpressionNode[] children) {
+            return new Arithmetic(op, children[0], children[1]);
+        }
+
+        @Override
+        public String toString() {
+            return "(" + symbolOf(op) + " " + left + " " + right + ")";
+        }
+
+        @Override
+        Object evaluate(ExpressionScope scope) throws IllegalArgumentException, JSONException {
+            return evaluateNumber(scope);
+        }
+
+        @Override
+        boolean isNumeric() {
+            return true;
+        }
+
+        @Override
+        double evaluateNumber(ExpressionScope scope) throws IllegalArgumentException, JSONException {
+            double l = left.evaluateNumber(scope);
+            double r = right.evaluateNumber(scope);
+            switch (op) {
+                case OP_ADD:
+                    return l + r;
+                case OP_SUB:
+                    return l - r;
+                case OP_MUL:
+                    return l * r;
+                case OP_DIV:
+                    return l / r;
+                case OP_MOD:
+                    return l % r;
+                default:
+                    return Math.pow(l, r);
+            }
+        }
+    }
+
+    static final class Comparison extends ExpressionNode {
+        final int op;
+        final ExpressionNode left;
+        final ExpressionNode right;
+
+        Comparison(int op, ExpressionNode left, ExpressionNode right) {
+            this.op = op;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        ExpressionNode[] children() {
+            return new ExpressionNode[]{left, right};
+        }
+
+        @Override
+        ExpressionNode copy(ExpressionNode[] children) {
+            return new Comparison(op, children[0], children[1]);
+        }
+
+        @Override
+        public String toString() {
+            return "(" + symbolOf(op) + " " + left + " " + right + ")";
+        }
+
+        @Override
+        Object evaluate(ExpressionScope scope) throws IllegalArgumentException, JSONException {
+            double l = left.evaluateNumber(scope);
+            double r = right.evaluateNumber(scope);
+            switch (op) {
+                case OP_GT:
+                    return l > r;
+                case OP_LT:
+                    return l < r;
+                case OP_GE:
+                    return l >= r;
+                default:
+                    return l <= r;
+            }
+        }
+    }
+
+    static final class Equality extends ExpressionNode {
+        final int op;
+        final ExpressionNode left;
+        final ExpressionNode right;
+
+        Equality(int op, ExpressionNode left, ExpressionNode right) {
+            this.op = op;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        ExpressionNode[] children() {
+            return new ExpressionNode[]{left, right};
+        }
+
+        @Override
+        ExpressionNode copy(ExpressionNode[] children) {
+            return new Equality(op, children[0], children[1]);
+        }
+
+        @Override
+        public String toString() {
+            return "(" + symbolOf(op) + " " + left + " " + right + ")";
+        }
+
+        @Override
+        Object evaluate(ExpressionScope scope) throws IllegalArgumentException, JSONException {
+            Object l = left.evaluate(scope);
+            Object r = right.evaluate(scope);
+            switch (op) {
+                case OP_EQ:
+                    return equal(l, r);
+                case OP_STRICT_EQ:
+                    return strictlyEqual(l, r);
+                case OP_NE:
+                    return !equal(l, r);
+                default:
+                    return !strictlyEqual(l, r);
+            }
+        }
+    }
+
+    static final class Logical extends ExpressionNode {
+        final int op;
+        final ExpressionNode left;
+        final ExpressionNode right;
+
+        Logical(int op, ExpressionNode left, ExpressionNode right) {
+            this.op = op;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        ExpressionNode[] children() {
+            return new ExpressionNode[]{left, right};
+        }
+
+        @Override
+        ExpressionNode copy(ExpressionNode[] children) {
+            return new Logical(op, children[0], children[1]);
+        }
+
+        @Override
+        public String toString() {
+            return "(" + symbolOf(op) + " " + left + " " + right + ")";
+        }
+
+        @Override
+        Object evaluate(ExpressionScope scope) throws IllegalArgumentException, JSONException {
+            Object result = left.evaluate(scope);
+            if (op == OP_AND) {
+                if (!toBoolean(result))
+                    return result;
+            } else {
+                if (toBoolean(result))
+                    return result;
+            }
+            return right.evaluate(scope);
+        }
+    }
+
+    static final class Not extends ExpressionNode {
+        final ExpressionNode operand;
+
+        Not(ExpressionNode operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        ExpressionNode[] children() {
+            return new ExpressionNode[]{operand};
+        }
+
+        @Override
+        ExpressionNode copy(ExpressionNode[] children) {
+            return new Not(children[0]);
+        }
+
+        @Override
+        public String toString() {
+            return "(! " + operand + ")";
+        }
+
+        @Override
+        Object evaluate(ExpressionScope scope) throws IllegalArgumentException, JSONException {
+            return !toBoolean(operand.evaluate(scope));
+        }
+    }
+
+    /**
+     * sub-expression shared by several expressions of one binding. It is evaluated once and the
+     * result is memoized in {@link ExpressionScope} until any value of the scope changes.
+     * */
+    static final class Shared extends ExpressionNode {
+        final int index;
+        final ExpressionNode node;
+
+        Shared(int index, ExpressionNode node) {
+            this.index = index;
+            this.node = node;
+        }
+
+        @Override
+        Object evaluate(ExpressionScope scope) throws IllegalArgumentException, JSONException {
+            if (node.isNumeric()) {
+                return evaluateNumber(scope);
+            }
+            if (node.isColor()) {
+                return evaluateColor(scope);
+            }
+            if (index >= scope.getMemoSize()) {
+                return node.evaluate(scope);
+            }
+            if (scope.isMemoized(index)) {
+                return scope.getMemoObject(index);
+            }
+            Object value = node.evaluate(scope);
+            scope.memoize(index, value);
+            return value;
+        }
+
+        @Override
+        boolean isNumeric() {
+            return node.isNumeric();
+        }
+
+        @Override
+        double evaluateNumber(ExpressionScope scope) throws IllegalArgumentException, JSONException {
+            if (!node.isNumeric()) {
+                return toNumber(evaluate(scope));
+            }
+            if (index >= scope.getMemoSize()) {
+                return node.evaluateNumber(scope);
+            }
+            if (scope.isMemoized(index)) {
+                return scope.getMemoNumber(index);
+            }
+            double value = node.evaluateNumber(scope);
+            scope.memoize(index, value);
+            return value;
+        }
+
+        @Override
+        boolean isColor() {
+            return node.isColor();
+        }
+
+        @Override
+        int evaluateColor(ExpressionScope scope) throws IllegalArgumentException, JSONException {
+            if (!node.isColor()) {
+                return toColor(evaluate(scope));
+            }
+            if (index >= scope.getMemoSize()) {
+                return node.evaluateColor(scope);
+            }
+            if (scope.isMemoized(index)) {
+                // a packed color is exactly representable as a double
+                return (int) scope.getMemoNumber(index);
+            }
+            int value = node.evaluateColor(scope);
+            scope.memoize(index, (double) value);
+            return value;
+        }
+
+        @Override
+        ExpressionNode[] children() {
+            return new ExpressionNode[]{node};
+        }
+
+        @Override
+        ExpressionNode copy(ExpressionNode[] children) {
+            return new Shared(index, children[0]);
+        }
+
+        @Override
+        public String toString() {
+            return node.toString();
+        }
+    }
+}
@@ -0,0 +1,316 @@
+/**
+ * Copyright 2018 Alibaba Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.org.yxj.cpm.android.bindingx.core.internal;
+
+import androidx.annotation.NonNull;
+
+import cn.org.yxj.cpm.android.bindingx.core.LogProxy;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Description:
+ *
+ * Optimizes the compiled expressions of one binding:
+ *
+ * 1. constant sub-trees (literals, PI, E, pure builtins on constants) are folded into literals.
+ * 2. pure sub-trees that occur more than once across the expressions are replaced by
+ * {@link ExpressionNode.Shared} nodes, so they are computed once per event and reused.
+ *
+ * Trees are rewritten by copying, the compiled trees held by {@link ExpressionCache} are never
+ * modified. Builtins overridden by custom functions are treated as opaque.
+ *
+ * Usage: {@link #fold} every expression, {@link #count} every folded expression, then
+ * {@link #share} every folded expression.
+ */
+final class ExpressionOptimizer {
+
+    private final Set<String> mOverridden;
+    // evaluates constant sub-trees, holds the builtins only
+    private final ExpressionScope mConstantScope = new ExpressionScope();
+
+    private final Map<ExpressionNode, String> mKeys = new IdentityHashMap<>();
+    private final Map<String, Integer> mCounts = new HashMap<>();
+    private final Map<String, ExpressionNode.Shared> mShared = new HashMap<>();
+
+    /**
+     * @param overridden names of builtins that have been replaced by custom functions
+     * */
+    ExpressionOptimizer(@NonNull Set<String> overridden) {
+        mOverridden = overridden.isEmpty() ? Collections.<String>emptySet() : overridden;
+        JSMath.applyToScope(mConstantScope);
+        TimingFunctions.applyToScope(mConstantScope);
+    }
+
+    /**
+     * @return count of shared sub-expressions, i.e. the memo size the scope needs
+     * */
+    int getSharedCount() {
+        return mShared.size();
+    }
+
+    @NonNull
+    ExpressionNode fold(@NonNull ExpressionNode node) {
+        if (node instanceof ExpressionNode.Builtin) {
+            ExpressionNode.Builtin builtin = (ExpressionNode.Builtin) node;
+            Object value = mConstantScope.getObject(builtin.slot);
+            if (!mOverridden.contains(builtin.name) && value instanceof Double) {
+                // PI, E
+                return new ExpressionNode.NumericLiteral((Double) value);
+            }
+            return node;
+        }
+
+        ExpressionNode[] children = node.children();
+        if (children.length == 0) {
+            return node;
+        }
+        ExpressionNode[] folded = new ExpressionNode[children.length];
+        boolean changed = false;
+        for (int i = 0; i < children.length; i++) {
+            folded[i] = fold(children[i]);
+            changed |= folded[i] != children[i];
+        }
+        ExpressionNode result = changed ? node.copy(folded) : node;
+
+        if (result instanceof ExpressionNode.Conditional) {
+            ExpressionNode test = folded[0];
+            if (test instanceof ExpressionNode.BooleanLiteral) {
+                return ((ExpressionNode.BooleanLiteral) test).value ? folded[1] : folded[2];
+            }
+            return result;
+        }
+        if (!isFoldable(result)) {
+            return result;
+        }
+        try {
+            Object value = result.evaluate(mConstantScope);
+            if (value instanceof Double) {
+                return new ExpressionNode.NumericLiteral((Double) value);
+            } else if (value instanceof Boolean) {
+                return new ExpressionNode.BooleanLiteral((Boolean) value);
+            } else if (value instanceof String) {
+                return new ExpressionNode.StringLiteral((String) value);
+            }
+        } catch (Exception e) {
+            // leave it to runtime, which reports the error as it always did
+            LogProxy.d("[ExpressionOptimizer] can not fold " + result + ": " + e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * record the sub-trees of a folded expression.
+     * */
+    void count(@NonNull ExpressionNode node) {
+        if (isShareable(node)) {
+            String key = keyOf(node);
+            Integer count = mCounts.get(key);
+            mCounts.put(key, count == null ? 1 : count + 1);
+            if (count != null) {
+                // sub-trees of a repeated sub-tree are computed with it, do not count them again
+                return;
+            }
+        }
+        for (ExpressionNode child : node.children()) {
+            count(child);
+        }
+    }
+
+    /**
+     * @return the folded expression with every sub-tree that has been counted more than once
+     * replaced by a shared node.
+     * */
+    @NonNull
+    ExpressionNode share(@NonNull ExpressionNode node) {
+        String key = null;
+        if (isShareable(node)) {
+            key = keyOf(node);
+            ExpressionNode.Shared shared = mShared.get(key);
+            if (shared != null) {
+                return shared;
+            }
+        }
+        ExpressionNode[] children = node.children();
+        ExpressionNode result = node;
+        if (children.length > 0 && !(node instanceof ExpressionNode.Shared)) {
+            ExpressionNode[] rewritten = new ExpressionNode[children.length];
+            boolean changed = false;
+            for (int i = 0; i < children.length; i++) {
+                rewritten[i] = share(children[i]);
+                changed |= rewritten[i] != children[i];
+            }
+            if (changed) {
+                result = node.copy(rewritten);
+            }
+        }
+        if (key != null) {
+            Integer count = mCounts.get(key);
+            if (count != null && count > 1) {
+                ExpressionNode.Shared shared = new ExpressionNode.Shared(mShared.size(), result);
+                mShared.put(key, shared);
+                return shared;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the variable slots the optimized expression reads as a mask of slot bits, see
+     * {@link ExpressionScope#getChanged()}. {@link ExpressionScope#DEPENDS_ON_ALL} if it calls
+     * custom functions, which may return something else each time they are called.
+     * */
+    int dependenciesOf(@NonNull ExpressionNode node) {
+        if (!isPure(node)) {
+            return ExpressionScope.DEPENDS_ON_ALL;
+        }
+        return collectDependencies(node);
+    }
+
+    private static int collectDependencies(ExpressionNode node) {
+        if (node instanceof ExpressionNode.Variable) {
+            return 1 << ((ExpressionNode.Variable) node).slot;
+        } else if (node instanceof ExpressionNode.Identifier) {
+            return ExpressionScope.DEPENDS_ON_NAMED;
+        }
+        int dependencies = 0;
+        for (ExpressionNode child : node.children()) {
+            dependencies |= collectDependencies(child);
+        }
+        return dependencies;
+    }
+
+    /**
+     * @return a key that is equal for structurally equal sub-trees: the node kind, its
+     * operator or escaped literal, then the keys of its children. not toString(), which is
+     * meant to be read and does not escape string literals.
+     * */
+    private String keyOf(ExpressionNode node) {
+        if (node instanceof ExpressionNode.Shared) {
+            return keyOf(((ExpressionNode.Shared) node).node);
+        }
+        String key = mKeys.get(node);
+        if (key == null) {
+            StringBuilder builder = new StringBuilder();
+            builder.append(node.getClass().getSimpleName()).append('(');
+            appendLabel(builder, node);
+            for (ExpressionNode child : node.children()) {
+                builder.append(' ').append(keyOf(child));
+            }
+            key = builder.append(')').toString();
+            mKeys.put(node, key);
+        }
+        return key;
+    }
+
+    private static void appendLabel(StringBuilder builder, ExpressionNode node) {
+        if (node instanceof ExpressionNode.StringLiteral) {
+            String value = ((ExpressionNode.StringLiteral) node).value;
+            builder.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"' || c == '\\') {
+                    builder.append('\\');
+                }
+                builder.append(c);
+            }
+            builder.append('"');
+        } else if (node instanceof ExpressionNode.NumericLiteral) {
+            builder.append(((ExpressionNode.NumericLiteral) node).value);
+        } else if (node instanceof ExpressionNode.BooleanLiteral) {
+            builder.append(((ExpressionNode.BooleanLiteral) node).value);
+        } else if (node instanceof ExpressionNode.Unknown) {
+            builder.append(((ExpressionNode.Unknown) node).type);
+        } else if (node instanceof ExpressionNode.Identifier) {
+            builder.append(((ExpressionNode.Identifier) node).name);
+        } else if (node instanceof ExpressionNode.Variable) {
+            builder.append(((ExpressionNode.Variable) node).name);
+        } else if (node instanceof ExpressionNode.Builtin) {
+            builder.append(((ExpressionNode.Builtin) node).name);
+        } else if (node instanceof ExpressionNode.Arithmetic) {
+            builder.append(ExpressionNode.symbolOf(((ExpressionNode.Arithmetic) node).op));
+        } else if (node instanceof ExpressionNode.Comparison) {
+            builder.append(ExpressionNode.symbolOf(((ExpressionNode.Comparison) node).op));
+        } else if (node instanceof ExpressionNode.Equality) {
+            builder.append(ExpressionNode.symbolOf(((ExpressionNode.Equality) node).op));
+        } else if (node instanceof ExpressionNode.Logical) {
+            builder.append(ExpressionNode.symbolOf(((ExpressionNode.Logical) node).op));
+        }
+    }
+
+    private static boolean isConstant(ExpressionNode node) {
+        return node instanceof ExpressionNode.NumericLiteral
+                || node instanceof ExpressionNode.BooleanLiteral
+                || node instanceof ExpressionNode.StringLiteral;
+    }
+
+    /**
+     * @return true if the node is computed from constants only and has no side effect
+     * */
+    private boolean isFoldable(ExpressionNode node) {
+        ExpressionNode[] children = node.children();
+        int first = 0;
+        if (isCall(node)) {
+            if (!isBuiltinCallee(children[0])) {
+                return false;
+            }
+            first = 1;
+        } else if (node instanceof ExpressionNode.Shared) {
+            return false;
+        }
+        for (int i = first; i < children.length; i++) {
+            if (!isConstant(children[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true if the node is worth to be shared: it is not a leaf and evaluating it
+     * twice in one event always gives the same result.
+     * */
+    private boolean isShareable(ExpressionNode node) {
+        return node.children().length > 0 && !isConstant(node) && isPure(node);
+    }
+
+    private boolean isPure(ExpressionNode node) {
+        ExpressionNode[] children = node.children();
+        if (isCall(node) && !isBuiltinCallee(children[0])) {
+            // custom functions may have side effects
+            return false;
+        }
+        for (ExpressionNode child : children) {
+            if (!isPure(child)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isCall(ExpressionNode node) {
+        return node instanceof ExpressionNode.AbstractCall;
+    }
+
+    private boolean isBuiltinCallee(ExpressionNode callee) {
+        return callee instanceof ExpressionNode.Builtin
+                && !mOverridden.contains(((ExpressionNode.Builtin) callee).name);
+    }
+}
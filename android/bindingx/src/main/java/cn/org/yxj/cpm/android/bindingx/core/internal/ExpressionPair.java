@@ -15,8 +15,8 @@
  */
 package cn.org.yxj.cpm.android.bindingx.core.internal;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
-import android.text.TextUtils;
 
 /**
  * Description:
@@ -32,7 +32,7 @@ public class ExpressionPair {
     // the original expression
     public final String origin;
 
-    // the expression that has been transformed to abstract syntax tree
+    // the expression that has been transformed to abstract syntax tree, optional
     public final String transformed;
 
     public ExpressionPair(String origin,String transformed) {
@@ -44,8 +44,22 @@ public class ExpressionPair {
         return new ExpressionPair(origin,transformed);
     }
 
+    /**
+     * @return true if the pair holds an expression that can be compiled: the transformed
+     * expression, or the origin expression which is parsed on this side when the transformed
+     * one is not sent.
+     * */
     public static boolean isValid(@Nullable ExpressionPair pair) {
-        return pair != null && !TextUtils.isEmpty(pair.transformed) && !"{}".equals(pair.transformed);
+        return pair != null && (hasTransformed(pair) || !isEmpty(pair.origin));
+    }
+
+    static boolean hasTransformed(@NonNull ExpressionPair pair) {
+        return !isEmpty(pair.transformed) && !"{}".equals(pair.transformed);
+    }
+
+    // not TextUtils, the pair is also compiled in unit tests on the mockable android.jar
+    static boolean isEmpty(@Nullable String s) {
+        return s == null || s.isEmpty();
     }
 
     @Override
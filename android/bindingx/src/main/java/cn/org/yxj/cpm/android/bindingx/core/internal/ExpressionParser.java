@@ -0,0 +1,346 @@
+/**
+ * Copyright 2018 Alibaba Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.org.yxj.cpm.android.bindingx.core.internal;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+
+/**
+ * Description:
+ *
+ * Parses the origin expression (e.g. <code>y &gt; 100 ? min(y - 100, 50) : 0</code>) into a
+ * tree of {@link ExpressionNode}, the same tree {@link ExpressionCompiler} builds from the
+ * transformed json abstract syntax tree. With it, the js side does not have to send the
+ * transformed expression along with every origin expression.
+ *
+ * The parser is a top down operator precedence (Pratt) parser. Operators and precedences
+ * follow javascript:
+ *
+ * <pre>
+ *     ?:                  right associative
+ *     ||
+ *     &amp;&amp;
+ *     == != === !==
+ *     &lt; &gt; &lt;= &gt;=
+ *     + -
+ *     * / %
+ *     ! - +               prefix
+ *     **                  right associative
+ *     f(a, b, ...)        call
+ * </pre>
+ *
+ * Array literals <code>[a, b, ...]</code> are calls to the asArray builtin.
+ *
+ * String literals keep their quotes, as in the transformed expression.
+ */
+final class ExpressionParser {
+
+    private static final int TOKEN_END = 0;
+    private static final int TOKEN_NUMBER = 1;
+    private static final int TOKEN_STRING = 2;
+    private static final int TOKEN_IDENTIFIER = 3;
+    private static final int TOKEN_PUNCTUATOR = 4;
+
+    private static final int BP_CONDITIONAL = 10;
+    private static final int BP_PREFIX = 80;
+    private static final int BP_CALL = 100;
+
+    private final String mSource;
+    private int mPosition;
+
+    // current token
+    private int mType;
+    private String mText;
+    private int mStart;
+
+    private ExpressionParser(String source) {
+        mSource = source;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the origin expression is not well formed
+     * */
+    @NonNull
+    static ExpressionNode parse(@NonNull String origin) throws IllegalArgumentException {
+        ExpressionParser parser = new ExpressionParser(origin);
+        parser.next();
+        ExpressionNode node = parser.expression(0);
+        if (parser.mType != TOKEN_END) {
+            throw parser.error("unexpected '" + parser.mText + "'");
+        }
+        return node;
+    }
+
+    private ExpressionNode expression(int rightBindingPower) {
+        ExpressionNode left = prefix();
+        while (rightBindingPower < leftBindingPower()) {
+            left = infix(left);
+        }
+        return left;
+    }
+
+    private ExpressionNode prefix() {
+        int type = mType;
+        String text = mText;
+        if (type == TOKEN_END) {
+            throw error("unexpected end of expression");
+        }
+        next();
+        switch (type) {
+            case TOKEN_NUMBER:
+                return new ExpressionNode.NumericLiteral(Double.parseDouble(text));
+            case TOKEN_STRING:
+                return new ExpressionNode.StringLiteral(text);
+            case TOKEN_IDENTIFIER:
+                if ("true".equals(text) || "false".equals(text)) {
+                    return new ExpressionNode.BooleanLiteral(Boolean.parseBoolean(text));
+                }
+                return ExpressionCompiler.compileIdentifier(text);
+            default:
+                break;
+        }
+        switch (text) {
+            case "(":
+                ExpressionNode node = expression(0);
+                expect(")");
+                return node;
+            case "[":
+                return ExpressionCompiler.compileArray(list("]"));
+            case "!":
+                return new ExpressionNode.Not(expression(BP_PREFIX));
+            case "-":
+                ExpressionNode operand = expression(BP_PREFIX);
+                if (operand instanceof ExpressionNode.NumericLiteral) {
+                    return new ExpressionNode.NumericLiteral(-((ExpressionNode.NumericLiteral) operand).value);
+                }
+                return new ExpressionNode.Arithmetic(ExpressionNode.OP_SUB, new ExpressionNode.NumericLiteral(0), operand);
+            case "+":
+                return new ExpressionNode.Arithmetic(ExpressionNode.OP_ADD, new ExpressionNode.NumericLiteral(0), expression(BP_PREFIX));
+            default:
+                throw error("unexpected '" + text + "'");
+        }
+    }
+
+    private ExpressionNode infix(ExpressionNode left) {
+        String text = mText;
+        next();
+        switch (text) {
+            case "(":
+                return ExpressionCompiler.compileCall(left, list(")"));
+            case "?":
+                ExpressionNode consequent = expression(0);
+                expect(":");
+                ExpressionNode alternate = expression(BP_CONDITIONAL - 1);
+                return new ExpressionNode.Conditional(left, consequent, alternate);
+            case "**":
+                // right associative
+                return ExpressionCompiler.binary(text, left, expression(bindingPowerOf(text) - 1));
+            default:
+                return ExpressionCompiler.binary(text, left, expression(bindingPowerOf(text)));
+        }
+    }
+
+    /**
+     * comma separated expressions up to the closing punctuator, of call arguments or array elements
+     * */
+    private ExpressionNode[] list(String close) {
+        ArrayList<ExpressionNode> elements = new ArrayList<>(4);
+        if (!isPunctuator(close)) {
+            do {
+                elements.add(expression(0));
+            } while (accept(","));
+        }
+        expect(close);
+        return elements.toArray(new ExpressionNode[0]);
+    }
+
+    private int leftBindingPower() {
+        return mType == TOKEN_PUNCTUATOR ? bindingPowerOf(mText) : 0;
+    }
+
+    private static int bindingPowerOf(String punctuator) {
+        switch (punctuator) {
+            case "?":
+                return BP_CONDITIONAL;
+            case "||":
+                return 20;
+            case "&&":
+                return 30;
+            case "==":
+            case "!=":
+            case "===":
+            case "!==":
+                return 40;
+            case "<":
+            case ">":
+            case "<=":
+            case ">=":
+                return 50;
+            case "+":
+            case "-":
+                return 60;
+            case "*":
+            case "/":
+            case "%":
+                return 70;
+            case "**":
+                return 90;
+            case "(":
+                return BP_CALL;
+            default:
+                // ) , : and anything that does not continue an expression
+                return 0;
+        }
+    }
+
+    private boolean isPunctuator(String punctuator) {
+        return mType == TOKEN_PUNCTUATOR && punctuator.equals(mText);
+    }
+
+    private boolean accept(String punctuator) {
+        if (isPunctuator(punctuator)) {
+            next();
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(String punctuator) {
+        if (!accept(punctuator)) {
+            throw error("expected '" + punctuator + "' but was '" + (mType == TOKEN_END ? "end" : mText) + "'");
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at " + mStart + " in: " + mSource);
+    }
+
+    /**
+     * read the next token into mType/mText
+     * */
+    private void next() {
+        String source = mSource;
+        int length = source.length();
+        while (mPosition < length && Character.isWhitespace(source.charAt(mPosition))) {
+            mPosition++;
+        }
+        mStart = mPosition;
+        if (mPosition >= length) {
+            mType = TOKEN_END;
+            mText = "";
+            return;
+        }
+
+        char c = source.charAt(mPosition);
+        if (isDigit(c) || (c == '.' && mPosition + 1 < length && isDigit(source.charAt(mPosition + 1)))) {
+            while (mPosition < length && (isDigit(source.charAt(mPosition)) || source.charAt(mPosition) == '.')) {
+                mPosition++;
+            }
+            if (mPosition < length && (source.charAt(mPosition) == 'e' || source.charAt(mPosition) == 'E')) {
+                int exponent = mPosition + 1;
+                if (exponent < length && (source.charAt(exponent) == '+' || source.charAt(exponent) == '-')) {
+                    exponent++;
+                }
+                if (exponent < length && isDigit(source.charAt(exponent))) {
+                    mPosition = exponent;
+                    while (mPosition < length && isDigit(source.charAt(mPosition))) {
+                        mPosition++;
+                    }
+                }
+            }
+            token(TOKEN_NUMBER);
+            return;
+        }
+        if (Character.isJavaIdentifierStart(c)) {
+            while (mPosition < length && Character.isJavaIdentifierPart(source.charAt(mPosition))) {
+                mPosition++;
+            }
+            token(TOKEN_IDENTIFIER);
+            return;
+        }
+        if (c == '\'' || c == '"') {
+            mPosition++;
+            while (mPosition < length && source.charAt(mPosition) != c) {
+                if (source.charAt(mPosition) == '\\') {
+                    mPosition++;
+                }
+                mPosition++;
+            }
+            if (mPosition >= length) {
+                throw error("unterminated string");
+            }
+            mPosition++;
+            token(TOKEN_STRING);
+            return;
+        }
+
+        switch (c) {
+            case '=':
+            case '!':
+                // == === != !==
+                if (source.startsWith("==", mPosition + 1)) {
+                    mPosition += 3;
+                } else if (source.startsWith("=", mPosition + 1)) {
+                    mPosition += 2;
+                } else if (c == '!') {
+                    mPosition += 1;
+                } else {
+                    throw error("unexpected '='");
+                }
+                break;
+            case '<':
+            case '>':
+                mPosition += source.startsWith("=", mPosition + 1) ? 2 : 1;
+                break;
+            case '*':
+                mPosition += source.startsWith("*", mPosition + 1) ? 2 : 1;
+                break;
+            case '&':
+            case '|':
+                if (mPosition + 1 >= length || source.charAt(mPosition + 1) != c) {
+                    throw error("unexpected '" + c + "'");
+                }
+                mPosition += 2;
+                break;
+            case '+':
+            case '-':
+            case '/':
+            case '%':
+            case '?':
+            case ':':
+            case '(':
+            case ')':
+            case '[':
+            case ']':
+            case ',':
+                mPosition += 1;
+                break;
+            default:
+                throw error("unexpected '" + c + "'");
+        }
+        token(TOKEN_PUNCTUATOR);
+    }
+
+    private void token(int type) {
+        mType = type;
+        mText = mSource.substring(mStart, mPosition);
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
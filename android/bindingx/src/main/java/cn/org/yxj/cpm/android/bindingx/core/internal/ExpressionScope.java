@@ -0,0 +1,387 @@
+/**
+ * Copyright 2018 Alibaba Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.org.yxj.cpm.android.bindingx.core.internal;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Description:
+ *
+ * Variables and functions that can be referenced by expressions.
+ *
+ * Well known variables (x, y, t, p, alpha...) live in a flat array of primitive doubles and
+ * builtin functions in a flat array of objects. Identifiers are resolved to these slots when
+ * the expression is compiled, so the event handlers write values into slots and expressions
+ * read them back without hashing or boxing. Any other name (e.g. custom functions registered
+ * by {@link cn.org.yxj.cpm.android.bindingx.core.BindingXJSFunctionRegister}) is kept in a map.
+ *
+ * The class still is a {@link Map} so that it can be handed to the callbacks which take the scope.
+ */
+public final class ExpressionScope extends AbstractMap<String, Object> {
+
+    static final int SLOT_X = 0;
+    static final int SLOT_Y = 1;
+    static final int SLOT_DX = 2;
+    static final int SLOT_DY = 3;
+    static final int SLOT_TDX = 4;
+    static final int SLOT_TDY = 5;
+    static final int SLOT_INTERNAL_X = 6;
+    static final int SLOT_INTERNAL_Y = 7;
+    static final int SLOT_T = 8;
+    static final int SLOT_P = 9;
+    static final int SLOT_V = 10;
+    static final int SLOT_S = 11;
+    static final int SLOT_R = 12;
+    static final int SLOT_ALPHA = 13;
+    static final int SLOT_BETA = 14;
+    static final int SLOT_GAMMA = 15;
+    static final int SLOT_DALPHA = 16;
+    static final int SLOT_DBETA = 17;
+    static final int SLOT_DGAMMA = 18;
+    static final int SLOT_Z = 19;
+
+    // dependency bit of names that do not have a variable slot
+    static final int DEPENDS_ON_NAMED = 1 << 30;
+    // dependency of expressions that have to be evaluated on every event
+    static final int DEPENDS_ON_ALL = ~0;
+
+    private static final String[] VARIABLE_NAMES = {
+            "x", "y", "dx", "dy", "tdx", "tdy", "internal_x", "internal_y",
+            "t", "p", "v", "s", "r",
+            "alpha", "beta", "gamma", "dalpha", "dbeta", "dgamma", "z"
+    };
+
+    private static final Map<String, Integer> sVariableSlots = new HashMap<>(32);
+    private static final Map<String, Integer> sObjectSlots = new HashMap<>(64);
+    private static final String[] OBJECT_NAMES;
+
+    static {
+        for (int i = 0; i < VARIABLE_NAMES.length; i++) {
+            sVariableSlots.put(VARIABLE_NAMES[i], i);
+        }
+        Map<String, Object> builtins = new LinkedHashMap<>(64);
+        JSMath.applyToScope(builtins);
+        TimingFunctions.applyToScope(builtins);
+        OBJECT_NAMES = builtins.keySet().toArray(new String[0]);
+        for (int i = 0; i < OBJECT_NAMES.length; i++) {
+            sObjectSlots.put(OBJECT_NAMES[i], i);
+        }
+    }
+
+    private final double[] mValues = new double[VARIABLE_NAMES.length];
+    // bit i is set if variable slot i holds a value
+    private volatile int mAssigned;
+    // bit i is set if variable slot i changed since the last clearChanged(), all bits for other changes
+    private int mChanged = DEPENDS_ON_ALL;
+
+    private final Object[] mObjects = new Object[OBJECT_NAMES.length];
+    private final Map<String, Object> mNamed = new ConcurrentHashMap<>();
+
+    // bumped whenever a value changes, memoized shared sub-expressions are valid for one version
+    private int mVersion;
+    private int[] mMemoVersions = new int[0];
+    private double[] mMemoNumbers = new double[0];
+    private Object[] mMemoObjects = new Object[0];
+
+    // arguments of calls to JSFunctionN builtins, nested calls push above their caller
+    private double[] mArguments = new double[16];
+    private int mArgumentTop;
+
+    public ExpressionScope() {
+    }
+
+    ExpressionScope(@NonNull Map<String, Object> values) {
+        putAll(values);
+    }
+
+    /**
+     * @return the variable slot of the given name, or -1 if it is not a well known variable
+     * */
+    static int variableSlotOf(@NonNull String name) {
+        Integer slot = sVariableSlots.get(name);
+        return slot == null ? -1 : slot;
+    }
+
+    /**
+     * @return the object slot of the given builtin name, or -1 if it is not a builtin
+     * */
+    static int objectSlotOf(@NonNull String name) {
+        Integer slot = sObjectSlots.get(name);
+        return slot == null ? -1 : slot;
+    }
+
+    static ExpressionScope from(@NonNull Map<String, Object> scope) {
+        return scope instanceof ExpressionScope ? (ExpressionScope) scope : new ExpressionScope(scope);
+    }
+
+    void setValue(int slot, double value) {
+        int mask = 1 << slot;
+        if ((mAssigned & mask) != 0
+                && Double.doubleToLongBits(mValues[slot]) == Double.doubleToLongBits(value)) {
+            return;
+        }
+        mVersion++;
+        mValues[slot] = value;
+        mAssigned |= mask;
+        mChanged |= mask;
+    }
+
+    /**
+     * @return the variables that changed since the last {@link #clearChanged()}, as a mask of
+     * slot bits. Changes of anything else than a variable slot set all bits.
+     * */
+    int getChanged() {
+        return mChanged;
+    }
+
+    void clearChanged() {
+        mChanged = 0;
+    }
+
+    /**
+     * copy the assigned variable slots into the target scope, functions and named values are
+     * left out. Slots whose value differs are marked as changed in the target.
+     * */
+    void copyVariablesTo(@NonNull ExpressionScope target) {
+        for (int i = 0; i < mValues.length; i++) {
+            if (hasValue(i)) {
+                target.setValue(i, mValues[i]);
+            }
+        }
+    }
+
+    boolean hasValue(int slot) {
+        return (mAssigned & (1 << slot)) != 0;
+    }
+
+    double getValue(int slot) {
+        return mValues[slot];
+    }
+
+    /**
+     * value of the variable slot, boxed only if the variable has been assigned.
+     * */
+    @Nullable
+    Object getVariable(int slot) {
+        if (hasValue(slot)) {
+            return mValues[slot];
+        }
+        return mNamed.get(VARIABLE_NAMES[slot]);
+    }
+
+    @Nullable
+    Object getObject(int slot) {
+        return mObjects[slot];
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+        String name = (String) key;
+        int slot = variableSlotOf(name);
+        if (slot >= 0) {
+            return getVariable(slot);
+        }
+        slot = objectSlotOf(name);
+        if (slot >= 0) {
+            return mObjects[slot];
+        }
+        return mNamed.get(name);
+    }
+
+    /**
+     * prepare memo slots for the shared sub-expressions of the current binding.
+     * */
+    void resetMemo(int size) {
+        mMemoVersions = new int[size];
+        Arrays.fill(mMemoVersions, mVersion - 1);
+        mMemoNumbers = new double[size];
+        mMemoObjects = new Object[size];
+    }
+
+    int getMemoSize() {
+        return mMemoVersions.length;
+    }
+
+    boolean isMemoized(int index) {
+        return mMemoVersions[index] == mVersion;
+    }
+
+    double getMemoNumber(int index) {
+        return mMemoNumbers[index];
+    }
+
+    Object getMemoObject(int index) {
+        return mMemoObjects[index];
+    }
+
+    void memoize(int index, double value) {
+        mMemoNumbers[index] = value;
+        mMemoVersions[index] = mVersion;
+    }
+
+    void memoize(int index, Object value) {
+        mMemoObjects[index] = value;
+        mMemoVersions[index] = mVersion;
+    }
+
+    /**
+     * reserve count argument slots on top of the argument stack.
+     *
+     * @return index of the first reserved slot, to be passed to {@link #popArguments(int)}
+     * */
+    int pushArguments(int count) {
+        int base = mArgumentTop;
+        int top = base + count;
+        if (top > mArguments.length) {
+            mArguments = Arrays.copyOf(mArguments, Math.max(top, mArguments.length * 2));
+        }
+        mArgumentTop = top;
+        return base;
+    }
+
+    void setArgument(int index, double value) {
+        mArguments[index] = value;
+    }
+
+    /**
+     * @return the argument stack. It may be replaced by a larger one when arguments are pushed.
+     * */
+    double[] getArguments() {
+        return mArguments;
+    }
+
+    void popArguments(int base) {
+        mArgumentTop = base;
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        mVersion++;
+        Object previous = get(key);
+        int slot = variableSlotOf(key);
+        if (slot >= 0) {
+            if (value instanceof Number) {
+                mNamed.remove(key);
+                setValue(slot, ((Number) value).doubleValue());
+                return previous;
+            }
+            mAssigned &= ~(1 << slot);
+            mChanged = DEPENDS_ON_ALL;
+        } else {
+            slot = objectSlotOf(key);
+            if (slot >= 0) {
+                if (value == null) {
+                    throw new NullPointerException();
+                }
+                mObjects[slot] = value;
+                mChanged = DEPENDS_ON_ALL;
+                return previous;
+            }
+        }
+        mNamed.put(key, value);
+        mChanged = DEPENDS_ON_ALL;
+        return previous;
+    }
+
+    @Override
+    public Object remove(Object key) {
+        mVersion++;
+        mChanged = DEPENDS_ON_ALL;
+        Object previous = get(key);
+        if (key instanceof String) {
+            String name = (String) key;
+            int slot = variableSlotOf(name);
+            if (slot >= 0) {
+                mAssigned &= ~(1 << slot);
+            } else {
+                slot = objectSlotOf(name);
+                if (slot >= 0) {
+                    mObjects[slot] = null;
+                }
+            }
+            mNamed.remove(name);
+        }
+        return previous;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public void clear() {
+        mVersion++;
+        mChanged = DEPENDS_ON_ALL;
+        mAssigned = 0;
+        for (int i = 0; i < mObjects.length; i++) {
+            mObjects[i] = null;
+        }
+        mNamed.clear();
+    }
+
+    @Override
+    public int size() {
+        return snapshot().size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        if (mAssigned != 0 || !mNamed.isEmpty()) {
+            return false;
+        }
+        for (Object object : mObjects) {
+            if (object != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @NonNull
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return Collections.unmodifiableMap(snapshot()).entrySet();
+    }
+
+    private Map<String, Object> snapshot() {
+        Map<String, Object> map = new LinkedHashMap<>(mNamed);
+        for (int i = 0; i < mObjects.length; i++) {
+            if (mObjects[i] != null) {
+                map.put(OBJECT_NAMES[i], mObjects[i]);
+            }
+        }
+        for (int i = 0; i < VARIABLE_NAMES.length; i++) {
+            if (hasValue(i)) {
+                map.put(VARIABLE_NAMES[i], mValues[i]);
+            }
+        }
+        return map;
+    }
+}
@@ -0,0 +1,88 @@
+/**
+ * Copyright 2018 Alibaba Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.org.yxj.cpm.android.bindingx.core.internal;
+
+import androidx.annotation.NonNull;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Description:
+ *
+ * What one bound expression has cost so far. Only created for bindings with the 'profile'
+ * option, holders of other bindings have none and are not timed at all.
+ *
+ * Evaluations are recorded on the thread evaluating the expressions, updates on the thread
+ * applying them and the stats are read from the js thread, so every access holds the lock of
+ * the stats. Only profiled bindings pay for it.
+ */
+final class ExpressionStats {
+
+    private static final double NANOS_PER_MILLI = 1000000.0;
+
+    // times the expression has been executed
+    private long evaluations;
+    private long evaluationNanos;
+    private long maxEvaluationNanos;
+
+    // times the result has been applied to the view
+    private long updates;
+    private long updateNanos;
+    private long maxUpdateNanos;
+
+    // results that have been dropped since they were NaN or null
+    private long skipped;
+
+    synchronized void recordEvaluation(long nanos) {
+        evaluations++;
+        evaluationNanos += nanos;
+        if (nanos > maxEvaluationNanos) {
+            maxEvaluationNanos = nanos;
+        }
+    }
+
+    synchronized void recordUpdate(long nanos) {
+        updates++;
+        updateNanos += nanos;
+        if (nanos > maxUpdateNanos) {
+            maxUpdateNanos = nanos;
+        }
+    }
+
+    synchronized void recordSkip() {
+        skipped++;
+    }
+
+    /**
+     * @return a snapshot of the stats for js, times in milliseconds
+     * */
+    @NonNull
+    synchronized Map<String, Object> toMap(@NonNull ExpressionHolder holder) {
+        Map<String, Object> map = new HashMap<>(16);
+        map.put(BindingXConstants.KEY_ELEMENT, holder.targetRef);
+        map.put(BindingXConstants.KEY_PROPERTY, holder.prop);
+        map.put(BindingXConstants.KEY_EVENT_TYPE, holder.eventType);
+        map.put("evaluations", evaluations);
+        map.put("evaluationTime", evaluationNanos / NANOS_PER_MILLI);
+        map.put("maxEvaluationTime", maxEvaluationNanos / NANOS_PER_MILLI);
+        map.put("updates", updates);
+        map.put("updateTime", updateNanos / NANOS_PER_MILLI);
+        map.put("maxUpdateTime", maxUpdateNanos / NANOS_PER_MILLI);
+        map.put("skipped", skipped);
+        return map;
+    }
+}
@@ -0,0 +1,67 @@
+/**
+ * Copyright 2018 Alibaba Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.org.yxj.cpm.android.bindingx.core.internal;
+
+import androidx.annotation.IntDef;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+/**
+ * Description:
+ *
+ * Result types of a bound expression, inferred when the expression is bound. View updaters may
+ * use them to pick the updater of a property once, see
+ * {@link cn.org.yxj.cpm.android.bindingx.core.PlatformManager.IViewUpdaterResolver}.
+ */
+public final class ExpressionType {
+
+    // not known before the expression is evaluated, e.g. the result of a custom function
+    public static final int UNKNOWN = 0;
+    // java.lang.Double
+    public static final int NUMBER = 1;
+    // packed argb color, java.lang.Integer when boxed
+    public static final int COLOR = 2;
+    // Vec2, Vec4, Mat3 or another list of numbers
+    public static final int VECTOR = 3;
+    public static final int BOOLEAN = 4;
+    public static final int STRING = 5;
+
+    @Retention(RetentionPolicy.SOURCE)
+    @IntDef({UNKNOWN, NUMBER, COLOR, VECTOR, BOOLEAN, STRING})
+    public @interface Type {
+    }
+
+    private ExpressionType() {
+    }
+
+    public static String nameOf(@Type int type) {
+        switch (type) {
+            case NUMBER:
+                return "number";
+            case COLOR:
+                return "color";
+            case VECTOR:
+                return "vector";
+            case BOOLEAN:
+                return "boolean";
+            case STRING:
+                return "string";
+            default:
+                return "unknown";
+        }
+    }
+}
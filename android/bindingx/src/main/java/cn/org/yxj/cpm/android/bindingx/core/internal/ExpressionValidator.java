@@ -0,0 +1,223 @@
+/**
+ * Copyright 2018 Alibaba Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.org.yxj.cpm.android.bindingx.core.internal;
+
+import androidx.annotation.NonNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Description:
+ *
+ * Checks a compiled expression when it is bound, so that mistakes are reported once instead of
+ * failing (and being logged) on every frame:
+ *
+ * 1. unknown nodes and identifiers which are neither variables, builtins nor custom functions.
+ * 2. calls of builtins with a wrong count of arguments, or with colors and vectors where
+ * numbers are expected. Arithmetic operands are checked the same way.
+ *
+ * The result type of the expression ({@link ExpressionType}) is inferred along the way.
+ * Builtins overridden by custom functions are not checked, their results are unknown.
+ */
+final class ExpressionValidator {
+
+    private static final int ANY = Integer.MAX_VALUE;
+
+    // builtin functions as they are registered to the scope
+    private static final Map<String, Object> sBuiltins = new HashMap<>(64);
+    // builtin name -> {min, max} count of arguments
+    private static final Map<String, int[]> sArities = new HashMap<>(64);
+
+    static {
+        JSMath.applyToScope(sBuiltins);
+        TimingFunctions.applyToScope(sBuiltins);
+
+        for (Map.Entry<String, Object> entry : sBuiltins.entrySet()) {
+            Object builtin = entry.getValue();
+            if (builtin instanceof JSFunction1) {
+                sArities.put(entry.getKey(), new int[]{1, 1});
+            } else if (builtin instanceof JSFunction2) {
+                sArities.put(entry.getKey(), new int[]{2, 2});
+            } else if (builtin instanceof JSFunction3) {
+                sArities.put(entry.getKey(), new int[]{3, 3});
+            } else if (builtin instanceof JSFunction4) {
+                sArities.put(entry.getKey(), new int[]{4, 4});
+            } else if (builtin instanceof JSFunctionN) {
+                sArities.put(entry.getKey(), new int[]{1, ANY});
+            }
+        }
+        sArities.put("cubicBezier", new int[]{8, 8});
+        sArities.put("translate", new int[]{2, 2});
+        sArities.put("scale", new int[]{2, 2});
+        sArities.put("matrix", new int[]{6, 6});
+        sArities.put("rgb", new int[]{3, 3});
+        sArities.put("rgba", new int[]{4, 4});
+        sArities.put("evaluateColor", new int[]{3, 4});
+        sArities.put("interpolate", new int[]{3, 4});
+        sArities.put("asArray", new int[]{0, ANY});
+    }
+
+    private final Set<String> mCustomFunctions;
+
+    /**
+     * @param customFunctions names of the custom functions of the scope, they may override builtins
+     * */
+    ExpressionValidator(@NonNull Set<String> customFunctions) {
+        mCustomFunctions = customFunctions;
+    }
+
+    /**
+     * @return the inferred result type of the expression
+     * @throws IllegalArgumentException describing the first problem found
+     * */
+    @ExpressionType.Type
+    int validate(@NonNull Expression expression) throws IllegalArgumentException {
+        ExpressionNode root = expression.getRoot();
+        if (root == null) {
+            throw new IllegalArgumentException("expression is illegal");
+        }
+        return infer(root);
+    }
+
+    @ExpressionType.Type
+    private int infer(ExpressionNode node) {
+        if (node instanceof ExpressionNode.NumericLiteral || node instanceof ExpressionNode.Variable) {
+            return ExpressionType.NUMBER;
+        } else if (node instanceof ExpressionNode.BooleanLiteral) {
+            return ExpressionType.BOOLEAN;
+        } else if (node instanceof ExpressionNode.StringLiteral) {
+            return ExpressionType.STRING;
+        } else if (node instanceof ExpressionNode.Unknown) {
+            throw new IllegalArgumentException("unknown node type " + ((ExpressionNode.Unknown) node).type);
+        } else if (node instanceof ExpressionNode.Identifier) {
+            String name = ((ExpressionNode.Identifier) node).name;
+            if (!mCustomFunctions.contains(name)) {
+                throw new IllegalArgumentException("unknown identifier " + name);
+            }
+            return ExpressionType.UNKNOWN;
+        } else if (node instanceof ExpressionNode.Builtin) {
+            String name = ((ExpressionNode.Builtin) node).name;
+            if (mCustomFunctions.contains(name)) {
+                return ExpressionType.UNKNOWN;
+            }
+            if (!(sBuiltins.get(name) instanceof Double)) {
+                throw new IllegalArgumentException(name + " is a function, it has to be called");
+            }
+            return ExpressionType.NUMBER;
+        } else if (node instanceof ExpressionNode.Shared) {
+            return infer(((ExpressionNode.Shared) node).node);
+        } else if (node instanceof ExpressionNode.Arithmetic) {
+            ExpressionNode.Arithmetic arithmetic = (ExpressionNode.Arithmetic) node;
+            String operator = ExpressionNode.symbolOf(arithmetic.op);
+            expectNumber(infer(arithmetic.left), "operand of " + operator);
+            expectNumber(infer(arithmetic.right), "operand of " + operator);
+            return ExpressionType.NUMBER;
+        } else if (node instanceof ExpressionNode.Conditional) {
+            ExpressionNode.Conditional conditional = (ExpressionNode.Conditional) node;
+            infer(conditional.test);
+            int consequent = infer(conditional.consequent);
+            int alternate = infer(conditional.alternate);
+            return consequent == alternate ? consequent : ExpressionType.UNKNOWN;
+        } else if (node instanceof ExpressionNode.Comparison || node instanceof ExpressionNode.Equality
+                || node instanceof ExpressionNode.Not) {
+            for (ExpressionNode child : node.children()) {
+                infer(child);
+            }
+            return ExpressionType.BOOLEAN;
+        } else if (node instanceof ExpressionNode.Logical) {
+            // returns one of its operands
+            int left = infer(((ExpressionNode.Logical) node).left);
+            int right = infer(((ExpressionNode.Logical) node).right);
+            return left == right ? left : ExpressionType.UNKNOWN;
+        }
+
+        ExpressionNode[] children = node.children();
+        if (children.length == 0) {
+            return ExpressionType.UNKNOWN;
+        }
+        // calls: the callee followed by the arguments
+        ExpressionNode callee = children[0];
+        int[] argumentTypes = new int[children.length - 1];
+        for (int i = 1; i < children.length; i++) {
+            argumentTypes[i - 1] = infer(children[i]);
+        }
+        if (callee instanceof ExpressionNode.Identifier) {
+            infer(callee);
+            return ExpressionType.UNKNOWN;
+        } else if (!(callee instanceof ExpressionNode.Builtin)) {
+            throw new IllegalArgumentException(callee + " is not a function");
+        }
+        String name = ((ExpressionNode.Builtin) callee).name;
+        if (mCustomFunctions.contains(name)) {
+            return ExpressionType.UNKNOWN;
+        }
+        return inferCall(node, name, argumentTypes);
+    }
+
+    @ExpressionType.Type
+    private static int inferCall(ExpressionNode node, String name, int[] argumentTypes) {
+        int[] arity = sArities.get(name);
+        if (arity == null) {
+            throw new IllegalArgumentException(name + " is not a function");
+        }
+        int count = argumentTypes.length;
+        if (count < arity[0] || count > arity[1]) {
+            String expected = arity[0] == arity[1] ? String.valueOf(arity[0])
+                    : arity[1] == ANY ? "at least " + arity[0] : arity[0] + " to " + arity[1];
+            throw new IllegalArgumentException(name + " expects " + expected + " arguments, found " + count);
+        }
+        switch (name) {
+            case "evaluateColor":
+                expectNumber(argumentTypes[2], "fraction of evaluateColor");
+                return ExpressionType.COLOR;
+            case "interpolate":
+                expectNumber(argumentTypes[0], "input of interpolate");
+                if (node.isColor()) {
+                    return ExpressionType.COLOR;
+                }
+                return node.isNumeric() ? ExpressionType.NUMBER : ExpressionType.UNKNOWN;
+            case "asArray":
+                return ExpressionType.VECTOR;
+            default:
+                break;
+        }
+        for (int i = 0; i < count; i++) {
+            expectNumber(argumentTypes[i], "argument " + (i + 1) + " of " + name);
+        }
+        switch (name) {
+            case "translate":
+            case "scale":
+            case "matrix":
+                return ExpressionType.VECTOR;
+            case "rgb":
+            case "rgba":
+                return ExpressionType.COLOR;
+            default:
+                return ExpressionType.NUMBER;
+        }
+    }
+
+    /**
+     * numbers are taken as they are, strings and booleans are converted, colors and vectors can not.
+     * */
+    private static void expectNumber(int type, String what) {
+        if (type == ExpressionType.COLOR || type == ExpressionType.VECTOR) {
+            throw new IllegalArgumentException(what + " is a " + ExpressionType.nameOf(type) + ", a number is expected");
+        }
+    }
+}
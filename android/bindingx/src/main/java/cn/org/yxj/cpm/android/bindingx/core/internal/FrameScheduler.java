@@ -0,0 +1,187 @@
+/**
+ * Copyright 2018 Alibaba Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.org.yxj.cpm.android.bindingx.core.internal;
+
+import android.annotation.TargetApi;
+import android.os.Handler;
+import android.os.Looper;
+import androidx.annotation.NonNull;
+import android.view.Choreographer;
+
+import cn.org.yxj.cpm.android.bindingx.core.LogProxy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Description:
+ *
+ * One {@link Choreographer.FrameCallback} for the whole process. Every running
+ * {@link AnimationFrame} created by {@link #newAnimationFrame()} is ticked from it, all of them in
+ * one pass per vsync with the same frame time.
+ *
+ * Frames may be requested and cleared on any thread without blocking, the choreographer is only
+ * touched on the main thread. The callback is posted while there is at least one running frame.
+ */
+@TargetApi(16)
+class FrameScheduler implements Choreographer.FrameCallback {
+
+    private static volatile FrameScheduler sInstance;
+
+    private final Object mLock = new Object();
+    // guarded by mLock
+    private final List<ScheduledAnimationFrame> mFrames = new ArrayList<>(4);
+    // guarded by mLock. true while the frame callback is posted or running
+    private boolean mScheduled;
+
+    // main thread only
+    private Choreographer mChoreographer;
+    private ScheduledAnimationFrame[] mTicking = new ScheduledAnimationFrame[4];
+
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable mPostFrameCallback = new Runnable() {
+        @Override
+        public void run() {
+            postFrameCallback();
+        }
+    };
+
+    static FrameScheduler getInstance() {
+        if (sInstance == null) {
+            synchronized (FrameScheduler.class) {
+                if (sInstance == null) {
+                    sInstance = new FrameScheduler();
+                }
+            }
+        }
+        return sInstance;
+    }
+
+    /*package*/ FrameScheduler() {
+    }
+
+    @NonNull
+    AnimationFrame newAnimationFrame() {
+        return new ScheduledAnimationFrame(this);
+    }
+
+    private void add(@NonNull ScheduledAnimationFrame frame) {
+        boolean schedule;
+        synchronized (mLock) {
+            if (!mFrames.contains(frame)) {
+                mFrames.add(frame);
+            }
+            schedule = !mScheduled;
+            mScheduled = true;
+        }
+        if (schedule) {
+            if (Looper.myLooper() == Looper.getMainLooper()) {
+                postFrameCallback();
+            } else {
+                mMainHandler.post(mPostFrameCallback);
+            }
+        }
+    }
+
+    private void remove(@NonNull ScheduledAnimationFrame frame) {
+        // the callback stops being posted at the next vsync if nothing is left
+        synchronized (mLock) {
+            mFrames.remove(frame);
+        }
+    }
+
+    /**
+     * posts the frame callback, main thread only.
+     * */
+    /*package*/ void postFrameCallback() {
+        if (mChoreographer == null) {
+            mChoreographer = Choreographer.getInstance();
+        }
+        mChoreographer.postFrameCallback(this);
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        int count;
+        synchronized (mLock) {
+            count = mFrames.size();
+            if (mTicking.length < count) {
+                mTicking = new ScheduledAnimationFrame[Math.max(count, mTicking.length * 2)];
+            }
+            mFrames.toArray(mTicking);
+        }
+
+        for (int i = 0; i < count; i++) {
+            ScheduledAnimationFrame frame = mTicking[i];
+            mTicking[i] = null;
+            try {
+                frame.dispatchFrame(frameTimeNanos);
+            } catch (Exception e) {
+                LogProxy.e("frame callback failed", e);
+            }
+        }
+
+        boolean schedule;
+        synchronized (mLock) {
+            schedule = !mFrames.isEmpty();
+            mScheduled = schedule;
+        }
+        if (schedule) {
+            postFrameCallback();
+        }
+    }
+
+    /**
+     * frames of one handler or driver, ticked by the scheduler they have been created by.
+     * */
+    private static final class ScheduledAnimationFrame extends AnimationFrame {
+
+        private final FrameScheduler scheduler;
+        private volatile Callback callback;
+        private volatile boolean isRunning;
+
+        ScheduledAnimationFrame(FrameScheduler scheduler) {
+            this.scheduler = scheduler;
+        }
+
+        @Override
+        void clear() {
+            isRunning = false;
+            scheduler.remove(this);
+        }
+
+        @Override
+        void terminate() {
+            clear();
+            callback = null;
+        }
+
+        @Override
+        void requestAnimationFrame(@NonNull Callback callback) {
+            this.callback = callback;
+            this.isRunning = true;
+            scheduler.add(this);
+        }
+
+        void dispatchFrame(long frameTimeNanos) {
+            Callback callback = this.callback;
+            // may have been cleared by a frame ticked before in the same pass
+            if (isRunning && callback != null) {
+                callback.doFrame(frameTimeNanos);
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ * Copyright 2018 Alibaba Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.org.yxj.cpm.android.bindingx.core.internal;
+
+/**
+ * Description:
+ *
+ * Times an animation by the vsync timestamps of its frames and counts the frames that have been
+ * skipped in between.
+ *
+ * The frame interval is not known up front: it starts at 60fps and follows the median of the
+ * last gaps seen between two frames, so displays with another refresh rate are measured by their
+ * own interval, also when the rate changes while animating. Dropped frames do not move the
+ * median as long as fewer than half of the recent frames are dropped.
+ */
+final class FrameTimer {
+
+    static final long DEFAULT_FRAME_INTERVAL_NANOS = 16666667L;
+    // gaps shorter than this are two callbacks for one vsync, not a frame interval
+    private static final long MIN_FRAME_INTERVAL_NANOS = 4000000L;
+    // gaps the frame interval is the median of
+    private static final int INTERVAL_SAMPLES = 9;
+
+    private boolean mStarted;
+    private long mStartNanos;
+    private long mLastNanos;
+    private long mFrameIntervalNanos = DEFAULT_FRAME_INTERVAL_NANOS;
+    private int mSkippedFrames;
+
+    // the last gaps, oldest first once the ring is full. Kept across reset(), the display is the same
+    private final long[] mGaps = new long[INTERVAL_SAMPLES];
+    private final long[] mSortedGaps = new long[INTERVAL_SAMPLES];
+    private int mGapCount;
+    private int mNextGap;
+
+    void reset() {
+        mStarted = false;
+        mStartNanos = 0;
+        mLastNanos = 0;
+        mSkippedFrames = 0;
+    }
+
+    boolean isStarted() {
+        return mStarted;
+    }
+
+    /**
+     * @param frameTimeNanos vsync time of the frame
+     * @return time elapsed since the first frame in nanoseconds, 0 for the first one
+     * */
+    long onFrame(long frameTimeNanos) {
+        if (!mStarted) {
+            mStarted = true;
+            mStartNanos = frameTimeNanos;
+            mLastNanos = frameTimeNanos;
+            return 0;
+        }
+        long delta = frameTimeNanos - mLastNanos;
+        if (delta >= MIN_FRAME_INTERVAL_NANOS) {
+            // round, a frame that is a bit late has not been skipped
+            long frames = (delta + mFrameIntervalNanos / 2) / mFrameIntervalNanos;
+            if (frames > 1) {
+                mSkippedFrames += frames - 1;
+            }
+            addGap(delta);
+        }
+        if (delta > 0) {
+            mLastNanos = frameTimeNanos;
+        }
+        return mLastNanos - mStartNanos;
+    }
+
+    private void addGap(long gap) {
+        mGaps[mNextGap] = gap;
+        mNextGap = (mNextGap + 1) % INTERVAL_SAMPLES;
+        if (mGapCount < INTERVAL_SAMPLES) {
+            mGapCount++;
+        }
+        // insertion sort, there are only a few
+        long[] sorted = mSortedGaps;
+        for (int i = 0; i < mGapCount; i++) {
+            long value = mGaps[i];
+            int j = i - 1;
+            while (j >= 0 && sorted[j] > value) {
+                sorted[j + 1] = sorted[j];
+                j--;
+            }
+            sorted[j + 1] = value;
+        }
+        // the lower one of the two in the middle, a dropped frame does not count more than a kept one
+        mFrameIntervalNanos = sorted[(mGapCount - 1) / 2];
+    }
+
+    /**
+     * @return time elapsed between the first and the last frame in nanoseconds
+     * */
+    long getElapsedNanos() {
+        return mLastNanos - mStartNanos;
+    }
+
+    /**
+     * @return count of frames that have not been delivered since the first frame
+     * */
+    int getSkippedFrames() {
+        return mSkippedFrames;
+    }
+}
@@ -0,0 +1,236 @@
+/**
+ * Copyright 2018 Alibaba Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.org.yxj.cpm.android.bindingx.core.internal;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Description:
+ *
+ * Piecewise linear mapping of the builtin
+ * <code>interpolate(value, [inputStops], [outputStops], extrapolateMode)</code>, e.g.
+ * <code>interpolate(y, [0, 100, 300], [1, 0.5, 0], 'clamp')</code> or
+ * <code>interpolate(y, [0, 200], ['#ff0000', '#0000ff'])</code>.
+ *
+ * Output stops are numbers, or colors (strings like '#ff0000' or packed argb ints), which are
+ * interpolated per channel. The stops are sorted by input once when the mapping is created and the
+ * segment of a value is found by binary search.
+ *
+ * Extrapolate modes, for values outside of the input stops:
+ * <ul>
+ *     <li>clamp (default): the first or last output.</li>
+ *     <li>extend: extend the first or last segment.</li>
+ *     <li>identity: the value itself.</li>
+ * </ul>
+ * Colors are always clamped.
+ */
+final class Interpolation {
+
+    static final int EXTRAPOLATE_CLAMP = 0;
+    static final int EXTRAPOLATE_EXTEND = 1;
+    static final int EXTRAPOLATE_IDENTITY = 2;
+
+    private final double[] mInputs;
+    // outputs of numeric stops, null for colors
+    private final double[] mOutputs;
+    // outputs of color stops, null for numbers
+    private final int[] mColors;
+    private final int mExtrapolate;
+
+    private Interpolation(double[] inputs, double[] outputs, int[] colors, int extrapolate) {
+        mInputs = inputs;
+        mOutputs = outputs;
+        mColors = colors;
+        mExtrapolate = extrapolate;
+    }
+
+    /**
+     * @param inputs input stops, numbers
+     * @param outputs output stops, numbers or colors
+     * @param extrapolate extrapolate mode, optionally quoted. null for the default mode.
+     * @throws IllegalArgumentException if the stops or the mode are illegal
+     * */
+    @NonNull
+    static Interpolation create(@NonNull List<?> inputs, @NonNull List<?> outputs, @Nullable String extrapolate)
+            throws IllegalArgumentException {
+        int count = inputs.size();
+        if (count == 0 || count != outputs.size()) {
+            throw new IllegalArgumentException("interpolate() needs as many output stops as input stops, and at least one");
+        }
+
+        // sort the stops by input, stable so that equal inputs keep their order (a step)
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        final double[] unsorted = new double[count];
+        for (int i = 0; i < count; i++) {
+            unsorted[i] = toStop(inputs.get(i));
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return Double.compare(unsorted[a], unsorted[b]);
+            }
+        });
+
+        double[] sortedInputs = new double[count];
+        boolean color = isColor(outputs.get(0));
+        double[] sortedOutputs = color ? null : new double[count];
+        int[] sortedColors = color ? new int[count] : null;
+        for (int i = 0; i < count; i++) {
+            int index = order[i];
+            sortedInputs[i] = unsorted[index];
+            Object output = outputs.get(index);
+            if (color) {
+                sortedColors[i] = toColor(output);
+            } else {
+                sortedOutputs[i] = toStop(output);
+            }
+        }
+        return new Interpolation(sortedInputs, sortedOutputs, sortedColors, extrapolateModeOf(extrapolate));
+    }
+
+    private static int extrapolateModeOf(@Nullable String mode) {
+        if (mode == null) {
+            return EXTRAPOLATE_CLAMP;
+        }
+        if (mode.length() >= 2 && (mode.startsWith("'") || mode.startsWith("\""))) {
+            mode = mode.substring(1, mode.length() - 1);
+        }
+        switch (mode) {
+            case "clamp":
+                return EXTRAPOLATE_CLAMP;
+            case "extend":
+                return EXTRAPOLATE_EXTEND;
+            case "identity":
+                return EXTRAPOLATE_IDENTITY;
+            default:
+                throw new IllegalArgumentException("unknown extrapolate mode " + mode);
+        }
+    }
+
+    private static double toStop(Object stop) {
+        if (!(stop instanceof Number)) {
+            throw new IllegalArgumentException("illegal stop " + stop);
+        }
+        return ((Number) stop).doubleValue();
+    }
+
+    private static boolean isColor(Object output) {
+        return output instanceof String || output instanceof Integer;
+    }
+
+    private static int toColor(Object output) {
+        if (output instanceof Integer) {
+            return (Integer) output;
+        } else if (output instanceof String) {
+            return JSMath.parseColor((String) output);
+        }
+        throw new IllegalArgumentException("illegal color stop " + output);
+    }
+
+    boolean isColor() {
+        return mColors != null;
+    }
+
+    /**
+     * @return the mapped value, an Integer color if the outputs are colors and a Double otherwise
+     * */
+    @NonNull
+    Object evaluate(double value) {
+        return isColor() ? (Object) interpolateColor(value) : (Object) interpolate(value);
+    }
+
+    /**
+     * only for numeric outputs
+     * */
+    double interpolate(double value) {
+        double[] inputs = mInputs;
+        double[] outputs = mOutputs;
+        int last = inputs.length - 1;
+        if (Double.isNaN(value)) {
+            return Double.NaN;
+        }
+        if (value < inputs[0] || value > inputs[last] || last == 0) {
+            if (mExtrapolate == EXTRAPOLATE_IDENTITY) {
+                return value;
+            }
+            if (mExtrapolate == EXTRAPOLATE_CLAMP || last == 0) {
+                return value < inputs[0] ? outputs[0] : outputs[last];
+            }
+        }
+        int i = segmentOf(value);
+        double from = inputs[i];
+        double to = inputs[i + 1];
+        if (to == from) {
+            return value < from ? outputs[i] : outputs[i + 1];
+        }
+        return outputs[i] + (outputs[i + 1] - outputs[i]) * (value - from) / (to - from);
+    }
+
+    /**
+     * only for color outputs
+     * */
+    int interpolateColor(double value) {
+        double[] inputs = mInputs;
+        int[] colors = mColors;
+        int last = inputs.length - 1;
+        if (Double.isNaN(value) || value <= inputs[0] || last == 0) {
+            return colors[0];
+        }
+        if (value >= inputs[last]) {
+            return colors[last];
+        }
+        int i = segmentOf(value);
+        double from = inputs[i];
+        double to = inputs[i + 1];
+        if (to == from) {
+            return colors[i + 1];
+        }
+        return Colors.interpolate(colors[i], colors[i + 1], (value - from) / (to - from), Colors.MODE_SRGB);
+    }
+
+    /**
+     * @return index i of the segment [inputs[i], inputs[i+1]] of the value: the last segment
+     * that starts at or before the value, the first or last segment for values outside the stops.
+     * */
+    private int segmentOf(double value) {
+        double[] inputs = mInputs;
+        int low = 0;
+        int high = inputs.length - 2;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (inputs[mid] <= value) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    @Override
+    public String toString() {
+        return "interpolate(" + Arrays.toString(mInputs) + ","
+                + (isColor() ? Arrays.toString(mColors) : Arrays.toString(mOutputs)) + "," + mExtrapolate + ")";
+    }
+}
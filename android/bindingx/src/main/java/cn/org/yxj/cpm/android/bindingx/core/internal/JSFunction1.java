@@ -0,0 +1,28 @@
+/**
+ * Copyright 2018 Alibaba Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.org.yxj.cpm.android.bindingx.core.internal;
+
+/**
+ * Description:
+ *
+ * A function of one number, e.g. sin(x).
+ *
+ * Expressions call functions implementing it on primitive doubles, without boxing the
+ * arguments into a list. See {@link JSFunctionInterface} for functions of any other shape.
+ */
+public interface JSFunction1 extends JSObjectInterface {
+    double call(double a);
+}
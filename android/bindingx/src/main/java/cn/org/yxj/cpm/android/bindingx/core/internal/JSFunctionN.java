@@ -0,0 +1,32 @@
+/**
+ * Copyright 2018 Alibaba Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.org.yxj.cpm.android.bindingx.core.internal;
+
+/**
+ * Description:
+ *
+ * A function of any count of numbers, e.g. max(a, b, c) or cubicBezier(t, b, c, d, x1, y1, x2, y2).
+ * The arguments are passed as a range of a shared array instead of a list of boxed numbers.
+ */
+public interface JSFunctionN extends JSObjectInterface {
+    /**
+     * @param args array holding the arguments. It is owned by the caller and is only valid
+     *             during the call, do not keep it.
+     * @param offset index of the first argument in args
+     * @param count count of arguments
+     * */
+    double call(double[] args, int offset, int count);
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright 2018 Alibaba Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.org.yxj.cpm.android.bindingx.core.internal;
+
+import java.util.ArrayList;
+
+/**
+ * Description:
+ *
+ * Base classes of the builtin functions of {@link JSMath} and {@link TimingFunctions}.
+ *
+ * A builtin implements one of the arity specialised interfaces ({@link JSFunction1} ...
+ * {@link JSFunctionN}), which compiled expressions call directly on doubles. It also still is a
+ * {@link JSFunctionInterface}, so calls that do not match the arity (or code that takes the
+ * function out of the scope) keep working through the list based {@link JSFunctionInterface#execute}.
+ */
+final class JSFunctions {
+
+    private JSFunctions() {
+    }
+
+    abstract static class Function1 implements JSFunction1, JSFunctionInterface {
+        @Override
+        public Object execute(ArrayList<Object> arguments) {
+            return call((double) arguments.get(0));
+        }
+    }
+
+    abstract static class Function2 implements JSFunction2, JSFunctionInterface {
+        @Override
+        public Object execute(ArrayList<Object> arguments) {
+            return call((double) arguments.get(0), (double) arguments.get(1));
+        }
+    }
+
+    abstract static class Function3 implements JSFunction3, JSFunctionInterface {
+        @Override
+        public Object execute(ArrayList<Object> arguments) {
+            return call((double) arguments.get(0), (double) arguments.get(1), (double) arguments.get(2));
+        }
+    }
+
+    abstract static class Function4 implements JSFunction4, JSFunctionInterface {
+        @Override
+        public Object execute(ArrayList<Object> arguments) {
+            return call((double) arguments.get(0), (double) arguments.get(1),
+                    (double) arguments.get(2), (double) arguments.get(3));
+        }
+    }
+
+    abstract static class FunctionN implements JSFunctionN, JSFunctionInterface {
+        @Override
+        public Object execute(ArrayList<Object> arguments) {
+            if (arguments == null || arguments.isEmpty()) {
+                return null;
+            }
+            double[] args = new double[arguments.size()];
+            for (int i = 0; i < args.length; i++) {
+                args[i] = (double) arguments.get(i);
+            }
+            return call(args, 0, args.length);
+        }
+    }
+
+    /**
+     * @return true if the function can be called with the given count of numbers without
+     * going through {@link JSFunctionInterface#execute}
+     * */
+    static boolean isCallable(Object function, int arity) {
+        switch (arity) {
+            case 1:
+                if (function instanceof JSFunction1) {
+                    return true;
+                }
+                break;
+            case 2:
+                if (function instanceof JSFunction2) {
+                    return true;
+                }
+                break;
+            case 3:
+                if (function instanceof JSFunction3) {
+                    return true;
+                }
+                break;
+            case 4:
+                if (function instanceof JSFunction4) {
+                    return true;
+                }
+                break;
+            default:
+                break;
+        }
+        return arity > 0 && function instanceof JSFunctionN;
+    }
+}
@@ -15,15 +15,12 @@
  */
 package cn.org.yxj.cpm.android.bindingx.core.internal;
 
-import android.animation.ArgbEvaluator;
-import android.graphics.Color;
-import android.text.TextUtils;
-
 import cn.org.yxj.cpm.android.bindingx.core.PlatformManager;
 
 import org.json.JSONException;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -34,87 +31,100 @@ class JSMath {
 
     private JSMath(){}
 
-    private static Object sin = new JSFunctionInterface() {
-        public Object execute(ArrayList<Object> arguments) {
-            return Math.sin((double) arguments.get(0));
+    private static Object sin = new JSFunctions.Function1() {
+        @Override
+        public double call(double a) {
+            return Math.sin(a);
         }
     };
 
-    private static Object cos = new JSFunctionInterface() {
-        public Object execute(ArrayList<Object> arguments) {
-            return Math.cos((double) arguments.get(0));
+    private static Object cos = new JSFunctions.Function1() {
+        @Override
+        public double call(double a) {
+            return Math.cos(a);
         }
     };
 
-    private static Object tan = new JSFunctionInterface() {
-        public Object execute(ArrayList<Object> arguments) {
-            return Math.tan((double) arguments.get(0));
+    private static Object tan = new JSFunctions.Function1() {
+        @Override
+        public double call(double a) {
+            return Math.tan(a);
         }
     };
 
-    private static Object asin = new JSFunctionInterface() {
-        public Object execute(ArrayList<Object> arguments) {
-            return Math.asin((double) arguments.get(0));
+    private static Object asin = new JSFunctions.Function1() {
+        @Override
+        public double call(double a) {
+            return Math.asin(a);
         }
     };
 
-    private static Object acos = new JSFunctionInterface() {
-        public Object execute(ArrayList<Object> arguments) {
-            return Math.acos((double) arguments.get(0));
+    private static Object acos = new JSFunctions.Function1() {
+        @Override
+        public double call(double a) {
+            return Math.acos(a);
         }
     };
 
-    private static Object atan = new JSFunctionInterface() {
-        public Object execute(ArrayList<Object> arguments) {
-            return Math.atan((double) arguments.get(0));
+    private static Object atan = new JSFunctions.Function1() {
+        @Override
+        public double call(double a) {
+            return Math.atan(a);
         }
     };
 
-    private static Object atan2 = new JSFunctionInterface() {
-        public Object execute(ArrayList<Object> arguments) {
-            return Math.atan2((double) arguments.get(0), (double) arguments.get(1));
+    private static Object atan2 = new JSFunctions.Function2() {
+        @Override
+        public double call(double a, double b) {
+            return Math.atan2(a, b);
         }
     };
 
-    private static Object pow = new JSFunctionInterface() {
-        public Object execute(ArrayList<Object> arguments) {
-            return Math.pow((double) arguments.get(0), (double) arguments.get(1));
+    private static Object pow = new JSFunctions.Function2() {
+        @Override
+        public double call(double a, double b) {
+            return Math.pow(a, b);
         }
     };
 
-    private static Object exp = new JSFunctionInterface() {
-        public Object execute(ArrayList<Object> arguments) {
-            return Math.exp((double) arguments.get(0));
+    private static Object exp = new JSFunctions.Function1() {
+        @Override
+        public double call(double a) {
+            return Math.exp(a);
         }
     };
 
-    private static Object sqrt = new JSFunctionInterface() {
-        public Object execute(ArrayList<Object> arguments) {
-            return Math.sqrt((double) arguments.get(0));
+    private static Object sqrt = new JSFunctions.Function1() {
+        @Override
+        public double call(double a) {
+            return Math.sqrt(a);
         }
     };
 
-    private static Object cbrt = new JSFunctionInterface() {
-        public Object execute(ArrayList<Object> arguments) {
-            return Math.cbrt((double) arguments.get(0));
+    private static Object cbrt = new JSFunctions.Function1() {
+        @Override
+        public double call(double a) {
+            return Math.cbrt(a);
         }
     };
 
-    private static Object log = new JSFunctionInterface() {
-        public Object execute(ArrayList<Object> arguments) {
-            return Math.log((double) arguments.get(0));
+    private static Object log = new JSFunctions.Function1() {
+        @Override
+        public double call(double a) {
+            return Math.log(a);
         }
     };
 
-    private static Object abs = new JSFunctionInterface() {
-        public Object execute(ArrayList<Object> arguments) {
-            return Math.abs((double) arguments.get(0));
+    private static Object abs = new JSFunctions.Function1() {
+        @Override
+        public double call(double a) {
+            return Math.abs(a);
         }
     };
 
-    private static Object sign = new JSFunctionInterface() {
-        public Object execute(ArrayList<Object> arguments) {
-            double v = (double) arguments.get(0);
+    private static Object sign = new JSFunctions.Function1() {
+        @Override
+        public double call(double v) {
             if (v > 0)
                 return 1;
             if (v == 0)
@@ -125,53 +135,58 @@ class JSMath {
         }
     };
 
-    private static Object ceil = new JSFunctionInterface() {
-        public Object execute(ArrayList<Object> arguments) {
-            return Math.ceil((double) arguments.get(0));
+    private static Object ceil = new JSFunctions.Function1() {
+        @Override
+        public double call(double a) {
+            return Math.ceil(a);
         }
     };
 
-    private static Object floor = new JSFunctionInterface() {
-        public Object execute(ArrayList<Object> arguments) {
-            return Math.floor((double) arguments.get(0));
+    private static Object floor = new JSFunctions.Function1() {
+        @Override
+        public double call(double a) {
+            return Math.floor(a);
         }
     };
 
-    private static Object round = new JSFunctionInterface() {
-        public Object execute(ArrayList<Object> arguments) {
-            return Math.round((double) arguments.get(0));
+    private static Object round = new JSFunctions.Function1() {
+        @Override
+        public double call(double a) {
+            return Math.round(a);
         }
     };
 
-    private static Object max = new JSFunctionInterface() {
-        public Object execute(ArrayList<Object> arguments) {
-            if(arguments != null && arguments.size() >= 1) {
-                double max = (double) arguments.get(0);
-                for (int i = 1,len = arguments.size();i < len; i++) {
-                    double val = (double) arguments.get(i);
-                    if(val > max) {
-                        max = val;
-                    }
+    private static Object max = new JSFunctions.FunctionN() {
+        @Override
+        public double call(double[] args, int offset, int count) {
+            if (count < 1) {
+                return Double.NaN;
+            }
+            double max = args[offset];
+            for (int i = offset + 1,end = offset + count;i < end; i++) {
+                double val = args[i];
+                if(val > max) {
+                    max = val;
                 }
-                return max;
             }
-            return null;
+            return max;
         }
     };
 
-    private static Object min = new JSFunctionInterface() {
-        public Object execute(ArrayList<Object> arguments) {
-            if(arguments != null && arguments.size() >= 1) {
-                double min = (double) arguments.get(0);
-                for (int i = 1,len = arguments.size();i < len; i++) {
-                    double val = (double) arguments.get(i);
-                    if(val < min) {
-                        min = val;
-                    }
+    private static Object min = new JSFunctions.FunctionN() {
+        @Override
+        public double call(double[] args, int offset, int count) {
+            if (count < 1) {
+                return Double.NaN;
+            }
+            double min = args[offset];
+            for (int i = offset + 1,end = offset + count;i < end; i++) {
+                double val = args[i];
+                if(val < min) {
+                    min = val;
                 }
-                return min;
             }
-            return null;
+            return min;
         }
     };
     private static Object PI = Math.PI;
@@ -182,13 +197,15 @@ class JSMath {
 
     //transform
 
+    // calls with numeric arguments are compiled into ExpressionNode.Vector, which does not box them.
+
     private static Object translate = new JSFunctionInterface() {
         @Override
         public Object execute(ArrayList<Object> arguments) throws NumberFormatException, JSONException {
             if(arguments == null || arguments.size() < 2) {
                 return null;
             }
-            return arguments;
+            return toVector(arguments, 2);
         }
     };
 
@@ -198,7 +215,7 @@ class JSMath {
             if(arguments == null || arguments.size() < 2) {
                 return null;
             }
-            return arguments;
+            return toVector(arguments, 2);
         }
     };
 
@@ -209,10 +226,37 @@ class JSMath {
             if(arguments == null || arguments.size() < 6) {
                 return null;
             }
-            return arguments;
+            return toVector(arguments, 6);
         }
     };
 
+    /**
+     * @param size 2, 4 or 6
+     * @return {@link Vec2}, {@link Vec4} or {@link Mat3} if the arguments are that many numbers,
+     * the arguments themselves otherwise
+     * */
+    private static Object toVector(ArrayList<Object> arguments, int size) {
+        if (arguments.size() != size) {
+            return arguments;
+        }
+        double[] values = new double[size];
+        for (int i = 0; i < size; i++) {
+            Object argument = arguments.get(i);
+            if (!(argument instanceof Double)) {
+                return arguments;
+            }
+            values[i] = (Double) argument;
+        }
+        switch (size) {
+            case 2:
+                return new Vec2(values[0], values[1]);
+            case 4:
+                return new Vec4(values[0], values[1], values[2], values[3]);
+            default:
+                return new Mat3(values[0], values[1], values[2], values[3], values[4], values[5]);
+        }
+    }
+
 
     private static Object rgb = new JSFunctionInterface() {
         @Override
@@ -225,7 +269,7 @@ class JSMath {
             double g = (double) arguments.get(1);
             double b = (double) arguments.get(2);
 
-            return Color.rgb((int)r,(int)g,(int)b);
+            return Colors.argb(255,(int)r,(int)g,(int)b);
         }
     };
 
@@ -241,97 +285,119 @@ class JSMath {
             double b = (double) arguments.get(2);
             /*a=0~1*/
             double a = ((double) arguments.get(3))*255;
-            return Color.argb((int)a,(int)r,(int)g,(int)b);
+            return Colors.argb((int)a,(int)r,(int)g,(int)b);
         }
     };
 
-    private static ArgbEvaluator sArgbEvaluator = new ArgbEvaluator();
-
+    /**
+     * evaluateColor(fromColor, toColor, fraction, mode), mode is 'srgb' (default) or 'linear',
+     * see {@link Colors}. Calls with constant colors are compiled into {@link ExpressionNode.ColorFade},
+     * which parses the colors once, this is the fallback for colors computed at runtime.
+     * */
     private static Object evaluateColor = new JSFunctionInterface() {
         @Override
         public Object execute(ArrayList<Object> arguments) throws NumberFormatException, JSONException {
             int fromColor = parseColor((String) arguments.get(0));
             int toColor = parseColor((String) arguments.get(1));
             double fraction = (double) arguments.get(2);
-            fraction = Math.min(1.0d,Math.max(0.0d,fraction));
-            return sArgbEvaluator.evaluate((float) fraction,fromColor,toColor);
+            int mode = arguments.size() > 3 ? Colors.modeOf((String) arguments.get(3)) : Colors.MODE_SRGB;
+            return Colors.interpolate(fromColor, toColor, fraction, mode);
         }
     };
 
-    private static int parseColor(String str) {
-        if(TextUtils.isEmpty(str)) {
+    /**
+     * @param str a color, optionally quoted, see {@link Colors#parse(String)}
+     * @return the color, opaque, as evaluateColor has always blended opaque colors
+     * */
+    static int parseColor(String str) {
+        if(str == null || str.isEmpty()) {
             throw new IllegalArgumentException("Unknown color");
         }
         String colorStr = str;
         if(str.startsWith("'") || str.startsWith("\"")) {
             colorStr = colorStr.substring(1,colorStr.length()-1);
         }
-        int color = Color.parseColor(colorStr);
-        color = Color.argb(255,Color.red(color),Color.green(color),Color.blue(color));
-        return color;
+        return 0xff000000 | Colors.parse(colorStr);
     }
 
+    /**
+     * interpolate(value, [inputStops], [outputStops], extrapolateMode), see {@link Interpolation}.
+     * Calls with constant stops are compiled into {@link ExpressionNode.Interpolate}, which
+     * prepares the stops once, this is the fallback for stops computed at runtime.
+     * */
+    private static Object interpolate = new JSFunctionInterface() {
+        @Override
+        public Object execute(ArrayList<Object> arguments) throws NumberFormatException, JSONException {
+            if(arguments == null || arguments.size() < 3) {
+                return null;
+            }
+            double value = (double) arguments.get(0);
+            String extrapolate = arguments.size() > 3 ? (String) arguments.get(3) : null;
+            return Interpolation.create((List<?>) arguments.get(1), (List<?>) arguments.get(2), extrapolate).evaluate(value);
+        }
+    };
+
     private static Object asArray = new JSFunctionInterface() {
         @Override
         public Object execute(ArrayList<Object> arguments) throws NumberFormatException, JSONException {
-            return arguments;
+            return arguments.size() == 4 ? toVector(arguments, 4) : toVector(arguments, 2);
         }
     };
 
-    static void applyXYToScope(Map<String, Object> scope, double x, double y, PlatformManager.IDeviceResolutionTranslator translator){
-        scope.put("x", translator.nativeToWeb(x));
-        scope.put("y", translator.nativeToWeb(y));
-        scope.put("internal_x",x);
-        scope.put("internal_y",y);
+    static void applyXYToScope(ExpressionScope scope, double x, double y, PlatformManager.IDeviceResolutionTranslator translator){
+        scope.setValue(ExpressionScope.SLOT_X, translator.nativeToWeb(x));
+        scope.setValue(ExpressionScope.SLOT_Y, translator.nativeToWeb(y));
+        scope.setValue(ExpressionScope.SLOT_INTERNAL_X, x);
+        scope.setValue(ExpressionScope.SLOT_INTERNAL_Y, y);
     }
 
-    static void applySpringValueToScope(Map<String,Object> scope, double position, double velocity) {
-        scope.put("p", position);
-        scope.put("v", velocity);
+    static void applySpringValueToScope(ExpressionScope scope, double position, double velocity) {
+        scope.setValue(ExpressionScope.SLOT_P, position);
+        scope.setValue(ExpressionScope.SLOT_V, velocity);
     }
 
-    static void applyScaleFactorToScope(Map<String,Object> scope, double scale) {
-        scope.put("s",scale);
+    static void applyScaleFactorToScope(ExpressionScope scope, double scale) {
+        scope.setValue(ExpressionScope.SLOT_S, scale);
     }
 
-    static void applyRotationInDegreesToScope(Map<String,Object> scope, double rotation) {
-        scope.put("r", rotation);
+    static void applyRotationInDegreesToScope(ExpressionScope scope, double rotation) {
+        scope.setValue(ExpressionScope.SLOT_R, rotation);
     }
 
-    static void applyOrientationValuesToScope(Map<String,Object> scope, double alpha, double beta, double gamma,
+    static void applyOrientationValuesToScope(ExpressionScope scope, double alpha, double beta, double gamma,
                                               double startAlpha, double startBeta, double startGamma,
                                               double x, double y, double z) {
-        scope.put("alpha", alpha);
-        scope.put("beta", beta);
-        scope.put("gamma", gamma);
+        scope.setValue(ExpressionScope.SLOT_ALPHA, alpha);
+        scope.setValue(ExpressionScope.SLOT_BETA, beta);
+        scope.setValue(ExpressionScope.SLOT_GAMMA, gamma);
 
-        scope.put("dalpha", alpha-startAlpha);
-        scope.put("dbeta", beta-startBeta);
-        scope.put("dgamma", gamma-startGamma);
+        scope.setValue(ExpressionScope.SLOT_DALPHA, alpha-startAlpha);
+        scope.setValue(ExpressionScope.SLOT_DBETA, beta-startBeta);
+        scope.setValue(ExpressionScope.SLOT_DGAMMA, gamma-startGamma);
 
-        scope.put("x", x);
-        scope.put("y", y);
-        scope.put("z", z);
+        scope.setValue(ExpressionScope.SLOT_X, x);
+        scope.setValue(ExpressionScope.SLOT_Y, y);
+        scope.setValue(ExpressionScope.SLOT_Z, z);
 
     }
 
-    static void applyTimingValuesToScope(Map<String,Object> scope, double t) {
-        scope.put("t", t);
+    static void applyTimingValuesToScope(ExpressionScope scope, double t) {
+        scope.setValue(ExpressionScope.SLOT_T, t);
     }
 
-    static void applyScrollValuesToScope(Map<String,Object> scope, double x, double y
+    static void applyScrollValuesToScope(ExpressionScope scope, double x, double y
                     , double dx, double dy, double tdx, double tdy, PlatformManager.IDeviceResolutionTranslator translator) {
-        scope.put("x", translator.nativeToWeb(x));
-        scope.put("y", translator.nativeToWeb(y));
+        scope.setValue(ExpressionScope.SLOT_X, translator.nativeToWeb(x));
+        scope.setValue(ExpressionScope.SLOT_Y, translator.nativeToWeb(y));
 
-        scope.put("dx", translator.nativeToWeb(dx));
-        scope.put("dy", translator.nativeToWeb(dy));
+        scope.setValue(ExpressionScope.SLOT_DX, translator.nativeToWeb(dx));
+        scope.setValue(ExpressionScope.SLOT_DY, translator.nativeToWeb(dy));
 
-        scope.put("tdx", translator.nativeToWeb(tdx));
-        scope.put("tdy", translator.nativeToWeb(tdy));
+        scope.setValue(ExpressionScope.SLOT_TDX, translator.nativeToWeb(tdx));
+        scope.setValue(ExpressionScope.SLOT_TDY, translator.nativeToWeb(tdy));
 
-        scope.put("internal_x",x);
-        scope.put("internal_y",y);
+        scope.setValue(ExpressionScope.SLOT_INTERNAL_X, x);
+        scope.setValue(ExpressionScope.SLOT_INTERNAL_Y, y);
     }
 
     static void applyToScope(Map<String, Object> scope) {
@@ -374,6 +440,7 @@ class JSMath {
         scope.put("evaluateColor", JSMath.evaluateColor);
 
         scope.put("asArray",JSMath.asArray);
+        scope.put("interpolate",JSMath.interpolate);
     }
 
 }
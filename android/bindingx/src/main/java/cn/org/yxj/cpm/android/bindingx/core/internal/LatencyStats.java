@@ -0,0 +1,82 @@
+/**
+ * Copyright 2018 Alibaba Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.org.yxj.cpm.android.bindingx.core.internal;
+
+import androidx.annotation.NonNull;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Description:
+ *
+ * Input latency of one profiled binding: the time from the moment an event sample is handed to
+ * {@link AbstractEventHandler#consumeExpression} until the ui thread has applied its results to
+ * the views, in both modes.
+ *
+ * Bindings evaluated in place on the ui thread apply the results right away. Those evaluated in
+ * place on another thread (e.g. scroll on the js thread) hand the updates to the ui thread, the
+ * commit is recorded once the ui thread has run them. Bindings evaluated on the worker apply the
+ * results in the vsync callback, which runs before the views of the same frame are drawn. When
+ * samples are coalesced the latency is measured from the oldest one.
+ *
+ * Written without synchronization, a snapshot may be slightly behind.
+ */
+final class LatencyStats {
+
+    private static final double NANOS_PER_MILLI = 1000000.0;
+
+    private final String mEventType;
+
+    // event samples handed to the binding
+    long samples;
+
+    // times results have been applied to the views
+    long commits;
+    long latencyNanos;
+    long maxLatencyNanos;
+
+    LatencyStats(@NonNull String eventType) {
+        mEventType = eventType;
+    }
+
+    void recordSample() {
+        samples++;
+    }
+
+    void recordCommit(long nanos) {
+        commits++;
+        latencyNanos += nanos;
+        if (nanos > maxLatencyNanos) {
+            maxLatencyNanos = nanos;
+        }
+    }
+
+    /**
+     * @return the stats for js, times in milliseconds
+     * */
+    @NonNull
+    Map<String, Object> toMap(boolean onWorker) {
+        Map<String, Object> map = new HashMap<>(8);
+        map.put(BindingXConstants.KEY_EVENT_TYPE, mEventType);
+        map.put(BindingXConstants.KEY_EVALUATE_ON_WORKER, onWorker);
+        map.put("samples", samples);
+        map.put("commits", commits);
+        map.put("latency", commits == 0 ? 0.0 : latencyNanos / NANOS_PER_MILLI / commits);
+        map.put("maxLatency", maxLatencyNanos / NANOS_PER_MILLI);
+        return map;
+    }
+}
@@ -0,0 +1,123 @@
+/**
+ * Copyright 2018 Alibaba Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.org.yxj.cpm.android.bindingx.core.internal;
+
+import androidx.annotation.NonNull;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * Description:
+ *
+ * Immutable 2d affine transform, the result of <code>matrix(a, b, c, d, tx, ty)</code>. As in css
+ * it is the 3x3 matrix
+ * <pre>
+ *     | a  c  tx |
+ *     | b  d  ty |
+ *     | 0  0  1  |
+ * </pre>
+ *
+ * It still is a read-only {@link java.util.List} of the six Doubles a, b, c, d, tx, ty, the
+ * arguments the builtin used to return, for interceptors and custom functions which expect a list.
+ */
+public final class Mat3 extends AbstractList<Object> implements RandomAccess {
+
+    public final double a;
+    public final double b;
+    public final double c;
+    public final double d;
+    public final double tx;
+    public final double ty;
+
+    public Mat3(double a, double b, double c, double d, double tx, double ty) {
+        this.a = a;
+        this.b = b;
+        this.c = c;
+        this.d = d;
+        this.tx = tx;
+        this.ty = ty;
+    }
+
+    /**
+     * @return the element at the given row and column of the 3x3 matrix
+     * */
+    public double get(int row, int column) {
+        switch (row * 3 + column) {
+            case 0:
+                return a;
+            case 1:
+                return c;
+            case 2:
+                return tx;
+            case 3:
+                return b;
+            case 4:
+                return d;
+            case 5:
+                return ty;
+            case 6:
+            case 7:
+                return 0;
+            case 8:
+                return 1;
+            default:
+                throw new IndexOutOfBoundsException("row " + row + ", column " + column);
+        }
+    }
+
+    @NonNull
+    @Override
+    public Object get(int index) {
+        switch (index) {
+            case 0:
+                return a;
+            case 1:
+                return b;
+            case 2:
+                return c;
+            case 3:
+                return d;
+            case 4:
+                return tx;
+            case 5:
+                return ty;
+            default:
+                throw new IndexOutOfBoundsException("index " + index + ", size 6");
+        }
+    }
+
+    @Override
+    public int size() {
+        return 6;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof Mat3) {
+            Mat3 that = (Mat3) o;
+            return Double.compare(a, that.a) == 0 && Double.compare(b, that.b) == 0
+                    && Double.compare(c, that.c) == 0 && Double.compare(d, that.d) == 0
+                    && Double.compare(tx, that.tx) == 0 && Double.compare(ty, that.ty) == 0;
+        }
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode();
+    }
+}
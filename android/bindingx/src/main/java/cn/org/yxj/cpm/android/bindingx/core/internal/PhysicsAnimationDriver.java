@@ -16,7 +16,6 @@
 package cn.org.yxj.cpm.android.bindingx.core.internal;
 
 import androidx.annotation.NonNull;
-import android.view.animation.AnimationUtils;
 
 import java.util.Map;
 
@@ -37,6 +36,7 @@ import java.util.Map;
     }
 
     private AnimationFrame mAnimationFrame;
+    protected final FrameTimer mFrameTimer = new FrameTimer();
 
     protected OnAnimationUpdateListener mAnimationUpdateListener;
     protected OnAnimationEndListener mAnimationEndListener;
@@ -46,7 +46,10 @@ import java.util.Map;
     protected boolean mHasFinished;
 
     abstract void onAnimationStart(@NonNull Map<String,Object> configMap);
-    abstract void runAnimationStep(long frameTimeMillis);
+    /**
+     * @param frameTimeNanos vsync time of the frame, in the {@link System#nanoTime()} time base
+     * */
+    abstract void runAnimationStep(long frameTimeNanos);
     abstract boolean isAtRest();
 
     void setOnAnimationUpdateListener(OnAnimationUpdateListener listener) {
@@ -58,6 +61,7 @@ import java.util.Map;
     }
 
     void start(@NonNull Map<String,Object> configMap) {
+        mFrameTimer.reset();
         onAnimationStart(configMap);
         if(mAnimationFrame == null) {
             mAnimationFrame = AnimationFrame.newInstance();
@@ -84,9 +88,16 @@ import java.util.Map;
         return mVelocity;
     }
 
+    /**
+     * @return count of frames dropped since the animation has been started
+     * */
+    int getSkippedFrames() {
+        return mFrameTimer.getSkippedFrames();
+    }
+
     @Override
-    public void doFrame() {
-        runAnimationStep(AnimationUtils.currentAnimationTimeMillis());
+    public void doFrame(long frameTimeNanos) {
+        runAnimationStep(frameTimeNanos);
         if(mAnimationUpdateListener != null) {
             mAnimationUpdateListener.onAnimationUpdate(this, mValue, mVelocity);
         }
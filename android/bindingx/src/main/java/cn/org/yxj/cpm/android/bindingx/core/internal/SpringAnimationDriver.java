@@ -28,6 +28,9 @@ import java.util.Map;
 
     // maximum amount of time to simulate per physics iteration in seconds (4 frames at 60 FPS)
     private static final double MAX_DELTA_TIME_SEC = 0.064;
+    // shortest fixed time step in seconds
+    private static final double MIN_TIMESTEP_SEC = 0.001;
+    private static final double NANOS_PER_SECOND = 1000000000.0;
 
     // storage for the current and prior physics state while integration is occurring
     private static class PhysicsState {
@@ -55,6 +58,11 @@ import java.util.Map;
     private double mDisplacementFromRestThreshold;
     private double mTimeAccumulator;
 
+    // fixed time step in seconds, 0 to step by the time between frames
+    private double mTimestep;
+    // frame time that has not been simulated yet in fixed step mode
+    private double mPendingTime;
+
     @Override
     void onAnimationStart(@NonNull Map<String,Object> configMap) {
         mVelocity = mCurrentState.velocity = Utils.getDoubleValue(configMap,"initialVelocity",0);
@@ -69,21 +77,37 @@ import java.util.Map;
         mRestSpeedThreshold = Utils.getDoubleValue(configMap,"restSpeedThreshold",0.001d);
         mDisplacementFromRestThreshold = Utils.getDoubleValue(configMap,"restDisplacementThreshold",0.001d);
         mOvershootClampingEnabled = Utils.getBooleanValue(configMap,"overshootClamping", false);
+        // milliseconds
+        double timestep = Utils.getDoubleValue(configMap, "timestep", 0) / 1000.0;
+        mTimestep = timestep > 0 ? Math.min(Math.max(timestep, MIN_TIMESTEP_SEC), MAX_DELTA_TIME_SEC) : 0;
+        mPendingTime = 0;
         mHasFinished = false;
         mTimeAccumulator = 0;
         mSpringStarted = false;
     }
 
     @Override
-    void runAnimationStep(long frameTimeMillis) {
+    void runAnimationStep(long frameTimeNanos) {
+        mFrameTimer.onFrame(frameTimeNanos);
         if (!mSpringStarted) {
             mStartValue = mCurrentState.position = mValue;
-            mLastTime = frameTimeMillis;
+            mLastTime = frameTimeNanos;
             mTimeAccumulator = 0.0;
             mSpringStarted = true;
         }
-        advance((frameTimeMillis - mLastTime) / 1000.0);
-        mLastTime = frameTimeMillis;
+        double deltaTime = (frameTimeNanos - mLastTime) / NANOS_PER_SECOND;
+        mLastTime = frameTimeNanos;
+        if (mTimestep > 0) {
+            // the spring is stepped at the same points in time however the frames are spread,
+            // frames that come late are caught up with in whole steps
+            mPendingTime += Math.min(deltaTime, MAX_DELTA_TIME_SEC);
+            while (mPendingTime >= mTimestep) {
+                advance(mTimestep);
+                mPendingTime -= mTimestep;
+            }
+        } else {
+            advance(deltaTime);
+        }
 
         mValue = mCurrentState.position;
         mVelocity = mCurrentState.velocity;
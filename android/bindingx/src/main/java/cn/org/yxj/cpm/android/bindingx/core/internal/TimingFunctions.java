@@ -15,15 +15,6 @@
  */
 package cn.org.yxj.cpm.android.bindingx.core.internal;
 
-import androidx.annotation.Nullable;
-import androidx.core.view.animation.PathInterpolatorCompat;
-import android.view.animation.Interpolator;
-
-import org.json.JSONException;
-
-import java.util.ArrayDeque;
-import java.util.ArrayList;
-import java.util.Deque;
 import java.util.Map;
 
 
@@ -77,13 +68,9 @@ class TimingFunctions {
 
     // t: current time, b: begInnIng value, c: change In value, d: duration
 
-    private static Object linear = new JSFunctionInterface() {
+    private static Object linear = new JSFunctions.Function4() {
         @Override
-        public Object execute(ArrayList<Object> arguments) throws NumberFormatException, JSONException {
-            double t = (double) arguments.get(0);
-            double b = (double) arguments.get(1);
-            double c = (double) arguments.get(2);
-            double d = (double) arguments.get(3);
+        public double call(double t, double b, double c, double d) {
 
             t = Math.min(t,d);
 
@@ -91,18 +78,21 @@ class TimingFunctions {
         }
     };
 
-    private static Object cubicBezier = new JSFunctionInterface() {
+    private static Object cubicBezier = new JSFunctions.FunctionN() {
         @Override
-        public Object execute(ArrayList<Object> arguments) throws NumberFormatException, JSONException {
-            double t = (double) arguments.get(0);
-            double b = (double) arguments.get(1);
-            double c = (double) arguments.get(2);
-            double d = (double) arguments.get(3);
+        public double call(double[] args, int offset, int count) {
+            if(count < 8) {
+                throw new IllegalArgumentException("cubicBezier(t, b, c, d, x1, y1, x2, y2) expects 8 arguments");
+            }
+            double t = args[offset];
+            double b = args[offset+1];
+            double c = args[offset+2];
+            double d = args[offset+3];
 
-            double x1 = (double) arguments.get(4);
-            double y1 = (double) arguments.get(5);
-            double x2 = (double) arguments.get(6);
-            double y2 = (double) arguments.get(7);
+            double x1 = args[offset+4];
+            double y1 = args[offset+5];
+            double x2 = args[offset+6];
+            double y2 = args[offset+7];
 
             t = Math.min(t,d);
 
@@ -110,68 +100,33 @@ class TimingFunctions {
                 return b+c;
             }
 
-            // 避免短时间创建大量临时对象
-            BezierInterpolatorWrapper bezierInterpolator = isCacheHit((float) x1,(float) y1,(float) x2,(float) y2);
-            if(bezierInterpolator == null) {
-                bezierInterpolator = new BezierInterpolatorWrapper((float) x1,(float) y1,(float) x2,(float) y2);
-                cache.add(bezierInterpolator);
-            }
-
-            float input = (float) (t / d);
-            return c * bezierInterpolator.getInterpolation(input) + b;
+            // curves are cached by their control points, no allocation once a curve is known
+            return c * CubicBezier.of(x1, y1, x2, y2).solve(t / d) + b;
 
         }
     };
 
-    private static final InnerCache<BezierInterpolatorWrapper> cache = new InnerCache<>(4);
-
-    @Nullable
-    private static BezierInterpolatorWrapper isCacheHit(float x1, float y1, float x2, float y2) {
-        Deque<BezierInterpolatorWrapper> deque = cache.getAll();
-        for(BezierInterpolatorWrapper bezier : deque) {
-            if(Float.compare(bezier.x1,x1)==0 && Float.compare(bezier.x2,x2) ==0
-                    && Float.compare(bezier.y1, y1)==0 && Float.compare(bezier.y2,y2)==0) {
-                return bezier;
-            }
-        }
-
-        return null;
-    }
-
-
-    private static Object easeInQuad = new JSFunctionInterface() {
+    private static Object easeInQuad = new Easing() {
         @Override
-        public Object execute(ArrayList<Object> arguments) throws NumberFormatException, JSONException {
-            double t = (double) arguments.get(0);
-            double b = (double) arguments.get(1);
-            double c = (double) arguments.get(2);
-            double d = (double) arguments.get(3);
+        double ease(double t, double b, double c, double d) {
             t = Math.min(t,d);
 
             return c*(t/=d)*t + b;
         }
     };
 
-    private static Object easeOutQuad = new JSFunctionInterface() {
+    private static Object easeOutQuad = new Easing() {
         @Override
-        public Object execute(ArrayList<Object> arguments) throws NumberFormatException, JSONException {
-            double t = (double) arguments.get(0);
-            double b = (double) arguments.get(1);
-            double c = (double) arguments.get(2);
-            double d = (double) arguments.get(3);
+        double ease(double t, double b, double c, double d) {
             t = Math.min(t,d);
 
             return -c *(t/=d)*(t-2) + b;
         }
     };
 
-    private static Object easeInOutQuad = new JSFunctionInterface() {
+    private static Object easeInOutQuad = new Easing() {
         @Override
-        public Object execute(ArrayList<Object> arguments) throws NumberFormatException, JSONException {
-            double t = (double) arguments.get(0);
-            double b = (double) arguments.get(1);
-            double c = (double) arguments.get(2);
-            double d = (double) arguments.get(3);
+        double ease(double t, double b, double c, double d) {
             t = Math.min(t,d);
 
             if ((t/=d/2) < 1) {
@@ -181,39 +136,27 @@ class TimingFunctions {
         }
     };
 
-    private static Object easeInCubic = new JSFunctionInterface() {
+    private static Object easeInCubic = new Easing() {
         @Override
-        public Object execute(ArrayList<Object> arguments) throws NumberFormatException, JSONException {
-            double t = (double) arguments.get(0);
-            double b = (double) arguments.get(1);
-            double c = (double) arguments.get(2);
-            double d = (double) arguments.get(3);
+        double ease(double t, double b, double c, double d) {
             t = Math.min(t,d);
 
             return c*(t/=d)*t*t + b;
         }
     };
 
-    private static Object easeOutCubic = new JSFunctionInterface() {
+    private static Object easeOutCubic = new Easing() {
         @Override
-        public Object execute(ArrayList<Object> arguments) throws NumberFormatException, JSONException {
-            double t = (double) arguments.get(0);
-            double b = (double) arguments.get(1);
-            double c = (double) arguments.get(2);
-            double d = (double) arguments.get(3);
+        double ease(double t, double b, double c, double d) {
             t = Math.min(t,d);
 
             return c*((t=t/d-1)*t*t + 1) + b;
         }
     };
 
-    private static Object easeInOutCubic = new JSFunctionInterface() {
+    private static Object easeInOutCubic = new Easing() {
         @Override
-        public Object execute(ArrayList<Object> arguments) throws NumberFormatException, JSONException {
-            double t = (double) arguments.get(0);
-            double b = (double) arguments.get(1);
-            double c = (double) arguments.get(2);
-            double d = (double) arguments.get(3);
+        double ease(double t, double b, double c, double d) {
             t = Math.min(t,d);
 
             if ((t/=d/2) < 1) {
@@ -223,39 +166,27 @@ class TimingFunctions {
         }
     };
 
-    private static Object easeInQuart = new JSFunctionInterface() {
+    private static Object easeInQuart = new Easing() {
         @Override
-        public Object execute(ArrayList<Object> arguments) throws NumberFormatException, JSONException {
-            double t = (double) arguments.get(0);
-            double b = (double) arguments.get(1);
-            double c = (double) arguments.get(2);
-            double d = (double) arguments.get(3);
+        double ease(double t, double b, double c, double d) {
             t = Math.min(t,d);
 
             return c*(t/=d)*t*t*t + b;
         }
     };
 
-    private static Object easeOutQuart = new JSFunctionInterface() {
+    private static Object easeOutQuart = new Easing() {
         @Override
-        public Object execute(ArrayList<Object> arguments) throws NumberFormatException, JSONException {
-            double t = (double) arguments.get(0);
-            double b = (double) arguments.get(1);
-            double c = (double) arguments.get(2);
-            double d = (double) arguments.get(3);
+        double ease(double t, double b, double c, double d) {
             t = Math.min(t,d);
 
             return -c * ((t=t/d-1)*t*t*t - 1) + b;
         }
     };
 
-    private static Object easeInOutQuart = new JSFunctionInterface() {
+    private static Object easeInOutQuart = new Easing() {
         @Override
-        public Object execute(ArrayList<Object> arguments) throws NumberFormatException, JSONException {
-            double t = (double) arguments.get(0);
-            double b = (double) arguments.get(1);
-            double c = (double) arguments.get(2);
-            double d = (double) arguments.get(3);
+        double ease(double t, double b, double c, double d) {
             t = Math.min(t,d);
 
             if ((t/=d/2) < 1) {
@@ -265,39 +196,27 @@ class TimingFunctions {
         }
     };
 
-    private static Object easeInQuint = new JSFunctionInterface() {
+    private static Object easeInQuint = new Easing() {
         @Override
-        public Object execute(ArrayList<Object> arguments) throws NumberFormatException, JSONException {
-            double t = (double) arguments.get(0);
-            double b = (double) arguments.get(1);
-            double c = (double) arguments.get(2);
-            double d = (double) arguments.get(3);
+        double ease(double t, double b, double c, double d) {
             t = Math.min(t,d);
 
             return c*(t/=d)*t*t*t*t + b;
         }
     };
 
-    private static Object easeOutQuint = new JSFunctionInterface() {
+    private static Object easeOutQuint = new Easing() {
         @Override
-        public Object execute(ArrayList<Object> arguments) throws NumberFormatException, JSONException {
-            double t = (double) arguments.get(0);
-            double b = (double) arguments.get(1);
-            double c = (double) arguments.get(2);
-            double d = (double) arguments.get(3);
+        double ease(double t, double b, double c, double d) {
             t = Math.min(t,d);
 
             return c*((t=t/d-1)*t*t*t*t + 1) + b;
         }
     };
 
-    private static Object easeInOutQuint = new JSFunctionInterface() {
+    private static Object easeInOutQuint = new Easing() {
         @Override
-        public Object execute(ArrayList<Object> arguments) throws NumberFormatException, JSONException {
-            double t = (double) arguments.get(0);
-            double b = (double) arguments.get(1);
-            double c = (double) arguments.get(2);
-            double d = (double) arguments.get(3);
+        double ease(double t, double b, double c, double d) {
             t = Math.min(t,d);
 
             if ((t/=d/2) < 1) {
@@ -307,78 +226,54 @@ class TimingFunctions {
         }
     };
 
-    private static Object easeInSine = new JSFunctionInterface() {
+    private static Object easeInSine = new Easing() {
         @Override
-        public Object execute(ArrayList<Object> arguments) throws NumberFormatException, JSONException {
-            double t = (double) arguments.get(0);
-            double b = (double) arguments.get(1);
-            double c = (double) arguments.get(2);
-            double d = (double) arguments.get(3);
+        double ease(double t, double b, double c, double d) {
             t = Math.min(t,d);
 
             return -c * Math.cos(t/d * (Math.PI/2)) + c + b;
         }
     };
 
-    private static Object easeOutSine = new JSFunctionInterface() {
+    private static Object easeOutSine = new Easing() {
         @Override
-        public Object execute(ArrayList<Object> arguments) throws NumberFormatException, JSONException {
-            double t = (double) arguments.get(0);
-            double b = (double) arguments.get(1);
-            double c = (double) arguments.get(2);
-            double d = (double) arguments.get(3);
+        double ease(double t, double b, double c, double d) {
             t = Math.min(t,d);
 
             return c * Math.sin(t/d * (Math.PI/2)) + b;
         }
     };
 
-    private static Object easeInOutSine = new JSFunctionInterface() {
+    private static Object easeInOutSine = new Easing() {
         @Override
-        public Object execute(ArrayList<Object> arguments) throws NumberFormatException, JSONException {
-            double t = (double) arguments.get(0);
-            double b = (double) arguments.get(1);
-            double c = (double) arguments.get(2);
-            double d = (double) arguments.get(3);
+        double ease(double t, double b, double c, double d) {
             t = Math.min(t,d);
 
             return -c/2 * (Math.cos(Math.PI*t/d) - 1) + b;
         }
     };
 
-    private static Object easeInExpo = new JSFunctionInterface() {
+    private static Object easeInExpo = new Easing() {
         @Override
-        public Object execute(ArrayList<Object> arguments) throws NumberFormatException, JSONException {
-            double t = (double) arguments.get(0);
-            double b = (double) arguments.get(1);
-            double c = (double) arguments.get(2);
-            double d = (double) arguments.get(3);
+        double ease(double t, double b, double c, double d) {
             t = Math.min(t,d);
 
             return (t==0) ? b : c * Math.pow(2, 10 * (t/d - 1)) + b;
         }
     };
 
-    private static Object easeOutExpo = new JSFunctionInterface() {
+    private static Object easeOutExpo = new Easing() {
         @Override
-        public Object execute(ArrayList<Object> arguments) throws NumberFormatException, JSONException {
-            double t = (double) arguments.get(0);
-            double b = (double) arguments.get(1);
-            double c = (double) arguments.get(2);
-            double d = (double) arguments.get(3);
+        double ease(double t, double b, double c, double d) {
             t = Math.min(t,d);
 
             return (t==d) ? b+c : c * (-Math.pow(2, -10 * t/d) + 1) + b;
         }
     };
 
-    private static Object easeInOutExpo = new JSFunctionInterface() {
+    private static Object easeInOutExpo = new Easing() {
         @Override
-        public Object execute(ArrayList<Object> arguments) throws NumberFormatException, JSONException {
-            double t = (double) arguments.get(0);
-            double b = (double) arguments.get(1);
-            double c = (double) arguments.get(2);
-            double d = (double) arguments.get(3);
+        double ease(double t, double b, double c, double d) {
             t = Math.min(t,d);
 
             if (t==0) {
@@ -394,39 +289,27 @@ class TimingFunctions {
         }
     };
 
-    private static Object easeInCirc = new JSFunctionInterface() {
+    private static Object easeInCirc = new Easing() {
         @Override
-        public Object execute(ArrayList<Object> arguments) throws NumberFormatException, JSONException {
-            double t = (double) arguments.get(0);
-            double b = (double) arguments.get(1);
-            double c = (double) arguments.get(2);
-            double d = (double) arguments.get(3);
+        double ease(double t, double b, double c, double d) {
             t = Math.min(t,d);
 
             return -c * (Math.sqrt(1 - (t/=d)*t) - 1) + b;
         }
     };
 
-    private static Object easeOutCirc = new JSFunctionInterface() {
+    private static Object easeOutCirc = new Easing() {
         @Override
-        public Object execute(ArrayList<Object> arguments) throws NumberFormatException, JSONException {
-            double t = (double) arguments.get(0);
-            double b = (double) arguments.get(1);
-            double c = (double) arguments.get(2);
-            double d = (double) arguments.get(3);
+        double ease(double t, double b, double c, double d) {
             t = Math.min(t,d);
 
             return c * Math.sqrt(1 - (t=t/d-1)*t) + b;
         }
     };
 
-    private static Object easeInOutCirc = new JSFunctionInterface() {
+    private static Object easeInOutCirc = new Easing() {
         @Override
-        public Object execute(ArrayList<Object> arguments) throws NumberFormatException, JSONException {
-            double t = (double) arguments.get(0);
-            double b = (double) arguments.get(1);
-            double c = (double) arguments.get(2);
-            double d = (double) arguments.get(3);
+        double ease(double t, double b, double c, double d) {
             t = Math.min(t,d);
 
             if ((t/=d/2) < 1) {
@@ -437,13 +320,9 @@ class TimingFunctions {
     };
 
 
-    private static Object easeInElastic = new JSFunctionInterface() {
+    private static Object easeInElastic = new Easing() {
         @Override
-        public Object execute(ArrayList<Object> arguments) throws NumberFormatException, JSONException {
-            double t = (double) arguments.get(0);
-            double b = (double) arguments.get(1);
-            double c = (double) arguments.get(2);
-            double d = (double) arguments.get(3);
+        double ease(double t, double b, double c, double d) {
             t = Math.min(t,d);
 
             double s;
@@ -466,12 +345,9 @@ class TimingFunctions {
         }
     };
 
-    private static Object easeOutElastic = new JSFunctionInterface() {
-        public Object execute(ArrayList<Object> arguments) {
-            double t = (double) arguments.get(0);
-            double b = (double) arguments.get(1);
-            double c = (double) arguments.get(2);
-            double d = (double) arguments.get(3);
+    private static Object easeOutElastic = new Easing() {
+        @Override
+        double ease(double t, double b, double c, double d) {
             t = Math.min(t,d);
 
             double s;
@@ -494,12 +370,9 @@ class TimingFunctions {
         }
     };
 
-    private static Object easeInOutElastic = new JSFunctionInterface() {
-        public Object execute(ArrayList<Object> arguments) {
-            double t = (double) arguments.get(0);
-            double b = (double) arguments.get(1);
-            double c = (double) arguments.get(2);
-            double d = (double) arguments.get(3);
+    private static Object easeInOutElastic = new Easing() {
+        @Override
+        double ease(double t, double b, double c, double d) {
             t = Math.min(t,d);
 
             double s;
@@ -525,13 +398,9 @@ class TimingFunctions {
         }
     };
 
-    private static Object easeInBack = new JSFunctionInterface() {
+    private static Object easeInBack = new Easing() {
         @Override
-        public Object execute(ArrayList<Object> arguments) throws NumberFormatException, JSONException {
-            double t = (double) arguments.get(0);
-            double b = (double) arguments.get(1);
-            double c = (double) arguments.get(2);
-            double d = (double) arguments.get(3);
+        double ease(double t, double b, double c, double d) {
             t = Math.min(t,d);
 
             double s = 1.70158;
@@ -539,13 +408,9 @@ class TimingFunctions {
         }
     };
 
-    private static Object easeOutBack = new JSFunctionInterface() {
+    private static Object easeOutBack = new Easing() {
         @Override
-        public Object execute(ArrayList<Object> arguments) throws NumberFormatException, JSONException {
-            double t = (double) arguments.get(0);
-            double b = (double) arguments.get(1);
-            double c = (double) arguments.get(2);
-            double d = (double) arguments.get(3);
+        double ease(double t, double b, double c, double d) {
             t = Math.min(t,d);
 
             double s = 1.70158;
@@ -553,13 +418,9 @@ class TimingFunctions {
         }
     };
 
-    private static Object easeInOutBack = new JSFunctionInterface() {
+    private static Object easeInOutBack = new Easing() {
         @Override
-        public Object execute(ArrayList<Object> arguments) throws NumberFormatException, JSONException {
-            double t = (double) arguments.get(0);
-            double b = (double) arguments.get(1);
-            double c = (double) arguments.get(2);
-            double d = (double) arguments.get(3);
+        double ease(double t, double b, double c, double d) {
             t = Math.min(t,d);
 
             double s = 1.70158;
@@ -570,39 +431,27 @@ class TimingFunctions {
         }
     };
 
-    private static Object easeInBounce = new JSFunctionInterface() {
+    private static Object easeInBounce = new Easing() {
         @Override
-        public Object execute(ArrayList<Object> arguments) throws NumberFormatException, JSONException {
-            double t = (double) arguments.get(0);
-            double b = (double) arguments.get(1);
-            double c = (double) arguments.get(2);
-            double d = (double) arguments.get(3);
+        double ease(double t, double b, double c, double d) {
             t = Math.min(t,d);
 
             return easeInBounce(t,b,c,d);
         }
     };
 
-    private static Object easeOutBounce = new JSFunctionInterface() {
+    private static Object easeOutBounce = new Easing() {
         @Override
-        public Object execute(ArrayList<Object> arguments) throws NumberFormatException, JSONException {
-            double t = (double) arguments.get(0);
-            double b = (double) arguments.get(1);
-            double c = (double) arguments.get(2);
-            double d = (double) arguments.get(3);
+        double ease(double t, double b, double c, double d) {
             t = Math.min(t,d);
 
             return easeOutBounce(t,b,c,d);
         }
     };
 
-    private static Object easeInOutBounce = new JSFunctionInterface() {
+    private static Object easeInOutBounce = new Easing() {
         @Override
-        public Object execute(ArrayList<Object> arguments) throws NumberFormatException, JSONException {
-            double t = (double) arguments.get(0);
-            double b = (double) arguments.get(1);
-            double c = (double) arguments.get(2);
-            double d = (double) arguments.get(3);
+        double ease(double t, double b, double c, double d) {
             t = Math.min(t,d);
 
             if (t < d/2) {
@@ -629,44 +478,69 @@ class TimingFunctions {
     }
 
 
-    private static class InnerCache<T> {
-        private final ArrayDeque<T> deque;
+    /**
+     * An easing of the form f(t, b, c, d) = b + c * f(t / d, 0, 1, 1), which is true for all
+     * the easings above. If {@link EasingLookupTables} is enabled, f(u, 0, 1, 1) is sampled once
+     * into a table shared by all bindings and evaluated by linear interpolation.
+     * */
+    abstract static class Easing extends JSFunctions.Function4 {
 
-        InnerCache(int size) {
-            deque = new ArrayDeque<>(size);
-        }
+        private volatile Table mTable;
 
-        void add(T t) {
-            if(deque.size() >= 4) {
-                deque.removeFirst();
-                deque.addLast(t);
-            } else {
-                deque.addLast(t);
+        /**
+         * the analytic easing
+         * */
+        abstract double ease(double t, double b, double c, double d);
+
+        @Override
+        public final double call(double t, double b, double c, double d) {
+            int resolution = EasingLookupTables.getResolution();
+            if (resolution <= 0 || !(t > 0 && t < d)) {
+                // disabled, or an end point (which must be exact) or an illegal duration
+                return ease(t, b, c, d);
             }
+            Table table = tableOf(resolution);
+            double x = t / d * resolution;
+            int i = Math.min((int) x, resolution - 1);
+            if (table.exact[i]) {
+                return ease(t, b, c, d);
+            }
+            float[] samples = table.samples;
+            return b + c * (samples[i] + (samples[i + 1] - samples[i]) * (x - i));
         }
 
-        Deque<T> getAll() {
-            return deque;
+        private Table tableOf(int resolution) {
+            Table table = mTable;
+            if (table == null || table.exact.length != resolution) {
+                // racing threads build equal tables, any of them may win
+                table = new Table(this, resolution);
+                mTable = table;
+            }
+            return table;
         }
     }
 
-    private static class BezierInterpolatorWrapper implements Interpolator{
-
-        float x1,y1,x2,y2;
-        private Interpolator mInnerInterpolator;
-        BezierInterpolatorWrapper(float x1,float y1, float x2, float y2) {
-            this.x1 = x1;
-            this.y1 = y1;
-            this.x2 = x2;
-            this.y2 = y2;
-            mInnerInterpolator = PathInterpolatorCompat.create(x1,y1,x2,y2);
-        }
-
-        @Override
-        public float getInterpolation(float input) {
-            return mInnerInterpolator.getInterpolation(input);
+    private static final class Table {
+        // samples of ease(u, 0, 1, 1) for u in [0, 1]
+        final float[] samples;
+        // intervals where interpolation is off by more than EasingLookupTables.MAX_ERROR
+        // (jumps, kinks and infinite slopes), they are computed analytically
+        final boolean[] exact;
+
+        Table(Easing easing, int resolution) {
+            samples = new float[resolution + 1];
+            exact = new boolean[resolution];
+            for (int i = 0; i <= resolution; i++) {
+                samples[i] = (float) easing.ease((double) i / resolution, 0, 1, 1);
+            }
+            for (int i = 0; i < resolution; i++) {
+                for (int k = 1; k < 4 && !exact[i]; k++) {
+                    double u = (i + k / 4.0) / resolution;
+                    double interpolated = samples[i] + (samples[i + 1] - samples[i]) * (k / 4.0);
+                    exact[i] = Math.abs(interpolated - easing.ease(u, 0, 1, 1)) > EasingLookupTables.MAX_ERROR;
+                }
+            }
         }
-
     }
 
 }
@@ -164,8 +164,13 @@ public final class Utils {
         if(value == null) {
             return null;
         } else if(value instanceof String) {
-            // old fashion
-            return ExpressionPair.create(null, (String) value);
+            String expression = ((String) value).trim();
+            if(expression.startsWith("{")) {
+                // old fashion
+                return ExpressionPair.create(null, expression);
+            }
+            // origin expression only, it is parsed on our side
+            return ExpressionPair.create(expression, null);
         } else if(value instanceof Map) {
             Map map = (Map) value;
             JSONObject jsonObject = null;
@@ -179,7 +184,7 @@ public final class Utils {
             }
             String origin = jsonObject.optString(BindingXConstants.KEY_ORIGIN,null);
             String transformed = jsonObject.optString(BindingXConstants.KEY_TRANSFORMED,null);
-            if(TextUtils.isEmpty(origin) && TextUtils.isEmpty(transformed)) {
+            if(ExpressionPair.isEmpty(origin) && ExpressionPair.isEmpty(transformed)) {
                 return ExpressionPair.create(null, null);
             } else {
                 //new style
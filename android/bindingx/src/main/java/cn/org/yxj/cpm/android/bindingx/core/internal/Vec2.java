@@ -0,0 +1,73 @@
+/**
+ * Copyright 2018 Alibaba Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.org.yxj.cpm.android.bindingx.core.internal;
+
+import androidx.annotation.NonNull;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * Description:
+ *
+ * Immutable pair of numbers, the result of <code>translate(x, y)</code>, <code>scale(x, y)</code>
+ * and <code>[x, y]</code>. View updaters read the components directly.
+ *
+ * It still is a read-only {@link java.util.List} of two Doubles, as the list of arguments these
+ * builtins used to return, for interceptors and custom functions which expect a list.
+ */
+public final class Vec2 extends AbstractList<Object> implements RandomAccess {
+
+    public final double x;
+    public final double y;
+
+    public Vec2(double x, double y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    @NonNull
+    @Override
+    public Object get(int index) {
+        switch (index) {
+            case 0:
+                return x;
+            case 1:
+                return y;
+            default:
+                throw new IndexOutOfBoundsException("index " + index + ", size 2");
+        }
+    }
+
+    @Override
+    public int size() {
+        return 2;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof Vec2) {
+            Vec2 that = (Vec2) o;
+            return Double.compare(x, that.x) == 0 && Double.compare(y, that.y) == 0;
+        }
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode();
+    }
+}
@@ -0,0 +1,83 @@
+/**
+ * Copyright 2018 Alibaba Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.org.yxj.cpm.android.bindingx.core.internal;
+
+import androidx.annotation.NonNull;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * Description:
+ *
+ * Immutable quadruple of numbers, the result of <code>[x, y, z, w]</code>, e.g. the four radii of
+ * 'border-radius' (top left, top right, bottom left, bottom right). View updaters read the
+ * components directly.
+ *
+ * It still is a read-only {@link java.util.List} of four Doubles, for interceptors and custom
+ * functions which expect a list.
+ */
+public final class Vec4 extends AbstractList<Object> implements RandomAccess {
+
+    public final double x;
+    public final double y;
+    public final double z;
+    public final double w;
+
+    public Vec4(double x, double y, double z, double w) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.w = w;
+    }
+
+    @NonNull
+    @Override
+    public Object get(int index) {
+        switch (index) {
+            case 0:
+                return x;
+            case 1:
+                return y;
+            case 2:
+                return z;
+            case 3:
+                return w;
+            default:
+                throw new IndexOutOfBoundsException("index " + index + ", size 4");
+        }
+    }
+
+    @Override
+    public int size() {
+        return 4;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof Vec4) {
+            Vec4 that = (Vec4) o;
+            return Double.compare(x, that.x) == 0 && Double.compare(y, that.y) == 0
+                    && Double.compare(z, that.z) == 0 && Double.compare(w, that.w) == 0;
+        }
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode();
+    }
+}
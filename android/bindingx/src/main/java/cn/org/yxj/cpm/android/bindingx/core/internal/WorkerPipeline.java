@@ -0,0 +1,245 @@
+/**
+ * Copyright 2018 Alibaba Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.org.yxj.cpm.android.bindingx.core.internal;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import cn.org.yxj.cpm.android.bindingx.core.LogProxy;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Description:
+ *
+ * Evaluates the expressions of one binding on the BindingX worker thread, for bindings bound
+ * with the 'evaluateOnWorker' option.
+ *
+ * The thread consuming the events only copies the variables into a sample and returns. The
+ * worker evaluates the newest sample into a private {@link ExpressionFrame} and publishes the
+ * results into a double buffer: the published frame, which the worker merges into, and the front
+ * frame, which the ui thread applies. Once per vsync the ui thread swaps the two and applies the
+ * front frame, so every view is updated at most once per frame with the newest result of each
+ * property. Samples arriving faster than the worker evaluates them are coalesced, results
+ * published faster than vsync are merged.
+ *
+ * Custom functions of {@link cn.org.yxj.cpm.android.bindingx.core.BindingXJSFunctionRegister}
+ * are called on the worker thread as well.
+ */
+final class WorkerPipeline implements AnimationFrame.Callback {
+
+    private static volatile Executor sWorker;
+
+    /**
+     * the evaluate and apply phases of the binding, see {@link AbstractEventHandler}.
+     * */
+    interface Evaluator {
+        /**
+         * worker thread: evaluate the expressions of the event type into the frame. Changes of
+         * the scope are cleared.
+         * */
+        void evaluate(@NonNull ExpressionFrame frame, @NonNull ExpressionScope scope, @NonNull String eventType);
+
+        /**
+         * ui thread: apply the results of the frame to the views and clear them. Results are
+         * compared with and remembered as the last applied ones here, not on the worker.
+         * */
+        void apply(@NonNull ExpressionFrame frame);
+    }
+
+    private final Evaluator mEvaluator;
+    private final Executor mExecutor;
+    private final AnimationFrame mCommitFrame;
+    @Nullable
+    private final LatencyStats mLatency;
+
+    // worker thread only
+    private final ExpressionScope mScope;
+    private final ExpressionFrame mWorking;
+
+    private final Object mLock = new Object();
+    // guarded by mLock: the newest sample, not evaluated yet
+    private final ExpressionScope mSample = new ExpressionScope();
+    private String mSampleType;
+    private long mSampleNanos;
+    private boolean mSamplePending;
+    // guarded by mLock: results the ui thread has not applied yet
+    private ExpressionFrame mPublished;
+    private long mPublishedSampleNanos;
+    private boolean mDirty;
+    private boolean mCommitRequested;
+
+    // ui thread only
+    private ExpressionFrame mFront;
+
+    private volatile boolean mClosed;
+
+    private final Runnable mEvaluateSample = new Runnable() {
+        @Override
+        public void run() {
+            evaluateSample();
+        }
+    };
+
+    /**
+     * @param frame buffer over the holders of the binding, owned by the pipeline from now on
+     * @param scope scope with the functions and memo slots of the binding, owned by the pipeline
+     * @param executor runs the evaluation, in order
+     * @param commitFrame ticks on the ui thread once per vsync
+     * @param latency records the input latency, null if the binding is not profiled
+     * */
+    WorkerPipeline(@NonNull Evaluator evaluator, @NonNull ExpressionFrame frame, @NonNull ExpressionScope scope,
+                   @NonNull Executor executor, @NonNull AnimationFrame commitFrame, @Nullable LatencyStats latency) {
+        mEvaluator = evaluator;
+        mWorking = frame;
+        mPublished = frame.newBuffer();
+        mFront = frame.newBuffer();
+        mScope = scope;
+        mExecutor = executor;
+        mCommitFrame = commitFrame;
+        mLatency = latency;
+    }
+
+    /**
+     * @return the BindingX worker thread, shared by all the bindings evaluated on it
+     * */
+    @NonNull
+    static Executor getWorker() {
+        if (sWorker == null) {
+            synchronized (WorkerPipeline.class) {
+                if (sWorker == null) {
+                    sWorker = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                        @Override
+                        public Thread newThread(@NonNull Runnable r) {
+                            Thread thread = new Thread(r, "BindingX-worker");
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+                }
+            }
+        }
+        return sWorker;
+    }
+
+    /**
+     * hand the variables of the scope to the worker, any thread. The changes of the scope are
+     * left for the caller to clear.
+     * */
+    void post(@NonNull ExpressionScope scope, @NonNull String eventType) {
+        if (mClosed) {
+            return;
+        }
+        boolean schedule;
+        synchronized (mLock) {
+            scope.copyVariablesTo(mSample);
+            mSampleType = eventType;
+            if (!mSamplePending) {
+                mSampleNanos = System.nanoTime();
+            }
+            schedule = !mSamplePending;
+            mSamplePending = true;
+        }
+        if (mLatency != null) {
+            mLatency.recordSample();
+        }
+        if (schedule) {
+            mExecutor.execute(mEvaluateSample);
+        }
+    }
+
+    /**
+     * stop evaluating and committing, results not applied yet are dropped.
+     * */
+    void close() {
+        mClosed = true;
+        synchronized (mLock) {
+            mCommitRequested = false;
+            mCommitFrame.terminate();
+        }
+    }
+
+    boolean isClosed() {
+        return mClosed;
+    }
+
+    private void evaluateSample() {
+        if (mClosed) {
+            return;
+        }
+        String eventType;
+        long sampleNanos;
+        synchronized (mLock) {
+            if (!mSamplePending) {
+                return;
+            }
+            mSample.copyVariablesTo(mScope);
+            eventType = mSampleType;
+            sampleNanos = mSampleNanos;
+            mSamplePending = false;
+        }
+        try {
+            mEvaluator.evaluate(mWorking, mScope, eventType);
+        } catch (Exception e) {
+            LogProxy.e("evaluate expressions on worker failed", e);
+        }
+        publish(sampleNanos);
+    }
+
+    private void publish(long sampleNanos) {
+        synchronized (mLock) {
+            if (mClosed || !mWorking.moveTo(mPublished)) {
+                return;
+            }
+            if (!mDirty) {
+                mPublishedSampleNanos = sampleNanos;
+                mDirty = true;
+            }
+            if (!mCommitRequested) {
+                mCommitRequested = true;
+                mCommitFrame.requestAnimationFrame(this);
+            }
+        }
+    }
+
+    /**
+     * ui thread: apply what has been published since the last vsync.
+     * */
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        ExpressionFrame front;
+        long sampleNanos;
+        synchronized (mLock) {
+            if (mClosed || !mDirty) {
+                // nothing new, stop ticking until the next publish
+                mCommitRequested = false;
+                mCommitFrame.clear();
+                return;
+            }
+            front = mPublished;
+            mPublished = mFront;
+            mFront = front;
+            sampleNanos = mPublishedSampleNanos;
+            mDirty = false;
+        }
+        mEvaluator.apply(front);
+        if (mLatency != null) {
+            mLatency.recordCommit(System.nanoTime() - sampleNanos);
+        }
+    }
+}
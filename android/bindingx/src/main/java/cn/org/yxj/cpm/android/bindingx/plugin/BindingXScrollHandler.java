@@ -76,6 +76,14 @@ public class BindingXScrollHandler extends AbstractScrollEventHandler {
 
     private String mSourceRef;
 
+    // posted to the js thread at most once per vsync, takes the latest scroll event
+    private final Runnable mConsumeScrollEvent = new Runnable() {
+        @Override
+        public void run() {
+            consumePendingScrollEvent();
+        }
+    };
+
     public BindingXScrollHandler(Context context, PlatformManager manager, Object... extension) {
         super(context,manager,extension);
     }
@@ -219,6 +227,19 @@ public class BindingXScrollHandler extends AbstractScrollEventHandler {
         }
     }
 
+    /**
+     * expressions are consumed on the js thread, whose results hop back to the ui thread per property.
+     * Bindings evaluated on the worker skip the hop, the ui thread only hands the offsets over.
+     * */
+    @Override
+    protected void onScrollFrame() {
+        if(isEvaluatingOnWorker()) {
+            super.onScrollFrame();
+            return;
+        }
+        WXBridgeManager.getInstance().post(mConsumeScrollEvent, mInstanceId);
+    }
+
 
     private class InnerAppBarOffsetChangedListener implements AppBarLayout.OnOffsetChangedListener {
         private int mContentOffsetY=0;
@@ -247,12 +268,7 @@ public class BindingXScrollHandler extends AbstractScrollEventHandler {
                         0,dy,0,tdy);
             }
 
-            WXBridgeManager.getInstance().post(new Runnable() {
-                @Override
-                public void run() {
-                    BindingXScrollHandler.super.handleScrollEvent(0,mContentOffsetY,0,dy,0,tdy);
-                }
-            },mInstanceId);
+            postScrollEvent(0,mContentOffsetY,0,dy,0,tdy);
         }
     }
 
@@ -316,12 +332,7 @@ public class BindingXScrollHandler extends AbstractScrollEventHandler {
                         dx,dy,tdx,tdy);
             }
 
-            WXBridgeManager.getInstance().post(new Runnable() {
-                @Override
-                public void run() {
-                    BindingXScrollHandler.super.handleScrollEvent(mContentOffsetX,mContentOffsetY,dx,dy,tdx,tdy);
-                }
-            },mInstanceId);
+            postScrollEvent(mContentOffsetX,mContentOffsetY,dx,dy,tdx,tdy);
         }
 
     }
@@ -358,12 +369,7 @@ public class BindingXScrollHandler extends AbstractScrollEventHandler {
                         0,dy,0,tdy);
             }
 
-            WXBridgeManager.getInstance().post(new Runnable() {
-                @Override
-                public void run() {
-                    BindingXScrollHandler.super.handleScrollEvent(mContentOffsetX,mContentOffsetY,0,dy,0,tdy);
-                }
-            },mInstanceId);
+            postScrollEvent(mContentOffsetX,mContentOffsetY,0,dy,0,tdy);
         }
     }
 
@@ -430,12 +436,7 @@ public class BindingXScrollHandler extends AbstractScrollEventHandler {
                         dx,dy,tdx,tdy);
             }
 
-            WXBridgeManager.getInstance().post(new Runnable() {
-                @Override
-                public void run() {
-                    BindingXScrollHandler.super.handleScrollEvent(mContentOffsetX,mContentOffsetY,dx,dy,tdx,tdy);
-                }
-            },mInstanceId);
+            postScrollEvent(mContentOffsetX,mContentOffsetY,dx,dy,tdx,tdy);
         }
     }
 
@@ -0,0 +1,261 @@
+/**
+ * Copyright 2018 Alibaba Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.org.yxj.cpm.android.bindingx.plugin;
+
+import android.os.Handler;
+import android.os.Looper;
+import androidx.annotation.NonNull;
+import android.view.Choreographer;
+import android.view.View;
+
+import cn.org.yxj.cpm.android.bindingx.core.PlatformManager;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Description:
+ *
+ * View property updates made off the ui thread within one frame. Instead of posting a runnable per
+ * update, the updates are recorded into a command buffer keyed by view and updater, and the whole
+ * buffer is committed on the ui thread by the next frame callback, so that they are applied in the
+ * same vsync as the frame they belong to. A later update of the same property of the same view
+ * overwrites the earlier one, so only the last write of a frame is applied.
+ *
+ * Commands are pooled and the buffers are reused: recording and committing do not allocate once
+ * the buffers have grown to the number of properties updated per frame.
+ *
+ * Layout properties are not recorded here: they go to the layout of weex, which is updated on its
+ * own thread and applied to the views by weex with a later frame anyway.
+ *
+ * @param <C> type of the component the views belong to
+ */
+final class ViewUpdateBatch<C> {
+
+    /**
+     * applies a recorded update, on the ui thread.
+     * */
+    interface Updater<C> {
+        void apply(@NonNull C component, @NonNull View targetView, @NonNull Object value,
+                   @NonNull PlatformManager.IDeviceResolutionTranslator translator, @NonNull Map<String, Object> config);
+
+        void applyColor(@NonNull C component, @NonNull View targetView, int color,
+                        @NonNull PlatformManager.IDeviceResolutionTranslator translator, @NonNull Map<String, Object> config);
+    }
+
+    /**
+     * runs the frame callback once with the next frame, on the ui thread.
+     * */
+    interface FrameRequester {
+        /**
+         * may be called from any thread.
+         * */
+        void requestFrame(@NonNull Choreographer.FrameCallback callback);
+    }
+
+    private final FrameRequester mFrameRequester;
+
+    private final Object mLock = new Object();
+    // guarded by mLock
+    private Buffer<C> mRecording = new Buffer<>();
+    private boolean mScheduled;
+    // ui thread only
+    private Buffer<C> mCommitting = new Buffer<>();
+
+    private final Choreographer.FrameCallback mCommit = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            commit();
+        }
+    };
+
+    ViewUpdateBatch(@NonNull FrameRequester frameRequester) {
+        mFrameRequester = frameRequester;
+    }
+
+    void record(@NonNull Updater<C> updater, @NonNull C component, @NonNull View targetView, @NonNull Object value,
+                @NonNull PlatformManager.IDeviceResolutionTranslator translator, @NonNull Map<String, Object> config) {
+        boolean schedule;
+        synchronized (mLock) {
+            Command<C> command = mRecording.obtain(updater, targetView);
+            command.set(component, translator, config);
+            command.value = value;
+            command.isColor = false;
+            schedule = !mScheduled;
+            mScheduled = true;
+        }
+        if (schedule) {
+            mFrameRequester.requestFrame(mCommit);
+        }
+    }
+
+    void recordColor(@NonNull Updater<C> updater, @NonNull C component, @NonNull View targetView, int color,
+                     @NonNull PlatformManager.IDeviceResolutionTranslator translator, @NonNull Map<String, Object> config) {
+        boolean schedule;
+        synchronized (mLock) {
+            Command<C> command = mRecording.obtain(updater, targetView);
+            command.set(component, translator, config);
+            command.value = null;
+            command.color = color;
+            command.isColor = true;
+            schedule = !mScheduled;
+            mScheduled = true;
+        }
+        if (schedule) {
+            mFrameRequester.requestFrame(mCommit);
+        }
+    }
+
+    /**
+     * drop the updates not committed yet. a frame that has been requested already still comes
+     * and commits whatever has been recorded since.
+     * */
+    void clear() {
+        synchronized (mLock) {
+            mRecording.clear();
+        }
+    }
+
+    /**
+     * @return count of the pooled commands of both buffers
+     * */
+    int getPooledCount() {
+        synchronized (mLock) {
+            return mRecording.commands.size() + mCommitting.commands.size();
+        }
+    }
+
+    private void commit() {
+        Buffer<C> buffer;
+        synchronized (mLock) {
+            buffer = mRecording;
+            mRecording = mCommitting;
+            mCommitting = buffer;
+            mScheduled = false;
+        }
+        for (int i = 0, size = buffer.size; i < size; i++) {
+            Command<C> command = buffer.commands.get(i);
+            if (command.isColor) {
+                command.updater.applyColor(command.component, command.view, command.color, command.translator, command.config);
+            } else {
+                command.updater.apply(command.component, command.view, command.value, command.translator, command.config);
+            }
+        }
+        buffer.clear();
+    }
+
+    /**
+     * the latest update of one property of one view.
+     * */
+    private static final class Command<C> {
+        Updater<C> updater;
+        View view;
+        C component;
+        PlatformManager.IDeviceResolutionTranslator translator;
+        Map<String, Object> config;
+        Object value;
+        int color;
+        boolean isColor;
+        // next command of the same view in the same buffer
+        Command<C> nextOfView;
+
+        void set(C component, PlatformManager.IDeviceResolutionTranslator translator, Map<String, Object> config) {
+            this.component = component;
+            this.translator = translator;
+            this.config = config;
+        }
+
+        void clear() {
+            updater = null;
+            view = null;
+            component = null;
+            translator = null;
+            config = null;
+            value = null;
+            nextOfView = null;
+        }
+    }
+
+    private static final class Buffer<C> {
+        // commands in the order their property has first been updated, pooled beyond size
+        final ArrayList<Command<C>> commands = new ArrayList<>(16);
+        int size;
+        // view -> its first command, identity keyed so that entries are not allocated
+        final Map<View, Command<C>> firstOfView = new IdentityHashMap<>(16);
+
+        /**
+         * @return the command of the property of the view, a new one if it has not been updated yet
+         * */
+        Command<C> obtain(Updater<C> updater, View view) {
+            Command<C> first = firstOfView.get(view);
+            for (Command<C> command = first; command != null; command = command.nextOfView) {
+                if (command.updater == updater) {
+                    return command;
+                }
+            }
+            Command<C> command;
+            if (size < commands.size()) {
+                command = commands.get(size);
+            } else {
+                command = new Command<>();
+                commands.add(command);
+            }
+            size++;
+            command.updater = updater;
+            command.view = view;
+            command.nextOfView = first;
+            firstOfView.put(view, command);
+            return command;
+        }
+
+        void clear() {
+            for (int i = 0; i < size; i++) {
+                commands.get(i).clear();
+            }
+            size = 0;
+            firstOfView.clear();
+        }
+    }
+
+    /**
+     * posts the frame callback to the choreographer of the main thread, hopping to the main
+     * thread first if needed. serves the frames of one batch. uses its own handler, so that
+     * clearing the messages of another handler does not drop a requested frame.
+     * */
+    static final class MainThreadFrameRequester implements FrameRequester {
+
+        private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+        private volatile Choreographer.FrameCallback mCallback;
+
+        private final Runnable mPostFrameCallback = new Runnable() {
+            @Override
+            public void run() {
+                Choreographer.getInstance().postFrameCallback(mCallback);
+            }
+        };
+
+        @Override
+        public void requestFrame(@NonNull Choreographer.FrameCallback callback) {
+            mCallback = callback;
+            if (Looper.myLooper() == Looper.getMainLooper()) {
+                mPostFrameCallback.run();
+            } else {
+                mMainHandler.post(mPostFrameCallback);
+            }
+        }
+    }
+}
@@ -155,6 +155,22 @@ public class WXBindingXModule extends WXSDKEngine.DestroyableModule {
         }
     }
 
+    /**
+     * per expression stats of a binding that has been bound with options {profile: true}.
+     * They are dropped when the binding is unbound.
+     * */
+    @JSMethod(uiThread = false)
+    public Map<String, Object> getStats(@Nullable String token) {
+        if (mBindingXCore == null) {
+            Map<String, Object> result = new HashMap<>(4);
+            result.put(BindingXConstants.KEY_TOKEN, token);
+            result.put(BindingXConstants.KEY_EXPRESSIONS, Collections.emptyList());
+            result.put(BindingXConstants.KEY_LATENCY, Collections.emptyList());
+            return result;
+        }
+        return mBindingXCore.getStats(token);
+    }
+
     @JSMethod(uiThread = false)
     public void unbindAll() {
         if (mBindingXCore != null) {
@@ -300,38 +316,7 @@ public class WXBindingXModule extends WXSDKEngine.DestroyableModule {
                         return WXModuleUtils.findViewByRef(instanceId, ref);
                     }
                 })
-                .withViewUpdater(new PlatformManager.IViewUpdater() {
-
-                    @Override
-                    public void synchronouslyUpdateViewOnUIThread(@NonNull View targetView,
-                                                                  @NonNull String propertyName,
-                                                                  @NonNull Object propertyValue,
-                                                                  @NonNull PlatformManager.IDeviceResolutionTranslator translator,
-                                                                  @NonNull Map<String, Object> config,
-                                                                  Object... extension) {
-                        if(extension == null
-                                || extension.length < 2
-                                || !(extension[0] instanceof String)
-                                || !(extension[1] instanceof String)) {
-                            return;
-                        }
-                        String ref = (String) extension[0];
-                        String instanceId = (String) extension[1];
-
-                        WXComponent targetComponent = WXModuleUtils.findComponentByRef(instanceId, ref);
-                        if(targetComponent == null) {
-                            LogProxy.e("unexpected error. component not found [ref:"+ref+",instanceId:"+instanceId+"]");
-                            return;
-                        }
-                        WXViewUpdateService.findUpdater(propertyName).update(
-                                targetComponent,
-                                targetView,
-                                propertyValue,
-                                translator,
-                                config);
-
-                    }
-                })
+                .withViewUpdater(new WXViewUpdater())
                 .withDeviceResolutionTranslator(new PlatformManager.IDeviceResolutionTranslator() {
                     @Override
                     public double webToNative(double rawSize, Object... extension) {
@@ -347,6 +332,128 @@ public class WXBindingXModule extends WXSDKEngine.DestroyableModule {
     }
 
 
+    /**
+     * hands the values to {@link WXViewUpdateService}, colors as packed argb ints without boxing.
+     * */
+    private static final class WXViewUpdater implements PlatformManager.IViewUpdater, PlatformManager.IColorViewUpdater,
+            PlatformManager.IViewUpdaterResolver {
+
+        @NonNull
+        @Override
+        public PlatformManager.IViewUpdater resolveViewUpdater(@NonNull String propertyName, int resultType)
+                throws IllegalArgumentException {
+            IWXViewUpdater updater = WXViewUpdateService.resolveUpdater(propertyName, resultType);
+            IWXColorViewUpdater colorUpdater = WXViewUpdateService.findColorUpdater(propertyName);
+            return colorUpdater == null ? new PropertyUpdater(updater) : new ColorPropertyUpdater(updater, colorUpdater);
+        }
+
+        @Override
+        public void synchronouslyUpdateViewOnUIThread(@NonNull View targetView,
+                                                      @NonNull String propertyName,
+                                                      @NonNull Object propertyValue,
+                                                      @NonNull PlatformManager.IDeviceResolutionTranslator translator,
+                                                      @NonNull Map<String, Object> config,
+                                                      Object... extension) {
+            WXComponent targetComponent = findTargetComponent(extension);
+            if(targetComponent == null) {
+                return;
+            }
+            WXViewUpdateService.findUpdater(propertyName).update(
+                    targetComponent,
+                    targetView,
+                    propertyValue,
+                    translator,
+                    config);
+        }
+
+        @Override
+        public void synchronouslyUpdateViewColorOnUIThread(@NonNull View targetView,
+                                                           @NonNull String propertyName,
+                                                           int color,
+                                                           @NonNull PlatformManager.IDeviceResolutionTranslator translator,
+                                                           @NonNull Map<String, Object> config,
+                                                           Object... extension) {
+            IWXColorViewUpdater updater = WXViewUpdateService.findColorUpdater(propertyName);
+            if(updater == null) {
+                synchronouslyUpdateViewOnUIThread(targetView, propertyName, color, translator, config, extension);
+                return;
+            }
+            WXComponent targetComponent = findTargetComponent(extension);
+            if(targetComponent == null) {
+                return;
+            }
+            updater.updateColor(targetComponent, targetView, color, translator, config);
+        }
+
+        @Nullable
+        private static WXComponent findTargetComponent(Object... extension) {
+            if(extension == null
+                    || extension.length < 2
+                    || !(extension[0] instanceof String)
+                    || !(extension[1] instanceof String)) {
+                return null;
+            }
+            String ref = (String) extension[0];
+            String instanceId = (String) extension[1];
+
+            WXComponent targetComponent = WXModuleUtils.findComponentByRef(instanceId, ref);
+            if(targetComponent == null) {
+                LogProxy.e("unexpected error. component not found [ref:"+ref+",instanceId:"+instanceId+"]");
+            }
+            return targetComponent;
+        }
+    }
+
+    /**
+     * updater of one bound property, resolved by {@link WXViewUpdater#resolveViewUpdater}.
+     * */
+    private static class PropertyUpdater implements PlatformManager.IViewUpdater {
+
+        private final IWXViewUpdater mUpdater;
+
+        PropertyUpdater(@NonNull IWXViewUpdater updater) {
+            mUpdater = updater;
+        }
+
+        @Override
+        public void synchronouslyUpdateViewOnUIThread(@NonNull View targetView,
+                                                      @NonNull String propertyName,
+                                                      @NonNull Object propertyValue,
+                                                      @NonNull PlatformManager.IDeviceResolutionTranslator translator,
+                                                      @NonNull Map<String, Object> config,
+                                                      Object... extension) {
+            WXComponent targetComponent = WXViewUpdater.findTargetComponent(extension);
+            if(targetComponent == null) {
+                return;
+            }
+            mUpdater.update(targetComponent, targetView, propertyValue, translator, config);
+        }
+    }
+
+    private static final class ColorPropertyUpdater extends PropertyUpdater implements PlatformManager.IColorViewUpdater {
+
+        private final IWXColorViewUpdater mColorUpdater;
+
+        ColorPropertyUpdater(@NonNull IWXViewUpdater updater, @NonNull IWXColorViewUpdater colorUpdater) {
+            super(updater);
+            mColorUpdater = colorUpdater;
+        }
+
+        @Override
+        public void synchronouslyUpdateViewColorOnUIThread(@NonNull View targetView,
+                                                           @NonNull String propertyName,
+                                                           int color,
+                                                           @NonNull PlatformManager.IDeviceResolutionTranslator translator,
+                                                           @NonNull Map<String, Object> config,
+                                                           Object... extension) {
+            WXComponent targetComponent = WXViewUpdater.findTargetComponent(extension);
+            if(targetComponent == null) {
+                return;
+            }
+            mColorUpdater.updateColor(targetComponent, targetView, color, translator, config);
+        }
+    }
+
     ///////// Lifecycle Callbacks
 
     @Override
@@ -30,8 +30,10 @@ import android.widget.TextView;
 
 import cn.org.yxj.cpm.android.bindingx.core.LogProxy;
 import cn.org.yxj.cpm.android.bindingx.core.PlatformManager;
-import cn.org.yxj.cpm.android.bindingx.core.WeakRunnable;
+import cn.org.yxj.cpm.android.bindingx.core.internal.ExpressionType;
 import cn.org.yxj.cpm.android.bindingx.core.internal.Utils;
+import cn.org.yxj.cpm.android.bindingx.core.internal.Vec2;
+import cn.org.yxj.cpm.android.bindingx.core.internal.Vec4;
 import org.apache.weex.common.Constants;
 import org.apache.weex.dom.CSSShorthand;
 import org.apache.weex.dom.transition.WXTransition;
@@ -42,7 +44,6 @@ import org.apache.weex.ui.view.WXTextView;
 import org.apache.weex.ui.view.border.BorderDrawable;
 import org.apache.weex.utils.WXUtils;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -56,6 +57,7 @@ import java.util.Map;
 
 final class WXViewUpdateService {
     private static final Map<String,IWXViewUpdater> sTransformPropertyUpdaterMap;
+    private static final Map<String,IWXColorViewUpdater> sColorPropertyUpdaterMap;
     private static final LayoutUpdater sLayoutUpdater = new LayoutUpdater();
     private static final NOpUpdater EMPTY_INVOKER = new NOpUpdater();
 
@@ -81,7 +83,14 @@ final class WXViewUpdateService {
              LAYOUT_PROPERTY_PADDING_LEFT, LAYOUT_PROPERTY_PADDING_RIGHT, LAYOUT_PROPERTY_PADDING_TOP, LAYOUT_PROPERTY_PADDING_BOTTOM
     );
 
+    // properties which take a vector as well as a number
+    private static final List<String> VECTOR_PROPERTIES = Arrays.asList(
+            "transform.translate", "transform.scale", "scroll.contentOffset", "border-radius"
+    );
+
     private static final Handler sUIHandler = new Handler(Looper.getMainLooper());
+    private static final ViewUpdateBatch<WXComponent> sBatch =
+            new ViewUpdateBatch<>(new ViewUpdateBatch.MainThreadFrameRequester());
 
     static {
         sTransformPropertyUpdaterMap = new HashMap<>();
@@ -99,8 +108,13 @@ final class WXViewUpdateService {
         sTransformPropertyUpdaterMap.put("transform.rotateX",new RotateXUpdater());
         sTransformPropertyUpdaterMap.put("transform.rotateY",new RotateYUpdater());
 
-        sTransformPropertyUpdaterMap.put("background-color",new BackgroundUpdater());
-        sTransformPropertyUpdaterMap.put("color", new ColorUpdater());
+        BackgroundUpdater backgroundUpdater = new BackgroundUpdater();
+        ColorUpdater colorUpdater = new ColorUpdater();
+        sTransformPropertyUpdaterMap.put("background-color",backgroundUpdater);
+        sTransformPropertyUpdaterMap.put("color", colorUpdater);
+        sColorPropertyUpdaterMap = new HashMap<>();
+        sColorPropertyUpdaterMap.put("background-color", backgroundUpdater);
+        sColorPropertyUpdaterMap.put("color", colorUpdater);
 
         sTransformPropertyUpdaterMap.put("scroll.contentOffset", new ContentOffsetUpdater());
         sTransformPropertyUpdaterMap.put("scroll.contentOffsetX", new ContentOffsetXUpdater());
@@ -130,6 +144,57 @@ final class WXViewUpdateService {
         }
     }
 
+    /**
+     * resolve the updater of the property once, when the expression is bound. Unlike
+     * {@link #findUpdater(String)}, layout properties get an updater of their own.
+     *
+     * @param resultType inferred result type of the expression, see {@link ExpressionType}
+     * @throws IllegalArgumentException if the property does not take results of that type
+     * */
+    @NonNull
+    static IWXViewUpdater resolveUpdater(@NonNull String prop, int resultType) throws IllegalArgumentException {
+        IWXViewUpdater updater = sTransformPropertyUpdaterMap.get(prop);
+        if(updater == null) {
+            if(!LAYOUT_PROPERTIES.contains(prop)) {
+                // it may still be handled by a property interceptor
+                LogProxy.e("unknown property [" + prop + "]");
+                return EMPTY_INVOKER;
+            }
+            LayoutUpdater layoutUpdater = new LayoutUpdater();
+            layoutUpdater.setPropertyName(prop);
+            updater = layoutUpdater;
+        }
+        if(resultType == ExpressionType.UNKNOWN) {
+            // e.g. the result of a custom function, checked whenever it is updated
+            return updater;
+        }
+        if(!takes(prop, resultType)) {
+            throw new IllegalArgumentException("property " + prop + " does not take a "
+                    + ExpressionType.nameOf(resultType));
+        }
+        // the type has been checked once, here, not on every frame
+        return updater instanceof UIThreadUpdater ? ((UIThreadUpdater) updater).mChecked : updater;
+    }
+
+    private static boolean takes(@NonNull String prop, int resultType) {
+        if(sColorPropertyUpdaterMap.containsKey(prop)) {
+            return resultType == ExpressionType.COLOR;
+        }
+        if(VECTOR_PROPERTIES.contains(prop)) {
+            return resultType == ExpressionType.NUMBER || resultType == ExpressionType.VECTOR;
+        }
+        return resultType == ExpressionType.NUMBER;
+    }
+
+    /**
+     * @return the updater which takes packed argb colors of the property, or null if the property
+     * is not a color
+     * */
+    @Nullable
+    static IWXColorViewUpdater findColorUpdater(@NonNull String prop) {
+        return sColorPropertyUpdaterMap.get(prop);
+    }
+
     private static final class NOpUpdater implements IWXViewUpdater {
         @Override
         public void update(@NonNull WXComponent component,
@@ -141,409 +206,372 @@ final class WXViewUpdateService {
         }
     }
 
-    private static void runOnUIThread(Runnable runnable) {
-        if(Looper.myLooper() == Looper.getMainLooper()) {
-            runnable.run();
-        } else {
-            sUIHandler.post(new WeakRunnable(runnable));
-        }
+    private static boolean isOnUIThread() {
+        return Looper.myLooper() == Looper.getMainLooper();
     }
 
     public static void clearCallbacks() {
+        sBatch.clear();
         sUIHandler.removeCallbacksAndMessages(null);
     }
 
-    private static final class ContentOffsetUpdater implements IWXViewUpdater {
+    /**
+     * updaters which touch the view on the ui thread. Updates made on the ui thread are applied
+     * right away, updates made on any other thread are recorded into the batch of the frame.
+     * */
+    private static abstract class UIThreadUpdater implements IWXViewUpdater, ViewUpdateBatch.Updater<WXComponent> {
+
+        // takes the results of expressions whose type has been checked when they were bound
+        final IWXViewUpdater mChecked = new IWXViewUpdater() {
+            @Override
+            public void update(@NonNull WXComponent component,
+                               @NonNull View targetView,
+                               @NonNull Object cmd,
+                               @NonNull PlatformManager.IDeviceResolutionTranslator translator,
+                               @NonNull Map<String,Object> config) {
+                assert accepts(cmd) : "unexpected value " + cmd;
+                dispatch(component, targetView, cmd, translator, config);
+            }
+        };
 
         @Override
-        public void update(@NonNull WXComponent component,
-                           @NonNull final View targetView,
-                           @NonNull Object cmd,
-                           @NonNull final PlatformManager.IDeviceResolutionTranslator translator,
-                           @NonNull Map<String,Object> config) {
-            final View scrollView = findScrollTarget(component);
-            if(scrollView == null) {
+        public final void update(@NonNull WXComponent component,
+                                 @NonNull View targetView,
+                                 @NonNull Object cmd,
+                                 @NonNull PlatformManager.IDeviceResolutionTranslator translator,
+                                 @NonNull Map<String,Object> config) {
+            if(!accepts(cmd)) {
                 return;
             }
-            if(cmd instanceof Double) {
-                final double val = (double) cmd;
-                runOnUIThread(new Runnable() {
-                    @Override
-                    public void run() {
-                        scrollView.setScrollX((int) getRealSize(val,translator));
-                        scrollView.setScrollY((int) getRealSize(val,translator));
-                    }
-                });
-            } else if(cmd instanceof ArrayList) {
-                ArrayList<Object> l = (ArrayList<Object>) cmd;
-                if(l.size() >= 2 && l.get(0) instanceof Double && l.get(1) instanceof Double) {
-                    final double x = (double) l.get(0);
-                    final double y = (double) l.get(1);
-                    runOnUIThread(new Runnable() {
-                        @Override
-                        public void run() {
-                            scrollView.setScrollX((int) getRealSize(x,translator));
-                            scrollView.setScrollY((int) getRealSize(y,translator));
-                        }
-                    });
-                }
+            dispatch(component, targetView, cmd, translator, config);
+        }
 
+        private void dispatch(@NonNull WXComponent component,
+                              @NonNull View targetView,
+                              @NonNull Object cmd,
+                              @NonNull PlatformManager.IDeviceResolutionTranslator translator,
+                              @NonNull Map<String,Object> config) {
+            if(isOnUIThread()) {
+                apply(component, targetView, cmd, translator, config);
+            } else {
+                sBatch.record(this, component, targetView, cmd, translator, config);
             }
         }
+
+        /**
+         * @return true if the updater takes the value, checked before it is recorded unless the
+         * type of the expression has been checked when it was bound
+         * */
+        boolean accepts(@NonNull Object cmd) {
+            return cmd instanceof Double;
+        }
+
+        @Override
+        public void applyColor(@NonNull WXComponent component,
+                               @NonNull View targetView,
+                               int color,
+                               @NonNull PlatformManager.IDeviceResolutionTranslator translator,
+                               @NonNull Map<String, Object> config) {
+            // only color updaters record colors
+        }
     }
 
-    private static final class ContentOffsetXUpdater implements IWXViewUpdater {
+    /**
+     * updaters of color properties, which also take packed argb colors without boxing.
+     * */
+    private static abstract class UIThreadColorUpdater extends UIThreadUpdater implements IWXColorViewUpdater {
 
         @Override
-        public void update(@NonNull WXComponent component,
-                           @NonNull final View targetView,
-                           @NonNull Object cmd,
-                           @NonNull final PlatformManager.IDeviceResolutionTranslator translator,
-                           @NonNull Map<String,Object> config) {
-            final View scrollView = findScrollTarget(component);
-            if(scrollView == null) {
-                return;
-            }
-            if(!(cmd instanceof Double)) {
-                return;
+        boolean accepts(@NonNull Object cmd) {
+            return cmd instanceof Integer;
+        }
+
+        @Override
+        public void apply(@NonNull WXComponent component,
+                          @NonNull View targetView,
+                          @NonNull Object value,
+                          @NonNull PlatformManager.IDeviceResolutionTranslator translator,
+                          @NonNull Map<String, Object> config) {
+            applyColor(component, targetView, (int) value, translator, config);
+        }
+
+        @Override
+        public final void updateColor(@NonNull WXComponent component,
+                                      @NonNull View targetView,
+                                      int color,
+                                      @NonNull PlatformManager.IDeviceResolutionTranslator translator,
+                                      @NonNull Map<String, Object> config) {
+            if(isOnUIThread()) {
+                // applied right away, so that a color animation does not allocate a runnable per frame
+                applyColor(component, targetView, color, translator, config);
+            } else {
+                sBatch.recordColor(this, component, targetView, color, translator, config);
             }
-            final double val = (double) cmd;
-            runOnUIThread(new Runnable() {
-                @Override
-                public void run() {
-                    scrollView.setScrollX((int) getRealSize(val,translator));
-                }
-            });
         }
     }
 
-    private static final class ContentOffsetYUpdater implements IWXViewUpdater {
+    private static final class ContentOffsetUpdater extends UIThreadUpdater {
 
         @Override
-        public void update(@NonNull WXComponent component,
-                           @NonNull final View targetView,
-                           @NonNull Object cmd,
-                           @NonNull final PlatformManager.IDeviceResolutionTranslator translator,
-                           @NonNull Map<String,Object> config) {
-            if(!(cmd instanceof Double)) {
-                return;
-            }
-            final View scrollView = findScrollTarget(component);
+        boolean accepts(@NonNull Object cmd) {
+            return cmd instanceof Double || toVec2(cmd) != null;
+        }
+
+        @Override
+        public void apply(@NonNull WXComponent component,
+                          @NonNull View targetView,
+                          @NonNull Object cmd,
+                          @NonNull PlatformManager.IDeviceResolutionTranslator translator,
+                          @NonNull Map<String,Object> config) {
+            View scrollView = findScrollTarget(component);
             if(scrollView == null) {
                 return;
             }
-            final double val = (double) cmd;
-            runOnUIThread(new Runnable() {
-                @Override
-                public void run() {
-                    scrollView.setScrollY((int) getRealSize(val,translator));
+            if(cmd instanceof Double) {
+                double val = (double) cmd;
+                scrollView.setScrollX((int) getRealSize(val,translator));
+                scrollView.setScrollY((int) getRealSize(val,translator));
+            } else {
+                Vec2 offset = toVec2(cmd);
+                if(offset != null) {
+                    scrollView.setScrollX((int) getRealSize(offset.x,translator));
+                    scrollView.setScrollY((int) getRealSize(offset.y,translator));
                 }
-            });
+            }
         }
     }
 
-    private static final class OpacityUpdater implements IWXViewUpdater {
+    private static final class ContentOffsetXUpdater extends UIThreadUpdater {
 
         @Override
-        public void update(@NonNull WXComponent component,
-                           @NonNull final View targetView,
-                           @NonNull Object cmd,
-                           @NonNull PlatformManager.IDeviceResolutionTranslator translator,
-                           @NonNull Map<String,Object> config) {
-            if(!(cmd instanceof Double)) {
+        public void apply(@NonNull WXComponent component,
+                          @NonNull View targetView,
+                          @NonNull Object cmd,
+                          @NonNull PlatformManager.IDeviceResolutionTranslator translator,
+                          @NonNull Map<String,Object> config) {
+            View scrollView = findScrollTarget(component);
+            if(scrollView == null) {
                 return;
             }
-            double val = (double) cmd;
-            final float alpha = (float) (val);
-            runOnUIThread(new Runnable() {
-                @Override
-                public void run() {
-                    targetView.setAlpha(alpha);
-                }
-            });
+            scrollView.setScrollX((int) getRealSize((double) cmd,translator));
         }
     }
 
-    private static final class TranslateUpdater implements IWXViewUpdater {
+    private static final class ContentOffsetYUpdater extends UIThreadUpdater {
 
         @Override
-        public void update(@NonNull WXComponent component,
-                           @NonNull final View targetView,
-                           @NonNull Object cmd,
-                           @NonNull final PlatformManager.IDeviceResolutionTranslator translator,
-                           @NonNull Map<String,Object> config) {
-
-            if(!(cmd instanceof ArrayList)) {
+        public void apply(@NonNull WXComponent component,
+                          @NonNull View targetView,
+                          @NonNull Object cmd,
+                          @NonNull PlatformManager.IDeviceResolutionTranslator translator,
+                          @NonNull Map<String,Object> config) {
+            View scrollView = findScrollTarget(component);
+            if(scrollView == null) {
                 return;
             }
-
-            ArrayList<Object> list = (ArrayList<Object>) cmd;
-            if(list.size() >= 2 && list.get(0) instanceof Double && list.get(1) instanceof Double) {
-                final double x1 = (double) list.get(0);
-                final double y1 = (double) list.get(1);
-                runOnUIThread(new Runnable() {
-                    @Override
-                    public void run() {
-                        targetView.setTranslationX((float) getRealSize(x1,translator));
-                        targetView.setTranslationY((float) getRealSize(y1,translator));
-                    }
-                });
-            }
+            scrollView.setScrollY((int) getRealSize((double) cmd,translator));
         }
     }
 
-    private static final class TranslateXUpdater implements IWXViewUpdater {
+    private static final class OpacityUpdater extends UIThreadUpdater {
 
         @Override
-        public void update(@NonNull WXComponent component,
-                           @NonNull final View targetView,
-                           @NonNull Object cmd,
-                           @NonNull final PlatformManager.IDeviceResolutionTranslator translator,
-                           @NonNull Map<String,Object> config) {
-            if(!(cmd instanceof Double)) {
-                return;
-            }
-            final double d = (double) cmd;
-            runOnUIThread(new Runnable() {
-                @Override
-                public void run() {
-                    targetView.setTranslationX((float) getRealSize(d,translator));
-                }
-            });
+        public void apply(@NonNull WXComponent component,
+                          @NonNull View targetView,
+                          @NonNull Object cmd,
+                          @NonNull PlatformManager.IDeviceResolutionTranslator translator,
+                          @NonNull Map<String,Object> config) {
+            double val = (double) cmd;
+            targetView.setAlpha((float) val);
         }
     }
 
-    private static final class TranslateYUpdater implements IWXViewUpdater {
+    private static final class TranslateUpdater extends UIThreadUpdater {
 
         @Override
-        public void update(@NonNull WXComponent component,
-                           @NonNull final View targetView,
-                           @NonNull Object cmd,
-                           @NonNull final PlatformManager.IDeviceResolutionTranslator translator,
-                           @NonNull Map<String,Object> config) {
-            if(!(cmd instanceof Double)) {
+        boolean accepts(@NonNull Object cmd) {
+            return toVec2(cmd) != null;
+        }
+
+        @Override
+        public void apply(@NonNull WXComponent component,
+                          @NonNull View targetView,
+                          @NonNull Object cmd,
+                          @NonNull PlatformManager.IDeviceResolutionTranslator translator,
+                          @NonNull Map<String,Object> config) {
+            Vec2 translation = toVec2(cmd);
+            if(translation == null) {
                 return;
             }
-            final double d = (double) cmd;
-            runOnUIThread(new Runnable() {
-                @Override
-                public void run() {
-                    targetView.setTranslationY((float) getRealSize(d,translator));
-                }
-            });
+            targetView.setTranslationX((float) getRealSize(translation.x,translator));
+            targetView.setTranslationY((float) getRealSize(translation.y,translator));
         }
     }
 
-    private static final class ScaleUpdater implements IWXViewUpdater {
+    private static final class TranslateXUpdater extends UIThreadUpdater {
 
         @Override
-        public void update(@NonNull WXComponent component,
-                           @NonNull final View targetView,
-                           @NonNull final Object cmd,
-                           @NonNull PlatformManager.IDeviceResolutionTranslator translator,
-                           @NonNull final Map<String,Object> config) {
-            runOnUIThread(new Runnable() {
-                @Override
-                public void run() {
-                    int perspective = WXUtils.getInt(config.get(PERSPECTIVE));
-                    perspective = Utils.normalizedPerspectiveValue(targetView.getContext(),perspective);
-
-                    Pair<Float,Float> pivot = Utils.parseTransformOrigin(
-                            WXUtils.getString(config.get(TRANSFORM_ORIGIN),null),targetView);
-
-                    if(perspective != 0) {
-                        targetView.setCameraDistance(perspective);
-                    }
-                    if(pivot != null) {
-                        targetView.setPivotX(pivot.first);
-                        targetView.setPivotY(pivot.second);
-                    }
+        public void apply(@NonNull WXComponent component,
+                          @NonNull View targetView,
+                          @NonNull Object cmd,
+                          @NonNull PlatformManager.IDeviceResolutionTranslator translator,
+                          @NonNull Map<String,Object> config) {
+            targetView.setTranslationX((float) getRealSize((double) cmd,translator));
+        }
+    }
 
-                    if(cmd instanceof Double) {
-                        final double val = (double) cmd;
-                        targetView.setScaleX((float) val);
-                        targetView.setScaleY((float) val);
-                    } else if(cmd instanceof ArrayList) {
-                        ArrayList<Object> list = (ArrayList<Object>) cmd;
-                        if(list.size() >= 2 && list.get(0) instanceof Double && list.get(1) instanceof Double) {
-                            final double x = (double) list.get(0);
-                            final double y = (double) list.get(1);
-                            targetView.setScaleX((float) x);
-                            targetView.setScaleY((float) y);
-                        }
+    private static final class TranslateYUpdater extends UIThreadUpdater {
 
-                    }
-                }
-            });
+        @Override
+        public void apply(@NonNull WXComponent component,
+                          @NonNull View targetView,
+                          @NonNull Object cmd,
+                          @NonNull PlatformManager.IDeviceResolutionTranslator translator,
+                          @NonNull Map<String,Object> config) {
+            targetView.setTranslationY((float) getRealSize((double) cmd,translator));
         }
     }
 
-    private static final class ScaleXUpdater implements IWXViewUpdater {
+    private static final class ScaleUpdater extends UIThreadUpdater {
 
         @Override
-        public void update(@NonNull WXComponent component,
-                           @NonNull final View targetView,
-                           @NonNull final Object cmd,
-                           @NonNull PlatformManager.IDeviceResolutionTranslator translator,
-                           @NonNull final Map<String,Object> config) {
-            if(!(cmd instanceof Double)) {
-                return;
+        boolean accepts(@NonNull Object cmd) {
+            // vectors are checked when they are applied, as before
+            return true;
+        }
+
+        @Override
+        public void apply(@NonNull WXComponent component,
+                          @NonNull View targetView,
+                          @NonNull Object cmd,
+                          @NonNull PlatformManager.IDeviceResolutionTranslator translator,
+                          @NonNull Map<String,Object> config) {
+            int perspective = WXUtils.getInt(config.get(PERSPECTIVE));
+            perspective = Utils.normalizedPerspectiveValue(targetView.getContext(),perspective);
+
+            Pair<Float,Float> pivot = Utils.parseTransformOrigin(
+                    WXUtils.getString(config.get(TRANSFORM_ORIGIN),null),targetView);
+
+            if(perspective != 0) {
+                targetView.setCameraDistance(perspective);
+            }
+            if(pivot != null) {
+                targetView.setPivotX(pivot.first);
+                targetView.setPivotY(pivot.second);
             }
-            runOnUIThread(new Runnable() {
-                @Override
-                public void run() {
-                    Pair<Float,Float> pivot = Utils.parseTransformOrigin(
-                            WXUtils.getString(config.get(TRANSFORM_ORIGIN),null),targetView);
-
-                    if(pivot != null) {
-                        targetView.setPivotX(pivot.first);
-                        targetView.setPivotY(pivot.second);
-                    }
 
-                    final double d3 = (double) cmd;
-                    targetView.setScaleX((float) d3);
+            if(cmd instanceof Double) {
+                double val = (double) cmd;
+                targetView.setScaleX((float) val);
+                targetView.setScaleY((float) val);
+            } else {
+                Vec2 scale = toVec2(cmd);
+                if(scale != null) {
+                    targetView.setScaleX((float) scale.x);
+                    targetView.setScaleY((float) scale.y);
                 }
-            });
+            }
         }
     }
 
-    private static final class ScaleYUpdater implements IWXViewUpdater {
+    private static final class ScaleXUpdater extends UIThreadUpdater {
 
         @Override
-        public void update(@NonNull WXComponent component,
-                           @NonNull final View targetView,
-                           @NonNull final Object cmd,
-                           @NonNull PlatformManager.IDeviceResolutionTranslator translator,
-                           @NonNull final Map<String,Object> config) {
-            if(!(cmd instanceof Double)) {
-                return;
+        public void apply(@NonNull WXComponent component,
+                          @NonNull View targetView,
+                          @NonNull Object cmd,
+                          @NonNull PlatformManager.IDeviceResolutionTranslator translator,
+                          @NonNull Map<String,Object> config) {
+            Pair<Float,Float> pivot = Utils.parseTransformOrigin(
+                    WXUtils.getString(config.get(TRANSFORM_ORIGIN),null),targetView);
+
+            if(pivot != null) {
+                targetView.setPivotX(pivot.first);
+                targetView.setPivotY(pivot.second);
             }
-            runOnUIThread(new Runnable() {
-                @Override
-                public void run() {
-                    Pair<Float,Float> pivot = Utils.parseTransformOrigin(
-                            WXUtils.getString(config.get(TRANSFORM_ORIGIN),null),targetView);
-
-                    if(pivot != null) {
-                        targetView.setPivotX(pivot.first);
-                        targetView.setPivotY(pivot.second);
-                    }
 
-                    final double d = (double) cmd;
-                    targetView.setScaleY((float) d);
-                }
-            });
+            targetView.setScaleX((float) (double) cmd);
         }
     }
 
-    private static final class RotateUpdater implements IWXViewUpdater {
+    private static final class ScaleYUpdater extends UIThreadUpdater {
 
         @Override
-        public void update(@NonNull WXComponent component,
-                           @NonNull final View targetView,
-                           @NonNull final Object cmd,
-                           @NonNull PlatformManager.IDeviceResolutionTranslator translator,
-                           @NonNull final Map<String,Object> config) {
-
-            if(!(cmd instanceof Double)) {
-                return;
+        public void apply(@NonNull WXComponent component,
+                          @NonNull View targetView,
+                          @NonNull Object cmd,
+                          @NonNull PlatformManager.IDeviceResolutionTranslator translator,
+                          @NonNull Map<String,Object> config) {
+            Pair<Float,Float> pivot = Utils.parseTransformOrigin(
+                    WXUtils.getString(config.get(TRANSFORM_ORIGIN),null),targetView);
+
+            if(pivot != null) {
+                targetView.setPivotX(pivot.first);
+                targetView.setPivotY(pivot.second);
             }
 
-            runOnUIThread(new Runnable() {
-                @Override
-                public void run() {
-                    int perspective = WXUtils.getInt(config.get(PERSPECTIVE));
-                    perspective = Utils.normalizedPerspectiveValue(targetView.getContext(),perspective);
-
-                    Pair<Float,Float> pivot = Utils.parseTransformOrigin(
-                            WXUtils.getString(config.get(TRANSFORM_ORIGIN),null),targetView);
-
-                    if(perspective != 0) {
-                        targetView.setCameraDistance(perspective);
-                    }
-                    if(pivot != null) {
-                        targetView.setPivotX(pivot.first);
-                        targetView.setPivotY(pivot.second);
-                    }
-
-                    final double d = (double) cmd;
-                    targetView.setRotation((float) d);
-                }
-            });
+            targetView.setScaleY((float) (double) cmd);
         }
     }
 
-    private static final class RotateXUpdater implements IWXViewUpdater {
+    /**
+     * rotations around one axis, with the perspective and the transform origin of the config.
+     * */
+    private static abstract class AbstractRotateUpdater extends UIThreadUpdater {
 
         @Override
-        public void update(@NonNull WXComponent component,
-                           @NonNull final View targetView,
-                           @NonNull final Object cmd,
-                           @NonNull PlatformManager.IDeviceResolutionTranslator translator,
-                           @NonNull final Map<String,Object> config) {
-            if(!(cmd instanceof Double)) {
-                return;
+        public void apply(@NonNull WXComponent component,
+                          @NonNull View targetView,
+                          @NonNull Object cmd,
+                          @NonNull PlatformManager.IDeviceResolutionTranslator translator,
+                          @NonNull Map<String,Object> config) {
+            int perspective = WXUtils.getInt(config.get(PERSPECTIVE));
+            perspective = Utils.normalizedPerspectiveValue(targetView.getContext(),perspective);
+
+            Pair<Float,Float> pivot = Utils.parseTransformOrigin(
+                    WXUtils.getString(config.get(TRANSFORM_ORIGIN),null),targetView);
+
+            if(perspective != 0) {
+                targetView.setCameraDistance(perspective);
+            }
+            if(pivot != null) {
+                targetView.setPivotX(pivot.first);
+                targetView.setPivotY(pivot.second);
             }
-            runOnUIThread(new Runnable() {
-                @Override
-                public void run() {
-                    int perspective = WXUtils.getInt(config.get(PERSPECTIVE));
-                    perspective = Utils.normalizedPerspectiveValue(targetView.getContext(),perspective);
 
-                    Pair<Float,Float> pivot = Utils.parseTransformOrigin(
-                            WXUtils.getString(config.get(TRANSFORM_ORIGIN),null),targetView);
+            rotate(targetView, (float) (double) cmd);
+        }
 
-                    if(perspective != 0) {
-                        targetView.setCameraDistance(perspective);
-                    }
-                    if(pivot != null) {
-                        targetView.setPivotX(pivot.first);
-                        targetView.setPivotY(pivot.second);
-                    }
+        abstract void rotate(@NonNull View targetView, float degrees);
+    }
 
-                    final double d = (double) cmd;
-                    targetView.setRotationX((float) d);
-                }
-            });
+    private static final class RotateUpdater extends AbstractRotateUpdater {
+
+        @Override
+        void rotate(@NonNull View targetView, float degrees) {
+            targetView.setRotation(degrees);
         }
     }
 
-
-    private static final class RotateYUpdater implements IWXViewUpdater {
+    private static final class RotateXUpdater extends AbstractRotateUpdater {
 
         @Override
-        public void update(@NonNull WXComponent component,
-                           @NonNull final View targetView,
-                           @NonNull final Object cmd,
-                           @NonNull PlatformManager.IDeviceResolutionTranslator translator,
-                           @NonNull final Map<String,Object> config) {
-            if(!(cmd instanceof Double)) {
-                return;
-            }
-            runOnUIThread(new Runnable() {
-                @Override
-                public void run() {
-                    int perspective = WXUtils.getInt(config.get(PERSPECTIVE));
-                    perspective = Utils.normalizedPerspectiveValue(targetView.getContext(),perspective);
+        void rotate(@NonNull View targetView, float degrees) {
+            targetView.setRotationX(degrees);
+        }
+    }
 
-                    Pair<Float,Float> pivot = Utils.parseTransformOrigin(
-                            WXUtils.getString(config.get(TRANSFORM_ORIGIN),null),targetView);
+    private static final class RotateYUpdater extends AbstractRotateUpdater {
 
-                    if(perspective != 0) {
-                        targetView.setCameraDistance(perspective);
-                    }
-                    if(pivot != null) {
-                        targetView.setPivotX(pivot.first);
-                        targetView.setPivotY(pivot.second);
-                    }
-
-                    final double d = (double) cmd;
-                    targetView.setRotationY((float) d);
-                }
-            });
+        @Override
+        void rotate(@NonNull View targetView, float degrees) {
+            targetView.setRotationY(degrees);
         }
     }
 
+    /**
+     * not batched: the layout of weex is updated asynchronously and applied by weex itself.
+     * */
     static final class LayoutUpdater implements IWXViewUpdater {
 
         private String propertyName;
@@ -605,235 +633,197 @@ final class WXViewUpdateService {
         }
     }
 
-
-    private static final class BackgroundUpdater implements IWXViewUpdater {
+    private static final class BackgroundUpdater extends UIThreadColorUpdater {
 
         @Override
-        public void update(@NonNull WXComponent component,
-                           @NonNull final View targetView,
-                           @NonNull Object cmd,
-                           @NonNull PlatformManager.IDeviceResolutionTranslator translator,
-                           @NonNull Map<String,Object> config) {
-            if(!(cmd instanceof Integer)) {
-                return;
+        public void applyColor(@NonNull WXComponent component,
+                               @NonNull View targetView,
+                               int color,
+                               @NonNull PlatformManager.IDeviceResolutionTranslator translator,
+                               @NonNull Map<String, Object> config) {
+            Drawable drawable = targetView.getBackground();
+            if(drawable == null) {
+                targetView.setBackgroundColor(color);
+            } else if(drawable instanceof BorderDrawable) {
+                BorderDrawable borderDrawable = (BorderDrawable) drawable;
+                borderDrawable.setColor(color);
+            } else if(drawable instanceof ColorDrawable) {
+                ColorDrawable colorDrawable = (ColorDrawable) drawable;
+                colorDrawable.setColor(color);
             }
-            final int d = (int) cmd;
-            runOnUIThread(new Runnable() {
-                @Override
-                public void run() {
-                    Drawable drawable = targetView.getBackground();
-                    if(drawable == null) {
-                        targetView.setBackgroundColor(d);
-                    } else if(drawable instanceof BorderDrawable) {
-                        BorderDrawable borderDrawable = (BorderDrawable) drawable;
-                        borderDrawable.setColor(d);
-                    } else if(drawable instanceof ColorDrawable) {
-                        ColorDrawable colorDrawable = (ColorDrawable) drawable;
-                        colorDrawable.setColor(d);
-                    }
-                }
-            });
         }
     }
 
-    private static final class ColorUpdater implements IWXViewUpdater {
+    private static final class ColorUpdater extends UIThreadColorUpdater {
 
         @Override
-        public void update(@NonNull final WXComponent component,
-                           @NonNull final View targetView,
-                           @NonNull final Object cmd,
-                           @NonNull PlatformManager.IDeviceResolutionTranslator translator,
-                           @NonNull Map<String, Object> config) {
-            if(!(cmd instanceof Integer)) {
-                return;
-            }
-            final int d = (int) cmd;
-            runOnUIThread(new Runnable() {
-                @Override
-                public void run() {
-                    if(targetView instanceof TextView) {
-                        ((TextView) targetView).setTextColor(d);
-                    } else if(component instanceof WXText && targetView instanceof WXTextView) {
-                        try {
-                            ((WXTextView)targetView).setTextColor(d);
-                            targetView.invalidate();
-                        }catch (Throwable e) {
-                            // fallback
-                            LogProxy.e("can not update text color, try fallback to call the old API",e);
-                            Layout layout = ((WXTextView) targetView).getTextLayout();
-                            if(layout != null) {
-                                TextPaint paint = layout.getPaint();
-                                if(paint != null) {
-                                    paint.setColor(d);
-                                }
-                                targetView.invalidate();
-                            }
+        public void applyColor(@NonNull WXComponent component,
+                               @NonNull View targetView,
+                               int color,
+                               @NonNull PlatformManager.IDeviceResolutionTranslator translator,
+                               @NonNull Map<String, Object> config) {
+            if(targetView instanceof TextView) {
+                ((TextView) targetView).setTextColor(color);
+            } else if(component instanceof WXText && targetView instanceof WXTextView) {
+                try {
+                    ((WXTextView)targetView).setTextColor(color);
+                    targetView.invalidate();
+                }catch (Throwable e) {
+                    // fallback
+                    LogProxy.e("can not update text color, try fallback to call the old API",e);
+                    Layout layout = ((WXTextView) targetView).getTextLayout();
+                    if(layout != null) {
+                        TextPaint paint = layout.getPaint();
+                        if(paint != null) {
+                            paint.setColor(color);
                         }
+                        targetView.invalidate();
                     }
                 }
-            });
+            }
         }
     }
 
-    private static final class BorderRadiusTopLeftUpdater implements IWXViewUpdater {
+    private static final class BorderRadiusTopLeftUpdater extends UIThreadUpdater {
 
         @Override
-        public void update(@NonNull WXComponent component,
-                           @NonNull final View targetView,
-                           @NonNull Object cmd,
-                           @NonNull final PlatformManager.IDeviceResolutionTranslator translator,
-                           @NonNull Map<String, Object> config) {
-            if(!(cmd instanceof Double)) {
-                return;
+        public void apply(@NonNull WXComponent component,
+                          @NonNull View targetView,
+                          @NonNull Object cmd,
+                          @NonNull PlatformManager.IDeviceResolutionTranslator translator,
+                          @NonNull Map<String, Object> config) {
+            Drawable drawable = targetView.getBackground();
+            if(drawable != null && drawable instanceof BorderDrawable) {
+                BorderDrawable borderDrawable = (BorderDrawable) drawable;
+                borderDrawable.setBorderRadius(CSSShorthand.CORNER.BORDER_TOP_LEFT, (float) getRealSize((double) cmd,translator));
             }
-            final double d = (double) cmd;
-            runOnUIThread(new Runnable() {
-                @Override
-                public void run() {
-                    Drawable drawable = targetView.getBackground();
-                    if(drawable != null && drawable instanceof BorderDrawable) {
-                        BorderDrawable borderDrawable = (BorderDrawable) drawable;
-                        borderDrawable.setBorderRadius(CSSShorthand.CORNER.BORDER_TOP_LEFT, (float) getRealSize(d,translator));
-                    }
-                }
-            });
         }
     }
 
-    private static final class BorderRadiusTopRightUpdater implements IWXViewUpdater {
+    private static final class BorderRadiusTopRightUpdater extends UIThreadUpdater {
 
         @Override
-        public void update(@NonNull WXComponent component,
-                           @NonNull final View targetView,
-                           @NonNull Object cmd,
-                           @NonNull final PlatformManager.IDeviceResolutionTranslator translator,
-                           @NonNull Map<String, Object> config) {
-            if(!(cmd instanceof Double)) {
-                return;
+        public void apply(@NonNull WXComponent component,
+                          @NonNull View targetView,
+                          @NonNull Object cmd,
+                          @NonNull PlatformManager.IDeviceResolutionTranslator translator,
+                          @NonNull Map<String, Object> config) {
+            Drawable drawable = targetView.getBackground();
+            if(drawable != null && drawable instanceof BorderDrawable) {
+                BorderDrawable borderDrawable = (BorderDrawable) drawable;
+                borderDrawable.setBorderRadius(CSSShorthand.CORNER.BORDER_TOP_RIGHT, (float) getRealSize((double) cmd,translator));
             }
-            final double d = (double) cmd;
-            runOnUIThread(new Runnable() {
-                @Override
-                public void run() {
-                    Drawable drawable = targetView.getBackground();
-                    if(drawable != null && drawable instanceof BorderDrawable) {
-                        BorderDrawable borderDrawable = (BorderDrawable) drawable;
-                        borderDrawable.setBorderRadius(CSSShorthand.CORNER.BORDER_TOP_RIGHT, (float) getRealSize(d,translator));
-                    }
-                }
-            });
         }
     }
 
-    private static final class BorderRadiusBottomLeftUpdater implements IWXViewUpdater {
+    private static final class BorderRadiusBottomLeftUpdater extends UIThreadUpdater {
 
         @Override
-        public void update(@NonNull WXComponent component,
-                           @NonNull final View targetView,
-                           @NonNull Object cmd,
-                           @NonNull final PlatformManager.IDeviceResolutionTranslator translator,
-                           @NonNull Map<String, Object> config) {
-            if(!(cmd instanceof Double)) {
-                return;
+        public void apply(@NonNull WXComponent component,
+                          @NonNull View targetView,
+                          @NonNull Object cmd,
+                          @NonNull PlatformManager.IDeviceResolutionTranslator translator,
+                          @NonNull Map<String, Object> config) {
+            Drawable drawable = targetView.getBackground();
+            if(drawable != null && drawable instanceof BorderDrawable) {
+                BorderDrawable borderDrawable = (BorderDrawable) drawable;
+                borderDrawable.setBorderRadius(CSSShorthand.CORNER.BORDER_BOTTOM_LEFT, (float) getRealSize((double) cmd,translator));
             }
-            final double d = (double) cmd;
-            runOnUIThread(new Runnable() {
-                @Override
-                public void run() {
-                    Drawable drawable = targetView.getBackground();
-                    if(drawable != null && drawable instanceof BorderDrawable) {
-                        BorderDrawable borderDrawable = (BorderDrawable) drawable;
-                        borderDrawable.setBorderRadius(CSSShorthand.CORNER.BORDER_BOTTOM_LEFT, (float) getRealSize(d,translator));
-                    }
-                }
-            });
         }
     }
 
-    private static final class BorderRadiusBottomRightUpdater implements IWXViewUpdater {
+    private static final class BorderRadiusBottomRightUpdater extends UIThreadUpdater {
 
         @Override
-        public void update(@NonNull WXComponent component,
-                           @NonNull final View targetView,
-                           @NonNull Object cmd,
-                           @NonNull final PlatformManager.IDeviceResolutionTranslator translator,
-                           @NonNull Map<String, Object> config) {
-            if(!(cmd instanceof Double)) {
-                return;
+        public void apply(@NonNull WXComponent component,
+                          @NonNull View targetView,
+                          @NonNull Object cmd,
+                          @NonNull PlatformManager.IDeviceResolutionTranslator translator,
+                          @NonNull Map<String, Object> config) {
+            Drawable drawable = targetView.getBackground();
+            if(drawable != null && drawable instanceof BorderDrawable) {
+                BorderDrawable borderDrawable = (BorderDrawable) drawable;
+                borderDrawable.setBorderRadius(CSSShorthand.CORNER.BORDER_BOTTOM_RIGHT, (float) getRealSize((double) cmd,translator));
             }
-            final double d = (double) cmd;
-            runOnUIThread(new Runnable() {
-                @Override
-                public void run() {
-                    Drawable drawable = targetView.getBackground();
-                    if(drawable != null && drawable instanceof BorderDrawable) {
-                        BorderDrawable borderDrawable = (BorderDrawable) drawable;
-                        borderDrawable.setBorderRadius(CSSShorthand.CORNER.BORDER_BOTTOM_RIGHT, (float) getRealSize(d,translator));
-                    }
-                }
-            });
         }
     }
 
-    private static final class BorderRadiusUpdater implements IWXViewUpdater {
+    private static final class BorderRadiusUpdater extends UIThreadUpdater {
 
         @Override
-        public void update(@NonNull WXComponent component,
-                           @NonNull final View targetView,
-                           @NonNull Object cmd,
-                           @NonNull final PlatformManager.IDeviceResolutionTranslator translator,
-                           @NonNull Map<String, Object> config) {
+        boolean accepts(@NonNull Object cmd) {
+            return cmd instanceof Double || toVec4(cmd) != null;
+        }
 
-            if(cmd instanceof ArrayList) {
-                final ArrayList<Object> l = (ArrayList<Object>) cmd;
-                if(l.size() != 4) {
-                    return;
-                }
+        @Override
+        public void apply(@NonNull WXComponent component,
+                          @NonNull View targetView,
+                          @NonNull Object cmd,
+                          @NonNull PlatformManager.IDeviceResolutionTranslator translator,
+                          @NonNull Map<String, Object> config) {
+            Drawable drawable = targetView.getBackground();
+            if(!(drawable instanceof BorderDrawable)) {
+                return;
+            }
+            BorderDrawable borderDrawable = (BorderDrawable) drawable;
+            if(cmd instanceof Double) {
+                double value = (double) cmd;
+                borderDrawable.setBorderRadius(CSSShorthand.CORNER.BORDER_TOP_LEFT, (float) getRealSize(value,translator));
+                borderDrawable.setBorderRadius(CSSShorthand.CORNER.BORDER_TOP_RIGHT, (float) getRealSize(value,translator));
+                borderDrawable.setBorderRadius(CSSShorthand.CORNER.BORDER_BOTTOM_LEFT, (float) getRealSize(value,translator));
+                borderDrawable.setBorderRadius(CSSShorthand.CORNER.BORDER_BOTTOM_RIGHT, (float) getRealSize(value,translator));
+                return;
+            }
+            // top left, top right, bottom left, bottom right
+            Vec4 radii = toVec4(cmd);
+            if(radii == null) {
+                return;
+            }
+            borderDrawable.setBorderRadius(CSSShorthand.CORNER.BORDER_TOP_LEFT, (float) getRealSize(radii.x,translator));
+            borderDrawable.setBorderRadius(CSSShorthand.CORNER.BORDER_TOP_RIGHT, (float) getRealSize(radii.y,translator));
+            borderDrawable.setBorderRadius(CSSShorthand.CORNER.BORDER_BOTTOM_LEFT, (float) getRealSize(radii.z,translator));
+            borderDrawable.setBorderRadius(CSSShorthand.CORNER.BORDER_BOTTOM_RIGHT, (float) getRealSize(radii.w,translator));
+        }
+    }
 
-                runOnUIThread(new Runnable() {
-                    @Override
-                    public void run() {
-                        Drawable drawable = targetView.getBackground();
-                        if(drawable != null && drawable instanceof BorderDrawable) {
-                            double topLeft = 0,topRight = 0,bottomLeft = 0,bottomRight = 0;
-                            if(l.get(0) instanceof Double) {
-                                topLeft = (double) l.get(0);
-                            }
-                            if(l.get(1) instanceof Double) {
-                                topRight = (double) l.get(1);
-                            }
-                            if(l.get(2) instanceof Double) {
-                                bottomLeft = (double) l.get(2);
-                            }
-                            if(l.get(3) instanceof Double) {
-                                bottomRight = (double) l.get(3);
-                            }
-
-                            BorderDrawable borderDrawable = (BorderDrawable) drawable;
-                            borderDrawable.setBorderRadius(CSSShorthand.CORNER.BORDER_TOP_LEFT, (float) getRealSize(topLeft,translator));
-                            borderDrawable.setBorderRadius(CSSShorthand.CORNER.BORDER_TOP_RIGHT, (float) getRealSize(topRight,translator));
-                            borderDrawable.setBorderRadius(CSSShorthand.CORNER.BORDER_BOTTOM_LEFT, (float) getRealSize(bottomLeft,translator));
-                            borderDrawable.setBorderRadius(CSSShorthand.CORNER.BORDER_BOTTOM_RIGHT, (float) getRealSize(bottomRight,translator));
-                        }
-                    }
-                });
-            } else if(cmd instanceof Double) {
-                final double value = (double) cmd;
-                runOnUIThread(new Runnable() {
-                    @Override
-                    public void run() {
-                        Drawable drawable = targetView.getBackground();
-                        if(drawable != null && drawable instanceof BorderDrawable) {
-                            BorderDrawable borderDrawable = (BorderDrawable) drawable;
-                            borderDrawable.setBorderRadius(CSSShorthand.CORNER.BORDER_TOP_LEFT, (float) getRealSize(value,translator));
-                            borderDrawable.setBorderRadius(CSSShorthand.CORNER.BORDER_TOP_RIGHT, (float) getRealSize(value,translator));
-                            borderDrawable.setBorderRadius(CSSShorthand.CORNER.BORDER_BOTTOM_LEFT, (float) getRealSize(value,translator));
-                            borderDrawable.setBorderRadius(CSSShorthand.CORNER.BORDER_BOTTOM_RIGHT, (float) getRealSize(value,translator));
-                        }
-                    }
-                });
+    /**
+     * @return the value as {@link Vec2}. Builtins produce it directly, lists of at least two numbers
+     * (e.g. returned by custom functions) are converted. null if it is neither.
+     * */
+    @Nullable
+    private static Vec2 toVec2(@NonNull Object value) {
+        if(value instanceof Vec2) {
+            return (Vec2) value;
+        }
+        if(value instanceof List) {
+            List<?> list = (List<?>) value;
+            if(list.size() >= 2 && list.get(0) instanceof Double && list.get(1) instanceof Double) {
+                return new Vec2((double) list.get(0), (double) list.get(1));
             }
         }
+        return null;
+    }
+
+    /**
+     * @return the value as {@link Vec4}. Builtins produce it directly, lists of four numbers
+     * (e.g. returned by custom functions) are converted, elements which are not numbers are 0.
+     * null if it is neither.
+     * */
+    @Nullable
+    private static Vec4 toVec4(@NonNull Object value) {
+        if(value instanceof Vec4) {
+            return (Vec4) value;
+        }
+        if(value instanceof List && ((List<?>) value).size() == 4) {
+            List<?> list = (List<?>) value;
+            return new Vec4(componentOf(list, 0), componentOf(list, 1), componentOf(list, 2), componentOf(list, 3));
+        }
+        return null;
+    }
+
+    private static double componentOf(List<?> list, int index) {
+        Object component = list.get(index);
+        return component instanceof Double ? (double) component : 0;
     }
 
     private static double getRealSize(double size,@NonNull PlatformManager.IDeviceResolutionTranslator translator) {
@@ -0,0 +1,116 @@
+/**
+ * Copyright 2018 Alibaba Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.org.yxj.cpm.android.bindingx.core.internal;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks the packed color path of evaluateColor, rgb and rgba.
+ */
+public class ColorsTest {
+
+    private ExpressionScope mScope;
+
+    @Before
+    public void setUp() {
+        mScope = new ExpressionScope();
+        JSMath.applyToScope(mScope);
+    }
+
+    @Test
+    public void interpolatesChannels() {
+        assertEquals(0xff000000, Colors.interpolate(0xff000000, 0xffffffff, -1, Colors.MODE_SRGB));
+        assertEquals(0xffffffff, Colors.interpolate(0xff000000, 0xffffffff, 2, Colors.MODE_SRGB));
+        assertEquals(0xff808080, Colors.interpolate(0xff000000, 0xffffffff, 0.5, Colors.MODE_SRGB));
+        assertEquals(0x80ff0000, Colors.interpolate(0x00ff0000, 0xffff0000, 0.5, Colors.MODE_SRGB));
+        // half of the light is brighter than half of the encoded value
+        assertEquals(0xffbcbcbc, Colors.interpolate(0xff000000, 0xffffffff, 0.5, Colors.MODE_LINEAR));
+        // end points are kept exactly
+        for (int c = 0; c < 256; c++) {
+            int color = Colors.argb(255, c, c, c);
+            assertEquals(color, Colors.interpolate(color, 0xff000000, 1e-12, Colors.MODE_LINEAR));
+        }
+    }
+
+    @Test
+    public void parsesColors() {
+        assertEquals(0xffff0000, Colors.parse("#ff0000"));
+        assertEquals(0xffaabbcc, Colors.parse("#abc"));
+        assertEquals(0x80ff0000, Colors.parse("#80FF0000"));
+        assertEquals(0xffff8000, Colors.parse("rgb(255, 128, 0)"));
+        assertEquals(0x7fff8000, Colors.parse("rgba(255,128,0,0.5)"));
+        assertEquals(0xff008080, Colors.parse("teal"));
+        // evaluateColor blends opaque colors
+        assertEquals(0xffff0000, JSMath.parseColor("'#80ff0000'"));
+
+        String[] illegal = {"", "#ff00", "#gg0000", "rgb(1, 2)", "rgba(1, 2, 3)", "rgb(a, b, c)", "notacolor"};
+        for (String color : illegal) {
+            try {
+                Colors.parse(color);
+                fail("expected '" + color + "' to be rejected");
+            } catch (IllegalArgumentException expected) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void constantColorsAreParsedWhenCompiled() throws Exception {
+        ExpressionNode node = ExpressionParser.parse("evaluateColor('#000000', '#ffffff', y / 100)");
+        assertTrue(node instanceof ExpressionNode.ColorFade);
+        assertTrue(node.isColor());
+        assertFalse(node.isNumeric());
+
+        mScope.setValue(ExpressionScope.SLOT_Y, 50);
+        assertEquals(0xff808080, node.evaluateColor(mScope));
+        assertEquals(0xff808080, node.evaluate(mScope));
+
+        // colors computed at runtime go through the builtin
+        ExpressionNode runtime = ExpressionParser.parse("evaluateColor(y > 10 ? '#000000' : '#ff0000', '#ffffff', y / 100, 'srgb')");
+        assertTrue(runtime instanceof ExpressionNode.Call);
+        assertEquals(0xff808080, runtime.evaluate(mScope));
+    }
+
+    @Test
+    public void rgbIsPacked() throws Exception {
+        mScope.setValue(ExpressionScope.SLOT_X, 0.5);
+        ExpressionNode rgb = ExpressionParser.parse("rgb(255, 128, 0)");
+        ExpressionNode rgba = ExpressionParser.parse("rgba(255, 128, 0, x)");
+        assertTrue(rgb instanceof ExpressionNode.Rgb);
+        assertEquals(0xffff8000, rgb.evaluateColor(mScope));
+        assertEquals(0x7fff8000, rgba.evaluateColor(mScope));
+        assertEquals(0x7fff8000, rgba.evaluate(mScope));
+        assertTrue(ExpressionParser.parse("x > 0 ? rgb(0, 0, 0) : interpolate(x, [0, 1], ['#000000', '#ffffff'])").isColor());
+    }
+
+    @Test
+    public void overriddenColorBuiltinIsCalled() throws Exception {
+        ExpressionNode node = ExpressionParser.parse("evaluateColor('#000000', '#ffffff', 0.5)");
+        mScope.put("evaluateColor", new JSFunctionInterface() {
+            @Override
+            public Object execute(java.util.ArrayList<Object> arguments) {
+                return 42;
+            }
+        });
+        assertEquals(42, node.evaluateColor(mScope));
+    }
+}
@@ -0,0 +1,111 @@
+/**
+ * Copyright 2018 Alibaba Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.org.yxj.cpm.android.bindingx.core.internal;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks {@link CubicBezier} against a brute force solution of the curve.
+ */
+public class CubicBezierTest {
+
+    private static final double[][] CURVES = {
+            {0.25, 0.1, 0.25, 1},       // ease
+            {0.42, 0, 1, 1},            // ease-in
+            {0, 0, 0.58, 1},            // ease-out
+            {0.42, 0, 0.58, 1},         // ease-in-out
+            {0.68, -0.55, 0.265, 1.55}, // overshoots
+            {1, 0, 0, 1},               // flat at both ends
+            {0, 1, 1, 0},               // steep at both ends
+            {0.3, 0.3, 0.7, 0.7},       // linear
+    };
+
+    @Test
+    public void solvesCurves() {
+        for (double[] p : CURVES) {
+            CubicBezier curve = new CubicBezier(p[0], p[1], p[2], p[3]);
+            for (int i = 0; i <= 1000; i++) {
+                double x = i / 1000.0;
+                assertEquals(curve + " at " + x, bruteForce(p, x), curve.solve(x), 1e-5);
+            }
+        }
+    }
+
+    @Test
+    public void curvesAreCachedByControlPoints() {
+        CubicBezier curve = CubicBezier.of(0.25, 0.1, 0.25, 1);
+        assertSame(curve, CubicBezier.of(0.25, 0.1, 0.25, 1));
+        assertNotSame(curve, CubicBezier.of(0.25, 0.1, 0.25, 0.99));
+
+        // more curves than the cache holds still solve correctly
+        for (int i = 0; i < 1000; i++) {
+            double x1 = (i % 97) / 97.0;
+            double[] p = {x1, 0.5, 1 - x1, 0.5};
+            assertEquals(bruteForce(p, 0.3), CubicBezier.of(p[0], p[1], p[2], p[3]).solve(0.3), 1e-5);
+        }
+    }
+
+    @Test
+    public void timingFunction() throws Exception {
+        JSFunctionN cubicBezier = (JSFunctionN) builtin("cubicBezier");
+        double[] args = {0, 250, 10, 100, 1000, 0.42, 0, 0.58, 1};
+        // t: 250, b: 10, c: 100, d: 1000
+        assertEquals(10 + 100 * bruteForce(new double[]{0.42, 0, 0.58, 1}, 0.25),
+                cubicBezier.call(args, 1, 8), 1e-3);
+        args[1] = 1200;
+        assertEquals(110, cubicBezier.call(args, 1, 8), 0);
+    }
+
+    @Test
+    public void controlPointsMustBeInRange() {
+        try {
+            new CubicBezier(1.2, 0, 0.5, 1);
+            fail();
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+    }
+
+    private static Object builtin(String name) {
+        java.util.Map<String, Object> scope = new java.util.HashMap<>();
+        TimingFunctions.applyToScope(scope);
+        return scope.get(name);
+    }
+
+    private static double bruteForce(double[] p, double x) {
+        double low = 0;
+        double high = 1;
+        for (int i = 0; i < 100; i++) {
+            double t = (low + high) / 2;
+            if (bezier(p[0], p[2], t) < x) {
+                low = t;
+            } else {
+                high = t;
+            }
+        }
+        return bezier(p[1], p[3], (low + high) / 2);
+    }
+
+    private static double bezier(double p1, double p2, double t) {
+        double u = 1 - t;
+        return 3 * u * u * t * p1 + 3 * u * t * t * p2 + t * t * t;
+    }
+}
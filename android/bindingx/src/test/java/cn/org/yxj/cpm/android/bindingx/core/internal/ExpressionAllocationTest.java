@@ -0,0 +1,159 @@
+/**
+ * Copyright 2018 Alibaba Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.org.yxj.cpm.android.bindingx.core.internal;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static cn.org.yxj.cpm.android.bindingx.core.internal.ExpressionFixtures.binary;
+import static cn.org.yxj.cpm.android.bindingx.core.internal.ExpressionFixtures.call;
+import static cn.org.yxj.cpm.android.bindingx.core.internal.ExpressionFixtures.identifier;
+import static cn.org.yxj.cpm.android.bindingx.core.internal.ExpressionFixtures.node;
+import static cn.org.yxj.cpm.android.bindingx.core.internal.ExpressionFixtures.number;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Checks that numeric expressions are evaluated on primitive doubles without allocating.
+ */
+public class ExpressionAllocationTest {
+
+    private static final int ITERATIONS = 100000;
+
+    private com.sun.management.ThreadMXBean mThreadBean;
+    private ExpressionScope mScope;
+    // keeps the evaluated colors alive
+    private int mColorSink;
+
+    @Before
+    public void setUp() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        mThreadBean = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(mThreadBean.isThreadAllocatedMemorySupported());
+        mThreadBean.setThreadAllocatedMemoryEnabled(true);
+
+        mScope = new ExpressionScope();
+        JSMath.applyToScope(mScope);
+        mScope.setValue(ExpressionScope.SLOT_X, 30.0);
+        mScope.setValue(ExpressionScope.SLOT_Y, 120.0);
+    }
+
+    @Test
+    public void linearExpressionDoesNotAllocate() throws Exception {
+        // y*0.5+10
+        Expression expression = new Expression(binary("+",
+                binary("*", identifier("y"), number(0.5)),
+                number(10)).toString());
+
+        assertTrue(expression.isNumeric());
+        assertEquals(70.0, (Double) expression.execute(mScope), 0);
+        assertEquals(0, allocatedBytesPerEvaluation(expression));
+    }
+
+    @Test
+    public void mathBuiltinsDoNotAllocate() throws Exception {
+        // x > 10 ? sin(x*PI)*abs(y) + max(x, y, 1) : pow(2, 3)
+        Expression expression = new Expression(node("?",
+                binary(">", identifier("x"), number(10)),
+                binary("+",
+                        binary("*",
+                                call("sin", binary("*", identifier("x"), identifier("PI"))),
+                                call("abs", identifier("y"))),
+                        call("max", identifier("x"), identifier("y"), number(1))),
+                call("pow", number(2), number(3))).toString());
+
+        assertTrue(expression.isNumeric());
+        assertEquals(Math.sin(30 * Math.PI) * 120 + 120, (Double) expression.execute(mScope), 1e-9);
+        assertEquals(0, allocatedBytesPerEvaluation(expression));
+    }
+
+    @Test
+    public void timingFunctionsDoNotAllocate() throws Exception {
+        // easeOutCubic(x, 0, 100, 60) + min(y, easeInOutBack(x, 0, 1, 60), 1)
+        TimingFunctions.applyToScope(mScope);
+        Expression expression = new Expression(binary("+",
+                call("easeOutCubic", identifier("x"), number(0), number(100), number(60)),
+                call("min", identifier("y"),
+                        call("easeInOutBack", identifier("x"), number(0), number(1), number(60)),
+                        number(1))).toString());
+
+        assertTrue(expression.isNumeric());
+        assertEquals(87.5 + 0.5, (Double) expression.execute(mScope), 1e-9);
+        assertEquals(0, allocatedBytesPerEvaluation(expression));
+    }
+
+    @Test
+    public void colorsDoNotAllocate() throws Exception {
+        // y < 100 ? evaluateColor('#ff0000', '#0000ff', y/100, 'linear') : interpolate(y, [100, 200], ['#0000ff', '#00ff00'])
+        Expression fade = new Expression(ExpressionParser.parse(
+                "y < 100 ? evaluateColor('#ff0000', '#0000ff', y/100, 'linear') : interpolate(y, [100, 200], ['#0000ff', '#00ff00'])"));
+        Expression rgba = new Expression(ExpressionParser.parse("rgba(x, y, 255 - y, x / 30)"));
+
+        assertTrue(fade.isColor());
+        assertTrue(rgba.isColor());
+        assertEquals(0xff0033cc, fade.executeColor(mScope));
+        assertEquals(0xff1e7887, rgba.executeColor(mScope));
+        assertEquals(0, allocatedBytesPerColor(fade));
+        assertEquals(0, allocatedBytesPerColor(rgba));
+    }
+
+    @Test
+    public void overriddenBuiltinIsCalled() throws Exception {
+        Expression expression = new Expression(call("abs", identifier("y")).toString());
+        mScope.put("abs", new JSFunctionInterface() {
+            @Override
+            public Object execute(java.util.ArrayList<Object> arguments) {
+                return 42.0;
+            }
+        });
+        assertEquals(42.0, expression.executeNumber(mScope), 0);
+    }
+
+    private long allocatedBytesPerEvaluation(Expression expression) throws Exception {
+        double sink = 0;
+        // warm up, so that class loading and compilation do not show up
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += expression.executeNumber(mScope);
+        }
+        long threadId = Thread.currentThread().getId();
+        long before = mThreadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += expression.executeNumber(mScope);
+        }
+        long after = mThreadBean.getThreadAllocatedBytes(threadId);
+        assertTrue(!Double.isNaN(sink));
+        return (after - before) / ITERATIONS;
+    }
+
+    private long allocatedBytesPerColor(Expression expression) throws Exception {
+        int sink = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink ^= expression.executeColor(mScope);
+        }
+        long threadId = Thread.currentThread().getId();
+        long before = mThreadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink ^= expression.executeColor(mScope);
+        }
+        long after = mThreadBean.getThreadAllocatedBytes(threadId);
+        mColorSink = sink;
+        return (after - before) / ITERATIONS;
+    }
+}
@@ -0,0 +1,62 @@
+/**
+ * Copyright 2018 Alibaba Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.org.yxj.cpm.android.bindingx.core.internal;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Builds transformed expressions (the json abstract syntax tree the js side sends) for the tests
+ * and the benchmarks.
+ */
+final class ExpressionFixtures {
+
+    private ExpressionFixtures() {
+    }
+
+    static JSONObject number(double value) throws JSONException {
+        return new JSONObject().put("type", "NumericLiteral").put("value", value);
+    }
+
+    static JSONObject string(String value) throws JSONException {
+        return new JSONObject().put("type", "StringLiteral").put("value", value);
+    }
+
+    static JSONObject bool(boolean value) throws JSONException {
+        return new JSONObject().put("type", "BooleanLiteral").put("value", value);
+    }
+
+    static JSONObject identifier(String name) throws JSONException {
+        return new JSONObject().put("type", "Identifier").put("value", name);
+    }
+
+    static JSONObject binary(String op, JSONObject left, JSONObject right) throws JSONException {
+        return node(op, left, right);
+    }
+
+    static JSONObject node(String type, JSONObject... children) throws JSONException {
+        JSONArray array = new JSONArray();
+        for (JSONObject child : children) {
+            array.put(child);
+        }
+        return new JSONObject().put("type", type).put("children", array);
+    }
+
+    static JSONObject call(String function, JSONObject... arguments) throws JSONException {
+        return node("CallExpression", identifier(function), node("Arguments", arguments));
+    }
+}
@@ -0,0 +1,345 @@
+/**
+ * Copyright 2018 Alibaba Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.org.yxj.cpm.android.bindingx.core.internal;
+
+import android.view.View;
+
+import androidx.annotation.NonNull;
+
+import cn.org.yxj.cpm.android.bindingx.core.BindingXCore;
+import cn.org.yxj.cpm.android.bindingx.core.BindingXJSFunctionRegister;
+import cn.org.yxj.cpm.android.bindingx.core.PlatformManager;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks that a frame is evaluated completely before it is applied to the views.
+ */
+public class ExpressionFrameTest {
+
+    private final List<String> mUpdates = new ArrayList<>();
+    private final List<Object> mCallbacks = new ArrayList<>();
+    // ref -> the view it resolves to
+    private final Map<String, View> mViews = new HashMap<>();
+    // number of times tick() has been called
+    private int mTicks;
+    private TestHandler mHandler;
+
+    @Before
+    public void setUp() {
+        PlatformManager manager = new PlatformManager.Builder()
+                .withViewFinder(new PlatformManager.IViewFinder() {
+                    @Override
+                    public View findViewBy(String ref, Object... extension) {
+                        if ("missing".equals(ref)) {
+                            return null;
+                        }
+                        View view = mViews.get(ref);
+                        if (view == null) {
+                            view = new View(null);
+                            mViews.put(ref, view);
+                        }
+                        return view;
+                    }
+                })
+                .withViewUpdater(new PlatformManager.IViewUpdater() {
+                    @Override
+                    public void synchronouslyUpdateViewOnUIThread(@NonNull View targetView, @NonNull String propertyName,
+                                                                  @NonNull Object propertyValue,
+                                                                  @NonNull PlatformManager.IDeviceResolutionTranslator translator,
+                                                                  @NonNull Map<String, Object> config, Object... extension) {
+                        mUpdates.add(propertyName + "=" + propertyValue + "@" + mTicks);
+                    }
+                })
+                .build();
+        mHandler = new TestHandler(manager);
+
+        BindingXJSFunctionRegister.getInstance().registerJSFunction("tick", new JSFunctionInterface() {
+            @Override
+            public Object execute(ArrayList<Object> arguments) {
+                mTicks++;
+                return arguments.get(0);
+            }
+        });
+        BindingXJSFunctionRegister.getInstance().registerJSFunction("boom", new JSFunctionInterface() {
+            @Override
+            public Object execute(ArrayList<Object> arguments) {
+                throw new IllegalArgumentException("boom");
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        BindingXJSFunctionRegister.getInstance().unregisterJSFunction("tick");
+        BindingXJSFunctionRegister.getInstance().unregisterJSFunction("boom");
+    }
+
+    @Test
+    public void evaluatesAllBeforeApplying() throws Exception {
+        mHandler.bind(binding("a", "opacity", "tick(x)"), binding("a", "transform.translateX", "tick(x) * 2"));
+        mHandler.consume(10);
+        assertEquals(Arrays.asList("opacity=10.0@2", "transform.translateX=20.0@2"), mUpdates);
+
+        mUpdates.clear();
+        mHandler.consume(10);
+        // same results are suppressed
+        assertEquals(Arrays.asList(), mUpdates);
+    }
+
+    @Test
+    public void sameResultIsAppliedToAnotherView() throws Exception {
+        mHandler.bind(binding("a", "opacity", "x * 0 + 1"));
+        mHandler.consume(1);
+        mHandler.consume(2);
+        assertEquals(Arrays.asList("opacity=1.0@0"), mUpdates);
+
+        // the ref resolves to another view, e.g. a recycled cell
+        mViews.put("a", new View(null));
+        mHandler.consume(3);
+        assertEquals(Arrays.asList("opacity=1.0@0", "opacity=1.0@0"), mUpdates);
+    }
+
+    @Test
+    public void unchangedResultIsAppliedToAnotherView() throws Exception {
+        // no inputs at all, and one whose input does not change
+        mHandler.bind(binding("a", "opacity", "1"), binding("b", "opacity", "x + 1"));
+        mHandler.consume(1);
+        mHandler.consume(1);
+        assertEquals(2, mUpdates.size());
+        long evaluations = mHandler.getEvaluationCount();
+
+        mViews.put("a", new View(null));
+        mViews.put("b", new View(null));
+        mHandler.consume(1);
+        assertEquals(evaluations + 2, mHandler.getEvaluationCount());
+        assertEquals(Arrays.asList("opacity=1.0@0", "opacity=2.0@0", "opacity=1.0@0", "opacity=2.0@0"), sorted(mUpdates));
+
+        // skipped again once the new views have the results
+        mHandler.consume(1);
+        assertEquals(evaluations + 2, mHandler.getEvaluationCount());
+        assertEquals(4, mUpdates.size());
+    }
+
+    @Test
+    public void skipsNaNAndMissingViews() throws Exception {
+        mHandler.bind(binding("a", "opacity", "x / 0 * 0"), binding("missing", "opacity", "x"),
+                binding("b", "opacity", "x + 1"));
+        mHandler.consume(1);
+        assertEquals(Arrays.asList("opacity=2.0@0"), mUpdates);
+    }
+
+    @Test
+    public void appliesResultsEvaluatedBeforeAnError() throws Exception {
+        mHandler.bind(binding("a", "opacity", "x"), binding("a", "transform.translateX", "boom(x)"),
+                binding("a", "transform.translateY", "x"));
+        try {
+            mHandler.consume(5);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        assertEquals(Arrays.asList("opacity=5.0@0"), mUpdates);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void rejectsInvalidExpressionsOnce() throws Exception {
+        mHandler.bind(binding("a", "opacity", "x + unknownVariable"), binding("a", "transform.translateX", "sin(x, y)"),
+                binding("a", "transform.translateY", "x"));
+        assertEquals(1, mCallbacks.size());
+        Map<String, Object> param = (Map<String, Object>) mCallbacks.get(0);
+        assertEquals(BindingXConstants.STATE_ERROR, param.get("state"));
+        List<Map<String, Object>> errors = (List<Map<String, Object>>) param.get(BindingXConstants.KEY_ERRORS);
+        assertEquals(2, errors.size());
+        for (Map<String, Object> error : errors) {
+            assertEquals("a", error.get(BindingXConstants.KEY_ELEMENT));
+            assertTrue(error.get(BindingXConstants.KEY_MESSAGE) != null);
+        }
+
+        mHandler.consume(3);
+        mHandler.consume(4);
+        assertEquals(1, mCallbacks.size());
+        assertEquals(Arrays.asList("transform.translateY=3.0@0", "transform.translateY=4.0@0"), mUpdates);
+    }
+
+    @Test
+    public void profilesExpressionsWhenAsked() throws Exception {
+        mHandler.bindWith(Collections.<String, Object>singletonMap(BindingXConstants.KEY_PROFILE, true),
+                binding("a", "opacity", "x"), binding("b", "opacity", "x / 0 * 0"), binding("missing", "opacity", "x + 1"));
+        mHandler.consume(1);
+        mHandler.consume(2);
+        mHandler.consume(2);
+
+        Map<String, Map<String, Object>> stats = new HashMap<>();
+        for (Map<String, Object> stat : mHandler.getStats()) {
+            stats.put((String) stat.get(BindingXConstants.KEY_ELEMENT), stat);
+            assertEquals("opacity", stat.get(BindingXConstants.KEY_PROPERTY));
+            assertEquals("test", stat.get(BindingXConstants.KEY_EVENT_TYPE));
+            assertTrue((Double) stat.get("evaluationTime") >= (Double) stat.get("maxEvaluationTime"));
+        }
+        assertEquals(3, stats.size());
+        // the third event does not change x, nothing is evaluated again
+        assertEquals(2L, stats.get("a").get("evaluations"));
+        assertEquals(2L, stats.get("a").get("updates"));
+        assertEquals(0L, stats.get("a").get("skipped"));
+        assertEquals(2L, stats.get("b").get("evaluations"));
+        assertEquals(0L, stats.get("b").get("updates"));
+        assertEquals(2L, stats.get("b").get("skipped"));
+        // there is no view to update
+        assertEquals(0L, stats.get("missing").get("updates"));
+
+        // what the handlers do when they are unbound
+        mHandler.clearExpressions();
+        assertNull(mHandler.getStats());
+    }
+
+    @Test
+    public void noStatsUnlessProfiled() throws Exception {
+        mHandler.bind(binding("a", "opacity", "x"));
+        mHandler.consume(1);
+        assertNull(mHandler.getStats());
+    }
+
+    @Test
+    public void statsAreReadWhileRebinding() throws Exception {
+        final Map<String, Object> options = Collections.<String, Object>singletonMap(BindingXConstants.KEY_PROFILE, true);
+        final AtomicBoolean done = new AtomicBoolean();
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread reader = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    while (!done.get()) {
+                        List<Map<String, Object>> stats = mHandler.getStats();
+                        if (stats != null) {
+                            for (Map<String, Object> stat : stats) {
+                                assertTrue((Long) stat.get("evaluations") >= 0);
+                            }
+                        }
+                    }
+                } catch (Throwable e) {
+                    failure.set(e);
+                }
+            }
+        });
+        reader.start();
+        try {
+            for (int i = 0; i < 200; i++) {
+                mHandler.bindWith(options, binding("a", "opacity", "x"), binding("b" + i, "opacity", "x + 1"));
+                mHandler.consume(i);
+            }
+        } finally {
+            done.set(true);
+            reader.join();
+        }
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+        assertEquals(2, mHandler.getStats().size());
+    }
+
+    private static List<String> sorted(List<String> updates) {
+        List<String> sorted = new ArrayList<>(updates.subList(0, 2));
+        Collections.sort(sorted);
+        List<String> rest = new ArrayList<>(updates.subList(2, updates.size()));
+        Collections.sort(rest);
+        sorted.addAll(rest);
+        return sorted;
+    }
+
+    private static Map<String, Object> binding(String element, String property, String expression) {
+        Map<String, Object> binding = new HashMap<>();
+        binding.put(BindingXConstants.KEY_ELEMENT, element);
+        binding.put(BindingXConstants.KEY_PROPERTY, property);
+        binding.put(BindingXConstants.KEY_EXPRESSION, expression);
+        return binding;
+    }
+
+    private final class TestHandler extends AbstractEventHandler {
+
+        TestHandler(PlatformManager manager) {
+            super(null, manager, "instance");
+        }
+
+        @SafeVarargs
+        final void bind(Map<String, Object>... bindings) {
+            bindWith(null, bindings);
+        }
+
+        @SafeVarargs
+        final void bindWith(Map<String, Object> options, Map<String, Object>... bindings) {
+            onBindExpression("test", options, null, Arrays.asList(bindings), new BindingXCore.JavaScriptCallback() {
+                @Override
+                public void callback(Object params) {
+                    mCallbacks.add(params);
+                }
+            });
+        }
+
+        void consume(double x) throws Exception {
+            mTicks = 0;
+            getExpressionScope().setValue(ExpressionScope.SLOT_X, x);
+            consumeExpression(mExpressionHoldersMap, mScope, "test");
+        }
+
+        @Override
+        protected void onExit(@NonNull Map<String, Object> scope) {
+        }
+
+        @Override
+        protected void onUserIntercept(String interceptorName, @NonNull Map<String, Object> scope) {
+        }
+
+        @Override
+        public boolean onCreate(@NonNull String sourceRef, @NonNull String eventType) {
+            return true;
+        }
+
+        @Override
+        public void onStart(@NonNull String sourceRef, @NonNull String eventType) {
+        }
+
+        @Override
+        public boolean onDisable(@NonNull String sourceRef, @NonNull String eventType) {
+            return true;
+        }
+
+        @Override
+        public void onActivityPause() {
+        }
+
+        @Override
+        public void onActivityResume() {
+        }
+    }
+}
@@ -0,0 +1,194 @@
+/**
+ * Copyright 2018 Alibaba Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.org.yxj.cpm.android.bindingx.core.internal;
+
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static cn.org.yxj.cpm.android.bindingx.core.internal.ExpressionFixtures.binary;
+import static cn.org.yxj.cpm.android.bindingx.core.internal.ExpressionFixtures.bool;
+import static cn.org.yxj.cpm.android.bindingx.core.internal.ExpressionFixtures.call;
+import static cn.org.yxj.cpm.android.bindingx.core.internal.ExpressionFixtures.identifier;
+import static cn.org.yxj.cpm.android.bindingx.core.internal.ExpressionFixtures.node;
+import static cn.org.yxj.cpm.android.bindingx.core.internal.ExpressionFixtures.number;
+import static cn.org.yxj.cpm.android.bindingx.core.internal.ExpressionFixtures.string;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks that {@link ExpressionParser} builds the same tree from the origin expression as
+ * {@link ExpressionCompiler} builds from the transformed expression the js side sends.
+ */
+public class ExpressionParserTest {
+
+    private ExpressionScope mScope;
+
+    @Before
+    public void setUp() {
+        mScope = new ExpressionScope();
+        JSMath.applyToScope(mScope);
+        TimingFunctions.applyToScope(mScope);
+        mScope.setValue(ExpressionScope.SLOT_X, 30.0);
+        mScope.setValue(ExpressionScope.SLOT_Y, 120.0);
+        mScope.setValue(ExpressionScope.SLOT_T, 500.0);
+    }
+
+    @Test
+    public void arithmetic() throws Exception {
+        assertAgree("y*0.5+10",
+                binary("+", binary("*", identifier("y"), number(0.5)), number(10)));
+        assertAgree("(x + y) * (x - y) / 2 % 7",
+                binary("%",
+                        binary("/",
+                                binary("*",
+                                        binary("+", identifier("x"), identifier("y")),
+                                        binary("-", identifier("x"), identifier("y"))),
+                                number(2)),
+                        number(7)));
+        assertAgree("x - y - t",
+                binary("-", binary("-", identifier("x"), identifier("y")), identifier("t")));
+        assertAgree("x ** 2 ** 0.5",
+                binary("**", identifier("x"), binary("**", number(2), number(0.5))));
+        assertAgree("x*y**2",
+                binary("*", identifier("x"), binary("**", identifier("y"), number(2))));
+    }
+
+    @Test
+    public void logicalAndConditional() throws Exception {
+        assertAgree("x >= 0 && y <= 100 || !(t == 3)",
+                binary("||",
+                        binary("&&",
+                                binary(">=", identifier("x"), number(0)),
+                                binary("<=", identifier("y"), number(100))),
+                        node("!", binary("==", identifier("t"), number(3)))));
+        assertAgree("x != y && x !== 1",
+                binary("&&",
+                        binary("!=", identifier("x"), identifier("y")),
+                        binary("!==", identifier("x"), number(1))));
+        assertAgree("x > 10 ? y < 0 ? 1 : 2 : 3",
+                node("?",
+                        binary(">", identifier("x"), number(10)),
+                        node("?", binary("<", identifier("y"), number(0)), number(1), number(2)),
+                        number(3)));
+        assertAgree("x === 30 ? 'a' : \"b\"",
+                node("?", binary("===", identifier("x"), number(30)), string("'a'"), string("\"b\"")));
+        assertAgree("x > 10 == true",
+                binary("==", binary(">", identifier("x"), number(10)), bool(true)));
+    }
+
+    @Test
+    public void calls() throws Exception {
+        assertAgree("x > 10 ? sin(x*PI)*abs(y) + max(x, y, 1) : pow(2, 3)",
+                node("?",
+                        binary(">", identifier("x"), number(10)),
+                        binary("+",
+                                binary("*",
+                                        call("sin", binary("*", identifier("x"), identifier("PI"))),
+                                        call("abs", identifier("y"))),
+                                call("max", identifier("x"), identifier("y"), number(1))),
+                        call("pow", number(2), number(3))));
+        assertAgree("easeOutBounce(t, 0, 100, 1000)",
+                call("easeOutBounce", identifier("t"), number(0), number(100), number(1000)));
+        assertAgree("evaluateColor('#ff0000', '#0000ff', min(1, y/200))",
+                call("evaluateColor", string("'#ff0000'"), string("'#0000ff'"),
+                        call("min", number(1), binary("/", identifier("y"), number(200)))));
+        assertAgree("translate(x, 0)", call("translate", identifier("x"), number(0)));
+        assertAgree("asArray()", call("asArray"));
+    }
+
+    @Test
+    public void unaryOperators() throws Exception {
+        assertEquals(-60.0, evaluate("-x * 2"), 0);
+        assertEquals(-4.0, evaluate("-2 ** 2"), 0);
+        assertEquals(-90.0, evaluate("-(x + 60)"), 0);
+        assertEquals(31.0, evaluate("+x - -1"), 0);
+        assertEquals(0.0, evaluate("!x ? 1 : 0"), 0);
+        assertEquals(1.5e3, evaluate("1.5e3"), 0);
+        assertEquals(0.5, evaluate(".5"), 0);
+    }
+
+    @Test
+    public void malformedExpressionsAreRejected() {
+        String[] malformed = {"", "x +", "min(x", "x ? 1", "x & y", "(x", "x y", "'abc", "x = 1", "1 +* 2", "f(,)"};
+        for (String origin : malformed) {
+            try {
+                ExpressionParser.parse(origin);
+                fail("expected '" + origin + "' to be rejected");
+            } catch (IllegalArgumentException expected) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void originOnlyPairIsCompiled() throws Exception {
+        ExpressionPair pair = ExpressionPair.create("min(y, 100) / 2", null);
+        assertTrue(ExpressionPair.isValid(pair));
+        Expression expression = ExpressionCache.getInstance().get(pair);
+        assertNotNull(expression.getRoot());
+        assertEquals(50.0, expression.executeNumber(mScope), 0);
+
+        assertTrue(!ExpressionPair.isValid(ExpressionPair.create(null, "{}")));
+        assertTrue(!ExpressionPair.isValid(ExpressionPair.create("", null)));
+    }
+
+    @Test
+    public void illegalExpressionsAreNotCached() throws Exception {
+        ExpressionCache cache = ExpressionCache.getInstance();
+        ExpressionPair pair = ExpressionPair.create("x +* 2", null);
+        int size = cache.size();
+        assertNull(Expression.create(pair));
+        assertNull(cache.get(pair));
+        assertEquals(size, cache.size());
+
+        assertNull(Expression.create(ExpressionPair.create(null, "{\"type\":")));
+    }
+
+    @Test
+    public void literalsWithQuotesAreNotShared() throws Exception {
+        // both print as (max x "'a'" "'b'")
+        ExpressionNode one = ExpressionCompiler.compile(call("max", identifier("x"), string("'a'\" \"'b'")));
+        ExpressionNode two = ExpressionCompiler.compile(call("max", identifier("x"), string("'a'"), string("'b'")));
+        assertEquals(one.toString(), two.toString());
+
+        ExpressionOptimizer optimizer = new ExpressionOptimizer(Collections.<String>emptySet());
+        ExpressionNode[] folded = {optimizer.fold(one), optimizer.fold(two), optimizer.fold(two)};
+        for (ExpressionNode node : folded) {
+            optimizer.count(node);
+        }
+        assertTrue(optimizer.share(folded[0]) == folded[0]);
+        assertTrue(optimizer.share(folded[1]) instanceof ExpressionNode.Shared);
+        assertEquals(1, optimizer.getSharedCount());
+    }
+
+    private void assertAgree(String origin, JSONObject transformed) throws Exception {
+        ExpressionNode compiled = ExpressionCompiler.compile(new JSONObject(transformed.toString()));
+        ExpressionNode parsed = ExpressionParser.parse(origin);
+        assertEquals(origin, compiled.toString(), parsed.toString());
+        assertEquals(origin, compiled.getClass(), parsed.getClass());
+        assertEquals(origin, compiled.evaluate(mScope), parsed.evaluate(mScope));
+    }
+
+    private double evaluate(String origin) throws Exception {
+        return ExpressionNode.toNumber(ExpressionParser.parse(origin).evaluate(mScope));
+    }
+}
@@ -0,0 +1,101 @@
+/**
+ * Copyright 2018 Alibaba Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.org.yxj.cpm.android.bindingx.core.internal;
+
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks the bind time validation and the inferred result types of expressions.
+ */
+public class ExpressionValidatorTest {
+
+    private final ExpressionValidator mValidator = new ExpressionValidator(Collections.singleton("custom"));
+
+    @Test
+    public void infersResultTypes() throws Exception {
+        assertEquals(ExpressionType.NUMBER, typeOf("x * 2 + easeOutCubic(t, 0, 100, 1000)"));
+        assertEquals(ExpressionType.NUMBER, typeOf("max(x, y, PI)"));
+        assertEquals(ExpressionType.NUMBER, typeOf("interpolate(y, [0, 100], [0, 1])"));
+        assertEquals(ExpressionType.COLOR, typeOf("rgb(x, y, 0)"));
+        assertEquals(ExpressionType.COLOR, typeOf("evaluateColor('#ff0000', '#0000ff', y / 100)"));
+        assertEquals(ExpressionType.COLOR, typeOf("interpolate(y, [0, 100], ['#ff0000', '#0000ff'])"));
+        assertEquals(ExpressionType.COLOR, typeOf("y > 0 ? rgb(255, 0, 0) : rgba(x, 0, 0, 1)"));
+        assertEquals(ExpressionType.VECTOR, typeOf("translate(x, y)"));
+        assertEquals(ExpressionType.VECTOR, typeOf("[x, y, 0, 0]"));
+        assertEquals(ExpressionType.BOOLEAN, typeOf("x > 100 && y < 0"));
+        assertEquals(ExpressionType.STRING, typeOf("'#ff0000'"));
+        assertEquals(ExpressionType.UNKNOWN, typeOf("y > 0 ? x : rgb(255, 0, 0)"));
+        assertEquals(ExpressionType.UNKNOWN, typeOf("custom(x) + 1 > 0 ? custom(y) : custom(x)"));
+    }
+
+    @Test
+    public void overriddenBuiltinsAreNotChecked() throws Exception {
+        ExpressionValidator validator = new ExpressionValidator(Collections.singleton("sin"));
+        assertEquals(ExpressionType.UNKNOWN, validator.validate(new Expression(ExpressionParser.parse("sin(x, y, 'any')"))));
+    }
+
+    @Test
+    public void rejectsUnknownIdentifiers() throws Exception {
+        assertRejected("x + unknownVariable", "unknown identifier unknownVariable");
+        assertRejected("unknownFunction(x)", "unknown identifier unknownFunction");
+        assertRejected("sin + 1", "sin is a function");
+    }
+
+    @Test
+    public void rejectsWrongArity() throws Exception {
+        assertRejected("sin(x, y)", "sin expects 1 arguments, found 2");
+        assertRejected("cubicBezier(t, 0, 1, 1000, 0.1, 0.2)", "cubicBezier expects 8 arguments");
+        assertRejected("max()", "max expects at least 1 arguments");
+        assertRejected("evaluateColor('#ff0000', '#0000ff')", "evaluateColor expects 3 to 4 arguments");
+        assertRejected("rgb(x, y)", "rgb expects 3 arguments");
+    }
+
+    @Test
+    public void rejectsColorsAndVectorsWhereNumbersAreExpected() throws Exception {
+        assertRejected("rgb(x, y, 0) + 1", "operand of + is a color");
+        assertRejected("sin(translate(x, y))", "argument 1 of sin is a vector");
+        assertRejected("translate(rgb(0, 0, 0), y)", "argument 1 of translate is a color");
+    }
+
+    @Test
+    public void rejectsIllegalExpressions() throws Exception {
+        try {
+            mValidator.validate(new Expression((ExpressionNode) null));
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("expression is illegal", e.getMessage());
+        }
+    }
+
+    private int typeOf(String origin) throws Exception {
+        return mValidator.validate(new Expression(ExpressionParser.parse(origin)));
+    }
+
+    private void assertRejected(String origin, String message) throws Exception {
+        try {
+            typeOf(origin);
+            fail(origin);
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith(message));
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/**
+ * Copyright 2018 Alibaba Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.org.yxj.cpm.android.bindingx.core.internal;
+
+import android.view.View;
+
+import androidx.annotation.NonNull;
+
+import cn.org.yxj.cpm.android.bindingx.core.PlatformManager;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A platform without a ui: one fake view per ref, 1:1 resolution and an updater that only
+ * counts and records what it is asked to apply.
+ */
+final class FakePlatformManager {
+
+    private final Map<String, View> mViews = new HashMap<>();
+    // view -> property -> value applied last, kept per view so that recording does not allocate
+    private final Map<View, Map<String, Object>> mValues = new HashMap<>();
+    private long mUpdateCount;
+
+    private final PlatformManager mManager;
+
+    FakePlatformManager() {
+        mManager = new PlatformManager.Builder()
+                .withViewFinder(new PlatformManager.IViewFinder() {
+                    @Override
+                    public View findViewBy(String ref, Object... extension) {
+                        return viewOf(ref);
+                    }
+                })
+                .withViewUpdater(new PlatformManager.IViewUpdater() {
+                    @Override
+                    public void synchronouslyUpdateViewOnUIThread(@NonNull View targetView, @NonNull String propertyName,
+                                                                  @NonNull Object propertyValue,
+                                                                  @NonNull PlatformManager.IDeviceResolutionTranslator translator,
+                                                                  @NonNull Map<String, Object> config, Object... extension) {
+                        mUpdateCount++;
+                        mValues.get(targetView).put(propertyName, propertyValue);
+                    }
+                })
+                .withDeviceResolutionTranslator(new PlatformManager.IDeviceResolutionTranslator() {
+                    @Override
+                    public double webToNative(double rawSize, Object... extension) {
+                        return rawSize;
+                    }
+
+                    @Override
+                    public double nativeToWeb(double rawSize, Object... extension) {
+                        return rawSize;
+                    }
+                })
+                .build();
+    }
+
+    @NonNull
+    PlatformManager getPlatformManager() {
+        return mManager;
+    }
+
+    /**
+     * @return count of view updates since the platform was created
+     * */
+    long getUpdateCount() {
+        return mUpdateCount;
+    }
+
+    /**
+     * @return value applied last to the property of the view, null if it has never been updated
+     * */
+    Object valueOf(@NonNull String ref, @NonNull String property) {
+        View view = mViews.get(ref);
+        return view == null ? null : mValues.get(view).get(property);
+    }
+
+    /**
+     * @return "ref.property" -> value applied last, for every updated property
+     * */
+    @NonNull
+    Map<String, Object> getValues() {
+        Map<String, Object> values = new HashMap<>();
+        for (Map.Entry<String, View> view : mViews.entrySet()) {
+            for (Map.Entry<String, Object> value : mValues.get(view.getValue()).entrySet()) {
+                values.put(view.getKey() + "." + value.getKey(), value.getValue());
+            }
+        }
+        return values;
+    }
+
+    private View viewOf(String ref) {
+        View view = mViews.get(ref);
+        if (view == null) {
+            view = new View(null);
+            mViews.put(ref, view);
+            mValues.put(view, new HashMap<String, Object>());
+        }
+        return view;
+    }
+}
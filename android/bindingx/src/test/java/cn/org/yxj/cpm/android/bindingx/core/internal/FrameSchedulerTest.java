@@ -0,0 +1,114 @@
+/**
+ * Copyright 2018 Alibaba Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.org.yxj.cpm.android.bindingx.core.internal;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that all running frames share one frame callback and are ticked in one pass.
+ */
+public class FrameSchedulerTest {
+
+    private static final long FRAME_NANOS = 16000000L;
+
+    // times the scheduler has posted its frame callback
+    private int mPosted;
+    private FrameScheduler mScheduler;
+    private final List<String> mTicks = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        mScheduler = new FrameScheduler() {
+            @Override
+            void postFrameCallback() {
+                mPosted++;
+            }
+        };
+    }
+
+    @Test
+    public void framesShareOneCallback() {
+        AnimationFrame a = mScheduler.newAnimationFrame();
+        AnimationFrame b = mScheduler.newAnimationFrame();
+        a.requestAnimationFrame(recorder("a"));
+        b.requestAnimationFrame(recorder("b"));
+        assertEquals(1, mPosted);
+
+        mScheduler.doFrame(FRAME_NANOS);
+        mScheduler.doFrame(2 * FRAME_NANOS);
+        // every frame sees the time of the vsync it is ticked in
+        assertEquals(Arrays.asList("a@16", "b@16", "a@32", "b@32"), mTicks);
+        assertEquals(3, mPosted);
+    }
+
+    @Test
+    public void stopsWhenNoFrameIsRunning() {
+        AnimationFrame a = mScheduler.newAnimationFrame();
+        a.requestAnimationFrame(recorder("a"));
+        mScheduler.doFrame(FRAME_NANOS);
+        a.clear();
+        mScheduler.doFrame(2 * FRAME_NANOS);
+        assertEquals(Arrays.asList("a@16"), mTicks);
+        // posted when requested and after the first frame, not after the idle one
+        assertEquals(2, mPosted);
+
+        a.requestAnimationFrame(recorder("a"));
+        assertEquals(3, mPosted);
+    }
+
+    @Test
+    public void framesClearedInThePassAreNotTicked() {
+        final AnimationFrame a = mScheduler.newAnimationFrame();
+        final AnimationFrame b = mScheduler.newAnimationFrame();
+        a.requestAnimationFrame(new AnimationFrame.Callback() {
+            @Override
+            public void doFrame(long frameTimeNanos) {
+                mTicks.add("a");
+                b.terminate();
+            }
+        });
+        b.requestAnimationFrame(recorder("b"));
+        mScheduler.doFrame(FRAME_NANOS);
+        mScheduler.doFrame(2 * FRAME_NANOS);
+        assertEquals(Arrays.asList("a", "a"), mTicks);
+    }
+
+    @Test
+    public void requestingTwiceTicksOnce() {
+        AnimationFrame a = mScheduler.newAnimationFrame();
+        a.requestAnimationFrame(recorder("a"));
+        a.requestAnimationFrame(recorder("a"));
+        mScheduler.doFrame(FRAME_NANOS);
+        assertEquals(Arrays.asList("a@16"), mTicks);
+        assertEquals(2, mPosted);
+    }
+
+    private AnimationFrame.Callback recorder(final String name) {
+        return new AnimationFrame.Callback() {
+            @Override
+            public void doFrame(long frameTimeNanos) {
+                mTicks.add(name + "@" + frameTimeNanos / 1000000);
+            }
+        };
+    }
+}
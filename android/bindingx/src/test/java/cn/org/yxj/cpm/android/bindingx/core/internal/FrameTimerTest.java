@@ -0,0 +1,155 @@
+/**
+ * Copyright 2018 Alibaba Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.org.yxj.cpm.android.bindingx.core.internal;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks vsync based timing, skipped frame counting and the fixed time step of springs.
+ */
+public class FrameTimerTest {
+
+    private static final long MS = 1000000L;
+    private static final long FRAME_60 = FrameTimer.DEFAULT_FRAME_INTERVAL_NANOS;
+
+    @Test
+    public void elapsedTimeKeepsNanoseconds() {
+        FrameTimer timer = new FrameTimer();
+        assertEquals(0, timer.onFrame(5000 * MS));
+        assertEquals(FRAME_60, timer.onFrame(5000 * MS + FRAME_60));
+        assertEquals(2 * FRAME_60, timer.onFrame(5000 * MS + 2 * FRAME_60));
+        assertEquals(0, timer.getSkippedFrames());
+    }
+
+    @Test
+    public void countsSkippedFrames() {
+        FrameTimer timer = new FrameTimer();
+        timer.onFrame(0);
+        timer.onFrame(FRAME_60);
+        // two frames missing
+        timer.onFrame(4 * FRAME_60);
+        // late, but not a whole frame
+        timer.onFrame(5 * FRAME_60 + 4 * MS);
+        assertEquals(2, timer.getSkippedFrames());
+
+        timer.reset();
+        assertFalse(timer.isStarted());
+        assertEquals(0, timer.getSkippedFrames());
+    }
+
+    @Test
+    public void learnsShorterFrameIntervals() {
+        FrameTimer timer = new FrameTimer();
+        long frame120 = 8333333L;
+        timer.onFrame(0);
+        timer.onFrame(frame120);
+        timer.onFrame(2 * frame120);
+        assertEquals(0, timer.getSkippedFrames());
+        timer.onFrame(5 * frame120);
+        assertEquals(2, timer.getSkippedFrames());
+    }
+
+    @Test
+    public void followsLongerFrameIntervals() {
+        FrameTimer timer = new FrameTimer();
+        long frame120 = 8333333L;
+        long time = 0;
+        timer.onFrame(time);
+        for (int i = 0; i < 20; i++) {
+            time += frame120;
+            timer.onFrame(time);
+        }
+        assertEquals(0, timer.getSkippedFrames());
+
+        // the display drops to 60fps: the first frames look like dropped ones, then the interval follows
+        for (int i = 0; i < 10; i++) {
+            time += FRAME_60;
+            timer.onFrame(time);
+        }
+        int skipped = timer.getSkippedFrames();
+        assertTrue(skipped <= 5);
+        for (int i = 0; i < 100; i++) {
+            time += FRAME_60;
+            timer.onFrame(time);
+        }
+        assertEquals(skipped, timer.getSkippedFrames());
+
+        // an occasional dropped frame still counts
+        time += 3 * FRAME_60;
+        timer.onFrame(time);
+        assertEquals(skipped + 2, timer.getSkippedFrames());
+    }
+
+    @Test
+    public void repeatedTimestampsAreNotFrames() {
+        FrameTimer timer = new FrameTimer();
+        timer.onFrame(0);
+        timer.onFrame(FRAME_60);
+        timer.onFrame(FRAME_60);
+        assertEquals(FRAME_60, timer.getElapsedNanos());
+        timer.onFrame(2 * FRAME_60);
+        assertEquals(0, timer.getSkippedFrames());
+    }
+
+    @Test
+    public void fixedTimestepSpringDoesNotDependOnFrameSpread() {
+        SpringAnimationDriver even = spring();
+        SpringAnimationDriver jittery = spring();
+        long time = 0;
+        even.runAnimationStep(time);
+        jittery.runAnimationStep(time);
+        while (!even.hasFinished() && time < 10000 * MS) {
+            // the jittery spring gets 10ms and 22ms frames, the even one 16ms frames
+            jittery.runAnimationStep(time + 10 * MS);
+            even.runAnimationStep(time + 16 * MS);
+            time += 32 * MS;
+            jittery.runAnimationStep(time);
+            even.runAnimationStep(time);
+            assertEquals(even.getCurrentValue(), jittery.getCurrentValue(), 0);
+            assertEquals(even.hasFinished(), jittery.hasFinished());
+        }
+        assertTrue(even.hasFinished());
+        assertEquals(300, even.getCurrentValue(), 0);
+    }
+
+    @Test
+    public void springCountsSkippedFrames() {
+        SpringAnimationDriver driver = spring();
+        driver.runAnimationStep(0);
+        driver.runAnimationStep(FRAME_60);
+        driver.runAnimationStep(3 * FRAME_60);
+        assertEquals(1, driver.getSkippedFrames());
+    }
+
+    private static SpringAnimationDriver spring() {
+        Map<String, Object> config = new HashMap<>();
+        config.put("stiffness", 120.0);
+        config.put("damping", 12.0);
+        config.put("fromValue", 0.0);
+        config.put("toValue", 300.0);
+        config.put("timestep", 16.0);
+        SpringAnimationDriver driver = new SpringAnimationDriver();
+        driver.onAnimationStart(config);
+        return driver;
+    }
+}
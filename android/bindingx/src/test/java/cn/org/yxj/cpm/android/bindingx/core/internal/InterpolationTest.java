@@ -0,0 +1,126 @@
+/**
+ * Copyright 2018 Alibaba Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.org.yxj.cpm.android.bindingx.core.internal;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the interpolate builtin, compiled with constant stops and called with runtime stops.
+ */
+public class InterpolationTest {
+
+    private ExpressionScope mScope;
+
+    @Before
+    public void setUp() {
+        mScope = new ExpressionScope();
+        JSMath.applyToScope(mScope);
+    }
+
+    @Test
+    public void interpolatesBetweenStops() throws Exception {
+        ExpressionNode node = ExpressionParser.parse("interpolate(y, [0, 100, 300], [1, 0.5, -1])");
+        assertTrue(node instanceof ExpressionNode.Interpolate);
+        assertTrue(node.isNumeric());
+
+        assertEquals(1.0, evaluate(node, 0), 0);
+        assertEquals(0.75, evaluate(node, 50), 1e-12);
+        assertEquals(0.5, evaluate(node, 100), 0);
+        assertEquals(-0.25, evaluate(node, 200), 1e-12);
+        assertEquals(-1.0, evaluate(node, 300), 0);
+    }
+
+    @Test
+    public void matchesChainOfConditionals() throws Exception {
+        ExpressionNode interpolate = ExpressionParser.parse("interpolate(y, [300, 0, 200, 100], [0, 40, 10, 20], 'clamp')");
+        ExpressionNode conditionals = ExpressionParser.parse(
+                "y<0?40:(y<100?40-y/5:(y<200?20-(y-100)/10:(y<300?10-(y-200)/10:0)))");
+        for (int y = -50; y <= 350; y += 7) {
+            assertEquals("y=" + y, evaluate(conditionals, y), evaluate(interpolate, y), 1e-9);
+        }
+    }
+
+    @Test
+    public void extrapolateModes() throws Exception {
+        String stops = "[0, 100], [0, 10]";
+        ExpressionNode clamp = ExpressionParser.parse("interpolate(y, " + stops + ")");
+        ExpressionNode extend = ExpressionParser.parse("interpolate(y, " + stops + ", 'extend')");
+        ExpressionNode identity = ExpressionParser.parse("interpolate(y, " + stops + ", \"identity\")");
+
+        assertEquals(0.0, evaluate(clamp, -50), 0);
+        assertEquals(10.0, evaluate(clamp, 150), 0);
+        assertEquals(-5.0, evaluate(extend, -50), 1e-12);
+        assertEquals(15.0, evaluate(extend, 150), 1e-12);
+        assertEquals(-50.0, evaluate(identity, -50), 0);
+        assertEquals(150.0, evaluate(identity, 150), 0);
+        assertEquals(5.0, evaluate(identity, 50), 1e-12);
+    }
+
+    @Test
+    public void equalInputsMakeAStep() {
+        Interpolation step = Interpolation.create(Arrays.asList(0.0, 50.0, 50.0, 100.0),
+                Arrays.asList(0.0, 0.0, 1.0, 1.0), null);
+        assertEquals(0.0, step.interpolate(49.9), 0);
+        assertEquals(1.0, step.interpolate(50), 0);
+        assertEquals(1.0, step.interpolate(50.1), 0);
+    }
+
+    @Test
+    public void interpolatesColors() throws Exception {
+        ExpressionNode node = ExpressionParser.parse("interpolate(y, [0, 200], ['#ff0000', '#0000ff'])");
+        assertTrue(node instanceof ExpressionNode.Interpolate);
+        assertTrue(!node.isNumeric());
+
+        mScope.setValue(ExpressionScope.SLOT_Y, 100);
+        assertEquals(Colors.argb(255, 128, 0, 128), node.evaluate(mScope));
+        mScope.setValue(ExpressionScope.SLOT_Y, 500);
+        assertEquals(Colors.argb(255, 0, 0, 255), node.evaluate(mScope));
+    }
+
+    @Test
+    public void runtimeStopsFallBackToTheBuiltin() throws Exception {
+        mScope.setValue(ExpressionScope.SLOT_X, 200);
+        ExpressionNode node = ExpressionParser.parse("interpolate(y, [0, x], [0, 1])");
+        assertTrue(node instanceof ExpressionNode.Call);
+        assertEquals(0.25, evaluate(node, 50), 1e-12);
+    }
+
+    @Test
+    public void transformedArraysAreCompiledToo() throws Exception {
+        // what the js side sends for interpolate(y, [0, 100], [-1, 1]), negative numbers as 0 - n
+        String transformed = "{\"type\":\"CallExpression\",\"children\":["
+                + "{\"type\":\"Identifier\",\"value\":\"interpolate\"},"
+                + "{\"type\":\"Arguments\",\"children\":["
+                + "{\"type\":\"Identifier\",\"value\":\"y\"},"
+                + "{\"type\":\"ArrayExpression\",\"children\":[{\"type\":\"NumericLiteral\",\"value\":0},{\"type\":\"NumericLiteral\",\"value\":100}]},"
+                + "{\"type\":\"ArrayExpression\",\"children\":[{\"type\":\"-\",\"children\":[{\"type\":\"NumericLiteral\",\"value\":0},{\"type\":\"NumericLiteral\",\"value\":1}]},{\"type\":\"NumericLiteral\",\"value\":1}]}"
+                + "]}]}";
+        ExpressionNode node = new Expression(transformed).getRoot();
+        assertTrue(node instanceof ExpressionNode.Interpolate);
+        assertEquals(0.0, evaluate(node, 50), 1e-12);
+    }
+
+    private double evaluate(ExpressionNode node, double y) throws Exception {
+        mScope.setValue(ExpressionScope.SLOT_Y, y);
+        return node.evaluateNumber(mScope);
+    }
+}
@@ -0,0 +1,326 @@
+/**
+ * Copyright 2018 Alibaba Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.org.yxj.cpm.android.bindingx.core.internal;
+
+import android.view.ViewConfiguration;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import cn.org.yxj.cpm.android.bindingx.core.BindingXCore;
+import cn.org.yxj.cpm.android.bindingx.core.BindingXEventType;
+import cn.org.yxj.cpm.android.bindingx.core.PlatformManager;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Runs the whole pipeline of one binding (event, scope, expressions, view updates) without a
+ * device: views and updates come from a {@link FakePlatformManager}, frames from a
+ * {@link VirtualAnimationFrame} and events from deterministic generators, one event per frame.
+ *
+ * Same event type, property count and frame count always give the same counts and values.
+ */
+final class PipelineHarness {
+
+    static final String[] EVENT_TYPES = {
+            BindingXEventType.TYPE_SCROLL,
+            BindingXEventType.TYPE_PAN,
+            BindingXEventType.TYPE_ORIENTATION,
+            BindingXEventType.TYPE_TIMING
+    };
+
+    static final String[] PROPERTIES = {
+            "transform.translateX", "transform.translateY", "transform.scale", "transform.rotateZ", "opacity"
+    };
+
+    private static final String SOURCE_REF = "source";
+
+    private final String mEventType;
+    private final int mPropertyCount;
+    private final FakePlatformManager mPlatform = new FakePlatformManager();
+    private final VirtualAnimationFrame mAnimationFrame = new VirtualAnimationFrame();
+    private final AbstractEventHandler mHandler;
+    private final List<Object> mCallbacks = new ArrayList<>();
+
+    private int mFrameIndex;
+
+    /**
+     * @param eventType one of {@link #EVENT_TYPES}
+     * @param propertyCount count of view properties bound to the event
+     * */
+    PipelineHarness(@NonNull String eventType, int propertyCount) {
+        mEventType = eventType;
+        mPropertyCount = propertyCount;
+        PlatformManager manager = mPlatform.getPlatformManager();
+        switch (eventType) {
+            case BindingXEventType.TYPE_SCROLL:
+                mHandler = new HarnessScrollHandler(manager);
+                break;
+            case BindingXEventType.TYPE_PAN:
+                mHandler = new BindingXTouchHandler(null, manager, new ViewConfiguration(), "instance");
+                break;
+            case BindingXEventType.TYPE_ORIENTATION:
+                mHandler = new BindingXOrientationHandler(null, manager, null, "instance");
+                break;
+            case BindingXEventType.TYPE_TIMING:
+                mHandler = new BindingXTimingHandler(null, manager, mAnimationFrame, "instance");
+                break;
+            default:
+                throw new IllegalArgumentException("unsupported event type " + eventType);
+        }
+    }
+
+    /**
+     * binds the properties the same way BindingXCore does: create, start, then bind.
+     * */
+    PipelineHarness bind() {
+        return bind(null);
+    }
+
+    /**
+     * binds the properties with an exit expression and an interceptor whose conditions never hold.
+     * */
+    PipelineHarness bindWithConditions() {
+        String never = (BindingXEventType.TYPE_TIMING.equals(mEventType) ? "t" : "y") + " > 1000000";
+        mHandler.setInterceptors(Collections.singletonMap("never", ExpressionPair.create(never, null)));
+        return bind(ExpressionPair.create(never, null));
+    }
+
+    private PipelineHarness bind(@Nullable ExpressionPair exitExpression) {
+        mHandler.setToken("harness");
+        mHandler.onCreate(SOURCE_REF, mEventType);
+        mHandler.onStart(SOURCE_REF, mEventType);
+        List<Map<String, Object>> bindings = new ArrayList<>(mPropertyCount);
+        for (int i = 0; i < mPropertyCount; i++) {
+            bindings.add(binding(refOf(i), propertyOf(i), expressionOf(mEventType, i)));
+        }
+        mHandler.onBindExpression(mEventType, null, exitExpression, bindings, new BindingXCore.JavaScriptCallback() {
+            @Override
+            public void callback(Object params) {
+                mCallbacks.add(params);
+            }
+        });
+        if (!BindingXEventType.TYPE_TIMING.equals(mEventType)) {
+            // everything but timing is pushed by the platform, once per frame here
+            mAnimationFrame.requestAnimationFrame(new AnimationFrame.Callback() {
+                @Override
+                public void doFrame(long frameTimeNanos) {
+                    dispatchEvent(mFrameIndex);
+                }
+            });
+        }
+        return this;
+    }
+
+    /**
+     * runs the given count of frames, each delivering one synthetic event.
+     * */
+    void runFrames(int count) {
+        for (int i = 0; i < count; i++) {
+            mAnimationFrame.tick();
+            mFrameIndex++;
+        }
+    }
+
+    /**
+     * measures the frames after the warm up ones.
+     * */
+    @NonNull
+    Profile profile(int warmUpFrames, int frames) {
+        runFrames(warmUpFrames);
+        com.sun.management.ThreadMXBean threadBean = allocationBean();
+        long threadId = Thread.currentThread().getId();
+        long evaluations = getEvaluationCount();
+        long updates = getUpdateCount();
+        long allocated = threadBean != null ? threadBean.getThreadAllocatedBytes(threadId) : 0;
+        long start = System.nanoTime();
+        runFrames(frames);
+        long elapsed = System.nanoTime() - start;
+        Profile profile = new Profile();
+        profile.eventType = mEventType;
+        profile.propertyCount = mPropertyCount;
+        profile.frames = frames;
+        profile.nanosPerFrame = (double) elapsed / frames;
+        profile.evaluationsPerFrame = (double) (getEvaluationCount() - evaluations) / frames;
+        profile.updatesPerFrame = (double) (getUpdateCount() - updates) / frames;
+        profile.bytesPerFrame = threadBean != null
+                ? (double) (threadBean.getThreadAllocatedBytes(threadId) - allocated) / frames : -1;
+        return profile;
+    }
+
+    void destroy() {
+        mHandler.onDisable(SOURCE_REF, mEventType);
+        mHandler.onDestroy();
+    }
+
+    long getEvaluationCount() {
+        return mHandler.getEvaluationCount();
+    }
+
+    long getUpdateCount() {
+        return mPlatform.getUpdateCount();
+    }
+
+    long getSuppressedUpdateCount() {
+        return mHandler.getSuppressedUpdateCount();
+    }
+
+    long getCompileCount() {
+        return mHandler.getCompileCount();
+    }
+
+    @NonNull
+    FakePlatformManager getPlatform() {
+        return mPlatform;
+    }
+
+    @NonNull
+    VirtualAnimationFrame getAnimationFrame() {
+        return mAnimationFrame;
+    }
+
+    @NonNull
+    List<Object> getCallbacks() {
+        return mCallbacks;
+    }
+
+    static String refOf(int index) {
+        return "view" + index;
+    }
+
+    static String propertyOf(int index) {
+        return PROPERTIES[index % PROPERTIES.length];
+    }
+
+    /**
+     * @return expression of the property at the index: a bit of arithmetic on the event's
+     * variables, different for every property
+     * */
+    static String expressionOf(@NonNull String eventType, int index) {
+        double factor = (index % 7 + 1) / 10.0;
+        switch (eventType) {
+            case BindingXEventType.TYPE_SCROLL:
+                return "y * " + factor + " + " + index;
+            case BindingXEventType.TYPE_PAN:
+                return "x * " + factor + " - y / 2 + " + index;
+            case BindingXEventType.TYPE_ORIENTATION:
+                return "x * " + factor + " + y + " + index;
+            default:
+                return "easeOutCubic(t, " + index + ", 100, 10000)";
+        }
+    }
+
+    private void dispatchEvent(int frame) {
+        switch (mEventType) {
+            case BindingXEventType.TYPE_SCROLL:
+                // scrolls down 3px per frame, turns around every 120 frames
+                int round = frame / 120;
+                int offset = round % 2 == 0 ? (frame % 120) * 3 : 360 - (frame % 120) * 3;
+                int dy = round % 2 == 0 ? 3 : -3;
+                ((HarnessScrollHandler) mHandler).scroll(0, offset, 0, dy, 0, (frame % 120 + 1) * dy);
+                break;
+            case BindingXEventType.TYPE_PAN:
+                // drags away from the start point along a diagonal
+                ((BindingXTouchHandler) mHandler).handlePanMove(2 * frame, 5 * frame);
+                break;
+            case BindingXEventType.TYPE_ORIENTATION:
+                // turns around slowly, tilting back and forth
+                ((BindingXOrientationHandler) mHandler).onOrientationChanged(frame % 360,
+                        45 + frame % 30, frame % 60 - 30);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            return null;
+        }
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+        if (!threadBean.isThreadAllocatedMemorySupported()) {
+            return null;
+        }
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+        return threadBean;
+    }
+
+    private static Map<String, Object> binding(String element, String property, String expression) {
+        Map<String, Object> binding = new HashMap<>();
+        binding.put(BindingXConstants.KEY_ELEMENT, element);
+        binding.put(BindingXConstants.KEY_PROPERTY, property);
+        binding.put(BindingXConstants.KEY_EXPRESSION, expression);
+        return binding;
+    }
+
+    /**
+     * per frame cost of a binding.
+     * */
+    static final class Profile {
+        String eventType;
+        int propertyCount;
+        int frames;
+        double nanosPerFrame;
+        // -1 if allocations can not be measured on this vm
+        double bytesPerFrame;
+        double evaluationsPerFrame;
+        double updatesPerFrame;
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%-12s %5d properties: %10.0f ns %10.1f bytes %8.1f evaluations %8.1f updates per frame",
+                    eventType, propertyCount, nanosPerFrame, bytesPerFrame, evaluationsPerFrame, updatesPerFrame);
+        }
+    }
+
+    /**
+     * scroll events come from the platform's scroll views, this one takes them from the harness.
+     * */
+    private static final class HarnessScrollHandler extends AbstractScrollEventHandler {
+
+        HarnessScrollHandler(PlatformManager manager) {
+            super(null, manager, "instance");
+        }
+
+        void scroll(int contentOffsetX, int contentOffsetY, int dx, int dy, int tdx, int tdy) {
+            handleScrollEvent(contentOffsetX, contentOffsetY, dx, dy, tdx, tdy);
+        }
+
+        @Override
+        public boolean onCreate(@NonNull String sourceRef, @NonNull String eventType) {
+            return true;
+        }
+
+        @Override
+        public void onStart(@NonNull String sourceRef, @NonNull String eventType) {
+        }
+
+        @Override
+        public void onActivityPause() {
+        }
+
+        @Override
+        public void onActivityResume() {
+        }
+    }
+}
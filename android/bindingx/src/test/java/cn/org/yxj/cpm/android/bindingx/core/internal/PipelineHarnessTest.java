@@ -0,0 +1,133 @@
+/**
+ * Copyright 2018 Alibaba Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.org.yxj.cpm.android.bindingx.core.internal;
+
+import cn.org.yxj.cpm.android.bindingx.core.BindingXEventType;
+
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Drives bindings of every event type through the headless pipeline and reports the per frame
+ * cost for 1, 10, 100 and 1000 bound properties.
+ */
+public class PipelineHarnessTest {
+
+    private static final int[] PROPERTY_COUNTS = {1, 10, 100, 1000};
+
+    @Test
+    public void timingFollowsVirtualClock() {
+        PipelineHarness harness = new PipelineHarness(BindingXEventType.TYPE_TIMING, 3).bind();
+        assertTrue(harness.getAnimationFrame().isRunning());
+
+        harness.runFrames(5);
+        // first frame is t = 0, then one frame interval each
+        double p = 4 * VirtualAnimationFrame.FRAME_INTERVAL_MILLIS / 10000.0 - 1;
+        // easeOutCubic(t, 2, 100, 10000)
+        assertEquals(100 * (p * p * p + 1) + 2,
+                (Double) harness.getPlatform().valueOf("view2", PipelineHarness.propertyOf(2)), 1e-9);
+        assertEquals(15, harness.getEvaluationCount());
+        assertEquals(15, harness.getUpdateCount());
+
+        harness.destroy();
+        assertFalse(harness.getAnimationFrame().isRunning());
+    }
+
+    @Test
+    public void scrollAndPanUpdateEveryPropertyEveryFrame() {
+        for (String type : new String[]{BindingXEventType.TYPE_SCROLL, BindingXEventType.TYPE_PAN}) {
+            PipelineHarness harness = new PipelineHarness(type, 10).bind();
+            harness.runFrames(20);
+            assertEquals(type, 200, harness.getEvaluationCount());
+            assertEquals(type, 200, harness.getUpdateCount());
+            harness.destroy();
+        }
+    }
+
+    @Test
+    public void panAppliesDeltasToScope() {
+        PipelineHarness harness = new PipelineHarness(BindingXEventType.TYPE_PAN, 1).bind();
+        harness.runFrames(4);
+        // x * 0.1 - y / 2 at the last frame (x = 6, y = 15)
+        assertEquals(6 * 0.1 - 15 / 2.0, (Double) harness.getPlatform().valueOf("view0", PipelineHarness.propertyOf(0)), 1e-9);
+    }
+
+    @Test
+    public void everyEvaluationIsAppliedOrSuppressed() {
+        for (String type : PipelineHarness.EVENT_TYPES) {
+            PipelineHarness harness = new PipelineHarness(type, 10).bind();
+            harness.runFrames(200);
+            assertTrue(type, harness.getEvaluationCount() > 0);
+            assertTrue(type, harness.getEvaluationCount() <= 2000);
+            assertEquals(type, harness.getEvaluationCount(), harness.getUpdateCount() + harness.getSuppressedUpdateCount());
+            harness.destroy();
+        }
+    }
+
+    @Test
+    public void framesDoNotCompileExpressions() {
+        for (String type : PipelineHarness.EVENT_TYPES) {
+            PipelineHarness harness = new PipelineHarness(type, 10).bindWithConditions();
+            long compiled = harness.getCompileCount();
+            // the properties, the exit expression and the interceptor
+            assertEquals(type, 12, compiled);
+
+            harness.runFrames(100);
+            assertTrue(type, harness.getEvaluationCount() > 0);
+            assertEquals(type, compiled, harness.getCompileCount());
+            harness.destroy();
+        }
+    }
+
+    @Test
+    public void runsAreDeterministic() {
+        for (String type : PipelineHarness.EVENT_TYPES) {
+            PipelineHarness first = new PipelineHarness(type, 25).bind();
+            PipelineHarness second = new PipelineHarness(type, 25).bind();
+            first.runFrames(300);
+            second.runFrames(300);
+
+            assertEquals(type, first.getEvaluationCount(), second.getEvaluationCount());
+            assertEquals(type, first.getUpdateCount(), second.getUpdateCount());
+            assertEquals(type, first.getSuppressedUpdateCount(), second.getSuppressedUpdateCount());
+            Map<String, Object> values = first.getPlatform().getValues();
+            assertEquals(type, 25, values.size());
+            assertEquals(type, values, second.getPlatform().getValues());
+        }
+    }
+
+    @Test
+    public void frameCostProfiles() {
+        for (String type : PipelineHarness.EVENT_TYPES) {
+            for (int count : PROPERTY_COUNTS) {
+                PipelineHarness harness = new PipelineHarness(type, count).bind();
+                PipelineHarness.Profile profile = harness.profile(100, 200);
+                harness.destroy();
+
+                assertEquals(profile.toString(), 200, profile.frames);
+                assertTrue(profile.toString(), profile.nanosPerFrame > 0);
+                assertTrue(profile.toString(), profile.evaluationsPerFrame > 0);
+                assertTrue(profile.toString(), profile.evaluationsPerFrame <= count);
+                assertTrue(profile.toString(), profile.updatesPerFrame <= profile.evaluationsPerFrame);
+            }
+        }
+    }
+}
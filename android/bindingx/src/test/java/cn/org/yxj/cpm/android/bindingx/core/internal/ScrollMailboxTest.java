@@ -0,0 +1,151 @@
+/**
+ * Copyright 2018 Alibaba Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.org.yxj.cpm.android.bindingx.core.internal;
+
+import androidx.annotation.NonNull;
+
+import cn.org.yxj.cpm.android.bindingx.core.BindingXEventType;
+import cn.org.yxj.cpm.android.bindingx.core.PlatformManager;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that scroll events posted within a frame are consumed once, at the next vsync.
+ */
+public class ScrollMailboxTest {
+
+    private final FakePlatformManager mPlatform = new FakePlatformManager();
+    private final VirtualAnimationFrame mVsync = new VirtualAnimationFrame();
+    private TestScrollHandler mHandler;
+
+    @Before
+    public void setUp() {
+        mHandler = new TestScrollHandler(mPlatform.getPlatformManager());
+        mHandler.onBindExpression(BindingXEventType.TYPE_SCROLL, null, null, Arrays.asList(
+                binding("opacity", "y"),
+                binding("transform.translateX", "dy"),
+                binding("transform.translateY", "tdy")), null);
+    }
+
+    @Test
+    public void coalescesEventsOfOneFrame() {
+        mHandler.scroll(10, 10, 10);
+        mHandler.scroll(20, 10, 20);
+        mHandler.scroll(30, 10, 30);
+        assertNull(mPlatform.valueOf("a", "opacity"));
+        assertTrue(mVsync.isRunning());
+
+        mVsync.tick();
+        // each expression once, with the latest offsets and the deltas added up
+        assertEquals(3, mHandler.getEvaluationCount());
+        assertEquals(30.0, mPlatform.valueOf("a", "opacity"));
+        assertEquals(30.0, mPlatform.valueOf("a", "transform.translateX"));
+        assertEquals(30.0, mPlatform.valueOf("a", "transform.translateY"));
+    }
+
+    @Test
+    public void deltasStartOverAtATurn() {
+        mHandler.scroll(30, 30, 30);
+        mVsync.tick();
+
+        mHandler.scroll(40, 10, 40);
+        // turning point at 40
+        mHandler.scroll(35, -5, -5);
+        mHandler.scroll(30, -5, -10);
+        mVsync.tick();
+        assertEquals(30.0, mPlatform.valueOf("a", "opacity"));
+        assertEquals(-10.0, mPlatform.valueOf("a", "transform.translateX"));
+        assertEquals(-10.0, mPlatform.valueOf("a", "transform.translateY"));
+    }
+
+    @Test
+    public void idleFramesStop() {
+        mHandler.scroll(10, 10, 10);
+        mVsync.tick();
+        long evaluations = mHandler.getEvaluationCount();
+
+        // nothing posted: nothing is consumed and the frame is not requested again
+        assertFalse(mVsync.isRunning());
+        mVsync.tick();
+        assertEquals(evaluations, mHandler.getEvaluationCount());
+
+        mHandler.scroll(20, 10, 20);
+        assertTrue(mVsync.isRunning());
+        mVsync.tick();
+        assertEquals(20.0, mPlatform.valueOf("a", "opacity"));
+    }
+
+    @Test
+    public void disableDropsPendingEvents() {
+        mHandler.scroll(10, 10, 10);
+        mHandler.onDisable("scroller", BindingXEventType.TYPE_SCROLL);
+        mVsync.tick();
+        assertEquals(0, mHandler.getEvaluationCount());
+        assertNull(mPlatform.valueOf("a", "opacity"));
+    }
+
+    private static Map<String, Object> binding(String property, String expression) {
+        Map<String, Object> binding = new HashMap<>();
+        binding.put(BindingXConstants.KEY_ELEMENT, "a");
+        binding.put(BindingXConstants.KEY_PROPERTY, property);
+        binding.put(BindingXConstants.KEY_EXPRESSION, expression);
+        return binding;
+    }
+
+    private final class TestScrollHandler extends AbstractScrollEventHandler {
+
+        TestScrollHandler(PlatformManager manager) {
+            super(null, manager, "instance");
+        }
+
+        // a vertical scroll, as the listeners of the platform report it
+        void scroll(int contentOffsetY, int dy, int tdy) {
+            postScrollEvent(0, contentOffsetY, 0, dy, 0, tdy);
+        }
+
+        @Override
+        AnimationFrame newScrollFrame() {
+            return mVsync;
+        }
+
+        @Override
+        public boolean onCreate(@NonNull String sourceRef, @NonNull String eventType) {
+            return true;
+        }
+
+        @Override
+        public void onStart(@NonNull String sourceRef, @NonNull String eventType) {
+        }
+
+        @Override
+        public void onActivityPause() {
+        }
+
+        @Override
+        public void onActivityResume() {
+        }
+    }
+}
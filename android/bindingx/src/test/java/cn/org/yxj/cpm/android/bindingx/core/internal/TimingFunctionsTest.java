@@ -0,0 +1,116 @@
+/**
+ * Copyright 2018 Alibaba Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.org.yxj.cpm.android.bindingx.core.internal;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the lookup table mode of the easings against the analytic easings.
+ */
+public class TimingFunctionsTest {
+
+    private static final int STEPS = 10007;
+
+    private final Map<String, TimingFunctions.Easing> mEasings = new LinkedHashMap<>();
+
+    @Before
+    public void setUp() {
+        Map<String, Object> scope = new LinkedHashMap<>();
+        TimingFunctions.applyToScope(scope);
+        for (Map.Entry<String, Object> entry : scope.entrySet()) {
+            if (entry.getValue() instanceof TimingFunctions.Easing) {
+                mEasings.put(entry.getKey(), (TimingFunctions.Easing) entry.getValue());
+            }
+        }
+        assertEquals(30, mEasings.size());
+    }
+
+    @After
+    public void tearDown() {
+        EasingLookupTables.setResolution(EasingLookupTables.RESOLUTION_OFF);
+    }
+
+    @Test
+    public void analyticWhenOff() {
+        for (Map.Entry<String, TimingFunctions.Easing> entry : mEasings.entrySet()) {
+            TimingFunctions.Easing easing = entry.getValue();
+            for (int i = 0; i <= 100; i++) {
+                double t = i * 10;
+                assertEquals(entry.getKey(), easing.ease(t, 20, 300, 1000), easing.call(t, 20, 300, 1000), 0);
+            }
+        }
+    }
+
+    @Test
+    public void lookupTablesMatchAnalyticEasings() {
+        EasingLookupTables.setResolution(EasingLookupTables.DEFAULT_RESOLUTION);
+        for (Map.Entry<String, TimingFunctions.Easing> entry : mEasings.entrySet()) {
+            String name = entry.getKey();
+            // the table is normalized, so the begin, change and duration must not matter
+            assertWithin(name, entry.getValue(), 0, 1, 1);
+            assertWithin(name, entry.getValue(), 20, 300, 1000);
+            assertWithin(name, entry.getValue(), 100, -50, 250);
+        }
+    }
+
+    @Test
+    public void endPointsAreExact() {
+        EasingLookupTables.setResolution(64);
+        for (Map.Entry<String, TimingFunctions.Easing> entry : mEasings.entrySet()) {
+            TimingFunctions.Easing easing = entry.getValue();
+            assertEquals(entry.getKey(), easing.ease(0, 20, 300, 1000), easing.call(0, 20, 300, 1000), 0);
+            assertEquals(entry.getKey(), easing.ease(1000, 20, 300, 1000), easing.call(1000, 20, 300, 1000), 0);
+            // the timing handler keeps on evaluating a little past the duration
+            assertEquals(entry.getKey(), easing.ease(1016, 20, 300, 1000), easing.call(1016, 20, 300, 1000), 0);
+        }
+    }
+
+    @Test
+    public void resolutionCanBeChanged() {
+        TimingFunctions.Easing easing = mEasings.get("easeInOutQuad");
+        // on a sample point the result is the (float) sample of the table of that resolution
+        EasingLookupTables.setResolution(1024);
+        assertEquals((float) easing.ease(300 / 1024.0, 0, 1, 1), easing.call(300, 0, 1, 1024), 0);
+        EasingLookupTables.setResolution(4096);
+        assertEquals((float) easing.ease(1201 / 4096.0, 0, 1, 1), easing.call(1201, 0, 1, 4096), 0);
+
+        // too coarse to be interpolated within the tolerated error, computed analytically
+        EasingLookupTables.setResolution(8);
+        assertEquals(easing.ease(37, 0, 1, 1000), easing.call(37, 0, 1, 1000), 0);
+
+        EasingLookupTables.setResolution(1);
+        assertTrue(!EasingLookupTables.isEnabled());
+    }
+
+    private static void assertWithin(String name, TimingFunctions.Easing easing, double b, double c, double d) {
+        double maxError = 0;
+        for (int i = 0; i <= STEPS; i++) {
+            double t = d * i / STEPS;
+            double error = Math.abs(easing.call(t, b, c, d) - easing.ease(t, b, c, d));
+            maxError = Math.max(maxError, error);
+        }
+        // float samples add a little rounding on top of the interpolation error
+        assertTrue(name + " error " + maxError, maxError <= EasingLookupTables.MAX_ERROR * 1.01 * Math.abs(c));
+    }
+}
@@ -0,0 +1,91 @@
+/**
+ * Copyright 2018 Alibaba Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.org.yxj.cpm.android.bindingx.core.internal;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the typed results of translate, scale, matrix and array literals.
+ */
+public class VectorTest {
+
+    private ExpressionScope mScope;
+
+    @Before
+    public void setUp() {
+        mScope = new ExpressionScope();
+        JSMath.applyToScope(mScope);
+        mScope.setValue(ExpressionScope.SLOT_X, 3);
+        mScope.setValue(ExpressionScope.SLOT_Y, 4);
+    }
+
+    @Test
+    public void numericArgumentsArePacked() throws Exception {
+        ExpressionNode translate = ExpressionParser.parse("translate(x * 2, y)");
+        assertTrue(translate instanceof ExpressionNode.Vector);
+        assertEquals(new Vec2(6, 4), translate.evaluate(mScope));
+        assertEquals(new Vec2(3, 4), ExpressionParser.parse("scale(x, y)").evaluate(mScope));
+        assertEquals(new Vec2(3, 4), ExpressionParser.parse("[x, y]").evaluate(mScope));
+        assertEquals(new Vec4(1, 2, 3, 4), ExpressionParser.parse("[1, 2, x, y]").evaluate(mScope));
+
+        Mat3 matrix = (Mat3) ExpressionParser.parse("matrix(1, 0, 0, 1, x, y)").evaluate(mScope);
+        assertEquals(3.0, matrix.get(0, 2), 0);
+        assertEquals(4.0, matrix.get(1, 2), 0);
+        assertEquals(1.0, matrix.get(2, 2), 0);
+        assertEquals(0.0, matrix.get(2, 0), 0);
+    }
+
+    @Test
+    public void vectorsAreLists() throws Exception {
+        List<?> list = (List<?>) ExpressionParser.parse("translate(x, y)").evaluate(mScope);
+        assertEquals(Arrays.asList(3.0, 4.0), list);
+        assertEquals(list, Arrays.asList(3.0, 4.0));
+        assertEquals(Arrays.asList(1.0, 0.0, 0.0, 1.0, 3.0, 4.0),
+                ExpressionParser.parse("matrix(1, 0, 0, 1, x, y)").evaluate(mScope));
+        // equal vectors are the same result, so the view is not updated again
+        assertEquals(new Vec2(3, 4), new Vec2(3, 4));
+        assertTrue(!new Vec2(3, 4).equals(new Vec2(4, 3)));
+    }
+
+    @Test
+    public void otherArgumentsStayAList() throws Exception {
+        ExpressionNode strings = ExpressionParser.parse("['#ff0000', '#0000ff']");
+        assertTrue(strings instanceof ExpressionNode.Call);
+        assertEquals(Arrays.asList("'#ff0000'", "'#0000ff'"), strings.evaluate(mScope));
+        assertEquals(Arrays.asList(1.0, 2.0, 3.0), ExpressionParser.parse("[1, 2, 3]").evaluate(mScope));
+        // the builtins called at runtime pack numbers too
+        assertEquals(new Vec2(3, 4), ExpressionParser.parse("translate(y > 0 ? x : 'a', y)").evaluate(mScope));
+    }
+
+    @Test
+    public void overriddenBuiltinIsCalled() throws Exception {
+        ExpressionNode node = ExpressionParser.parse("translate(x, y)");
+        mScope.put("translate", new JSFunctionInterface() {
+            @Override
+            public Object execute(java.util.ArrayList<Object> arguments) {
+                return 42.0;
+            }
+        });
+        assertEquals(42.0, node.evaluate(mScope));
+    }
+}
@@ -0,0 +1,68 @@
+/**
+ * Copyright 2018 Alibaba Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.org.yxj.cpm.android.bindingx.core.internal;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An {@link AnimationFrame} driven by hand: time only passes, and frames only run, when
+ * {@link #tick()} is called.
+ */
+final class VirtualAnimationFrame extends AnimationFrame {
+
+    static final long FRAME_INTERVAL_MILLIS = 16;
+
+    private long mNowMillis = 1000;
+    private volatile Callback mCallback;
+    private volatile boolean mRunning;
+
+    @Override
+    void clear() {
+        mRunning = false;
+    }
+
+    @Override
+    void terminate() {
+        clear();
+        mCallback = null;
+    }
+
+    @Override
+    void requestAnimationFrame(@NonNull Callback callback) {
+        mCallback = callback;
+        mRunning = true;
+    }
+
+    boolean isRunning() {
+        return mRunning;
+    }
+
+    /**
+     * advances the clock by one frame interval and runs the requested frame, if any.
+     *
+     * @return true if a frame has been run
+     * */
+    boolean tick() {
+        mNowMillis += FRAME_INTERVAL_MILLIS;
+        if (!mRunning || mCallback == null) {
+            return false;
+        }
+        mCallback.doFrame(TimeUnit.MILLISECONDS.toNanos(mNowMillis));
+        return true;
+    }
+}
@@ -0,0 +1,324 @@
+/**
+ * Copyright 2018 Alibaba Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.org.yxj.cpm.android.bindingx.core.internal;
+
+import android.view.View;
+
+import androidx.annotation.NonNull;
+
+import cn.org.yxj.cpm.android.bindingx.core.PlatformManager;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that bindings evaluated on the worker commit the newest results once per vsync.
+ */
+public class WorkerPipelineTest {
+
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    private final List<String> mUpdates = Collections.synchronizedList(new ArrayList<String>());
+    private final Queue<Runnable> mWorkerTasks = new ArrayDeque<>();
+    private final VirtualAnimationFrame mVsync = new VirtualAnimationFrame();
+    // ref -> the view it resolves to, refs not in it resolve to none
+    private final Map<String, View> mViews = Collections.synchronizedMap(new HashMap<String, View>());
+    private PlatformManager mManager;
+
+    @Before
+    public void setUp() {
+        mViews.put("a", new View(null));
+        mViews.put("b", new View(null));
+        mManager = new PlatformManager.Builder()
+                .withViewFinder(new PlatformManager.IViewFinder() {
+                    @Override
+                    public View findViewBy(String ref, Object... extension) {
+                        return mViews.get(ref);
+                    }
+                })
+                .withViewUpdater(new PlatformManager.IViewUpdater() {
+                    @Override
+                    public void synchronouslyUpdateViewOnUIThread(@NonNull View targetView, @NonNull String propertyName,
+                                                                  @NonNull Object propertyValue,
+                                                                  @NonNull PlatformManager.IDeviceResolutionTranslator translator,
+                                                                  @NonNull Map<String, Object> config, Object... extension) {
+                        mUpdates.add(extension[0] + "." + propertyName + "=" + propertyValue);
+                    }
+                })
+                .build();
+    }
+
+    @Test
+    public void commitsOncePerVsync() throws Exception {
+        TestHandler handler = new TestHandler(true);
+        handler.bindWith(workerOptions(false), binding("a", "x * 2"));
+        assertTrue(handler.isEvaluatingOnWorker());
+
+        handler.consume(1, 0);
+        assertEquals(1, mWorkerTasks.size());
+        runWorker();
+        // evaluated, but not applied before the vsync
+        assertEquals(Collections.emptyList(), mUpdates);
+        assertTrue(mVsync.isRunning());
+
+        mVsync.tick();
+        assertEquals(Arrays.asList("a.opacity=2.0"), mUpdates);
+
+        // nothing new: the frame stops
+        mVsync.tick();
+        assertFalse(mVsync.isRunning());
+        assertEquals(1, mUpdates.size());
+    }
+
+    @Test
+    public void appliesTheNewestResult() throws Exception {
+        TestHandler handler = new TestHandler(true);
+        handler.bindWith(workerOptions(false), binding("a", "x"));
+
+        // samples faster than the worker are coalesced
+        handler.consume(1, 0);
+        handler.consume(2, 0);
+        assertEquals(1, mWorkerTasks.size());
+        runWorker();
+        assertEquals(1, handler.getEvaluationCount());
+
+        // results faster than vsync are merged
+        handler.consume(3, 0);
+        runWorker();
+        mVsync.tick();
+        assertEquals(Arrays.asList("a.opacity=3.0"), mUpdates);
+    }
+
+    @Test
+    public void keepsResultsOfEarlierSamples() throws Exception {
+        TestHandler handler = new TestHandler(true);
+        handler.bindWith(workerOptions(false), binding("a", "x"), binding("b", "y"));
+
+        handler.consume(1, 1);
+        runWorker();
+        // only y changes, a is not evaluated again but its first result still has to be applied
+        handler.consume(1, 2);
+        runWorker();
+        mVsync.tick();
+        Collections.sort(mUpdates);
+        assertEquals(Arrays.asList("a.opacity=1.0", "b.opacity=2.0"), mUpdates);
+
+        // same results are suppressed when they are applied
+        mUpdates.clear();
+        handler.consume(1, 2);
+        runWorker();
+        mVsync.tick();
+        assertEquals(Collections.emptyList(), mUpdates);
+    }
+
+    @Test
+    public void appliesToAViewThatAppearsLater() throws Exception {
+        View view = mViews.remove("a");
+        TestHandler handler = new TestHandler(true);
+        handler.bindWith(workerOptions(false), binding("a", "x"));
+        handler.consume(1, 0);
+        runWorker();
+        mVsync.tick();
+        assertEquals(Collections.emptyList(), mUpdates);
+
+        // same inputs, but the result has not reached a view yet
+        mViews.put("a", view);
+        handler.consume(1, 0);
+        runWorker();
+        mVsync.tick();
+        assertEquals(Arrays.asList("a.opacity=1.0"), mUpdates);
+    }
+
+    @Test
+    public void appliesToAReplacedView() throws Exception {
+        TestHandler handler = new TestHandler(true);
+        handler.bindWith(workerOptions(false), binding("a", "x"));
+        handler.consume(1, 0);
+        runWorker();
+        mVsync.tick();
+
+        // same inputs, but the ref resolves to another view, e.g. a recycled cell
+        mViews.put("a", new View(null));
+        handler.consume(1, 0);
+        runWorker();
+        mVsync.tick();
+        assertEquals(Arrays.asList("a.opacity=1.0", "a.opacity=1.0"), mUpdates);
+    }
+
+    @Test
+    public void dropsResultsWhenCleared() throws Exception {
+        TestHandler handler = new TestHandler(true);
+        handler.bindWith(workerOptions(false), binding("a", "x"));
+        handler.consume(1, 0);
+        runWorker();
+
+        // what the handlers do when they are unbound or exit
+        handler.clearExpressions();
+        assertFalse(handler.isEvaluatingOnWorker());
+        mVsync.tick();
+        assertEquals(Collections.emptyList(), mUpdates);
+    }
+
+    @Test
+    public void measuresLatencyInBothModes() throws Exception {
+        TestHandler worker = new TestHandler(true);
+        worker.bindWith(workerOptions(true), binding("a", "x"));
+        worker.consume(1, 0);
+        worker.consume(2, 0);
+        runWorker();
+        mVsync.tick();
+
+        Map<String, Object> latency = worker.getLatencyStats();
+        assertEquals(true, latency.get(BindingXConstants.KEY_EVALUATE_ON_WORKER));
+        assertEquals("test", latency.get(BindingXConstants.KEY_EVENT_TYPE));
+        assertEquals(2L, latency.get("samples"));
+        assertEquals(1L, latency.get("commits"));
+        assertTrue((Double) latency.get("maxLatency") >= (Double) latency.get("latency"));
+
+        TestHandler inPlace = new TestHandler(true);
+        inPlace.bindWith(Collections.<String, Object>singletonMap(BindingXConstants.KEY_PROFILE, true), binding("a", "x"));
+        inPlace.consume(1, 0);
+        inPlace.consume(2, 0);
+        latency = inPlace.getLatencyStats();
+        assertEquals(false, latency.get(BindingXConstants.KEY_EVALUATE_ON_WORKER));
+        assertEquals(2L, latency.get("samples"));
+        assertEquals(2L, latency.get("commits"));
+
+        assertNull(new TestHandler(true).getLatencyStats());
+    }
+
+    @Test
+    public void evaluatesOnTheWorkerThread() throws Exception {
+        TestHandler handler = new TestHandler(false);
+        handler.bindWith(workerOptions(false), binding("a", "x + 1"));
+        handler.consume(41, 0);
+
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!mVsync.isRunning() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertTrue(mVsync.isRunning());
+        mVsync.tick();
+        assertEquals(Arrays.asList("a.opacity=42.0"), mUpdates);
+    }
+
+    private void runWorker() {
+        Runnable task;
+        while ((task = mWorkerTasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    private static Map<String, Object> workerOptions(boolean profile) {
+        Map<String, Object> options = new HashMap<>();
+        options.put(BindingXConstants.KEY_EVALUATE_ON_WORKER, true);
+        options.put(BindingXConstants.KEY_PROFILE, profile);
+        return options;
+    }
+
+    private static Map<String, Object> binding(String element, String expression) {
+        Map<String, Object> binding = new HashMap<>();
+        binding.put(BindingXConstants.KEY_ELEMENT, element);
+        binding.put(BindingXConstants.KEY_PROPERTY, "opacity");
+        binding.put(BindingXConstants.KEY_EXPRESSION, expression);
+        return binding;
+    }
+
+    private final class TestHandler extends AbstractEventHandler {
+
+        // run the worker by hand instead of on its thread
+        private final boolean mManualWorker;
+
+        TestHandler(boolean manualWorker) {
+            super(null, mManager, "instance");
+            mManualWorker = manualWorker;
+        }
+
+        @SafeVarargs
+        final void bindWith(Map<String, Object> options, Map<String, Object>... bindings) {
+            onBindExpression("test", options, null, Arrays.asList(bindings), null);
+        }
+
+        void consume(double x, double y) throws Exception {
+            getExpressionScope().setValue(ExpressionScope.SLOT_X, x);
+            getExpressionScope().setValue(ExpressionScope.SLOT_Y, y);
+            consumeExpression(mExpressionHoldersMap, mScope, "test");
+        }
+
+        @Override
+        Executor getWorkerExecutor() {
+            if (!mManualWorker) {
+                return super.getWorkerExecutor();
+            }
+            return new Executor() {
+                @Override
+                public void execute(@NonNull Runnable command) {
+                    mWorkerTasks.add(command);
+                }
+            };
+        }
+
+        @Override
+        AnimationFrame newCommitFrame() {
+            return mVsync;
+        }
+
+        @Override
+        protected void onExit(@NonNull Map<String, Object> scope) {
+        }
+
+        @Override
+        protected void onUserIntercept(String interceptorName, @NonNull Map<String, Object> scope) {
+        }
+
+        @Override
+        public boolean onCreate(@NonNull String sourceRef, @NonNull String eventType) {
+            return true;
+        }
+
+        @Override
+        public void onStart(@NonNull String sourceRef, @NonNull String eventType) {
+        }
+
+        @Override
+        public boolean onDisable(@NonNull String sourceRef, @NonNull String eventType) {
+            return true;
+        }
+
+        @Override
+        public void onActivityPause() {
+        }
+
+        @Override
+        public void onActivityResume() {
+        }
+    }
+}
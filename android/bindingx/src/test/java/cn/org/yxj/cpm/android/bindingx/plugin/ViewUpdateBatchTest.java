@@ -0,0 +1,165 @@
+/**
+ * Copyright 2018 Alibaba Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.org.yxj.cpm.android.bindingx.plugin;
+
+import android.view.Choreographer;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+
+import cn.org.yxj.cpm.android.bindingx.core.PlatformManager;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the updates recorded off the ui thread are committed once per frame, last write
+ * wins per property of a view.
+ */
+public class ViewUpdateBatchTest {
+
+    private final List<String> mApplied = new ArrayList<>();
+    private final List<Choreographer.FrameCallback> mRequestedFrames = new ArrayList<>();
+    private final PlatformManager.IDeviceResolutionTranslator mTranslator = new PlatformManager.IDeviceResolutionTranslator() {
+        @Override
+        public double webToNative(double value, Object... extension) {
+            return value;
+        }
+
+        @Override
+        public double nativeToWeb(double value, Object... extension) {
+            return value;
+        }
+    };
+    private final Map<String, Object> mConfig = Collections.emptyMap();
+
+    private ViewUpdateBatch<String> mBatch;
+    private View mViewA;
+    private View mViewB;
+    private RecordingUpdater mOpacity;
+    private RecordingUpdater mColor;
+
+    @Before
+    public void setUp() {
+        mBatch = new ViewUpdateBatch<>(new ViewUpdateBatch.FrameRequester() {
+            @Override
+            public void requestFrame(@NonNull Choreographer.FrameCallback callback) {
+                mRequestedFrames.add(callback);
+            }
+        });
+        mViewA = new View(null);
+        mViewB = new View(null);
+        mOpacity = new RecordingUpdater("opacity");
+        mColor = new RecordingUpdater("color");
+    }
+
+    @Test
+    public void lastWriteWinsPerPropertyOfAView() {
+        mBatch.record(mOpacity, "a", mViewA, 0.1, mTranslator, mConfig);
+        mBatch.record(mOpacity, "b", mViewB, 0.2, mTranslator, mConfig);
+        mBatch.recordColor(mColor, "a", mViewA, 0xff0000, mTranslator, mConfig);
+        mBatch.record(mOpacity, "a", mViewA, 0.3, mTranslator, mConfig);
+        mBatch.recordColor(mColor, "a", mViewA, 0x00ff00, mTranslator, mConfig);
+        assertTrue(mApplied.isEmpty());
+
+        tick();
+        assertEquals(Arrays.asList("a.opacity=0.3", "b.opacity=0.2", "a.color=#ff00"), mApplied);
+    }
+
+    @Test
+    public void requestsOneFramePerCommit() {
+        mBatch.record(mOpacity, "a", mViewA, 0.1, mTranslator, mConfig);
+        mBatch.record(mOpacity, "b", mViewB, 0.2, mTranslator, mConfig);
+        assertEquals(1, mRequestedFrames.size());
+
+        tick();
+        assertEquals(2, mApplied.size());
+        assertTrue(mRequestedFrames.isEmpty());
+
+        mBatch.record(mOpacity, "a", mViewA, 0.5, mTranslator, mConfig);
+        assertEquals(1, mRequestedFrames.size());
+        tick();
+        assertEquals("a.opacity=0.5", mApplied.get(2));
+    }
+
+    @Test
+    public void clearDropsTheRecordedUpdates() {
+        mBatch.record(mOpacity, "a", mViewA, 0.1, mTranslator, mConfig);
+        mBatch.clear();
+        tick();
+        assertTrue(mApplied.isEmpty());
+
+        // the batch still schedules frames after it has been cleared
+        mBatch.record(mOpacity, "b", mViewB, 0.2, mTranslator, mConfig);
+        mBatch.clear();
+        mBatch.record(mOpacity, "a", mViewA, 0.3, mTranslator, mConfig);
+        assertEquals(1, mRequestedFrames.size());
+        tick();
+        assertEquals(Collections.singletonList("a.opacity=0.3"), mApplied);
+    }
+
+    @Test
+    public void buffersAreReused() {
+        for (int frame = 0; frame < 6; frame++) {
+            mBatch.record(mOpacity, "a", mViewA, (double) frame, mTranslator, mConfig);
+            mBatch.record(mOpacity, "b", mViewB, (double) frame, mTranslator, mConfig);
+            mBatch.recordColor(mColor, "a", mViewA, frame, mTranslator, mConfig);
+            tick();
+            // the commands of both buffers, no more once both have been used
+            assertEquals(frame == 0 ? 3 : 6, mBatch.getPooledCount());
+        }
+        assertEquals(18, mApplied.size());
+        assertEquals("a.color=#5", mApplied.get(17));
+    }
+
+    private void tick() {
+        List<Choreographer.FrameCallback> frames = new ArrayList<>(mRequestedFrames);
+        mRequestedFrames.clear();
+        for (Choreographer.FrameCallback frame : frames) {
+            frame.doFrame(0);
+        }
+    }
+
+    private final class RecordingUpdater implements ViewUpdateBatch.Updater<String> {
+
+        private final String mProperty;
+
+        RecordingUpdater(String property) {
+            mProperty = property;
+        }
+
+        @Override
+        public void apply(@NonNull String component, @NonNull View targetView, @NonNull Object value,
+                          @NonNull PlatformManager.IDeviceResolutionTranslator translator, @NonNull Map<String, Object> config) {
+            mApplied.add(component + "." + mProperty + "=" + value);
+        }
+
+        @Override
+        public void applyColor(@NonNull String component, @NonNull View targetView, int color,
+                               @NonNull PlatformManager.IDeviceResolutionTranslator translator, @NonNull Map<String, Object> config) {
+            mApplied.add(component + "." + mProperty + "=#" + Integer.toHexString(color));
+        }
+    }
+}